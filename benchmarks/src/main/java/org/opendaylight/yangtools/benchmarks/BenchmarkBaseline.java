@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.benchmarks;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Compares JMH results, as produced by running with <code>-rf json</code>, against a
+ * recorded baseline in the same format. Each benchmark present in both files is
+ * compared on its primary score, and any benchmark which got worse by more than the
+ * specified threshold is reported as a regression, causing a non-zero exit code.
+ *
+ * Usage: <code>BenchmarkBaseline &lt;result.json&gt; &lt;baseline.json&gt; [threshold-percent]</code>
+ *
+ * To record a new baseline, simply copy the result file over the baseline.
+ */
+public final class BenchmarkBaseline {
+    private static final double DEFAULT_THRESHOLD = 10.0;
+
+    private BenchmarkBaseline() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    private static final class Score {
+        final String mode;
+        final double value;
+        final String unit;
+
+        Score(final String mode, final double value, final String unit) {
+            this.mode = mode;
+            this.value = value;
+            this.unit = unit;
+        }
+
+        /**
+         * Return relative change against a baseline, in percent. Positive values
+         * indicate a regression, regardless of benchmark mode.
+         */
+        double regressionAgainst(final Score baseline) {
+            final double change = (value - baseline.value) / baseline.value * 100.0;
+
+            // Throughput modes are better when higher, time-based modes are better when lower
+            return "thrpt".equals(mode) ? -change : change;
+        }
+    }
+
+    private static Map<String, Score> readResults(final File file) throws IOException {
+        final JsonElement root;
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), "UTF-8")) {
+            root = new JsonParser().parse(reader);
+        }
+
+        final Map<String, Score> ret = new LinkedHashMap<>();
+        final JsonArray array = root.getAsJsonArray();
+        for (JsonElement e : array) {
+            final JsonObject result = e.getAsJsonObject();
+            final JsonObject metric = result.getAsJsonObject("primaryMetric");
+
+            ret.put(result.get("benchmark").getAsString(), new Score(result.get("mode").getAsString(),
+                metric.get("score").getAsDouble(), metric.get("scoreUnit").getAsString()));
+        }
+        return ret;
+    }
+
+    public static void main(final String... args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkBaseline <result.json> <baseline.json> [threshold-percent]");
+            System.exit(2);
+        }
+
+        final File resultFile = new File(args[0]);
+        final File baselineFile = new File(args[1]);
+        final double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD;
+
+        if (!baselineFile.isFile()) {
+            System.out.println("No baseline found at " + baselineFile + ", not comparing results from " + resultFile);
+            return;
+        }
+
+        final Map<String, Score> results = readResults(resultFile);
+        final Map<String, Score> baseline = readResults(baselineFile);
+
+        int regressions = 0;
+        for (Entry<String, Score> e : results.entrySet()) {
+            final Score base = baseline.get(e.getKey());
+            if (base == null) {
+                System.out.println(String.format("NEW        %s: %.3f %s", e.getKey(), e.getValue().value, e.getValue().unit));
+                continue;
+            }
+
+            final Score current = e.getValue();
+            if (!base.mode.equals(current.mode) || !base.unit.equals(current.unit)) {
+                System.out.println(String.format("MISMATCH   %s: baseline is %s in %s, result is %s in %s",
+                    e.getKey(), base.mode, base.unit, current.mode, current.unit));
+                continue;
+            }
+
+            final double regression = current.regressionAgainst(base);
+            final String verdict;
+            if (regression > threshold) {
+                verdict = "REGRESSION";
+                regressions++;
+            } else {
+                verdict = "OK        ";
+            }
+
+            System.out.println(String.format("%s %s: %.3f %s (baseline %.3f, %+.1f%%)", verdict, e.getKey(),
+                current.value, current.unit, base.value, regression));
+        }
+
+        if (regressions != 0) {
+            System.out.println(String.format("%s benchmark(s) regressed by more than %.1f%%", regressions, threshold));
+            System.exit(1);
+        }
+    }
+}
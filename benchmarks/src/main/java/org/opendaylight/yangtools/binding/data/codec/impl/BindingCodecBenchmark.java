@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.binding.data.codec.impl;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+import javassist.ClassPool;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.NetworkTopology;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.NetworkTopologyBuilder;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.NodeId;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.TopologyId;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.TpId;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.Topology;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.TopologyBuilder;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.TopologyKey;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.Node;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.NodeBuilder;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.NodeKey;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.node.TerminationPoint;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.node.TerminationPointBuilder;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.node.TerminationPointKey;
+import org.opendaylight.yangtools.binding.data.codec.gen.impl.StreamWriterGenerator;
+import org.opendaylight.yangtools.sal.binding.generator.impl.ModuleInfoBackedContext;
+import org.opendaylight.yangtools.sal.binding.generator.util.BindingRuntimeContext;
+import org.opendaylight.yangtools.sal.binding.generator.util.JavassistUtils;
+import org.opendaylight.yangtools.yang.binding.DataObject;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.opendaylight.yangtools.yang.binding.util.BindingReflections;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmarking of {@link BindingNormalizedNodeCodecRegistry} translation between Binding
+ * DTOs and NormalizedNodes, on a network-topology tree with {@value #NODE_COUNT} nodes,
+ * each having {@value #TP_COUNT} termination points.
+ *
+ * Since {@link BindingNormalizedNodeCodecRegistry#fromNormalizedNode(YangInstanceIdentifier, NormalizedNode)}
+ * produces lazily-populated objects, it is measured both on its own and followed by a full
+ * traversal of the resulting object tree.
+ *
+ * JMH is used for microbenchmarking.
+ *
+ * @see <a href="http://openjdk.java.net/projects/code-tools/jmh/">JMH</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+public class BindingCodecBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 20;
+    private static final int MEASUREMENT_ITERATIONS = 20;
+
+    private static final int NODE_COUNT = 1000;
+    private static final int TP_COUNT = 10;
+
+    private static final InstanceIdentifier<NetworkTopology> TOPOLOGY_PATH = InstanceIdentifier.create(NetworkTopology.class);
+
+    private BindingNormalizedNodeCodecRegistry registry;
+    private NetworkTopology bindingData;
+    private YangInstanceIdentifier domPath;
+    private NormalizedNode<?, ?> domData;
+
+    public static void main(final String... args) throws IOException, RunnerException {
+        Options opt = new OptionsBuilder()
+            .include(".*" + BindingCodecBenchmark.class.getSimpleName() + ".*")
+            .forks(1)
+            .build();
+
+        new Runner(opt).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final ModuleInfoBackedContext ctx = ModuleInfoBackedContext.create();
+        ctx.addModuleInfos(BindingReflections.loadModuleInfos());
+        final SchemaContext schemaContext = ctx.tryToCreateSchemaContext().get();
+
+        registry = new BindingNormalizedNodeCodecRegistry(
+            StreamWriterGenerator.create(JavassistUtils.forClassPool(ClassPool.getDefault())));
+        registry.onBindingRuntimeContextUpdated(BindingRuntimeContext.create(ctx, schemaContext));
+
+        bindingData = createTestData();
+        final Entry<YangInstanceIdentifier, NormalizedNode<?, ?>> entry = registry.toNormalizedNode(TOPOLOGY_PATH, bindingData);
+        domPath = entry.getKey();
+        domData = entry.getValue();
+    }
+
+    @TearDown
+    public void tearDown() {
+        registry = null;
+        bindingData = null;
+        domPath = null;
+        domData = null;
+    }
+
+    private static NetworkTopology createTestData() {
+        final List<Node> nodes = new ArrayList<>(NODE_COUNT);
+        for (int i = 0; i < NODE_COUNT; ++i) {
+            final List<TerminationPoint> tps = new ArrayList<>(TP_COUNT);
+            for (int j = 0; j < TP_COUNT; ++j) {
+                final TpId tpId = new TpId("tp-" + j);
+                tps.add(new TerminationPointBuilder().setKey(new TerminationPointKey(tpId)).setTpId(tpId).build());
+            }
+
+            final NodeId nodeId = new NodeId("node-" + i);
+            nodes.add(new NodeBuilder().setKey(new NodeKey(nodeId)).setNodeId(nodeId).setTerminationPoint(tps).build());
+        }
+
+        final TopologyId topologyId = new TopologyId("benchmark");
+        final Topology topology = new TopologyBuilder().setKey(new TopologyKey(topologyId))
+                .setTopologyId(topologyId).setNode(nodes).build();
+
+        final List<Topology> topologies = new ArrayList<>(1);
+        topologies.add(topology);
+        return new NetworkTopologyBuilder().setTopology(topologies).build();
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    public NormalizedNode<?, ?> toNormalizedNodeBenchmark() {
+        return registry.toNormalizedNode(TOPOLOGY_PATH, bindingData).getValue();
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    public DataObject fromNormalizedNodeBenchmark() {
+        return registry.fromNormalizedNode(domPath, domData).getValue();
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    public int fromNormalizedNodeTraversalBenchmark() {
+        final NetworkTopology data = (NetworkTopology) registry.fromNormalizedNode(domPath, domData).getValue();
+
+        int ret = 0;
+        for (Topology topology : data.getTopology()) {
+            for (Node node : topology.getNode()) {
+                for (TerminationPoint tp : node.getTerminationPoint()) {
+                    ret += tp.getTpId().hashCode();
+                }
+            }
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.impl.tree.BenchmarkModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmarking of {@link YangInstanceIdentifier} construction, hashing and comparison,
+ * using paths to the inner list entries of {@link BenchmarkModel}. Each invocation
+ * processes {@value #PATH_COUNT} paths.
+ *
+ * JMH is used for microbenchmarking.
+ *
+ * @see <a href="http://openjdk.java.net/projects/code-tools/jmh/">JMH</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class YangInstanceIdentifierBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 20;
+    private static final int MEASUREMENT_ITERATIONS = 20;
+
+    private static final int OUTER_LIST_SIZE = 100;
+    private static final int INNER_LIST_SIZE = 10;
+    private static final int PATH_COUNT = OUTER_LIST_SIZE * INNER_LIST_SIZE;
+
+    private YangInstanceIdentifier[] paths;
+    private Map<YangInstanceIdentifier, Integer> pathMap;
+
+    public static void main(final String... args) throws IOException, RunnerException {
+        Options opt = new OptionsBuilder()
+            .include(".*" + YangInstanceIdentifierBenchmark.class.getSimpleName() + ".*")
+            .forks(1)
+            .build();
+
+        new Runner(opt).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        paths = buildPaths();
+        pathMap = new HashMap<>(PATH_COUNT * 2);
+        for (int i = 0; i < paths.length; ++i) {
+            pathMap.put(paths[i], i);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        paths = null;
+        pathMap = null;
+    }
+
+    private static YangInstanceIdentifier[] buildPaths() {
+        final YangInstanceIdentifier[] ret = new YangInstanceIdentifier[PATH_COUNT];
+        int offset = 0;
+        for (int i = 0; i < OUTER_LIST_SIZE; ++i) {
+            for (int j = 0; j < INNER_LIST_SIZE; ++j) {
+                ret[offset++] = YangInstanceIdentifier.builder()
+                        .node(BenchmarkModel.TEST_QNAME)
+                        .node(BenchmarkModel.OUTER_LIST_QNAME)
+                        .nodeWithKey(BenchmarkModel.OUTER_LIST_QNAME, BenchmarkModel.ID_QNAME, i)
+                        .node(BenchmarkModel.INNER_LIST_QNAME)
+                        .nodeWithKey(BenchmarkModel.INNER_LIST_QNAME, BenchmarkModel.NAME_QNAME, j)
+                        .build();
+            }
+        }
+        return ret;
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    public YangInstanceIdentifier[] buildBenchmark() {
+        return buildPaths();
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    public YangInstanceIdentifier nodeBenchmark() {
+        final NodeIdentifier innerList = new NodeIdentifier(BenchmarkModel.INNER_LIST_QNAME);
+
+        YangInstanceIdentifier ret = null;
+        for (int i = 0; i < OUTER_LIST_SIZE; ++i) {
+            final YangInstanceIdentifier outer = BenchmarkModel.OUTER_LIST_PATH.node(
+                new NodeIdentifierWithPredicates(BenchmarkModel.OUTER_LIST_QNAME, BenchmarkModel.ID_QNAME, i)).node(innerList);
+            for (int j = 0; j < INNER_LIST_SIZE; ++j) {
+                ret = outer.node(new NodeIdentifierWithPredicates(BenchmarkModel.INNER_LIST_QNAME, BenchmarkModel.NAME_QNAME, j));
+            }
+        }
+        return ret;
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    public int hashCodeBenchmark() {
+        int ret = 0;
+        for (YangInstanceIdentifier path : paths) {
+            ret += path.hashCode();
+        }
+        return ret;
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    public int buildAndLookupBenchmark() {
+        // Freshly-built paths are equal, but not identical to map keys
+        int ret = 0;
+        for (YangInstanceIdentifier path : buildPaths()) {
+            ret += pathMap.get(path);
+        }
+        return ret;
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    public int containsBenchmark() {
+        int ret = 0;
+        for (YangInstanceIdentifier path : paths) {
+            if (BenchmarkModel.OUTER_LIST_PATH.contains(path)) {
+                ++ret;
+            }
+        }
+        return ret;
+    }
+}
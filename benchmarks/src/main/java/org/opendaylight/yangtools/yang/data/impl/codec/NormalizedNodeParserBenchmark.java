@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.codec;
+
+import com.google.common.base.Optional;
+import com.google.gson.stream.JsonReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.activation.UnsupportedDataTypeException;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import org.opendaylight.yangtools.yang.data.api.CompositeNode;
+import org.opendaylight.yangtools.yang.data.api.Node;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeWriter;
+import org.opendaylight.yangtools.yang.data.codec.gson.JSONNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.codec.gson.JsonParserStream;
+import org.opendaylight.yangtools.yang.data.impl.ImmutableCompositeNode;
+import org.opendaylight.yangtools.yang.data.impl.codec.xml.XMLStreamNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.codec.xml.XmlDocumentUtils;
+import org.opendaylight.yangtools.yang.data.impl.codec.xml.XmlParserStream;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.NormalizedNodeResult;
+import org.opendaylight.yangtools.yang.data.impl.schema.transform.dom.DomUtils;
+import org.opendaylight.yangtools.yang.data.impl.schema.transform.dom.parser.DomToNormalizedNodeParserFactory;
+import org.opendaylight.yangtools.yang.data.impl.tree.BenchmarkModel;
+import org.opendaylight.yangtools.yang.model.api.ContainerSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.w3c.dom.Document;
+import org.xml.sax.SAXException;
+
+/**
+ * Benchmarking of the JSON and XML parsers, and of the legacy {@link XmlDocumentUtils}
+ * translation between XML and {@link CompositeNode}s, on a {@link BenchmarkModel} tree.
+ * Input documents are serialized once during setup, so the numbers reflect the decoding
+ * cost only.
+ *
+ * JMH is used for microbenchmarking.
+ *
+ * @see <a href="http://openjdk.java.net/projects/code-tools/jmh/">JMH</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+public class NormalizedNodeParserBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 20;
+    private static final int MEASUREMENT_ITERATIONS = 20;
+
+    private static final int OUTER_LIST_SIZE = 1000;
+    private static final int INNER_LIST_SIZE = 10;
+
+    private static final ContainerNode TEST_CONTAINER =
+            BenchmarkModel.createTestContainer(OUTER_LIST_SIZE, INNER_LIST_SIZE);
+
+    private SchemaContext schemaContext;
+    private ContainerSchemaNode containerSchema;
+    private DocumentBuilder documentBuilder;
+    private XMLInputFactory inputFactory;
+    private byte[] jsonData;
+    private byte[] xmlData;
+    private Document xmlDocument;
+    private CompositeNode compositeNode;
+
+    public static void main(final String... args) throws IOException, RunnerException {
+        Options opt = new OptionsBuilder()
+            .include(".*" + NormalizedNodeParserBenchmark.class.getSimpleName() + ".*")
+            .forks(1)
+            .build();
+
+        new Runner(opt).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException, XMLStreamException, ParserConfigurationException, SAXException {
+        schemaContext = BenchmarkModel.createTestContext();
+        containerSchema = BenchmarkModel.getTestContainerSchema(schemaContext);
+
+        final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        documentBuilder = factory.newDocumentBuilder();
+        inputFactory = XMLInputFactory.newFactory();
+
+        final ByteArrayOutputStream json = new ByteArrayOutputStream();
+        final Writer writer = new OutputStreamWriter(json, "UTF-8");
+        writer.write('{');
+        NormalizedNodeWriter.forStreamWriter(JSONNormalizedNodeStreamWriter.create(schemaContext, writer)).write(TEST_CONTAINER);
+        writer.write('}');
+        writer.close();
+        jsonData = json.toByteArray();
+
+        final ByteArrayOutputStream xml = new ByteArrayOutputStream();
+        final XMLStreamWriter xmlWriter = XMLOutputFactory.newFactory().createXMLStreamWriter(xml, "UTF-8");
+        NormalizedNodeWriter.forStreamWriter(XMLStreamNormalizedNodeStreamWriter.create(xmlWriter, schemaContext)).write(TEST_CONTAINER);
+        xmlWriter.close();
+        xmlData = xml.toByteArray();
+
+        xmlDocument = documentBuilder.parse(new ByteArrayInputStream(xmlData));
+        compositeNode = toCompositeNode(xmlDocument);
+    }
+
+    @TearDown
+    public void tearDown() {
+        schemaContext = null;
+        containerSchema = null;
+        documentBuilder = null;
+        inputFactory = null;
+        jsonData = null;
+        xmlData = null;
+        xmlDocument = null;
+        compositeNode = null;
+    }
+
+    private CompositeNode toCompositeNode(final Document document) {
+        final List<Node<?>> children = XmlDocumentUtils.toDomNodes(document.getDocumentElement(),
+            Optional.of(containerSchema.getChildNodes()), schemaContext);
+        return ImmutableCompositeNode.create(BenchmarkModel.TEST_QNAME, children);
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    public NormalizedNode<?, ?> parseJsonBenchmark() throws IOException {
+        final NormalizedNodeResult result = new NormalizedNodeResult();
+        final JsonReader reader = new JsonReader(new InputStreamReader(new ByteArrayInputStream(jsonData), "UTF-8"));
+        JsonParserStream.create(ImmutableNormalizedNodeStreamWriter.from(result), schemaContext).parse(reader);
+        return result.getResult();
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    public Document parseXmlDocumentBenchmark() throws IOException, SAXException {
+        return documentBuilder.parse(new ByteArrayInputStream(xmlData));
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    public ContainerNode parseXmlDomBenchmark() {
+        return DomToNormalizedNodeParserFactory.getInstance(DomUtils.defaultValueCodecProvider())
+                .getContainerNodeParser().parse(Collections.singletonList(xmlDocument.getDocumentElement()), containerSchema);
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    public NormalizedNode<?, ?> parseXmlStreamBenchmark() throws IOException, XMLStreamException {
+        final NormalizedNodeResult result = new NormalizedNodeResult();
+        final XMLStreamReader reader = inputFactory.createXMLStreamReader(new ByteArrayInputStream(xmlData));
+        XmlParserStream.create(ImmutableNormalizedNodeStreamWriter.from(result), schemaContext).parse(reader);
+        reader.close();
+        return result.getResult();
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    public CompositeNode xmlDocumentToCompositeNodeBenchmark() {
+        return toCompositeNode(xmlDocument);
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    public Document compositeNodeToXmlDocumentBenchmark() throws UnsupportedDataTypeException {
+        return XmlDocumentUtils.toDocument(compositeNode, schemaContext, containerSchema,
+            XmlDocumentUtils.defaultValueCodecProvider());
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeWriter;
+import org.opendaylight.yangtools.yang.data.codec.gson.JSONCodecFactory;
+import org.opendaylight.yangtools.yang.data.codec.gson.JSONNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.codec.binary.BinaryNormalizedNodeStreamReader;
+import org.opendaylight.yangtools.yang.data.impl.codec.binary.BinaryNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.codec.xml.XMLStreamNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.tree.BenchmarkModel;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmarking of the XML, JSON and binary NormalizedNode stream writers on
+ * a {@link BenchmarkModel} tree. Each iteration serializes the whole tree into
+ * a reused in-memory buffer, so the numbers reflect the encoding cost only.
+ *
+ * JMH is used for microbenchmarking.
+ *
+ * @see <a href="http://openjdk.java.net/projects/code-tools/jmh/">JMH</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+public class NormalizedNodeStreamWriterBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 20;
+    private static final int MEASUREMENT_ITERATIONS = 20;
+
+    private static final int OUTER_LIST_SIZE = 10000;
+    private static final int INNER_LIST_SIZE = 10;
+
+    private static final NormalizedNode<?, ?> TEST_CONTAINER =
+            BenchmarkModel.createTestContainer(OUTER_LIST_SIZE, INNER_LIST_SIZE);
+
+    private final XMLOutputFactory xmlFactory = XMLOutputFactory.newFactory();
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024 * 1024);
+    private SchemaContext schemaContext;
+    private JSONCodecFactory jsonCodecs;
+    private byte[] binaryData;
+
+    public static void main(final String... args) throws IOException, RunnerException {
+        Options opt = new OptionsBuilder()
+            .include(".*" + NormalizedNodeStreamWriterBenchmark.class.getSimpleName() + ".*")
+            .forks(1)
+            .build();
+
+        new Runner(opt).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        schemaContext = BenchmarkModel.createTestContext();
+        jsonCodecs = JSONCodecFactory.getShared(schemaContext);
+
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bos);
+        BinaryNormalizedNodeStreamWriter.create(out).writeNormalizedNode(TEST_CONTAINER);
+        out.flush();
+        binaryData = bos.toByteArray();
+    }
+
+    @TearDown
+    public void tearDown() {
+        schemaContext = null;
+        jsonCodecs = null;
+        binaryData = null;
+    }
+
+    private static void writeNode(final NormalizedNodeStreamWriter streamWriter) throws IOException {
+        NormalizedNodeWriter.forStreamWriter(streamWriter).write(TEST_CONTAINER);
+        streamWriter.flush();
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    public int writeXmlBenchmark() throws IOException, XMLStreamException {
+        buffer.reset();
+        final XMLStreamWriter xmlWriter = xmlFactory.createXMLStreamWriter(buffer, "UTF-8");
+        writeNode(XMLStreamNormalizedNodeStreamWriter.create(xmlWriter, schemaContext));
+        xmlWriter.close();
+        return buffer.size();
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    public int writeJsonBenchmark() throws IOException {
+        buffer.reset();
+        final Writer writer = new OutputStreamWriter(buffer, "UTF-8");
+        writer.write('{');
+        writeNode(JSONNormalizedNodeStreamWriter.create(jsonCodecs, writer, 0));
+        writer.write('}');
+        writer.flush();
+        return buffer.size();
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    public int writeBinaryBenchmark() throws IOException {
+        buffer.reset();
+        final DataOutputStream out = new DataOutputStream(buffer);
+        BinaryNormalizedNodeStreamWriter.create(out).writeNormalizedNode(TEST_CONTAINER);
+        out.flush();
+        return buffer.size();
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS, timeUnit = TimeUnit.MILLISECONDS)
+    public NormalizedNode<?, ?> readBinaryBenchmark() throws IOException {
+        return BinaryNormalizedNodeStreamReader.create(new DataInputStream(new ByteArrayInputStream(binaryData)))
+                .readNormalizedNode();
+    }
+}
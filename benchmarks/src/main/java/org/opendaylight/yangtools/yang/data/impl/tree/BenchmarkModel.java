@@ -5,6 +5,14 @@ import java.util.Collections;
 import java.util.Set;
 import org.opendaylight.yangtools.yang.common.QName;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableContainerNodeBuilder;
+import org.opendaylight.yangtools.yang.model.api.ContainerSchemaNode;
 import org.opendaylight.yangtools.yang.model.api.Module;
 import org.opendaylight.yangtools.yang.model.api.SchemaContext;
 import org.opendaylight.yangtools.yang.parser.impl.YangParserImpl;
@@ -27,6 +35,48 @@ public class BenchmarkModel {
     public static final YangInstanceIdentifier TEST_PATH = YangInstanceIdentifier.of(TEST_QNAME);
     public static final YangInstanceIdentifier OUTER_LIST_PATH = YangInstanceIdentifier.builder(TEST_PATH).node(OUTER_LIST_QNAME).build();
 
+    /**
+     * Create a test container with specified number of outer list entries, each of which
+     * has specified number of inner list entries.
+     *
+     * @param outerListSize Number of outer list entries
+     * @param innerListSize Number of inner list entries in each outer list entry
+     * @return A test container
+     */
+    public static ContainerNode createTestContainer(final int outerListSize, final int innerListSize) {
+        final CollectionNodeBuilder<MapEntryNode, MapNode> outerList = ImmutableNodes.mapNodeBuilder(OUTER_LIST_QNAME);
+
+        for (int i = 0; i < outerListSize; ++i) {
+            final CollectionNodeBuilder<MapEntryNode, MapNode> innerList = ImmutableNodes.mapNodeBuilder(INNER_LIST_QNAME);
+            for (int j = 0; j < innerListSize; ++j) {
+                innerList.withChild(ImmutableNodes.mapEntryBuilder(INNER_LIST_QNAME, NAME_QNAME, j)
+                    .withChild(ImmutableNodes.leafNode(NAME_QNAME, j))
+                    .withChild(ImmutableNodes.leafNode(VALUE_QNAME, "value-" + i + "-" + j))
+                    .build());
+            }
+
+            outerList.withChild(ImmutableNodes.mapEntryBuilder(OUTER_LIST_QNAME, ID_QNAME, i)
+                .withChild(ImmutableNodes.leafNode(ID_QNAME, i))
+                .withChild(innerList.build())
+                .build());
+        }
+
+        return ImmutableContainerNodeBuilder.create()
+                .withNodeIdentifier(new NodeIdentifier(TEST_QNAME))
+                .withChild(outerList.build())
+                .build();
+    }
+
+    /**
+     * Return the schema of the test container.
+     *
+     * @param context Test schema context, as returned by {@link #createTestContext()}
+     * @return Test container schema
+     */
+    public static ContainerSchemaNode getTestContainerSchema(final SchemaContext context) {
+        return (ContainerSchemaNode) context.getDataChildByName(TEST_QNAME);
+    }
+
     public static final InputStream getDatastoreBenchmarkInputStream() {
         return getInputStream(DATASTORE_TEST_YANG);
     }
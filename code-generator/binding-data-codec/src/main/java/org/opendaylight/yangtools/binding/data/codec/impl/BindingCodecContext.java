@@ -67,11 +67,13 @@ final class BindingCodecContext implements CodecContextFactory, Immutable {
     private final Codec<YangInstanceIdentifier, InstanceIdentifier<?>> instanceIdentifierCodec =
             new InstanceIdentifierCodec();
     private final Codec<QName, Class<?>> identityCodec;
+    private final LazyDataObjectGenerator lazyDataObjectGenerator;
     private final BindingRuntimeContext context;
     private final SchemaRootCodecContext root;
 
-    public BindingCodecContext(final BindingRuntimeContext context) {
+    public BindingCodecContext(final BindingRuntimeContext context, final LazyDataObjectGenerator lazyDataObjectGenerator) {
         this.context = Preconditions.checkNotNull(context, "Binding Runtime Context is required.");
+        this.lazyDataObjectGenerator = Preconditions.checkNotNull(lazyDataObjectGenerator);
         this.root = SchemaRootCodecContext.create(this);
         this.identityCodec = new IdentityCodec(context);
     }
@@ -81,6 +83,11 @@ final class BindingCodecContext implements CodecContextFactory, Immutable {
         return context;
     }
 
+    @Override
+    public LazyDataObjectGenerator getLazyDataObjectGenerator() {
+        return lazyDataObjectGenerator;
+    }
+
     Codec<YangInstanceIdentifier, InstanceIdentifier<?>> getInstanceIdentifierCodec() {
         return instanceIdentifierCodec;
     }
@@ -21,11 +21,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import javassist.ClassPool;
+
 import org.opendaylight.yangtools.binding.data.codec.api.BindingNormalizedNodeSerializer;
 import org.opendaylight.yangtools.binding.data.codec.api.BindingNormalizedNodeWriterFactory;
 import org.opendaylight.yangtools.binding.data.codec.gen.impl.DataObjectSerializerGenerator;
 import org.opendaylight.yangtools.concepts.Delegator;
 import org.opendaylight.yangtools.sal.binding.generator.util.BindingRuntimeContext;
+import org.opendaylight.yangtools.sal.binding.generator.util.JavassistUtils;
 import org.opendaylight.yangtools.yang.binding.BindingStreamEventWriter;
 import org.opendaylight.yangtools.yang.binding.DataObject;
 import org.opendaylight.yangtools.yang.binding.DataObjectSerializer;
@@ -51,11 +54,29 @@ public class BindingNormalizedNodeCodecRegistry implements DataObjectSerializerR
     private static final Logger LOG = LoggerFactory.getLogger(BindingNormalizedNodeCodecRegistry.class);
 
     private final DataObjectSerializerGenerator generator;
+    private final LazyDataObjectGenerator lazyDataObjectGenerator;
     private final LoadingCache<Class<? extends DataObject>, DataObjectSerializer> serializers;
     private BindingCodecContext codecContext;
 
+    /**
+     * Create a new registry. Binding objects created from normalized nodes will be generated
+     * in the default {@link ClassPool}.
+     *
+     * @param generator Serializer generator
+     */
     public BindingNormalizedNodeCodecRegistry(final DataObjectSerializerGenerator generator) {
+        this(generator, JavassistUtils.forClassPool(ClassPool.getDefault()));
+    }
+
+    /**
+     * Create a new registry.
+     *
+     * @param generator Serializer generator
+     * @param utils JavassistUtils instance used to generate binding objects created from normalized nodes
+     */
+    public BindingNormalizedNodeCodecRegistry(final DataObjectSerializerGenerator generator, final JavassistUtils utils) {
         this.generator = Preconditions.checkNotNull(generator);
+        this.lazyDataObjectGenerator = new LazyDataObjectGenerator(utils);
         this.serializers = CacheBuilder.newBuilder().weakKeys().build(new GeneratorLoader());
     }
 
@@ -69,7 +90,7 @@ public class BindingNormalizedNodeCodecRegistry implements DataObjectSerializerR
     }
 
     public void onBindingRuntimeContextUpdated(final BindingRuntimeContext context) {
-        codecContext = new BindingCodecContext(context);
+        codecContext = new BindingCodecContext(context, lazyDataObjectGenerator);
         generator.onBindingRuntimeContextUpdated(context);
     }
 
@@ -9,13 +9,14 @@ package org.opendaylight.yangtools.binding.data.codec.impl;
 
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.primitives.Ints;
 import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.lang.reflect.Proxy;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -48,7 +49,6 @@ import org.slf4j.LoggerFactory;
 
 abstract class DataObjectCodecContext<T extends DataNodeContainer> extends DataContainerCodecContext<T> {
     private static final Logger LOG = LoggerFactory.getLogger(DataObjectCodecContext.class);
-    private static final Class<?>[] CONSTRUCTOR_ARGS = new Class[] { InvocationHandler.class };
     private static final Comparator<Method> METHOD_BY_ALPHABET = new Comparator<Method>() {
         @Override
         public int compare(final Method o1, final Method o2) {
@@ -61,7 +61,9 @@ abstract class DataObjectCodecContext<T extends DataNodeContainer> extends DataC
     private final ImmutableSortedMap<Method, NodeContextSupplier> byMethod;
     private final ImmutableMap<Class<?>, DataContainerCodecPrototype<?>> byStreamClass;
     private final ImmutableMap<Class<?>, DataContainerCodecPrototype<?>> byBindingArgClass;
-    private final Constructor<?> proxyConstructor;
+    private final ImmutableList<Method> getterMethods;
+    private final int[] hashCodeAndEqualsIndexes;
+    private final Constructor<?> objectConstructor;
 
     // FIXME: this field seems to be unused
     private final Method augmentationGetter;
@@ -121,12 +123,15 @@ abstract class DataObjectCodecContext<T extends DataNodeContainer> extends DataC
         byBindingArgClassBuilder.putAll(byStreamClass);
         this.byBindingArgClass = ImmutableMap.copyOf(byBindingArgClassBuilder);
 
-        final Class<?> proxyClass = Proxy.getProxyClass(bindingClass().getClassLoader(),  new Class[] { bindingClass() });
-        try {
-            proxyConstructor = proxyClass.getConstructor(CONSTRUCTOR_ARGS);
-        } catch (NoSuchMethodException | SecurityException e) {
-            throw new IllegalStateException("Failed to find constructor");
+        this.getterMethods = LazyDataObjectGenerator.getGetterMethods(bindingClass());
+        final List<Integer> indexes = new ArrayList<>(byMethod.size());
+        for (int i = 0; i < getterMethods.size(); ++i) {
+            if (byMethod.containsKey(getterMethods.get(i))) {
+                indexes.add(i);
+            }
         }
+        this.hashCodeAndEqualsIndexes = Ints.toArray(indexes);
+        this.objectConstructor = factory().getLazyDataObjectGenerator().getConstructor(bindingClass());
     }
 
     @Override
@@ -269,11 +274,24 @@ abstract class DataObjectCodecContext<T extends DataNodeContainer> extends DataC
         return null;
     }
 
+    @SuppressWarnings("rawtypes")
+    final Object getBindingChildValue(final int index, final NormalizedNodeContainer domData) {
+        return getBindingChildValue(getterMethods.get(index), domData);
+    }
+
+    final Method getGetterMethod(final int index) {
+        return getterMethods.get(index);
+    }
+
+    final int[] getHashCodeAndEqualsIndexes() {
+        return hashCodeAndEqualsIndexes;
+    }
+
     protected final DataObject createBindingProxy(final NormalizedNodeContainer<?, ?, ?> node) {
         try {
-            return (DataObject) proxyConstructor.newInstance(new Object[] { new LazyDataObject(this, node) });
+            return (DataObject) objectConstructor.newInstance(this, node);
         } catch (InstantiationException | IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-            throw new IllegalStateException("Failed to construct proxy for " + node, e);
+            throw new IllegalStateException("Failed to construct binding object for " + node, e);
         }
     }
 
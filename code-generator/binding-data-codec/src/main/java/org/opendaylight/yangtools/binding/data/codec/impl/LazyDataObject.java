@@ -11,33 +11,34 @@ import com.google.common.base.Objects.ToStringHelper;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
-import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.lang.reflect.Proxy;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
 import org.opendaylight.yangtools.binding.data.codec.util.AugmentationReader;
 import org.opendaylight.yangtools.yang.binding.Augmentable;
 import org.opendaylight.yangtools.yang.binding.Augmentation;
+import org.opendaylight.yangtools.yang.binding.DataContainer;
+import org.opendaylight.yangtools.yang.binding.DataObject;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-class LazyDataObject implements InvocationHandler, AugmentationReader {
-
+/**
+ * Base class for lazily-decoded binding objects backed by a {@link NormalizedNodeContainer}.
+ * Concrete subclasses are generated at runtime by {@link LazyDataObjectGenerator}, one for
+ * each binding interface. They implement each getter with a dedicated field, which caches
+ * the value decoded on first access via {@link #codecMember(int)}.
+ * <p>
+ * This class is public only so that generated classes, which live in the binding class'
+ * package, can extend it. It is not meant to be used by user code.
+ */
+public abstract class LazyDataObject implements DataObject, AugmentationReader {
     private static final Logger LOG = LoggerFactory.getLogger(LazyDataObject.class);
-    private static final String GET_IMPLEMENTED_INTERFACE = "getImplementedInterface";
-    private static final String TO_STRING = "toString";
-    private static final String EQUALS = "equals";
-    private static final String GET_AUGMENTATION = "getAugmentation";
-    private static final String HASHCODE = "hashCode";
     private static final Object NULL_VALUE = new Object();
 
-    private final ConcurrentHashMap<Method, Object> cachedData = new ConcurrentHashMap<>();
     private final NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>> data;
     private final DataObjectCodecContext<?> context;
 
@@ -45,85 +46,70 @@ class LazyDataObject implements InvocationHandler, AugmentationReader {
     private volatile Integer cachedHashcode = null;
 
     @SuppressWarnings({ "rawtypes", "unchecked" })
-    LazyDataObject(final DataObjectCodecContext<?> ctx, final NormalizedNodeContainer data) {
+    protected LazyDataObject(final DataObjectCodecContext<?> ctx, final NormalizedNodeContainer data) {
         this.context = Preconditions.checkNotNull(ctx, "Context must not be null");
         this.data = Preconditions.checkNotNull(data, "Data must not be null");
     }
 
-    @Override
-    public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
-        if (method.getParameterTypes().length == 0) {
-            String name = method.getName();
-            if (GET_IMPLEMENTED_INTERFACE.equals(name)) {
-                return context.bindingClass();
-            } else if (TO_STRING.equals(name)) {
-                return bindingToString();
-            } else if (HASHCODE.equals(name)) {
-                return bindingHashCode();
-            }
-            return getBindingData(method);
-        } else if (GET_AUGMENTATION.equals(method.getName())) {
-            return getAugmentationImpl((Class<?>) args[0]);
-        } else if (EQUALS.equals(method.getName())) {
-            return bindingEquals(args[0]);
-        }
-        throw new UnsupportedOperationException("Unsupported method " + method);
+    /**
+     * Decode the value of a getter. Generated getters call this method at most
+     * once (modulo races) and store the result in their field.
+     *
+     * @param index Getter index, as assigned by {@link LazyDataObjectGenerator#getGetterMethods(Class)}
+     * @return Decoded value, or a non-null marker if the value is not present
+     */
+    protected final Object codecMember(final int index) {
+        final Object value = context.getBindingChildValue(index, data);
+        return value == null ? NULL_VALUE : value;
     }
 
-    private boolean bindingEquals(final Object other) {
-        if (other == null) {
-            return false;
-        }
-        if (!context.bindingClass().isAssignableFrom(other.getClass())) {
-            return false;
-        }
-        try {
-            for (Method m : context.getHashCodeAndEqualsMethods()) {
-                Object thisValue = getBindingData(m);
-                Object otherValue = m.invoke(other);
-                if(!Objects.equals(thisValue, otherValue)) {
-                    return false;
-                }
-            }
-        } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-            LOG.warn("Can not determine equality of {} and {}", this, other, e);
-            return false;
-        }
-        return true;
+    /**
+     * Translate a value returned by {@link #codecMember(int)} to its user-visible
+     * value.
+     *
+     * @param value Value returned by {@link #codecMember(int)}
+     * @return Value which should be returned from the getter
+     */
+    protected static final Object unmask(final Object value) {
+        return value == NULL_VALUE ? null : value;
     }
 
-    private Integer bindingHashCode() {
-        Integer ret = cachedHashcode;
-        if (ret != null) {
-            return ret;
-        }
+    /**
+     * Return the value of a getter, as returned by the getter itself. This method
+     * is implemented by generated classes.
+     *
+     * @param index Getter index, as assigned by {@link LazyDataObjectGenerator#getGetterMethods(Class)}
+     * @return Getter value
+     */
+    protected abstract Object codecValue(int index);
 
-        final int prime = 31;
-        int result = 1;
-        for (Method m : context.getHashCodeAndEqualsMethods()) {
-            Object value = getBindingData(m);
-            result += prime * result + ((value == null) ? 0 : value.hashCode());
-        }
-        if (Augmentation.class.isAssignableFrom(context.bindingClass())) {
-            result += prime * result + (getAugmentations(this).hashCode());
-        }
-        cachedHashcode = result;
-        return result;
+    @Override
+    @SuppressWarnings("unchecked")
+    public final Class<? extends DataContainer> getImplementedInterface() {
+        return (Class<? extends DataContainer>) context.bindingClass();
     }
 
-    private Object getBindingData(final Method method) {
-        Object cached = cachedData.get(method);
-        if (cached == null) {
-            Object readedValue = context.getBindingChildValue(method, data);
-            if (readedValue == null) {
-                cached = NULL_VALUE;
-            } else {
-                cached = readedValue;
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public final Augmentation getAugmentation(final Class augmentationType) {
+        final ImmutableMap<Class<? extends Augmentation<?>>, Augmentation<?>> aug = cachedAugmentations;
+        if (aug != null) {
+            return aug.get(augmentationType);
+        }
+        Preconditions.checkNotNull(augmentationType, "Supplied augmentation must not be null.");
+        final Optional<DataContainerCodecContext<?>> augCtx = context.getPossibleStreamChild(augmentationType);
+        if (augCtx.isPresent()) {
+            final Optional<NormalizedNode<?, ?>> augData = data.getChild(augCtx.get().getDomPathArgument());
+            if (augData.isPresent()) {
+                return (Augmentation) augCtx.get().dataFromNormalizedNode(augData.get());
             }
-            cachedData.putIfAbsent(method, cached);
         }
+        return null;
+    }
 
-        return cached == NULL_VALUE ? null : cached;
+    @Override
+    public final Map<Class<? extends Augmentation<?>>, Augmentation<?>> getAugmentations(final Object obj) {
+        Preconditions.checkArgument(this == obj, "Supplied object is not associated with this object");
+        return getAugmentationsImpl();
     }
 
     private Map<Class<? extends Augmentation<?>>, Augmentation<?>> getAugmentationsImpl() {
@@ -142,76 +128,72 @@ class LazyDataObject implements InvocationHandler, AugmentationReader {
     }
 
     @Override
-    public Map<Class<? extends Augmentation<?>>, Augmentation<?>> getAugmentations(final Object obj) {
-        Preconditions.checkArgument(this == Proxy.getInvocationHandler(obj),
-                "Supplied object is not associated with this proxy handler");
-
-        return getAugmentationsImpl();
-    }
-
-    private Object getAugmentationImpl(final Class<?> cls) {
-        final ImmutableMap<Class<? extends Augmentation<?>>, Augmentation<?>> aug = cachedAugmentations;
-        if (aug != null) {
-            return aug.get(cls);
+    public final boolean equals(final Object other) {
+        if (this == other) {
+            return true;
         }
-        Preconditions.checkNotNull(cls,"Supplied augmentation must not be null.");
-        final Optional<DataContainerCodecContext<?>> augCtx= context.getPossibleStreamChild(cls);
-        if(augCtx.isPresent()) {
-            final Optional<NormalizedNode<?, ?>> augData = data.getChild(augCtx.get().getDomPathArgument());
-            if (augData.isPresent()) {
-                return augCtx.get().dataFromNormalizedNode(augData.get());
-            }
+        if (other == null) {
+            return false;
+        }
+        if (!context.bindingClass().isAssignableFrom(other.getClass())) {
+            return false;
         }
-        return null;
-    }
-
-    public String bindingToString() {
-        ToStringHelper helper = com.google.common.base.Objects.toStringHelper(context.bindingClass()).omitNullValues();
 
-        for (Method m :context.getHashCodeAndEqualsMethods()) {
-            helper.add(m.getName(), getBindingData(m));
+        if (other instanceof LazyDataObject && context == ((LazyDataObject) other).context) {
+            // Same implementation, we can compare field values directly
+            final LazyDataObject lazy = (LazyDataObject) other;
+            for (int i : context.getHashCodeAndEqualsIndexes()) {
+                if (!Objects.equals(codecValue(i), lazy.codecValue(i))) {
+                    return false;
+                }
+            }
+            return true;
         }
-        if (Augmentable.class.isAssignableFrom(context.bindingClass())) {
-            helper.add("augmentations", getAugmentationsImpl());
+
+        try {
+            for (int i : context.getHashCodeAndEqualsIndexes()) {
+                final Method m = context.getGetterMethod(i);
+                if (!Objects.equals(codecValue(i), m.invoke(other))) {
+                    return false;
+                }
+            }
+        } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
+            LOG.warn("Can not determine equality of {} and {}", this, other, e);
+            return false;
         }
-        return helper.toString();
+        return true;
     }
 
     @Override
-    public int hashCode() {
+    public final int hashCode() {
+        Integer ret = cachedHashcode;
+        if (ret != null) {
+            return ret;
+        }
+
         final int prime = 31;
         int result = 1;
-        result = prime * result + context.hashCode();
-        result = prime * result + data.hashCode();
+        for (int i : context.getHashCodeAndEqualsIndexes()) {
+            final Object value = codecValue(i);
+            result += prime * result + ((value == null) ? 0 : value.hashCode());
+        }
+        if (Augmentation.class.isAssignableFrom(context.bindingClass())) {
+            result += prime * result + (getAugmentationsImpl().hashCode());
+        }
+        cachedHashcode = result;
         return result;
     }
 
     @Override
-    public boolean equals(final Object obj) {
-        if (this == obj) {
-            return true;
-        }
-        if (obj == null) {
-            return false;
-        }
-        if (getClass() != obj.getClass()) {
-            return false;
-        }
-        LazyDataObject other = (LazyDataObject) obj;
-        if (context == null) {
-            if (other.context != null) {
-                return false;
-            }
-        } else if (!context.equals(other.context)) {
-            return false;
+    public final String toString() {
+        final ToStringHelper helper = com.google.common.base.Objects.toStringHelper(context.bindingClass()).omitNullValues();
+
+        for (int i : context.getHashCodeAndEqualsIndexes()) {
+            helper.add(context.getGetterMethod(i).getName(), codecValue(i));
         }
-        if (data == null) {
-            if (other.data != null) {
-                return false;
-            }
-        } else if (!data.equals(other.data)) {
-            return false;
+        if (Augmentable.class.isAssignableFrom(context.bindingClass())) {
+            helper.add("augmentations", getAugmentationsImpl());
         }
-        return true;
+        return helper.toString();
     }
 }
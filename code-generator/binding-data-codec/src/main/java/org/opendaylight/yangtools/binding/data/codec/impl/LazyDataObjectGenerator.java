@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.binding.data.codec.impl;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import javassist.CannotCompileException;
+import javassist.CtClass;
+import javassist.CtConstructor;
+import javassist.CtField;
+import javassist.CtMethod;
+import javassist.Modifier;
+import org.opendaylight.yangtools.sal.binding.generator.util.ClassGenerator;
+import org.opendaylight.yangtools.sal.binding.generator.util.JavassistUtils;
+import org.opendaylight.yangtools.util.ClassLoaderUtils;
+import org.opendaylight.yangtools.yang.binding.DataContainer;
+import org.opendaylight.yangtools.yang.binding.util.BindingReflections;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Generator of {@link LazyDataObject} subclasses. For each binding interface it defines
+ * a class which implements every getter with a dedicated field holding the lazily-decoded
+ * value. This replaces a {@link java.lang.reflect.Proxy}
+ * dispatching through an {@link java.lang.reflect.InvocationHandler}, so getters are plain
+ * virtual calls and objects do not need a per-instance value map.
+ * <p>
+ * Getters are assigned indexes by sorting them by name, so the assignment depends only on
+ * the binding interface, see {@link #getGetterMethods(Class)}.
+ * <p>
+ * Generated classes refer to both the binding interface and codec internals, such as
+ * {@link DataObjectCodecContext}. Under OSGi the interface's class loader cannot see the
+ * latter, hence the classes are defined in a {@link CodecClassLoader}, which delegates to
+ * the interface's class loader and falls back to the codec's.
+ * <p>
+ * The fields backing the getters are not final. They are {@code volatile} and filled in
+ * by the getter on first access, so members which are never read are never decoded. Two
+ * threads racing on the first access may both decode the member, which is harmless, as
+ * decoding is idempotent and the object is otherwise immutable.
+ */
+final class LazyDataObjectGenerator {
+    private static final Logger LOG = LoggerFactory.getLogger(LazyDataObjectGenerator.class);
+    private static final String IMPLEMENTATION_SUFFIX = "$LazyDataObject";
+    private static final String CODEC_VALUE_METHOD_NAME = "codecValue";
+    private static final String GET_IMPLEMENTED_INTERFACE = "getImplementedInterface";
+    private static final String MEMBER_METHOD_PREFIX = "member$";
+
+    /**
+     * Class loader which sees the classes of a binding class loader as well as the codec
+     * classes. Classes generated for that binding class loader are defined here.
+     */
+    private static final class CodecClassLoader extends ClassLoader {
+        private final ClassLoader codecLoader = LazyDataObject.class.getClassLoader();
+
+        CodecClassLoader(final ClassLoader bindingLoader) {
+            super(bindingLoader);
+        }
+
+        @Override
+        protected Class<?> findClass(final String name) throws ClassNotFoundException {
+            // Invoked only when the binding class loader does not know the class
+            return codecLoader.loadClass(name);
+        }
+    }
+
+    private static final CacheLoader<ClassLoader, CodecClassLoader> LOADER_FACTORY = new CacheLoader<ClassLoader, CodecClassLoader>() {
+        @Override
+        public CodecClassLoader load(final ClassLoader key) {
+            return new CodecClassLoader(key);
+        }
+    };
+
+    /*
+     * Generated classes keep their defining loader alive, hence the value can be weak. Holding
+     * it strongly would keep the binding class loader alive through the loader's parent.
+     */
+    private final LoadingCache<ClassLoader, CodecClassLoader> loaders =
+            CacheBuilder.newBuilder().weakKeys().weakValues().build(LOADER_FACTORY);
+    private final LoadingCache<Class<?>, Constructor<?>> constructors;
+    private final JavassistUtils javassist;
+
+    LazyDataObjectGenerator(final JavassistUtils utils) {
+        this.javassist = Preconditions.checkNotNull(utils, "JavassistUtils instance is required.");
+        javassist.appendClassLoaderIfMissing(LazyDataObject.class.getClassLoader());
+        /*
+         * A constructor keeps the binding interface alive through the generated class, its loader
+         * and the binding class loader, hence it has to be weak as well. Users of the generator hold
+         * on to the constructors they use.
+         */
+        this.constructors = CacheBuilder.newBuilder().weakKeys().weakValues().build(new ImplementationLoader());
+    }
+
+    /**
+     * Return the constructor of the implementation class for a binding interface. The
+     * constructor takes a {@link DataObjectCodecContext} and a {@link NormalizedNodeContainer}.
+     *
+     * @param type Binding interface
+     * @return Implementation constructor
+     */
+    Constructor<?> getConstructor(final Class<?> type) {
+        return constructors.getUnchecked(type);
+    }
+
+    /**
+     * Return the getters implemented by generated classes, in index order. There is
+     * exactly one method for each getter name: the one with the most specific return type.
+     *
+     * @param type Binding interface
+     * @return Getter methods indexed by their position
+     */
+    static ImmutableList<Method> getGetterMethods(final Class<?> type) {
+        final Map<String, Method> byName = new TreeMap<>();
+        for (Method m : type.getMethods()) {
+            if (isGetter(m) && !byName.containsKey(m.getName())) {
+                try {
+                    byName.put(m.getName(), type.getMethod(m.getName()));
+                } catch (NoSuchMethodException e) {
+                    throw new IllegalStateException("Failed to look up getter " + m, e);
+                }
+            }
+        }
+        return ImmutableList.copyOf(byName.values());
+    }
+
+    private static boolean isGetter(final Method m) {
+        return m.getDeclaringClass().isInterface() && m.getParameterTypes().length == 0
+                && !java.lang.reflect.Modifier.isStatic(m.getModifiers()) && !GET_IMPLEMENTED_INTERFACE.equals(m.getName());
+    }
+
+    private final class ImplementationLoader extends CacheLoader<Class<?>, Constructor<?>> {
+        @Override
+        public Constructor<?> load(final Class<?> type) throws Exception {
+            Preconditions.checkArgument(BindingReflections.isBindingClass(type));
+            Preconditions.checkArgument(DataContainer.class.isAssignableFrom(type), "DataContainer is not assingnable from %s from classloader %s.", type, type.getClassLoader());
+
+            final String implementationName = type.getName() + IMPLEMENTATION_SUFFIX;
+            final ClassLoader loader = loaders.getUnchecked(type.getClassLoader());
+
+            Class<?> cls;
+            try {
+                cls = ClassLoaderUtils.loadClass(loader, implementationName);
+            } catch (ClassNotFoundException e) {
+                cls = generateImplementation(type, implementationName, loader);
+            }
+
+            LOG.debug("Loaded implementation {} for class {}", cls, type);
+            return cls.getConstructor(DataObjectCodecContext.class, NormalizedNodeContainer.class);
+        }
+    }
+
+    private Class<?> generateImplementation(final Class<?> type, final String implementationName,
+            final ClassLoader loader) throws CannotCompileException {
+        javassist.appendClassLoaderIfMissing(type.getClassLoader());
+
+        final List<Method> getters = getGetterMethods(type);
+        final Map<String, Collection<Class<?>>> returnTypes = new HashMap<>();
+        for (Method m : type.getMethods()) {
+            if (isGetter(m)) {
+                Collection<Class<?>> types = returnTypes.get(m.getName());
+                if (types == null) {
+                    types = new ArrayList<>(1);
+                    returnTypes.put(m.getName(), types);
+                }
+                if (!types.contains(m.getReturnType())) {
+                    types.add(m.getReturnType());
+                }
+            }
+        }
+
+        final CtClass product;
+        synchronized (javassist) {
+            product = javassist.createClass(implementationName, javassist.asCtClass(type), new ClassGenerator() {
+                @Override
+                public void process(final CtClass cls) throws CannotCompileException {
+                    cls.setSuperclass(javassist.asCtClass(LazyDataObject.class));
+                    cls.setModifiers(Modifier.PUBLIC | Modifier.FINAL);
+
+                    final CtConstructor ctor = new CtConstructor(new CtClass[] {
+                            javassist.asCtClass(DataObjectCodecContext.class),
+                            javassist.asCtClass(NormalizedNodeContainer.class) }, cls);
+                    ctor.setModifiers(Modifier.PUBLIC);
+                    ctor.setBody("{ super($1, $2); }");
+                    cls.addConstructor(ctor);
+
+                    final StringBuilder codecValue = new StringBuilder("{\nswitch ($1) {\n");
+                    for (int i = 0; i < getters.size(); ++i) {
+                        final String name = getters.get(i).getName();
+
+                        final CtField field = new CtField(javassist.asCtClass(Object.class), name, cls);
+                        field.setModifiers(Modifier.PRIVATE | Modifier.VOLATILE);
+                        cls.addField(field);
+
+                        // Loads and caches the masked value
+                        final String member = MEMBER_METHOD_PREFIX + i;
+                        final CtMethod memberMethod = new CtMethod(javassist.asCtClass(Object.class), member, new CtClass[0], cls);
+                        memberMethod.setModifiers(Modifier.PRIVATE | Modifier.FINAL);
+                        memberMethod.setBody(memberBody(name, i));
+                        cls.addMethod(memberMethod);
+
+                        /*
+                         * Interfaces may declare the same getter with different return types, for example
+                         * Identifiable.getKey() and its covariant override. We need to emit a method for
+                         * each of them, as we do not get bridge methods for free.
+                         */
+                        for (Class<?> returnType : returnTypes.get(name)) {
+                            final CtMethod getter = new CtMethod(javassist.asCtClass(returnType), name, new CtClass[0], cls);
+                            getter.setModifiers(Modifier.PUBLIC | Modifier.FINAL);
+                            getter.setBody("return ($r) unmask(" + member + "());");
+                            cls.addMethod(getter);
+                        }
+
+                        codecValue.append("case ").append(i).append(": return unmask(").append(member).append("());\n");
+                    }
+                    codecValue.append("default: throw new IllegalArgumentException(\"Invalid index \" + $1);\n}\n}");
+
+                    final CtMethod codecValueMethod = new CtMethod(javassist.asCtClass(Object.class), CODEC_VALUE_METHOD_NAME,
+                        new CtClass[] { CtClass.intType }, cls);
+                    codecValueMethod.setModifiers(Modifier.PROTECTED | Modifier.FINAL);
+                    codecValueMethod.setBody(codecValue.toString());
+                    cls.addMethod(codecValueMethod);
+                }
+            });
+        }
+
+        try {
+            return product.toClass(loader, type.getProtectionDomain());
+        } finally {
+            product.detach();
+        }
+    }
+
+    private static String memberBody(final String field, final int index) {
+        return new StringBuilder()
+            .append("{\n")
+            .append("Object value = this.").append(field).append(";\n")
+            .append("if (value == null) {\n")
+            .append("value = codecMember(").append(index).append(");\n")
+            .append("this.").append(field).append(" = value;\n")
+            .append("}\n")
+            .append("return value;\n")
+            .append("}").toString();
+    }
+}
@@ -62,6 +62,13 @@ abstract class NodeCodecContext {
          */
         BindingRuntimeContext getRuntimeContext();
 
+        /**
+         * Returns the generator of lazily-decoding binding object implementations.
+         *
+         * @return Lazy data object generator
+         */
+        LazyDataObjectGenerator getLazyDataObjectGenerator();
+
         /**
          * Returns leaf nodes for supplied data container and parent class.
          *
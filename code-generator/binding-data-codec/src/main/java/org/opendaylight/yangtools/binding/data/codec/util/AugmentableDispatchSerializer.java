@@ -9,9 +9,6 @@ package org.opendaylight.yangtools.binding.data.codec.util;
 
 import com.google.common.base.Preconditions;
 import java.io.IOException;
-import java.lang.reflect.InvocationHandler;
-import java.lang.reflect.Proxy;
-import java.util.Collections;
 import java.util.Map;
 import java.util.Map.Entry;
 import org.opendaylight.yangtools.yang.binding.Augmentable;
@@ -42,8 +39,8 @@ public class AugmentableDispatchSerializer implements DataObjectSerializerImplem
             final Map<Class<? extends Augmentation<?>>, Augmentation<?>> augmentations;
             if (reg instanceof AugmentationReader) {
                 augmentations = ((AugmentationReader) reg).getAugmentations(obj);
-            } else if (Proxy.isProxyClass(obj.getClass())) {
-                augmentations = getFromProxy(obj);
+            } else if (obj instanceof AugmentationReader) {
+                augmentations = ((AugmentationReader) obj).getAugmentations(obj);
             } else {
                 augmentations = BindingReflections.getAugmentations((Augmentable<?>) obj);
             }
@@ -53,14 +50,6 @@ public class AugmentableDispatchSerializer implements DataObjectSerializerImplem
         }
     }
 
-    private Map<Class<? extends Augmentation<?>>, Augmentation<?>> getFromProxy(final DataObject obj) {
-        final InvocationHandler proxy = Proxy.getInvocationHandler(obj);
-        if (proxy instanceof AugmentationReader) {
-            return ((AugmentationReader) proxy).getAugmentations(obj);
-        }
-        return Collections.emptyMap();
-    }
-
     @SuppressWarnings("rawtypes")
     private void emitAugmentation(final Class type, final Augmentation<?> value, final BindingStreamEventWriter stream,
             final DataObjectSerializerRegistry registry) throws IOException {
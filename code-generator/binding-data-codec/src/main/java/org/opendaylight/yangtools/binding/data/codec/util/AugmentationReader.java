@@ -12,12 +12,15 @@ import java.util.Map;
 import org.opendaylight.yangtools.yang.binding.Augmentation;
 
 /**
- * Interface which sould be implemented by proxy {@link java.lang.reflect.InvocationHandler}
- * to obtain augmentations from proxy implementations of {@link org.opendaylight.yangtools.yang.binding.Augmentable}
- * object.
+ * Interface which should be implemented by generated implementations of
+ * {@link org.opendaylight.yangtools.yang.binding.Augmentable}, such as the lazily-decoded
+ * objects created by the codec, to expose their augmentations without reflection.
+ * A {@link org.opendaylight.yangtools.yang.binding.DataObjectSerializerRegistry} may
+ * implement it as well, in which case it is consulted for all objects.
  *
- * If implemented proxy does not implement this interface, its augmentations are not
- * properly serialized / deserialized.
+ * Other objects have their augmentations looked up through
+ * {@link org.opendaylight.yangtools.yang.binding.util.BindingReflections#getAugmentations(org.opendaylight.yangtools.yang.binding.Augmentable)},
+ * which understands only the builder-generated implementations.
  */
 public interface AugmentationReader {
 
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.binding.data.codec.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.List;
+import javassist.ClassPool;
+import org.junit.Test;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.yangtools.test.augment.rev140709.TreeComplexUsesAugment;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.yangtools.test.augment.rev140709.TreeLeafOnlyAugment;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.yangtools.test.augment.rev140709.TreeLeafOnlyAugmentBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.yangtools.test.binding.rev140701.Top;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.yangtools.test.binding.rev140701.two.level.list.TopLevelList;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.yangtools.test.binding.rev140701.two.level.list.TopLevelListBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.yangtools.test.binding.rev140701.two.level.list.TopLevelListKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.yangtools.test.binding.rev140701.two.level.list.top.level.list.NestedList;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.yangtools.test.binding.rev140701.two.level.list.top.level.list.NestedListBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.yangtools.test.binding.rev140701.two.level.list.top.level.list.NestedListKey;
+import org.opendaylight.yangtools.binding.data.codec.gen.impl.StreamWriterGenerator;
+import org.opendaylight.yangtools.binding.data.codec.impl.BindingNormalizedNodeCodecRegistry;
+import org.opendaylight.yangtools.binding.data.codec.impl.LazyDataObject;
+import org.opendaylight.yangtools.sal.binding.generator.util.JavassistUtils;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+
+public class LazyDataObjectTest extends AbstractBindingRuntimeTest {
+
+    private static final TopLevelListKey TOP_FOO_KEY = new TopLevelListKey("foo");
+    private static final TopLevelListKey TOP_BAR_KEY = new TopLevelListKey("bar");
+
+    private BindingNormalizedNodeCodecRegistry registry;
+
+    @Override
+    public void setup() {
+        super.setup();
+        JavassistUtils utils = JavassistUtils.forClassPool(ClassPool.getDefault());
+        registry = new BindingNormalizedNodeCodecRegistry(StreamWriterGenerator.create(utils));
+        registry.onBindingRuntimeContextUpdated(getRuntimeContext());
+    }
+
+    private static InstanceIdentifier<TopLevelList> path(final TopLevelListKey key) {
+        return InstanceIdentifier.builder(Top.class).child(TopLevelList.class, key).build();
+    }
+
+    private static TopLevelList createList(final TopLevelListKey key) {
+        return new TopLevelListBuilder()
+            .setKey(key)
+            .setNestedList(Arrays.asList(
+                new NestedListBuilder().setKey(new NestedListKey("one")).setType("first").build(),
+                new NestedListBuilder().setKey(new NestedListKey("two")).setType("second").build()))
+            .addAugmentation(TreeLeafOnlyAugment.class,
+                new TreeLeafOnlyAugmentBuilder().setSimpleValue("simple").build())
+            .build();
+    }
+
+    private NormalizedNode<?, ?> toNormalized(final TopLevelList list) {
+        return registry.toNormalizedNode(path(list.getKey()), list).getValue();
+    }
+
+    private TopLevelList fromNormalized(final TopLevelListKey key, final NormalizedNode<?, ?> data) {
+        return (TopLevelList) registry.fromNormalizedNode(registry.toYangInstanceIdentifier(path(key)), data)
+                .getValue();
+    }
+
+    @Test
+    public void testGeneratedClass() {
+        final TopLevelList lazy = fromNormalized(TOP_FOO_KEY, toNormalized(createList(TOP_FOO_KEY)));
+
+        assertTrue(lazy instanceof LazyDataObject);
+        assertFalse(Proxy.isProxyClass(lazy.getClass()));
+        assertEquals(TopLevelList.class, lazy.getImplementedInterface());
+    }
+
+    @Test
+    public void testGetters() {
+        final TopLevelList lazy = fromNormalized(TOP_FOO_KEY, toNormalized(createList(TOP_FOO_KEY)));
+
+        assertEquals("foo", lazy.getName());
+        assertEquals(TOP_FOO_KEY, lazy.getKey());
+        assertNull(lazy.getChoiceInList());
+
+        final List<NestedList> nested = lazy.getNestedList();
+        assertEquals(2, nested.size());
+        assertEquals(new NestedListKey("one"), nested.get(0).getKey());
+        assertEquals("first", nested.get(0).getType());
+        assertEquals("second", nested.get(1).getType());
+
+        // Values are decoded once and cached
+        assertSame(nested, lazy.getNestedList());
+    }
+
+    @Test
+    public void testAugmentations() {
+        final TopLevelList original = createList(TOP_FOO_KEY);
+        final TopLevelList lazy = fromNormalized(TOP_FOO_KEY, toNormalized(original));
+
+        final TreeLeafOnlyAugment aug = lazy.getAugmentation(TreeLeafOnlyAugment.class);
+        assertEquals("simple", aug.getSimpleValue());
+        assertNull(lazy.getAugmentation(TreeComplexUsesAugment.class));
+
+        // Augmentations are read back through AugmentationReader when serializing
+        assertEquals(toNormalized(original), toNormalized(lazy));
+    }
+
+    @Test
+    public void testEqualsAndHashCode() {
+        final TopLevelList original = createList(TOP_FOO_KEY);
+        final NormalizedNode<?, ?> data = toNormalized(original);
+        final TopLevelList lazy = fromNormalized(TOP_FOO_KEY, data);
+        final TopLevelList other = fromNormalized(TOP_FOO_KEY, data);
+
+        assertEquals(original, lazy);
+        assertEquals(lazy, original);
+        assertEquals(lazy, other);
+        assertEquals(lazy.hashCode(), other.hashCode());
+
+        final TopLevelList bar = fromNormalized(TOP_BAR_KEY, toNormalized(createList(TOP_BAR_KEY)));
+        assertNotEquals(lazy, bar);
+        assertNotEquals(lazy, createList(TOP_BAR_KEY));
+        assertFalse(lazy.equals(null));
+    }
+
+    @Test
+    public void testToString() {
+        final String str = fromNormalized(TOP_FOO_KEY, toNormalized(createList(TOP_FOO_KEY))).toString();
+
+        assertTrue(str, str.startsWith(TopLevelList.class.getSimpleName()));
+        assertTrue(str, str.contains("foo"));
+        assertTrue(str, str.contains("first"));
+        assertTrue(str, str.contains("augmentations"));
+        assertTrue(str, str.contains("simple"));
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.sal.binding.generator.impl;
+
+import com.google.common.base.Preconditions;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free cache of per-class values, backed by a {@link ClassValue}. Values are attached
+ * to the class itself, hence they become unreachable together with the class and do not
+ * prevent its class loader from being unloaded.
+ *
+ * @param <V> Value type
+ */
+final class ClassCodecCache<V> {
+    private final ClassValue<AtomicReference<V>> values = new ClassValue<AtomicReference<V>>() {
+        @Override
+        protected AtomicReference<V> computeValue(final Class<?> type) {
+            return new AtomicReference<>();
+        }
+    };
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong races = new AtomicLong();
+    private final String name;
+
+    ClassCodecCache(final String name) {
+        this.name = Preconditions.checkNotNull(name);
+    }
+
+    /**
+     * Look up the value for a class.
+     *
+     * @param cls Class
+     * @return Cached value, or null if not present
+     */
+    V get(final Class<?> cls) {
+        final V ret = values.get(cls).get();
+        if (ret == null) {
+            misses.incrementAndGet();
+        }
+        return ret;
+    }
+
+    /**
+     * Set the value for a class, replacing any previous value.
+     *
+     * @param cls Class
+     * @param value New value
+     */
+    void put(final Class<?> cls, final V value) {
+        values.get(cls).set(Preconditions.checkNotNull(value));
+    }
+
+    /**
+     * Set the value for a class, unless another thread has done so in the meantime.
+     *
+     * @param cls Class
+     * @param value New value
+     * @return The value which ended up in the cache
+     */
+    V putIfAbsent(final Class<?> cls, final V value) {
+        final AtomicReference<V> ref = values.get(cls);
+        if (ref.compareAndSet(null, Preconditions.checkNotNull(value))) {
+            return value;
+        }
+
+        races.incrementAndGet();
+        return ref.get();
+    }
+
+    CodecCacheStats getStats() {
+        return new CodecCacheStats(name, misses.get(), races.get());
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.sal.binding.generator.impl;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Objects;
+import java.beans.ConstructorProperties;
+
+/**
+ * Snapshot of statistics of a single per-class codec cache maintained by the codec registry.
+ * Cache hits are not counted, so that looking up a codec does not write to any shared state.
+ *
+ * @see RuntimeGeneratedMappingServiceImpl#getCodecCacheStats()
+ */
+@Beta
+public class CodecCacheStats {
+
+    private final String cacheName;
+    private final long misses;
+    private final long races;
+
+    @ConstructorProperties({"cacheName", "misses", "races"})
+    public CodecCacheStats(final String cacheName, final long misses, final long races) {
+        this.cacheName = cacheName;
+        this.misses = misses;
+        this.races = races;
+    }
+
+    /**
+     * Returns the name of the cache.
+     */
+    public String getCacheName() {
+        return cacheName;
+    }
+
+    /**
+     * Returns the number of lookups which did not find a codec.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of codecs which were created concurrently by multiple threads,
+     * where all but the first instance were discarded.
+     */
+    public long getRaces() {
+        return races;
+    }
+
+    @Override
+    public String toString() {
+        return Objects.toStringHelper(this).add("cache", cacheName).add("misses", misses).add("races", races).toString();
+    }
+}
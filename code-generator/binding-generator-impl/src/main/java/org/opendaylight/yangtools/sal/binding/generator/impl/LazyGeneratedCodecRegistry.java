@@ -13,12 +13,12 @@ import com.google.common.collect.BiMap;
 import com.google.common.collect.HashBiMap;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.MapMaker;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
 import java.util.AbstractMap.SimpleEntry;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -26,7 +26,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import org.opendaylight.yangtools.binding.generator.util.ReferencedTypeImpl;
@@ -85,24 +84,21 @@ class LazyGeneratedCodecRegistry implements CodecRegistry, SchemaContextListener
     private static final Logger LOG = LoggerFactory.getLogger(LazyGeneratedCodecRegistry.class);
 
     // Concrete class to codecs
-    private static final Map<Class<?>, DataContainerCodec<?>> containerCodecs = Collections
-            .synchronizedMap(new WeakHashMap<Class<?>, DataContainerCodec<?>>());
-    private static final Map<Class<?>, IdentifierCodec<?>> identifierCodecs = Collections
-            .synchronizedMap(new WeakHashMap<Class<?>, IdentifierCodec<?>>());
-    private static final Map<Class<?>, PublicChoiceCodecImpl<?>> choiceCodecs = Collections
-            .synchronizedMap(new WeakHashMap<Class<?>, PublicChoiceCodecImpl<?>>());
-    private static final Map<Class<?>, ChoiceCaseCodecImpl<?>> caseCodecs = Collections
-            .synchronizedMap(new WeakHashMap<Class<?>, ChoiceCaseCodecImpl<?>>());
-    private static final Map<Class<?>, AugmentableDispatchCodec> augmentableCodecs = Collections
-            .synchronizedMap(new WeakHashMap<Class<?>, AugmentableDispatchCodec>());
-    private static final Map<Class<?>, AugmentationCodecWrapper<?>> augmentationCodecs = Collections
-            .synchronizedMap(new WeakHashMap<Class<?>, AugmentationCodecWrapper<?>>());
-
-    private static final Map<Class<?>, LocationAwareDispatchCodec<?>> dispatchCodecs = Collections
-            .synchronizedMap(new WeakHashMap<Class<?>, LocationAwareDispatchCodec<?>>());
-
-    private static final Map<Class<?>, QName> identityQNames = Collections
-            .synchronizedMap(new WeakHashMap<Class<?>, QName>());
+    private static final ClassCodecCache<DataContainerCodec<?>> containerCodecs = new ClassCodecCache<>("container");
+    private static final ClassCodecCache<IdentifierCodec<?>> identifierCodecs = new ClassCodecCache<>("identifier");
+    private static final ClassCodecCache<PublicChoiceCodecImpl<?>> choiceCodecs = new ClassCodecCache<>("choice");
+    private static final ClassCodecCache<ChoiceCaseCodecImpl<?>> caseCodecs = new ClassCodecCache<>("case");
+    private static final ClassCodecCache<AugmentableDispatchCodec> augmentableCodecs = new ClassCodecCache<>("augmentable");
+    private static final ClassCodecCache<AugmentationCodecWrapper<?>> augmentationCodecs = new ClassCodecCache<>("augmentation");
+
+    /*
+     * Iterated over when the schema context changes, hence this cannot be a ClassValue.
+     * Weak keys make it safe for class unloading and it does not need to be locked.
+     */
+    private static final ConcurrentMap<Class<?>, LocationAwareDispatchCodec<?>> dispatchCodecs = new MapMaker()
+            .weakKeys().makeMap();
+
+    private static final ClassCodecCache<QName> identityQNames = new ClassCodecCache<>("identity");
     private static final Map<QName, Type> qnamesToIdentityMap = new ConcurrentHashMap<>();
 
     private static final ConcurrentMap<Type, ChoiceCaseNode> caseTypeToCaseSchema = new ConcurrentHashMap<>();
@@ -157,8 +153,8 @@ class LazyGeneratedCodecRegistry implements CodecRegistry, SchemaContextListener
                     .augmentationTransformerFor(augClass);
 
             BindingCodec<Map<QName, Object>, Object> rawCodec = newInstanceOf(augmentRawCodec);
-            codec = new AugmentationCodecWrapper<T>(rawCodec, augClass);
-            augmentationCodecs.put(augClass, codec);
+            codec = (AugmentationCodecWrapper<T>) augmentationCodecs.putIfAbsent(augClass,
+                new AugmentationCodecWrapper<T>(rawCodec, augClass));
         }
 
         final Class<? extends Augmentable<?>> objectSupertype;
@@ -236,8 +232,9 @@ class LazyGeneratedCodecRegistry implements CodecRegistry, SchemaContextListener
         }
         Class<? extends BindingCodec<Map<QName, Object>, Object>> newType = generator.transformerFor(type);
         BindingCodec<Map<QName, Object>, Object> rawCodec = newInstanceOf(newType);
-        DataContainerCodecImpl<T> newWrapper = new DataContainerCodecImpl<>(rawCodec);
-        containerCodecs.put(type, newWrapper);
+        @SuppressWarnings("unchecked")
+        DataContainerCodec<T> newWrapper = (DataContainerCodec<T>) containerCodecs.putIfAbsent(type,
+            new DataContainerCodecImpl<>(rawCodec));
         return newWrapper;
     }
 
@@ -350,8 +347,9 @@ class LazyGeneratedCodecRegistry implements CodecRegistry, SchemaContextListener
                 .keyTransformerForIdentifiable(identifiable);
         BindingCodec<Map<QName, Object>, Object> newInstance;
         newInstance = newInstanceOf(newCodec);
-        IdentifierCodecImpl<T> newWrapper = new IdentifierCodecImpl<>(newInstance);
-        identifierCodecs.put(identifier, newWrapper);
+        @SuppressWarnings("unchecked")
+        IdentifierCodec<T> newWrapper = (IdentifierCodec<T>) identifierCodecs.putIfAbsent(identifier,
+            new IdentifierCodecImpl<>(newInstance));
         return newWrapper;
     }
 
@@ -386,8 +384,8 @@ class LazyGeneratedCodecRegistry implements CodecRegistry, SchemaContextListener
         Class<? extends BindingCodec> newCodec = generator.caseCodecFor(caseClass, caseSchema);
         BindingCodec newInstance = newInstanceOf(newCodec);
         @SuppressWarnings("unchecked")
-        ChoiceCaseCodecImpl caseCodec = new ChoiceCaseCodecImpl(caseClass, caseSchema, newInstance);
-        caseCodecs.put(caseClass, caseCodec);
+        ChoiceCaseCodecImpl caseCodec = caseCodecs.putIfAbsent(caseClass,
+            new ChoiceCaseCodecImpl(caseClass, caseSchema, newInstance));
         return caseCodec;
     }
 
@@ -439,10 +437,8 @@ class LazyGeneratedCodecRegistry implements CodecRegistry, SchemaContextListener
      * This also makes removed augmentations unavailable.
      */
     private void resetDispatchCodecsAdaptation() {
-        synchronized (dispatchCodecs) {
-            for (LocationAwareDispatchCodec<?> codec : dispatchCodecs.values()) {
-                codec.resetCodec(this);
-            }
+        for (LocationAwareDispatchCodec<?> codec : dispatchCodecs.values()) {
+            codec.resetCodec(this);
         }
     }
 
@@ -456,9 +452,7 @@ class LazyGeneratedCodecRegistry implements CodecRegistry, SchemaContextListener
         PublicChoiceCodecImpl<?> newCodec = new PublicChoiceCodecImpl(delegate);
         DispatchChoiceCodecImpl dispatchCodec = new DispatchChoiceCodecImpl(choiceClass, this);
         choiceCodecs.put(choiceClass, newCodec);
-        synchronized (dispatchCodecs) {
-            dispatchCodecs.put(choiceClass, dispatchCodec);
-        }
+        dispatchCodecs.put(choiceClass, dispatchCodec);
         CodecMapping.setDispatchCodec(choiceCodec, dispatchCodec);
     }
 
@@ -480,20 +474,44 @@ class LazyGeneratedCodecRegistry implements CodecRegistry, SchemaContextListener
         }
     }
 
-    public synchronized AugmentableDispatchCodec getAugmentableCodec(final Class<?> dataClass) {
+    public AugmentableDispatchCodec getAugmentableCodec(final Class<?> dataClass) {
+        final AugmentableDispatchCodec ret = augmentableCodecs.get(dataClass);
+        if (ret != null) {
+            return ret;
+        }
+        return createAugmentableCodec(dataClass);
+    }
+
+    private synchronized AugmentableDispatchCodec createAugmentableCodec(final Class<?> dataClass) {
+        // Recheck, another thread may have created it while we were waiting for the lock
         AugmentableDispatchCodec ret = augmentableCodecs.get(dataClass);
         if (ret != null) {
             return ret;
         }
         ret = new AugmentableDispatchCodec(dataClass, this);
         augmentableCodecs.put(dataClass, ret);
-        synchronized (dispatchCodecs) {
-            dispatchCodecs.put(dataClass, ret);
-        }
+        dispatchCodecs.put(dataClass, ret);
         ret.tryToLoadImplementations();
         return ret;
     }
 
+    /**
+     * Return statistics of the per-class codec caches shared by all registries.
+     *
+     * @return Statistics for each cache
+     */
+    static List<CodecCacheStats> getCodecCacheStats() {
+        final List<CodecCacheStats> ret = new ArrayList<>(7);
+        ret.add(containerCodecs.getStats());
+        ret.add(identifierCodecs.getStats());
+        ret.add(choiceCodecs.getStats());
+        ret.add(caseCodecs.getStats());
+        ret.add(augmentableCodecs.getStats());
+        ret.add(augmentationCodecs.getStats());
+        ret.add(identityQNames.getStats());
+        return ret;
+    }
+
     private static abstract class IntermediateCodec<T> implements DomCodec<T>,
             Delegator<BindingCodec<Map<QName, Object>, Object>> {
 
@@ -592,7 +610,7 @@ class LazyGeneratedCodecRegistry implements CodecRegistry, SchemaContextListener
     private static abstract class LocationAwareDispatchCodec<T extends LocationAwareBindingCodec> implements
             BindingCodec {
 
-        private final Map<Class, T> implementations = Collections.synchronizedMap(new WeakHashMap<Class, T>());
+        private final Map<Class, T> implementations = new MapMaker().weakKeys().makeMap();
         private final Set<InstanceIdentifier<?>> adaptedForPaths = new HashSet<>();
         private LazyGeneratedCodecRegistry registry;
 
@@ -314,6 +314,14 @@ SchemaLock, AutoCloseable, SchemaContextHolder, TypeResolver {
         return this.registry;
     }
 
+    /**
+     * Returns {@link CodecCacheStats} instances for each per-class codec cache. These caches
+     * are shared by all instances.
+     */
+    public List<CodecCacheStats> getCodecCacheStats() {
+        return LazyGeneratedCodecRegistry.getCodecCacheStats();
+    }
+
     private void updateBindingFor(final Map<SchemaPath, GeneratedTypeBuilder> map, final SchemaContext module) {
         for (Map.Entry<SchemaPath, GeneratedTypeBuilder> entry : map.entrySet()) {
             SchemaNode schemaNode = SchemaContextUtil.findDataSchemaNode(module, entry.getKey());
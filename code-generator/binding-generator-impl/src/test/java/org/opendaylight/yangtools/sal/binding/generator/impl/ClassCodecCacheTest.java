@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.sal.binding.generator.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class ClassCodecCacheTest {
+
+    @Test
+    public void testGetAndPut() {
+        final ClassCodecCache<String> cache = new ClassCodecCache<>("test");
+        assertNull(cache.get(String.class));
+
+        cache.put(String.class, "string");
+        assertEquals("string", cache.get(String.class));
+        assertNull(cache.get(Integer.class));
+
+        cache.put(String.class, "other");
+        assertEquals("other", cache.get(String.class));
+
+        final CodecCacheStats stats = cache.getStats();
+        assertEquals("test", stats.getCacheName());
+        assertEquals(2, stats.getMisses());
+        assertEquals(0, stats.getRaces());
+    }
+
+    @Test
+    public void testPutIfAbsent() {
+        final ClassCodecCache<String> cache = new ClassCodecCache<>("test");
+        final String first = new String("first");
+
+        assertSame(first, cache.putIfAbsent(Long.class, first));
+        assertSame(first, cache.putIfAbsent(Long.class, "second"));
+        assertSame(first, cache.get(Long.class));
+        assertEquals(1, cache.getStats().getRaces());
+    }
+
+    @Test
+    public void testSeparateCaches() {
+        final ClassCodecCache<String> one = new ClassCodecCache<>("one");
+        final ClassCodecCache<String> two = new ClassCodecCache<>("two");
+
+        one.put(Short.class, "one");
+        assertNull(two.get(Short.class));
+    }
+}
@@ -16,6 +16,10 @@ import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import org.opendaylight.yangtools.sal.binding.model.api.CodeGenerator;
 import org.opendaylight.yangtools.sal.binding.model.api.GeneratedTransferObject;
@@ -26,6 +30,7 @@ import org.sonatype.plexus.build.incremental.BuildContext;
 import org.sonatype.plexus.build.incremental.DefaultBuildContext;
 
 import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
 
 /**
  * Generates files with JAVA source codes for every specified type.
@@ -50,6 +55,11 @@ public final class GeneratorJavaFile {
      */
     private final BuildContext buildContext;
 
+    /**
+     * Number of threads used to generate source code
+     */
+    private final int parallelism;
+
     /**
      * Creates instance of this class with the set of <code>types</code> for
      * which the JAVA code is generated.
@@ -62,8 +72,32 @@ public final class GeneratorJavaFile {
      *            set of types for which JAVA code should be generated
      */
     public GeneratorJavaFile(final BuildContext buildContext, final Collection<? extends Type> types) {
+        this(buildContext, types, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates instance of this class with the set of <code>types</code> for
+     * which the JAVA code is generated, using specified number of threads.
+     *
+     * Source code of individual types is generated concurrently, but files are
+     * written through the build context from the calling thread, in the order
+     * of <code>types</code>, hence the output does not depend on the number
+     * of threads.
+     *
+     * @param buildContext
+     *            build context to use for accessing files
+     * @param types
+     *            set of types for which JAVA code should be generated
+     * @param parallelism
+     *            number of threads generating source code, 1 to generate it
+     *            in the calling thread
+     */
+    public GeneratorJavaFile(final BuildContext buildContext, final Collection<? extends Type> types,
+            final int parallelism) {
+        Preconditions.checkArgument(parallelism > 0, "Parallelism has to be positive, not %s", parallelism);
         this.buildContext = Preconditions.checkNotNull(buildContext);
         this.types = Preconditions.checkNotNull(types);
+        this.parallelism = parallelism;
         generators.add(new InterfaceGenerator());
         generators.add(new TOGenerator());
         generators.add(new EnumGenerator());
@@ -100,36 +134,105 @@ public final class GeneratorJavaFile {
 
     public List<File> generateToFile(final File generatedSourcesDirectory, final File persistenSourcesDirectory)
             throws IOException {
-        final List<File> result = new ArrayList<>();
+        final List<GeneratorTask> tasks = new ArrayList<>();
         for (Type type : types) {
             if (type != null) {
                 for (CodeGenerator generator : generators) {
-                    File generatedJavaFile = null;
                     if (type instanceof GeneratedTransferObject
                             && ((GeneratedTransferObject) type).isUnionTypeBuilder()) {
                         File packageDir = packageToDirectory(persistenSourcesDirectory, type.getPackageName());
                         File file = new File(packageDir, generator.getUnitName(type) + ".java");
                         if (!file.exists()) {
-                            generatedJavaFile = generateTypeToJavaFile(persistenSourcesDirectory, type, generator);
+                            tasks.add(new GeneratorTask(persistenSourcesDirectory, type, generator));
                         }
                     } else {
-                        generatedJavaFile = generateTypeToJavaFile(generatedSourcesDirectory, type, generator);
-                    }
-                    if (generatedJavaFile != null) {
-                        result.add(generatedJavaFile);
+                        tasks.add(new GeneratorTask(generatedSourcesDirectory, type, generator));
                     }
                 }
             }
         }
+
+        final List<String> sources = generateSources(tasks);
+
+        final List<File> result = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); ++i) {
+            final String generatedCode = sources.get(i);
+            if (generatedCode != null) {
+                final GeneratorTask task = tasks.get(i);
+                File generatedJavaFile = writeTypeToJavaFile(task.parentDir, task.type, task.generator, generatedCode);
+                if (generatedJavaFile != null) {
+                    result.add(generatedJavaFile);
+                }
+            }
+        }
         return result;
     }
 
     /**
-     * Generates <code>File</code> for <code>type</code>. All files are stored
-     * to subfolders of base directory <code>parentDir</code>. Subdirectories
-     * are generated according to packages to which the type belongs (e. g. if
-     * type belongs to the package <i>org.pcg</i> then in <code>parentDir</code>
-     * is created directory <i>org</i> which contains <i>pcg</i>).
+     * Generates source code for all tasks, returning it in the order of tasks.
+     * Null is returned for tasks whose generator does not accept the type.
+     */
+    private List<String> generateSources(final List<GeneratorTask> tasks) {
+        final List<String> ret = new ArrayList<>(tasks.size());
+        if (parallelism == 1 || tasks.size() < 2) {
+            for (GeneratorTask task : tasks) {
+                ret.add(task.call());
+            }
+            return ret;
+        }
+
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (Future<String> future : pool.invokeAll(tasks)) {
+                ret.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating sources", e);
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        return ret;
+    }
+
+    /**
+     * Generation of source code for a single type with a single code generator.
+     * It does not touch the build context, so it can run on any thread.
+     */
+    private static final class GeneratorTask implements Callable<String> {
+        private final File parentDir;
+        private final Type type;
+        private final CodeGenerator generator;
+
+        GeneratorTask(final File parentDir, final Type type, final CodeGenerator generator) {
+            this.parentDir = parentDir;
+            this.type = type;
+            this.generator = generator;
+        }
+
+        @Override
+        public String call() {
+            if (!generator.isAcceptable(type)) {
+                return null;
+            }
+
+            final String generatedCode = generator.generate(type);
+            if (generatedCode.isEmpty()) {
+                throw new IllegalStateException("Generated code should not be empty!");
+            }
+            return generatedCode;
+        }
+    }
+
+    /**
+     * Writes generated source code of <code>type</code> to a <code>File</code>.
+     * All files are stored to subfolders of base directory <code>parentDir</code>.
+     * Subdirectories are generated according to packages to which the type
+     * belongs (e. g. if type belongs to the package <i>org.pcg</i> then in
+     * <code>parentDir</code> is created directory <i>org</i> which contains
+     * <i>pcg</i>).
      *
      * @param parentDir
      *            directory where should be the new file generated
@@ -137,17 +240,18 @@ public final class GeneratorJavaFile {
      *            JAVA <code>Type</code> for which should be JAVA source code
      *            generated
      * @param generator
-     *            code generator which is used for generating of the source code
-     * @return file which contains JAVA source code
+     *            code generator which was used for generating of the source code
+     * @param generatedCode
+     *            generated source code
+     * @return file which contains JAVA source code, or null if a file with the
+     *         same name already exists
      * @throws IOException
      *             if the error during writing to the file occurs
      * @throws IllegalArgumentException
      *             if <code>type</code> equals <code>null</code>
-     * @throws IllegalStateException
-     *             if string with generated code is empty
      */
-    private File generateTypeToJavaFile(final File parentDir, final Type type, final CodeGenerator generator)
-            throws IOException {
+    private File writeTypeToJavaFile(final File parentDir, final Type type, final CodeGenerator generator,
+            final String generatedCode) throws IOException {
         if (parentDir == null) {
             LOG.warn("Parent Directory not specified, files will be generated "
                     + "accordingly to generated Type package path.");
@@ -166,34 +270,26 @@ public final class GeneratorJavaFile {
             packageDir.mkdirs();
         }
 
-        if (generator.isAcceptable(type)) {
-            final String generatedCode = generator.generate(type);
-            if (generatedCode.isEmpty()) {
-                throw new IllegalStateException("Generated code should not be empty!");
-            }
-            final File file = new File(packageDir, generator.getUnitName(type) + ".java");
+        final File file = new File(packageDir, generator.getUnitName(type) + ".java");
 
-            if (file.exists()) {
-                LOG.warn(
-                        "Naming conflict for type '{}': file with same name already exists and will not be generated.",
-                        type.getFullyQualifiedName());
-                return null;
-            }
+        if (file.exists()) {
+            LOG.warn(
+                    "Naming conflict for type '{}': file with same name already exists and will not be generated.",
+                    type.getFullyQualifiedName());
+            return null;
+        }
 
-            try (final OutputStream stream = buildContext.newFileOutputStream(file)) {
-                try (final Writer fw = new OutputStreamWriter(stream)) {
-                    try (final BufferedWriter bw = new BufferedWriter(fw)) {
-                        bw.write(generatedCode);
-                    }
-                } catch (IOException e) {
-                    LOG.error("Failed to write generate output into {}", file.getPath(), e);
-                    throw e;
+        try (final OutputStream stream = buildContext.newFileOutputStream(file)) {
+            try (final Writer fw = new OutputStreamWriter(stream)) {
+                try (final BufferedWriter bw = new BufferedWriter(fw)) {
+                    bw.write(generatedCode);
                 }
+            } catch (IOException e) {
+                LOG.error("Failed to write generate output into {}", file.getPath(), e);
+                throw e;
             }
-            return file;
-
         }
-        return null;
+        return file;
     }
 
     /**
@@ -7,14 +7,21 @@
  */
 package org.opendaylight.yangtools.sal.java.api.generator.test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 import org.junit.Test;
 import org.opendaylight.yangtools.binding.generator.util.BindingTypes;
@@ -23,6 +30,7 @@ import org.opendaylight.yangtools.binding.generator.util.generated.type.builder.
 import org.opendaylight.yangtools.sal.binding.model.api.GeneratedType;
 import org.opendaylight.yangtools.sal.binding.model.api.type.builder.GeneratedTypeBuilder;
 import org.opendaylight.yangtools.sal.java.api.generator.GeneratorJavaFile;
+import org.sonatype.plexus.build.incremental.DefaultBuildContext;
 
 public class GeneratorJavaFileTest {
     private static final String FS = File.separator;
@@ -54,10 +62,91 @@ public class GeneratorJavaFileTest {
         assertTrue(filesList.contains("Type4Builder.java"));
     }
 
+    @Test
+    public void testParallelOutputMatchesSequential() throws IOException {
+        final String pkg = "org.opendaylight.controller.gen.parallel";
+        final List<GeneratedType> types = new ArrayList<>();
+        for (int i = 0; i < 20; ++i) {
+            types.add(createGeneratedType(pkg, "Type" + i));
+            GeneratedTypeBuilder gtb = new GeneratedTypeBuilderImpl(pkg, "Augmentable" + i);
+            gtb.addImplementsType(Types.augmentableTypeFor(gtb));
+            types.add(gtb.toInstance());
+        }
+
+        // Two types with the same name: the one listed first has to win in both modes
+        types.add(createGeneratedType(pkg, "Conflict", "getFirst"));
+        types.add(createGeneratedType(pkg, "Conflict", "getSecond"));
+
+        final File sequentialDir = new File(PATH + FS + "sequential");
+        final File parallelDir = new File(PATH + FS + "parallel");
+        deleteRecursively(sequentialDir);
+        deleteRecursively(parallelDir);
+
+        final List<File> sequentialFiles = new GeneratorJavaFile(new DefaultBuildContext(), types, 1)
+                .generateToFile(sequentialDir);
+        final List<File> parallelFiles = new GeneratorJavaFile(new DefaultBuildContext(), types, 4)
+                .generateToFile(parallelDir);
+
+        assertEquals(relativePaths(sequentialDir, sequentialFiles), relativePaths(parallelDir, parallelFiles));
+
+        final Map<String, String> sequential = readTree(sequentialDir);
+        final Map<String, String> parallel = readTree(parallelDir);
+        assertEquals(sequential, parallel);
+        // 20 interfaces, 20 augmentable interfaces with their builders and the conflicting type once
+        assertEquals(61, sequential.size());
+
+        final String conflict = sequential.get(
+                pkg.replace(".", FS) + FS + "Conflict.java");
+        assertTrue(conflict.contains("getFirst"));
+        assertFalse(conflict.contains("getSecond"));
+    }
+
     private GeneratedType createGeneratedType(String pkgName, String name) {
         GeneratedTypeBuilder builder = new GeneratedTypeBuilderImpl(pkgName, name);
         builder.addImplementsType(BindingTypes.DATA_OBJECT);
         return builder.toInstance();
     }
 
+    private GeneratedType createGeneratedType(String pkgName, String name, String methodName) {
+        GeneratedTypeBuilder builder = new GeneratedTypeBuilderImpl(pkgName, name);
+        builder.addImplementsType(BindingTypes.DATA_OBJECT);
+        builder.addMethod(methodName).setReturnType(Types.STRING);
+        return builder.toInstance();
+    }
+
+    private static List<String> relativePaths(final File baseDir, final List<File> files) {
+        final List<String> ret = new ArrayList<>(files.size());
+        for (File file : files) {
+            ret.add(baseDir.toURI().relativize(file.toURI()).getPath());
+        }
+        return ret;
+    }
+
+    private static Map<String, String> readTree(final File baseDir) throws IOException {
+        final Map<String, String> ret = new TreeMap<>();
+        readTree(baseDir, "", ret);
+        return ret;
+    }
+
+    private static void readTree(final File dir, final String prefix, final Map<String, String> result)
+            throws IOException {
+        for (File file : dir.listFiles()) {
+            if (file.isDirectory()) {
+                readTree(file, prefix + file.getName() + FS, result);
+            } else {
+                result.put(prefix + file.getName(), Files.toString(file, Charsets.UTF_8));
+            }
+        }
+    }
+
+    private static void deleteRecursively(final File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+
 }
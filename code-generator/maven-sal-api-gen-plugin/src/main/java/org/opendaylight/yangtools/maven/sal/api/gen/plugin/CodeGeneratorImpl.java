@@ -7,10 +7,16 @@
  */
 package org.opendaylight.yangtools.maven.sal.api.gen.plugin;
 
+import com.google.common.base.Charsets;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
+import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSet.Builder;
+import com.google.common.collect.Multimap;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 
 import java.io.BufferedWriter;
 import java.io.File;
@@ -18,10 +24,19 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.security.CodeSource;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
 
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.project.MavenProject;
@@ -33,7 +48,9 @@ import org.opendaylight.yangtools.sal.java.api.generator.GeneratorJavaFile;
 import org.opendaylight.yangtools.sal.java.api.generator.YangModuleInfoTemplate;
 import org.opendaylight.yangtools.yang.binding.BindingMapping;
 import org.opendaylight.yangtools.yang.binding.YangModelBindingProvider;
+import org.opendaylight.yangtools.yang.common.QName;
 import org.opendaylight.yangtools.yang.model.api.Module;
+import org.opendaylight.yangtools.yang.model.api.ModuleImport;
 import org.opendaylight.yangtools.yang.model.api.SchemaContext;
 import org.opendaylight.yangtools.yang2sources.spi.BuildContextAware;
 import org.opendaylight.yangtools.yang2sources.spi.CodeGenerator;
@@ -43,6 +60,9 @@ import org.sonatype.plexus.build.incremental.BuildContext;
 
 public final class CodeGeneratorImpl implements CodeGenerator, BuildContextAware {
     private static final String FS = File.separator;
+    private static final String MANIFEST_FILE_NAME = ".binding-manifest";
+    private static final String UNKNOWN_FINGERPRINT = "unknown-";
+    private static final String GENERATOR_FINGERPRINT = computeGeneratorFingerprint();
     private BuildContext buildContext;
     private File projectBaseDir;
     private Map<String, String> additionalConfig;
@@ -58,10 +78,6 @@ public final class CodeGeneratorImpl implements CodeGenerator, BuildContextAware
 
         outputBaseDir = outputDir == null ? getDefaultOutputBaseDir() : outputDir;
 
-        final BindingGenerator bindingGenerator = new BindingGeneratorImpl(true);
-        final List<Type> types = bindingGenerator.generateTypes(context, yangModules);
-        final GeneratorJavaFile generator = new GeneratorJavaFile(buildContext, types);
-
         File persistentSourcesDir = null;
         if (additionalConfig != null) {
             String persistenSourcesPath = additionalConfig.get("persistentSourcesDir");
@@ -73,27 +89,245 @@ public final class CodeGeneratorImpl implements CodeGenerator, BuildContextAware
             persistentSourcesDir = new File(projectBaseDir, "src" + FS + "main" + FS + "java");
         }
 
-        List<File> result = generator.generateToFile(outputBaseDir, persistentSourcesDir);
+        /*
+         * Only modules whose fingerprint differs from the one recorded in the manifest
+         * are generated again. The fingerprint covers the module's sources and those of
+         * all modules it depends on, so unchanged modules produce the same output.
+         */
+        final File manifestFile = new File(outputBaseDir, MANIFEST_FILE_NAME);
+        final GeneratedSourcesManifest manifest = GeneratedSourcesManifest.load(manifestFile);
+        final Map<Module, String> fingerprints = computeFingerprints(context, yangModules);
+
+        final Set<Module> changedModules = new HashSet<>();
+        final Set<File> result = new HashSet<>();
+        for (Module module : yangModules) {
+            final String key = moduleKey(module);
+            final String fingerprint = fingerprints.get(module);
+            final Set<File> files = resolveFiles(outputBaseDir, manifest.getFiles(key));
+            if (fingerprint.equals(manifest.getFingerprint(key)) && allExist(files)) {
+                result.addAll(files);
+            } else {
+                changedModules.add(module);
+            }
+        }
+        logger.info("Generating sources for {} out of {} modules", changedModules.size(), yangModules.size());
+
+        final Set<String> currentKeys = new HashSet<>();
+        for (Module module : yangModules) {
+            currentKeys.add(moduleKey(module));
+        }
+        for (String key : manifest.getModules()) {
+            if (!currentKeys.contains(key)) {
+                logger.info("Removing sources of module {}", key);
+                deleteFiles(resolveFiles(outputBaseDir, manifest.getFiles(key)));
+                manifest.removeModule(key);
+            }
+        }
+
+        if (!changedModules.isEmpty()) {
+            /*
+             * The generator does not overwrite existing files, so previous output of the changed
+             * modules has to be removed first. Only files inside the output directory are recorded
+             * in the manifest, so persistent sources are never touched.
+             */
+            for (Module module : changedModules) {
+                deleteFiles(resolveFiles(outputBaseDir, manifest.getFiles(moduleKey(module))));
+            }
+
+            final BindingGenerator bindingGenerator = new BindingGeneratorImpl(true);
+            final List<Type> types = bindingGenerator.generateTypes(context, changedModules);
+            final GeneratorJavaFile generator = new GeneratorJavaFile(buildContext, types);
 
-        result.addAll(generateModuleInfos(outputBaseDir, yangModules, context));
+            final List<File> generated = generator.generateToFile(outputBaseDir, persistentSourcesDir);
+            generated.addAll(generateModuleInfos(outputBaseDir, changedModules, context));
+            result.addAll(generated);
+
+            final Map<String, Set<String>> moduleFiles = assignToModules(outputBaseDir, changedModules, generated);
+            for (Module module : changedModules) {
+                final String key = moduleKey(module);
+                manifest.putModule(key, fingerprints.get(module), moduleFiles.get(key));
+            }
+        }
+
+        result.add(writeMetaInfServices(resourceBaseDir, YangModelBindingProvider.class,
+                bindingProviders(yangModules, context)));
+
+        try {
+            outputBaseDir.mkdirs();
+            manifest.store(manifestFile);
+        } catch (IOException e) {
+            logger.warn("Failed to store manifest {}, all sources will be regenerated next time", manifestFile, e);
+        }
         return result;
     }
 
+    private static String moduleKey(final Module module) {
+        final String revision = QName.formattedRevision(module.getRevision());
+        return revision == null ? module.getName() : module.getName() + "@" + revision;
+    }
+
+    /**
+     * Compute fingerprints of the modules. A fingerprint is a digest of the module's source,
+     * the sources of its submodules, the fingerprints of the modules it imports and the
+     * identity of the code generator itself.
+     */
+    private static Map<Module, String> computeFingerprints(final SchemaContext context, final Set<Module> modules) {
+        final Multimap<String, Module> byName = HashMultimap.create();
+        for (Module module : context.getModules()) {
+            byName.put(module.getName(), module);
+        }
+
+        final Map<Module, String> ret = new HashMap<>();
+        for (Module module : modules) {
+            ret.put(module, computeFingerprint(module, byName, ret, new HashSet<Module>()));
+        }
+        return ret;
+    }
+
+    private static String computeFingerprint(final Module module, final Multimap<String, Module> byName,
+            final Map<Module, String> computed, final Set<Module> inProgress) {
+        final String existing = computed.get(module);
+        if (existing != null) {
+            return existing;
+        }
+
+        if (module.getSource() == null || !inProgress.add(module)) {
+            // Without the source text, or with a cyclic import, we cannot tell whether
+            // the module has changed. Use a unique value, so it is always generated.
+            return UNKNOWN_FINGERPRINT + UUID.randomUUID();
+        }
+
+        final Hasher hasher = Hashing.sha1().newHasher();
+        hasher.putBytes(GENERATOR_FINGERPRINT.getBytes(Charsets.UTF_8));
+        hasher.putBytes(module.getSource().getBytes(Charsets.UTF_8));
+
+        final SortedMap<String, String> submodules = new TreeMap<>();
+        for (Module submodule : module.getSubmodules()) {
+            submodules.put(moduleKey(submodule), Strings.nullToEmpty(submodule.getSource()));
+        }
+        for (Entry<String, String> e : submodules.entrySet()) {
+            hasher.putBytes(e.getKey().getBytes(Charsets.UTF_8));
+            hasher.putBytes(e.getValue().getBytes(Charsets.UTF_8));
+        }
+
+        final SortedSet<String> imports = new TreeSet<>();
+        for (ModuleImport imp : module.getImports()) {
+            for (Module imported : byName.get(imp.getModuleName())) {
+                if (imp.getRevision() == null || imp.getRevision().equals(imported.getRevision())) {
+                    imports.add(computeFingerprint(imported, byName, computed, inProgress));
+                }
+            }
+        }
+        for (String fingerprint : imports) {
+            hasher.putBytes(fingerprint.getBytes(Charsets.UTF_8));
+        }
+
+        inProgress.remove(module);
+        final String ret = hasher.hash().toString();
+        computed.put(module, ret);
+        return ret;
+    }
+
+    private static String computeGeneratorFingerprint() {
+        final StringBuilder sb = new StringBuilder();
+        for (Class<?> cls : new Class<?>[] { CodeGeneratorImpl.class, BindingGeneratorImpl.class, GeneratorJavaFile.class }) {
+            final CodeSource source = cls.getProtectionDomain().getCodeSource();
+            if (source != null && source.getLocation() != null) {
+                final String location = source.getLocation().toString();
+                sb.append(location).append(';');
+                if ("file".equals(source.getLocation().getProtocol())) {
+                    sb.append(new File(source.getLocation().getPath()).lastModified()).append(';');
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Assign generated files to the modules they were generated from, based on the package
+     * hierarchy of each module. Files outside of the output directory, such as persistent
+     * sources, are not tracked.
+     */
+    private static Map<String, Set<String>> assignToModules(final File outputBaseDir, final Set<Module> modules,
+            final Collection<File> files) {
+        final Map<File, String> packageDirs = new HashMap<>();
+        final Map<String, Set<String>> ret = new HashMap<>();
+        for (Module module : modules) {
+            final String key = moduleKey(module);
+            packageDirs.put(GeneratorJavaFile.packageToDirectory(outputBaseDir,
+                    BindingGeneratorUtil.moduleNamespaceToPackageName(module)).getAbsoluteFile(), key);
+            ret.put(key, new HashSet<String>());
+        }
+
+        final File baseDir = outputBaseDir.getAbsoluteFile();
+        for (File file : files) {
+            final File absolute = file.getAbsoluteFile();
+            String key = null;
+            for (File dir = absolute.getParentFile(); dir != null && !dir.equals(baseDir); dir = dir.getParentFile()) {
+                key = packageDirs.get(dir);
+                if (key != null) {
+                    break;
+                }
+            }
+
+            if (key != null) {
+                ret.get(key).add(baseDir.toURI().relativize(absolute.toURI()).getPath());
+            } else {
+                logger.debug("File {} does not belong to any module, not tracking it", file);
+            }
+        }
+        return ret;
+    }
+
+    private static Set<File> resolveFiles(final File outputBaseDir, final Collection<String> paths) {
+        final Set<File> ret = new HashSet<>();
+        for (String path : paths) {
+            ret.add(new File(outputBaseDir, path.replace('/', File.separatorChar)));
+        }
+        return ret;
+    }
+
+    private static boolean allExist(final Collection<File> files) {
+        for (File file : files) {
+            if (!file.isFile()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void deleteFiles(final Collection<File> files) {
+        for (File file : files) {
+            if (file.isFile()) {
+                logger.debug("Deleting previously generated file {}", file);
+                if (!file.delete()) {
+                    logger.warn("Failed to delete previously generated file {}", file);
+                }
+                buildContext.refresh(file);
+            }
+        }
+    }
+
+    private static ImmutableSet<String> bindingProviders(final Set<Module> yangModules, final SchemaContext context) {
+        final Builder<String> ret = ImmutableSet.builder();
+        for (Module module : yangModules) {
+            ret.add(new YangModuleInfoTemplate(module, context).getModelBindingProviderName());
+        }
+        return ret.build();
+    }
+
     private Collection<? extends File> generateModuleInfos(final File outputBaseDir, final Set<Module> yangModules,
                                                            final SchemaContext context) {
         Builder<File> result = ImmutableSet.builder();
-        Builder<String> bindingProviders = ImmutableSet.builder();
         for (Module module : yangModules) {
             Builder<String> currentProvidersBuilder = ImmutableSet.builder();
             // TODO: do not mutate parameters, output of a method is defined by its return value
             Set<File> moduleInfoProviders = generateYangModuleInfo(outputBaseDir, module, context, currentProvidersBuilder);
             ImmutableSet<String> currentProviders = currentProvidersBuilder.build();
             logger.info("Adding ModuleInfo providers {}", currentProviders);
-            bindingProviders.addAll(currentProviders);
             result.addAll(moduleInfoProviders);
         }
 
-        result.add(writeMetaInfServices(resourceBaseDir, YangModelBindingProvider.class, bindingProviders.build()));
         return result.build();
     }
 
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.maven.sal.api.gen.plugin;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Record of sources generated during the previous run of {@link CodeGeneratorImpl}. For each
+ * module it holds the fingerprint of the module and the files which were generated from it,
+ * relative to the output directory. The manifest is stored as a simple text file:
+ *
+ * <pre>
+ * yang-binding-manifest 1
+ * M &lt;module&gt; &lt;fingerprint&gt;
+ * F &lt;relative path&gt;
+ * ...
+ * </pre>
+ *
+ * An unreadable or missing manifest is treated as empty, which results in all modules being
+ * generated.
+ */
+final class GeneratedSourcesManifest {
+    private static final Logger LOG = LoggerFactory.getLogger(GeneratedSourcesManifest.class);
+    private static final String HEADER = "yang-binding-manifest 1";
+    private static final String MODULE_PREFIX = "M ";
+    private static final String FILE_PREFIX = "F ";
+
+    private final Map<String, String> fingerprints;
+    private final Map<String, Set<String>> files;
+
+    private GeneratedSourcesManifest(final Map<String, String> fingerprints, final Map<String, Set<String>> files) {
+        this.fingerprints = Preconditions.checkNotNull(fingerprints);
+        this.files = Preconditions.checkNotNull(files);
+    }
+
+    static GeneratedSourcesManifest empty() {
+        return new GeneratedSourcesManifest(new TreeMap<String, String>(), new TreeMap<String, Set<String>>());
+    }
+
+    static GeneratedSourcesManifest load(final File file) {
+        if (!file.isFile()) {
+            return empty();
+        }
+
+        final Map<String, String> fingerprints = new TreeMap<>();
+        final Map<String, Set<String>> files = new TreeMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), Charsets.UTF_8))) {
+            if (!HEADER.equals(reader.readLine())) {
+                LOG.info("Ignoring manifest {} in unrecognized format", file);
+                return empty();
+            }
+
+            Set<String> current = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(MODULE_PREFIX)) {
+                    final String[] parts = line.substring(MODULE_PREFIX.length()).split(" ");
+                    if (parts.length != 2) {
+                        LOG.info("Ignoring corrupted manifest {}", file);
+                        return empty();
+                    }
+                    fingerprints.put(parts[0], parts[1]);
+                    current = new TreeSet<>();
+                    files.put(parts[0], current);
+                } else if (line.startsWith(FILE_PREFIX) && current != null) {
+                    current.add(line.substring(FILE_PREFIX.length()));
+                } else if (!line.isEmpty()) {
+                    LOG.info("Ignoring corrupted manifest {}", file);
+                    return empty();
+                }
+            }
+        } catch (IOException e) {
+            LOG.warn("Failed to read manifest {}, all sources will be regenerated", file, e);
+            return empty();
+        }
+
+        return new GeneratedSourcesManifest(fingerprints, files);
+    }
+
+    void store(final File file) throws IOException {
+        final File tmp = new File(file.getPath() + ".tmp");
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tmp), Charsets.UTF_8))) {
+            writer.write(HEADER);
+            writer.write('\n');
+            for (Entry<String, String> e : fingerprints.entrySet()) {
+                writer.write(MODULE_PREFIX + e.getKey() + ' ' + e.getValue() + '\n');
+                for (String path : files.get(e.getKey())) {
+                    writer.write(FILE_PREFIX + path + '\n');
+                }
+            }
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    Set<String> getModules() {
+        return ImmutableSet.copyOf(fingerprints.keySet());
+    }
+
+    String getFingerprint(final String module) {
+        return fingerprints.get(module);
+    }
+
+    Set<String> getFiles(final String module) {
+        final Set<String> ret = files.get(module);
+        return ret == null ? Collections.<String>emptySet() : Collections.unmodifiableSet(ret);
+    }
+
+    void putModule(final String module, final String fingerprint, final Set<String> moduleFiles) {
+        fingerprints.put(module, Preconditions.checkNotNull(fingerprint));
+        files.put(module, new TreeSet<>(moduleFiles));
+    }
+
+    void removeModule(final String module) {
+        fingerprints.remove(module);
+        files.remove(module);
+    }
+}
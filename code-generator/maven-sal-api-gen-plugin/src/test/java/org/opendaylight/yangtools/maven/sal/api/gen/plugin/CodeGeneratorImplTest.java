@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.maven.sal.api.gen.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.parser.impl.YangParserImpl;
+import org.sonatype.plexus.build.incremental.DefaultBuildContext;
+
+public class CodeGeneratorImplTest {
+    private static final String FS = File.separator;
+    private static final String MAIN_PACKAGE_DIR = "org" + FS + "opendaylight" + FS + "yang" + FS + "gen" + FS + "v1"
+            + FS + "yang" + FS + "test" + FS + "main" + FS + "rev140630";
+    private static final String IMPORT_PACKAGE_DIR = "org" + FS + "opendaylight" + FS + "yang" + FS + "gen" + FS + "v1"
+            + FS + "yang" + FS + "test" + FS + "_import" + FS + "rev131119";
+
+    private File outputDir;
+    private File resourceDir;
+
+    @Before
+    public void setUp() {
+        outputDir = Files.createTempDir();
+        resourceDir = Files.createTempDir();
+    }
+
+    @After
+    public void tearDown() {
+        deleteDir(outputDir);
+        deleteDir(resourceDir);
+    }
+
+    private static void deleteDir(final File file) {
+        if (file.isDirectory()) {
+            for (File child : file.listFiles()) {
+                deleteDir(child);
+            }
+        }
+        file.delete();
+    }
+
+    private Collection<File> generate(final List<File> sources) throws Exception {
+        final SchemaContext context = new YangParserImpl().parseFiles(sources);
+        final CodeGeneratorImpl codegen = new CodeGeneratorImpl();
+        codegen.setBuildContext(new DefaultBuildContext());
+        codegen.setResourceBaseDir(resourceDir);
+        return codegen.generateSources(context, outputDir, context.getModules());
+    }
+
+    @Test
+    public void testUnchangedModulesAreNotRegenerated() throws Exception {
+        final List<File> sources = Arrays.asList(new File(getClass().getResource("/yang-module-info").toURI()).listFiles());
+        generate(sources);
+
+        final File moduleInfo = new File(new File(outputDir, MAIN_PACKAGE_DIR), "$YangModuleInfoImpl.java");
+        assertTrue(moduleInfo.isFile());
+        assertTrue(moduleInfo.setLastModified(0));
+
+        final Collection<File> second = generate(sources);
+        assertEquals(0, moduleInfo.lastModified());
+        assertTrue(second.contains(moduleInfo));
+    }
+
+    @Test
+    public void testRemovedModuleIsPruned() throws Exception {
+        final List<File> sources = Arrays.asList(new File(getClass().getResource("/yang-module-info").toURI()).listFiles());
+        generate(sources);
+
+        final File mainDir = new File(outputDir, MAIN_PACKAGE_DIR);
+        final File importDir = new File(outputDir, IMPORT_PACKAGE_DIR);
+        assertTrue(new File(mainDir, "$YangModuleInfoImpl.java").isFile());
+        assertTrue(new File(importDir, "$YangModuleInfoImpl.java").isFile());
+
+        generate(Collections.singletonList(new File(getClass().getResource("/yang-module-info/import-module.yang").toURI())));
+        assertFalse(new File(mainDir, "$YangModuleInfoImpl.java").exists());
+        assertTrue(new File(importDir, "$YangModuleInfoImpl.java").isFile());
+    }
+
+    @Test
+    public void testChangedModuleIsRegenerated() throws Exception {
+        final File sourceDir = Files.createTempDir();
+        try {
+            final List<File> sources = new ArrayList<>();
+            for (File file : new File(getClass().getResource("/yang-module-info").toURI()).listFiles()) {
+                final File copy = new File(sourceDir, file.getName());
+                Files.copy(file, copy);
+                sources.add(copy);
+            }
+            generate(sources);
+
+            final File importDir = new File(outputDir, IMPORT_PACKAGE_DIR);
+            final File container = new File(importDir, "ImpCont.java");
+            final File builder = new File(importDir, "ImpContBuilder.java");
+            assertTrue(container.isFile());
+            assertTrue(builder.isFile());
+            assertFalse(Files.toString(container, Charsets.UTF_8).contains("getEdited"));
+
+            final File importModule = new File(sourceDir, "import-module.yang");
+            Files.write(Files.toString(importModule, Charsets.UTF_8).replace("container imp-cont {}",
+                "container imp-cont { leaf edited { type string; } }"), importModule, Charsets.UTF_8);
+
+            final Collection<File> second = generate(sources);
+            assertTrue(container.isFile());
+            assertTrue(builder.isFile());
+            assertTrue(second.contains(container));
+            assertTrue(Files.toString(container, Charsets.UTF_8).contains("getEdited"));
+            assertTrue(new File(importDir, "$YangModuleInfoImpl.java").isFile());
+        } finally {
+            deleteDir(sourceDir);
+        }
+    }
+}
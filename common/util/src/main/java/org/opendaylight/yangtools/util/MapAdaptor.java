@@ -8,7 +8,6 @@
 package org.opendaylight.yangtools.util;
 
 import com.google.common.base.Preconditions;
-import com.romix.scala.collection.concurrent.TrieMap;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -38,7 +37,7 @@ public final class MapAdaptor {
         DEFAULT_INSTANCE = new MapAdaptor(true,
                 getProperty(COPY_MAX_ITEMS_MAX_PROP, DEFAULT_COPY_MAX_ITEMS),
                 getProperty(PERSIST_MIN_ITEMS_PROP, DEFAULT_PERSIST_MIN_ITEMS));
-        LOG.debug("Configured HashMap/TrieMap cutoff at {}/{} entries",
+        LOG.debug("Configured HashMap/PersistentHashMap cutoff at {}/{} entries",
                 DEFAULT_INSTANCE.persistMinItems, DEFAULT_INSTANCE.copyMaxItems);
     }
 
@@ -92,6 +91,11 @@ public final class MapAdaptor {
      * @return
      */
     public <K, V> Map<K, V> takeSnapshot(final Map<K, V> input) {
+        if (input instanceof PersistentHashMap) {
+            final Map<K, V> ret = new ReadWritePersistentHashMap<>((PersistentHashMap<K, V>)input);
+            LOG.trace("Converted persistent map {} to read-write {}", input, ret);
+            return ret;
+        }
         if (input instanceof ReadOnlyTrieMap) {
             return ((ReadOnlyTrieMap<K, V>)input).toReadWrite();
         }
@@ -131,8 +135,16 @@ public final class MapAdaptor {
          * We retain the persistent map as long as it holds at least
          * persistMinItems
          */
-        if (input instanceof ReadWriteTrieMap && size >= persistMinItems) {
-            return ((ReadWriteTrieMap<K, V>)input).toReadOnly();
+        if (size >= persistMinItems) {
+            if (input instanceof PersistentHashMap) {
+                return input;
+            }
+            if (input instanceof ReadWritePersistentHashMap) {
+                return ((ReadWritePersistentHashMap<K, V>)input).toReadOnly();
+            }
+            if (input instanceof ReadWriteTrieMap) {
+                return ((ReadWriteTrieMap<K, V>)input).toReadOnly();
+            }
         }
 
         /*
@@ -162,18 +174,13 @@ public final class MapAdaptor {
         }
 
         /*
-         * Favor isolation speed: use a TrieMap and perform snapshots
-         *
-         * This one is a bit tricky, as the TrieMap is concurrent and does not
-         * keep an uptodate size. Updating it requires a full walk -- which is
-         * O(N) and we want to avoid that. So we wrap it in an interceptor,
-         * which will maintain the size for us.
+         * Favor isolation speed: use a persistent map, which shares structure
+         * with its snapshots, so that modifying it costs O(log32 N) instead
+         * of a full copy.
          */
-        LOG.trace("Copying input {} to a TrieMap ({} entries)", input, size);
-        final TrieMap<K, V> map = new TrieMap<>();
-        map.putAll(input);
-        final Map<K, V> ret = new ReadOnlyTrieMap<>(map, size);
-        LOG.trace("Read-only TrieMap is {}", ret);
+        LOG.trace("Copying input {} to a PersistentHashMap ({} entries)", input, size);
+        final Map<K, V> ret = PersistentHashMap.copyOf(input);
+        LOG.trace("Read-only PersistentHashMap is {}", ret);
         return ret;
     }
 }
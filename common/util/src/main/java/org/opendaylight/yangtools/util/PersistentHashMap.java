@@ -0,0 +1,625 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.util;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Preconditions;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable, persistent hash map implemented as a Hash Array Mapped Trie. Updates are
+ * performed via {@link #with(Object, Object)} and {@link #without(Object)}, which return a
+ * new map sharing all untouched structure with this one. This makes each update cost
+ * O(log32 N) time and memory, as opposed to a full copy of the map.
+ *
+ * The map does not support null keys nor null values.
+ *
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+@Beta
+public final class PersistentHashMap<K, V> extends AbstractMap<K, V> {
+    /**
+     * Receiver of the differences reported by {@link PersistentHashMap#diff(PersistentHashMap, DiffCallback)}.
+     *
+     * @param <K> Key type
+     * @param <V> Value type
+     */
+    public interface DiffCallback<K, V> {
+        /**
+         * Invoked for a mapping present only in the other map.
+         */
+        void added(K key, V value);
+
+        /**
+         * Invoked for a mapping present only in this map.
+         */
+        void removed(K key, V value);
+
+        /**
+         * Invoked for a key present in both maps, which maps to different value instances.
+         */
+        void changed(K key, V before, V after);
+    }
+
+    private static final PersistentHashMap<Object, Object> EMPTY = new PersistentHashMap<>(BitmapNode.EMPTY, 0);
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    /*
+     * 32-bit hash consumed 5 bits at a time gives us 7 bitmap levels, plus potentially
+     * a collision node at the bottom.
+     */
+    private static final int MAX_DEPTH = 8;
+
+    private final Node root;
+    private final int size;
+    private transient Set<Entry<K, V>> entrySet;
+
+    private PersistentHashMap(final Node root, final int size) {
+        this.root = Preconditions.checkNotNull(root);
+        this.size = size;
+    }
+
+    /**
+     * Return an empty map.
+     *
+     * @return An empty persistent map
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashMap<K, V> of() {
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    /**
+     * Create a persistent map containing all mappings from the specified map.
+     *
+     * @param map Map to copy
+     * @return A persistent map
+     */
+    public static <K, V> PersistentHashMap<K, V> copyOf(final Map<? extends K, ? extends V> map) {
+        if (map instanceof PersistentHashMap) {
+            @SuppressWarnings("unchecked")
+            final PersistentHashMap<K, V> ret = (PersistentHashMap<K, V>) map;
+            return ret;
+        }
+
+        final Box added = new Box();
+        Node root = BitmapNode.EMPTY;
+        int size = 0;
+        for (Entry<? extends K, ? extends V> e : map.entrySet()) {
+            final Object key = Preconditions.checkNotNull(e.getKey());
+            added.value = false;
+            root = root.put(0, hash(key), key, Preconditions.checkNotNull(e.getValue()), added);
+            if (added.value) {
+                size++;
+            }
+        }
+        return new PersistentHashMap<>(root, size);
+    }
+
+    /**
+     * Return a map which contains all mappings in this map, plus the specified mapping.
+     *
+     * @param key Key
+     * @param value Value
+     * @return Updated map, or this map if it already contains the mapping
+     */
+    public PersistentHashMap<K, V> with(final K key, final V value) {
+        Preconditions.checkNotNull(key);
+        Preconditions.checkNotNull(value);
+
+        final Box added = new Box();
+        final Node newRoot = root.put(0, hash(key), key, value, added);
+        if (newRoot == root) {
+            return this;
+        }
+        return new PersistentHashMap<>(newRoot, added.value ? size + 1 : size);
+    }
+
+    /**
+     * Return a map which contains all mappings in this map, except the mapping for
+     * the specified key.
+     *
+     * @param key Key
+     * @return Updated map, or this map if does not contain the key
+     */
+    public PersistentHashMap<K, V> without(final Object key) {
+        if (key == null) {
+            return this;
+        }
+
+        final Node newRoot = root.remove(0, hash(key), key);
+        if (newRoot == root) {
+            return this;
+        }
+        if (newRoot == null) {
+            return of();
+        }
+        return new PersistentHashMap<>(newRoot, size - 1);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(final Object key) {
+        if (key == null) {
+            return null;
+        }
+        return (V) root.get(0, hash(key), key);
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        Set<Entry<K, V>> ret = entrySet;
+        if (ret == null) {
+            ret = new AbstractSet<Entry<K, V>>() {
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    return new EntryIterator<>(root);
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+            entrySet = ret;
+        }
+        return ret;
+    }
+
+    /**
+     * Report the differences between this map and another map. Values are compared by identity.
+     * Sub-tries which are shared by both maps are not visited, hence comparing a map with a map
+     * derived from it via {@link #with(Object, Object)} and {@link #without(Object)} takes time
+     * proportional to the number of updates between them, not to the size of the maps.
+     *
+     * @param other Map to compare to
+     * @param callback Receiver of differences
+     */
+    @SuppressWarnings("unchecked")
+    public void diff(final PersistentHashMap<K, V> other, final DiffCallback<? super K, ? super V> callback) {
+        diffNodes(0, root, other.root, (DiffCallback<Object, Object>) Preconditions.checkNotNull(callback));
+    }
+
+    private static void diffNodes(final int shift, final Node before, final Node after,
+            final DiffCallback<Object, Object> callback) {
+        if (before == after) {
+            return;
+        }
+
+        if (before instanceof BitmapNode && after instanceof BitmapNode) {
+            diffBitmapNodes(shift, (BitmapNode) before, (BitmapNode) after, callback);
+        } else {
+            diffEntries(shift, before, after, callback);
+        }
+    }
+
+    private static void diffBitmapNodes(final int shift, final BitmapNode before, final BitmapNode after,
+            final DiffCallback<Object, Object> callback) {
+        int bits = before.bitmap | after.bitmap;
+        while (bits != 0) {
+            final int bit = Integer.lowestOneBit(bits);
+            bits ^= bit;
+
+            if ((before.bitmap & bit) == 0) {
+                final int idx = after.index(bit);
+                reportAll(after.array[2 * idx], after.array[2 * idx + 1], true, callback);
+                continue;
+            }
+            if ((after.bitmap & bit) == 0) {
+                final int idx = before.index(bit);
+                reportAll(before.array[2 * idx], before.array[2 * idx + 1], false, callback);
+                continue;
+            }
+
+            final int bidx = before.index(bit);
+            final int aidx = after.index(bit);
+            final Object bk = before.array[2 * bidx];
+            final Object bv = before.array[2 * bidx + 1];
+            final Object ak = after.array[2 * aidx];
+            final Object av = after.array[2 * aidx + 1];
+            if (bk == null && ak == null) {
+                diffNodes(shift + BITS, (Node) bv, (Node) av, callback);
+            } else if (bk != null && ak != null) {
+                if (bk.equals(ak)) {
+                    if (bv != av) {
+                        callback.changed(ak, bv, av);
+                    }
+                } else {
+                    callback.removed(bk, bv);
+                    callback.added(ak, av);
+                }
+            } else {
+                // A leaf on one side and a subnode on the other, compare their entries
+                diffEntries(shift + BITS, slotNode(shift + BITS, bk, bv), slotNode(shift + BITS, ak, av), callback);
+            }
+        }
+    }
+
+    /**
+     * Compare two nodes entry by entry. This is used when their structure does not match.
+     */
+    private static void diffEntries(final int shift, final Node before, final Node after,
+            final DiffCallback<Object, Object> callback) {
+        final Iterator<Entry<Object, Object>> bi = new EntryIterator<>(before);
+        while (bi.hasNext()) {
+            final Entry<Object, Object> e = bi.next();
+            final Object av = after.get(shift, hash(e.getKey()), e.getKey());
+            if (av == null) {
+                callback.removed(e.getKey(), e.getValue());
+            } else if (av != e.getValue()) {
+                callback.changed(e.getKey(), e.getValue(), av);
+            }
+        }
+
+        final Iterator<Entry<Object, Object>> ai = new EntryIterator<>(after);
+        while (ai.hasNext()) {
+            final Entry<Object, Object> e = ai.next();
+            if (before.get(shift, hash(e.getKey()), e.getKey()) == null) {
+                callback.added(e.getKey(), e.getValue());
+            }
+        }
+    }
+
+    private static Node slotNode(final int shift, final Object key, final Object value) {
+        if (key == null) {
+            return (Node) value;
+        }
+        return new BitmapNode(bitpos(hash(key), shift), new Object[] { key, value });
+    }
+
+    private static void reportAll(final Object key, final Object value, final boolean added,
+            final DiffCallback<Object, Object> callback) {
+        if (key != null) {
+            report(key, value, added, callback);
+            return;
+        }
+
+        final Iterator<Entry<Object, Object>> it = new EntryIterator<>((Node) value);
+        while (it.hasNext()) {
+            final Entry<Object, Object> e = it.next();
+            report(e.getKey(), e.getValue(), added, callback);
+        }
+    }
+
+    private static void report(final Object key, final Object value, final boolean added,
+            final DiffCallback<Object, Object> callback) {
+        if (added) {
+            callback.added(key, value);
+        } else {
+            callback.removed(key, value);
+        }
+    }
+
+    private static int hash(final Object key) {
+        final int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int bitpos(final int hash, final int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    private static Object[] cloneAndSet(final Object[] array, final int i, final Object a) {
+        final Object[] ret = array.clone();
+        ret[i] = a;
+        return ret;
+    }
+
+    private static Object[] cloneAndSet(final Object[] array, final int i, final Object a, final int j, final Object b) {
+        final Object[] ret = array.clone();
+        ret[i] = a;
+        ret[j] = b;
+        return ret;
+    }
+
+    private static Object[] insertPair(final Object[] array, final int idx, final Object key, final Object value) {
+        final Object[] ret = new Object[array.length + 2];
+        System.arraycopy(array, 0, ret, 0, 2 * idx);
+        ret[2 * idx] = key;
+        ret[2 * idx + 1] = value;
+        System.arraycopy(array, 2 * idx, ret, 2 * (idx + 1), array.length - 2 * idx);
+        return ret;
+    }
+
+    private static Object[] removePair(final Object[] array, final int idx) {
+        final Object[] ret = new Object[array.length - 2];
+        System.arraycopy(array, 0, ret, 0, 2 * idx);
+        System.arraycopy(array, 2 * (idx + 1), ret, 2 * idx, ret.length - 2 * idx);
+        return ret;
+    }
+
+    private static final class Box {
+        boolean value;
+    }
+
+    /**
+     * A trie node. Its array holds key/value pairs. A null key indicates the value
+     * is a child {@link Node}.
+     */
+    private abstract static class Node {
+        final Object[] array;
+
+        Node(final Object[] array) {
+            this.array = array;
+        }
+
+        abstract Object get(int shift, int hash, Object key);
+
+        /**
+         * @return this node if the mapping is already present
+         */
+        abstract Node put(int shift, int hash, Object key, Object value, Box added);
+
+        /**
+         * @return this node if the key is not present, null if the node became empty
+         */
+        abstract Node remove(int shift, int hash, Object key);
+    }
+
+    private static final class BitmapNode extends Node {
+        static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        private final int bitmap;
+
+        BitmapNode(final int bitmap, final Object[] array) {
+            super(array);
+            this.bitmap = bitmap;
+        }
+
+        private int index(final int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        /**
+         * Return the only leaf entry in this node, or null if the node has more entries or
+         * its only entry is a subnode.
+         */
+        private Object[] singleLeaf() {
+            if (array.length == 2 && array[0] != null) {
+                return array;
+            }
+            return null;
+        }
+
+        @Override
+        Object get(final int shift, final int hash, final Object key) {
+            final int bit = bitpos(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+
+            final int idx = index(bit);
+            final Object k = array[2 * idx];
+            final Object v = array[2 * idx + 1];
+            if (k == null) {
+                return ((Node) v).get(shift + BITS, hash, key);
+            }
+            return key.equals(k) ? v : null;
+        }
+
+        @Override
+        Node put(final int shift, final int hash, final Object key, final Object value, final Box added) {
+            final int bit = bitpos(hash, shift);
+            final int idx = index(bit);
+
+            if ((bitmap & bit) == 0) {
+                added.value = true;
+                return new BitmapNode(bitmap | bit, insertPair(array, idx, key, value));
+            }
+
+            final Object k = array[2 * idx];
+            final Object v = array[2 * idx + 1];
+            if (k == null) {
+                final Node n = ((Node) v).put(shift + BITS, hash, key, value, added);
+                if (n == v) {
+                    return this;
+                }
+                return new BitmapNode(bitmap, cloneAndSet(array, 2 * idx + 1, n));
+            }
+            if (key.equals(k)) {
+                if (value == v) {
+                    return this;
+                }
+                return new BitmapNode(bitmap, cloneAndSet(array, 2 * idx + 1, value));
+            }
+
+            added.value = true;
+            return new BitmapNode(bitmap, cloneAndSet(array, 2 * idx, null, 2 * idx + 1,
+                createNode(shift + BITS, k, v, hash, key, value)));
+        }
+
+        @Override
+        Node remove(final int shift, final int hash, final Object key) {
+            final int bit = bitpos(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+
+            final int idx = index(bit);
+            final Object k = array[2 * idx];
+            final Object v = array[2 * idx + 1];
+            if (k == null) {
+                final Node n = ((Node) v).remove(shift + BITS, hash, key);
+                if (n == v) {
+                    return this;
+                }
+                if (n != null) {
+                    // Pull single leaves up, so we do not keep chains of single-entry nodes
+                    final Object[] leaf = n instanceof BitmapNode ? ((BitmapNode) n).singleLeaf() : null;
+                    if (leaf != null) {
+                        return new BitmapNode(bitmap, cloneAndSet(array, 2 * idx, leaf[0], 2 * idx + 1, leaf[1]));
+                    }
+                    return new BitmapNode(bitmap, cloneAndSet(array, 2 * idx + 1, n));
+                }
+            } else if (!key.equals(k)) {
+                return this;
+            }
+
+            if (bitmap == bit) {
+                return null;
+            }
+            return new BitmapNode(bitmap ^ bit, removePair(array, idx));
+        }
+
+        private static Node createNode(final int shift, final Object k1, final Object v1, final int h2,
+                final Object k2, final Object v2) {
+            final int h1 = hash(k1);
+            if (h1 == h2) {
+                return new CollisionNode(h1, new Object[] { k1, v1, k2, v2 });
+            }
+
+            final Box ignored = new Box();
+            return EMPTY.put(shift, h1, k1, v1, ignored).put(shift, h2, k2, v2, ignored);
+        }
+    }
+
+    private static final class CollisionNode extends Node {
+        private final int hash;
+
+        CollisionNode(final int hash, final Object[] array) {
+            super(array);
+            this.hash = hash;
+        }
+
+        private int find(final Object key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Object get(final int shift, final int hash, final Object key) {
+            if (hash != this.hash) {
+                return null;
+            }
+
+            final int i = find(key);
+            return i != -1 ? array[i + 1] : null;
+        }
+
+        @Override
+        Node put(final int shift, final int hash, final Object key, final Object value, final Box added) {
+            if (hash != this.hash) {
+                // Nest this node in a bitmap node and retry
+                return new BitmapNode(bitpos(this.hash, shift), new Object[] { null, this })
+                    .put(shift, hash, key, value, added);
+            }
+
+            final int i = find(key);
+            if (i != -1) {
+                if (array[i + 1] == value) {
+                    return this;
+                }
+                return new CollisionNode(hash, cloneAndSet(array, i + 1, value));
+            }
+
+            added.value = true;
+            return new CollisionNode(hash, insertPair(array, array.length / 2, key, value));
+        }
+
+        @Override
+        Node remove(final int shift, final int hash, final Object key) {
+            if (hash != this.hash) {
+                return this;
+            }
+
+            final int i = find(key);
+            if (i == -1) {
+                return this;
+            }
+            if (array.length == 4) {
+                // Single entry remains, turn it into a leaf which will be pulled up by the parent
+                final int other = i == 0 ? 2 : 0;
+                return new BitmapNode(bitpos(hash, shift), new Object[] { array[other], array[other + 1] });
+            }
+            return new CollisionNode(hash, removePair(array, i / 2));
+        }
+    }
+
+    private static final class EntryIterator<K, V> implements Iterator<Entry<K, V>> {
+        private final Object[][] arrays = new Object[MAX_DEPTH][];
+        private final int[] offsets = new int[MAX_DEPTH];
+        private Entry<K, V> next;
+        private int depth;
+
+        EntryIterator(final Node root) {
+            arrays[0] = root.array;
+            advance();
+        }
+
+        @SuppressWarnings("unchecked")
+        private void advance() {
+            while (depth >= 0) {
+                final Object[] a = arrays[depth];
+                final int off = offsets[depth];
+                if (off >= a.length) {
+                    arrays[depth--] = null;
+                    continue;
+                }
+
+                offsets[depth] = off + 2;
+                final Object k = a[off];
+                if (k == null) {
+                    depth++;
+                    arrays[depth] = ((Node) a[off + 1]).array;
+                    offsets[depth] = 0;
+                } else {
+                    next = new SimpleImmutableEntry<>((K) k, (V) a[off + 1]);
+                    return;
+                }
+            }
+
+            next = null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            final Entry<K, V> ret = next;
+            if (ret == null) {
+                throw new NoSuchElementException();
+            }
+            advance();
+            return ret;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.util;
+
+import com.google.common.base.Preconditions;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A mutable facade on top of a {@link PersistentHashMap}. This is what we give out from
+ * MapAdaptor.takeSnapshot() when presented with a persistent map. Taking the snapshot is
+ * an O(1) operation, modifications are applied by replacing the backing map with its
+ * updated version.
+ *
+ * The keySet()/values()/entrySet() views support removal and {@link Entry#setValue(Object)}.
+ * Their iterators traverse the version of the map from which they were created, hence they
+ * are not affected by concurrent modifications.
+ *
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+final class ReadWritePersistentHashMap<K, V> extends AbstractMap<K, V> {
+    private static final Logger LOG = LoggerFactory.getLogger(ReadWritePersistentHashMap.class);
+    private PersistentHashMap<K, V> delegate;
+
+    ReadWritePersistentHashMap(final PersistentHashMap<K, V> delegate) {
+        this.delegate = Preconditions.checkNotNull(delegate);
+    }
+
+    Map<K, V> toReadOnly() {
+        final Map<K, V> ret = delegate;
+        LOG.trace("Converted read-write persistent map {} to read-only {}", this, ret);
+        return ret;
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return delegate.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return delegate.containsKey(key);
+    }
+
+    @Override
+    public V get(final Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public V put(final K key, final V value) {
+        final V ret = delegate.get(key);
+        delegate = delegate.with(key, value);
+        return ret;
+    }
+
+    @Override
+    public V remove(final Object key) {
+        final V ret = delegate.get(key);
+        if (ret != null) {
+            delegate = delegate.without(key);
+        }
+        return ret;
+    }
+
+    @Override
+    public void clear() {
+        delegate = PersistentHashMap.of();
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new EntrySet();
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<K, V>> {
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            final Iterator<Entry<K, V>> it = delegate.entrySet().iterator();
+            return new Iterator<Entry<K, V>>() {
+                private Entry<K, V> last;
+
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public Entry<K, V> next() {
+                    last = it.next();
+                    return new WriteThroughEntry(last);
+                }
+
+                @Override
+                public void remove() {
+                    Preconditions.checkState(last != null, "No element to remove");
+                    ReadWritePersistentHashMap.this.remove(last.getKey());
+                    last = null;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return delegate.size();
+        }
+
+        @Override
+        public void clear() {
+            ReadWritePersistentHashMap.this.clear();
+        }
+    }
+
+    private final class WriteThroughEntry extends SimpleEntry<K, V> {
+        private static final long serialVersionUID = 1L;
+
+        WriteThroughEntry(final Entry<K, V> entry) {
+            super(entry);
+        }
+
+        @Override
+        public V setValue(final V value) {
+            ReadWritePersistentHashMap.this.put(getKey(), value);
+            return super.setValue(value);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.yangtools.util.concurrent;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * A histogram with buckets whose bounds are powers of two, laid out as described in
+ * {@link ListenerNotificationQueueStats}. Recording a value is a constant-time, lock-free
+ * operation.
+ */
+final class ExponentialHistogram {
+
+    private final AtomicLongArray buckets;
+
+    ExponentialHistogram( final int bucketCount ) {
+        Preconditions.checkArgument( bucketCount > 0, "bucketCount must be > 0" );
+        this.buckets = new AtomicLongArray( bucketCount );
+    }
+
+    void record( final long value ) {
+        final int bucket = value < 1 ? 0 : 64 - Long.numberOfLeadingZeros( value );
+        buckets.incrementAndGet( Math.min( bucket, buckets.length() - 1 ) );
+    }
+
+    long[] snapshot() {
+        final long[] ret = new long[buckets.length()];
+        for( int i = 0; i < ret.length; i++ ) {
+            ret[i] = buckets.get( i );
+        }
+        return ret;
+    }
+}
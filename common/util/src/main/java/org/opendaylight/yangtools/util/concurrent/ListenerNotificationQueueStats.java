@@ -13,19 +13,48 @@ import java.beans.ConstructorProperties;
 /**
  * Class used by the {@link QueuedNotificationManager} that contains a snapshot of notification
  * queue statistics for a listener.
+ * <p>
+ * Counters, histograms and the largest queue size are accumulated over all notifications the
+ * listener has been sent by the manager, across all of its notification tasks, for as long as
+ * the listener is reachable.
+ * <p>
+ * Histogram bucket 0 counts values less than 1, bucket <i>i</i> counts values in the range
+ * [2<sup><i>i</i>-1</sup>, 2<sup><i>i</i></sup>) and the last bucket also counts all larger
+ * values.
  *
  * @author Thomas Pantelis
  * @see QueuedNotificationManager
  */
 public class ListenerNotificationQueueStats {
 
+    private static final long[] EMPTY_HISTOGRAM = new long[0];
+
     private final String listenerClassName;
     private final int currentQueueSize;
+    private final long largestQueueSize;
+    private final long droppedNotifications;
+    private final long coalescedNotifications;
+    private final long[] batchSizeHistogram;
+    private final long[] latencyHistogram;
 
     @ConstructorProperties({"listenerClassName","currentQueueSize"})
     public ListenerNotificationQueueStats( String listenerClassName, int currentQueueSize ) {
+        this( listenerClassName, currentQueueSize, currentQueueSize, 0, 0, EMPTY_HISTOGRAM,
+              EMPTY_HISTOGRAM );
+    }
+
+    @ConstructorProperties({"listenerClassName","currentQueueSize","largestQueueSize",
+        "droppedNotifications","coalescedNotifications","batchSizeHistogram","latencyHistogram"})
+    public ListenerNotificationQueueStats( String listenerClassName, int currentQueueSize,
+            long largestQueueSize, long droppedNotifications, long coalescedNotifications,
+            long[] batchSizeHistogram, long[] latencyHistogram ) {
         this.listenerClassName = listenerClassName;
         this.currentQueueSize = currentQueueSize;
+        this.largestQueueSize = largestQueueSize;
+        this.droppedNotifications = droppedNotifications;
+        this.coalescedNotifications = coalescedNotifications;
+        this.batchSizeHistogram = batchSizeHistogram.clone();
+        this.latencyHistogram = latencyHistogram.clone();
     }
 
     /**
@@ -41,4 +70,40 @@ public class ListenerNotificationQueueStats {
     public int getCurrentQueueSize(){
         return currentQueueSize;
     }
+
+    /**
+     * Returns the largest notification queue size.
+     */
+    public long getLargestQueueSize(){
+        return largestQueueSize;
+    }
+
+    /**
+     * Returns the number of notifications which were dropped because the queue was full.
+     */
+    public long getDroppedNotifications(){
+        return droppedNotifications;
+    }
+
+    /**
+     * Returns the number of notifications which were superseded by a later notification before
+     * being dispatched.
+     */
+    public long getCoalescedNotifications(){
+        return coalescedNotifications;
+    }
+
+    /**
+     * Returns the histogram of the number of notifications dispatched per listener invocation.
+     */
+    public long[] getBatchSizeHistogram(){
+        return batchSizeHistogram.clone();
+    }
+
+    /**
+     * Returns the histogram of listener invocation latency, in microseconds.
+     */
+    public long[] getLatencyHistogram(){
+        return latencyHistogram.clone();
+    }
 }
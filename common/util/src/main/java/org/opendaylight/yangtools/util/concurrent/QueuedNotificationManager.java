@@ -10,14 +10,15 @@ package org.opendaylight.yangtools.util.concurrent;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.BlockingQueue;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executor;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -27,6 +28,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Preconditions;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
 
 /**
  * This class manages queuing and dispatching notifications for multiple listeners concurrently.
@@ -39,6 +45,12 @@ import com.google.common.base.Preconditions;
  * listener. Any subsequent notifications that occur before all previous notifications have been
  * dispatched are appended to the existing queue. When all notifications have been dispatched, the
  * queue and task are discarded.
+ * <p>
+ * Notifications can optionally be delivered in batches through a {@link BatchInvoker}, which
+ * allows a listener to process a burst of notifications in a single call. Independently of that,
+ * a {@link NotificationCoalescer} can be used to collapse queued notifications which have been
+ * superseded by a later one, and a {@link BackpressurePolicy} determines what happens when a
+ * listener's queue is full.
  *
  * @author Thomas Pantelis
  *
@@ -66,14 +78,89 @@ public class QueuedNotificationManager<L,N> implements NotificationManager<L,N>
         void invokeListener( L listener, N notification );
     }
 
+    /**
+     * Interface implemented by clients that invoke listeners with batches of notifications.
+     *
+     * @param <L> the listener type
+     * @param <N> the notification type
+     */
+    public interface BatchInvoker<L,N> {
+
+        /**
+         * Called to invoke a listener with one or more notifications, in the order they were
+         * submitted.
+         *
+         * @param listener the listener to invoke
+         * @param notifications the non-empty, immutable list of notifications to send
+         */
+        void invokeListener( L listener, List<N> notifications );
+    }
+
+    /**
+     * Interface implemented by clients that allow notifications to be collapsed. A notification
+     * submitted for a listener replaces a previously-submitted notification with the same
+     * coalescing key, if that notification has not been dispatched yet. The replacing
+     * notification takes the place of the replaced one in the queue, hence notifications
+     * should share a key only if the later one fully supersedes the earlier one.
+     *
+     * @param <N> the notification type
+     */
+    public interface NotificationCoalescer<N> {
+
+        /**
+         * Returns the coalescing key of a notification.
+         *
+         * @param notification the notification
+         * @return the key, or null if the notification should never be coalesced
+         */
+        Object getCoalescingKey( N notification );
+    }
+
+    /**
+     * Policies for handling notifications submitted to a listener whose queue is full.
+     */
+    public enum BackpressurePolicy {
+        /**
+         * Block the submitting thread until there is room in the queue.
+         */
+        BLOCK,
+        /**
+         * Discard the oldest queued notification to make room for the new one.
+         */
+        DROP_OLDEST,
+        /**
+         * Throw a {@link RejectedExecutionException} to the submitting thread. Notifications
+         * submitted in the same call before the queue became full remain queued and are
+         * dispatched, even if the call was the listener's first submission.
+         */
+        FAIL_FAST
+    }
+
+    private static final int LATENCY_HISTOGRAM_BUCKETS = 32;
+
     private static final Logger LOG = LoggerFactory.getLogger( QueuedNotificationManager.class );
 
     private final Executor executor;
     private final Invoker<L,N> listenerInvoker;
+    private final BatchInvoker<L,N> batchInvoker;
+    private final NotificationCoalescer<N> coalescer;
+    private final BackpressurePolicy backpressurePolicy;
+    private final int maxBatchSize;
+    private final int batchSizeBuckets;
 
     private final ConcurrentMap<ListenerKey<L>,NotificationTask>
                                                           listenerCache = new ConcurrentHashMap<>();
 
+    // Statistics outlive the notification tasks, but not the listeners. Weak keys are compared
+    // by identity, just like ListenerKey.
+    private final LoadingCache<Object, ListenerStats> listenerStats =
+            CacheBuilder.newBuilder().weakKeys().build( new CacheLoader<Object, ListenerStats>() {
+                @Override
+                public ListenerStats load( Object listener ) {
+                    return new ListenerStats( batchSizeBuckets );
+                }
+            } );
+
     private final String name;
     private final int maxQueueCapacity;
 
@@ -87,11 +174,61 @@ public class QueuedNotificationManager<L,N> implements NotificationManager<L,N>
      */
     public QueuedNotificationManager( Executor executor, Invoker<L,N> listenerInvoker,
             int maxQueueCapacity, String name ) {
+        this( executor, listenerInvoker, maxQueueCapacity, BackpressurePolicy.BLOCK, null, name );
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param executor the {@link Executor} to use for notification tasks
+     * @param listenerInvoker the {@link Invoker} to use for invoking listeners
+     * @param maxQueueCapacity the capacity of each listener queue
+     * @param backpressurePolicy the policy applied when a listener queue is full
+     * @param coalescer the {@link NotificationCoalescer} to use, or null to disable coalescing
+     * @param name the name of this instance for logging info
+     */
+    public QueuedNotificationManager( Executor executor, Invoker<L,N> listenerInvoker,
+            int maxQueueCapacity, BackpressurePolicy backpressurePolicy,
+            NotificationCoalescer<N> coalescer, String name ) {
+        this( executor, Preconditions.checkNotNull( listenerInvoker ), null, 1, maxQueueCapacity,
+              backpressurePolicy, coalescer, name );
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param executor the {@link Executor} to use for notification tasks
+     * @param batchInvoker the {@link BatchInvoker} to use for invoking listeners
+     * @param maxBatchSize the maximum number of notifications passed to a single invocation
+     * @param maxQueueCapacity the capacity of each listener queue
+     * @param backpressurePolicy the policy applied when a listener queue is full
+     * @param coalescer the {@link NotificationCoalescer} to use, or null to disable coalescing
+     * @param name the name of this instance for logging info
+     */
+    public QueuedNotificationManager( Executor executor, BatchInvoker<L,N> batchInvoker,
+            int maxBatchSize, int maxQueueCapacity, BackpressurePolicy backpressurePolicy,
+            NotificationCoalescer<N> coalescer, String name ) {
+        this( executor, null, Preconditions.checkNotNull( batchInvoker ), maxBatchSize,
+              maxQueueCapacity, backpressurePolicy, coalescer, name );
+    }
+
+    private QueuedNotificationManager( Executor executor, Invoker<L,N> listenerInvoker,
+            BatchInvoker<L,N> batchInvoker, int maxBatchSize, int maxQueueCapacity,
+            BackpressurePolicy backpressurePolicy, NotificationCoalescer<N> coalescer,
+            String name ) {
         this.executor = Preconditions.checkNotNull( executor );
-        this.listenerInvoker = Preconditions.checkNotNull( listenerInvoker );
+        this.listenerInvoker = listenerInvoker;
+        this.batchInvoker = batchInvoker;
+        Preconditions.checkArgument( maxBatchSize > 0, "maxBatchSize must be > 0 " );
+        this.maxBatchSize = maxBatchSize;
         Preconditions.checkArgument( maxQueueCapacity > 0, "maxQueueCapacity must be > 0 " );
         this.maxQueueCapacity = maxQueueCapacity;
+        this.backpressurePolicy = Preconditions.checkNotNull( backpressurePolicy );
+        this.coalescer = coalescer;
         this.name = Preconditions.checkNotNull( name );
+
+        // Enough buckets for the largest possible batch to have its own
+        this.batchSizeBuckets = 33 - Integer.numberOfLeadingZeros( maxBatchSize );
     }
 
     /* (non-Javadoc)
@@ -126,6 +263,7 @@ public class QueuedNotificationManager<L,N> implements NotificationManager<L,N>
 
         ListenerKey<L> key = new ListenerKey<>( listener );
         NotificationTask newNotificationTask = null;
+        Iterable<N> pending = notifications;
 
         // Keep looping until we are either able to add a new NotificationTask or are able to
         // add our notifications to an existing NotificationTask. Eventually one or the other
@@ -135,7 +273,7 @@ public class QueuedNotificationManager<L,N> implements NotificationManager<L,N>
             while( true ) {
                 NotificationTask existingTask = listenerCache.get( key );
 
-                if( existingTask == null || !existingTask.submitNotifications( notifications ) ) {
+                if( existingTask == null || !existingTask.submitNotifications( pending ) ) {
 
                     // Either there's no existing task or we couldn't add our notifications to the
                     // existing one because it's in the process of exiting and removing itself from
@@ -146,7 +284,7 @@ public class QueuedNotificationManager<L,N> implements NotificationManager<L,N>
                     // notification ordering. In any case loop back up and try again.
 
                     if( newNotificationTask == null ) {
-                        newNotificationTask = new NotificationTask( key, notifications );
+                        newNotificationTask = new NotificationTask( key, pending );
                     }
 
                     existingTask = listenerCache.putIfAbsent( key, newNotificationTask );
@@ -160,7 +298,18 @@ public class QueuedNotificationManager<L,N> implements NotificationManager<L,N>
                                    name, listener.toString() );
 
                         executor.execute( newNotificationTask );
-                        break;
+
+                        // The new task could not queue more notifications than fit into its
+                        // queue. Now that it is running, either report the rejection or loop
+                        // back up and submit the remainder the same way as to any running task.
+
+                        newNotificationTask.checkInitialRejection();
+                        pending = newNotificationTask.getInitialOverflow();
+                        if( pending == null ) {
+                            break;
+                        }
+
+                        newNotificationTask = null;
                     }
                 } else {
 
@@ -185,14 +334,33 @@ public class QueuedNotificationManager<L,N> implements NotificationManager<L,N>
     }
 
     /**
-     * Returns {@link ListenerNotificationQueueStats} instances for each current listener
-     * notification task in progress.
+     * Returns {@link ListenerNotificationQueueStats} instances for each listener which has been
+     * notified and is still reachable, whether or not it has a notification task in progress.
+     * Counters and histograms are accumulated over all of the listener's notification tasks,
+     * the current queue size is taken from the task in progress, if there is one.
      */
     public List<ListenerNotificationQueueStats> getListenerNotificationQueueStats() {
-        List<ListenerNotificationQueueStats> statsList = new ArrayList<>( listenerCache.size() );
-        for( NotificationTask task: listenerCache.values() ) {
+        final Map<Object, ListenerStats> allStats = listenerStats.asMap();
+        List<ListenerNotificationQueueStats> statsList = new ArrayList<>( allStats.size() );
+        for( Map.Entry<Object, ListenerStats> entry: allStats.entrySet() ) {
+            final ListenerStats stats = entry.getValue();
+            final NotificationTask task = listenerCache.get( new ListenerKey<>( entry.getKey() ) );
+
+            final int queueSize;
+            final long largestQueueSize;
+            if( task != null ) {
+                queueSize = task.notificationQueue.size();
+                largestQueueSize = Math.max( stats.largestQueueSize.get(),
+                                             task.notificationQueue.getLargestQueueSize() );
+            } else {
+                queueSize = 0;
+                largestQueueSize = stats.largestQueueSize.get();
+            }
+
             statsList.add( new ListenerNotificationQueueStats(
-                    task.listenerKey.toString(), task.notificationQueue.size() ) );
+                    entry.getKey().toString(), queueSize, largestQueueSize,
+                    stats.droppedNotifications.get(), stats.coalescedNotifications.get(),
+                    stats.batchSizes.snapshot(), stats.latencies.snapshot() ) );
         }
 
         return statsList ;
@@ -205,6 +373,20 @@ public class QueuedNotificationManager<L,N> implements NotificationManager<L,N>
         return maxQueueCapacity;
     }
 
+    /**
+     * Returns the maximum number of notifications passed to a single listener invocation.
+     */
+    public int getMaxBatchSize(){
+        return maxBatchSize;
+    }
+
+    /**
+     * Returns the policy applied when a listener queue is full.
+     */
+    public BackpressurePolicy getBackpressurePolicy(){
+        return backpressurePolicy;
+    }
+
     /**
      * Returns the {@link Executor} to used for notification tasks.
      */
@@ -255,16 +437,90 @@ public class QueuedNotificationManager<L,N> implements NotificationManager<L,N>
         }
     }
 
+    /**
+     * Statistics of a single listener, accumulated over all of its notification tasks.
+     */
+    private static final class ListenerStats {
+
+        final ExponentialHistogram batchSizes;
+
+        final ExponentialHistogram latencies = new ExponentialHistogram( LATENCY_HISTOGRAM_BUCKETS );
+
+        final AtomicLong droppedNotifications = new AtomicLong();
+
+        final AtomicLong coalescedNotifications = new AtomicLong();
+
+        final AtomicLong largestQueueSize = new AtomicLong();
+
+        ListenerStats( int batchSizeBuckets ) {
+            this.batchSizes = new ExponentialHistogram( batchSizeBuckets );
+        }
+
+        void updateLargestQueueSize( long size ) {
+            long current;
+            do {
+                current = largestQueueSize.get();
+                if( size <= current ) {
+                    return;
+                }
+            } while( !largestQueueSize.compareAndSet( current, size ) );
+        }
+    }
+
+    /**
+     * Queue entry holding a notification which can still be replaced by a later notification
+     * with the same coalescing key. Once the entry has been taken off the queue, it can no
+     * longer be replaced.
+     */
+    private static final class CoalescedNotification<N> {
+
+        private final Object key;
+
+        @GuardedBy("this")
+        private N notification;
+
+        @GuardedBy("this")
+        private boolean taken = false;
+
+        CoalescedNotification( Object key, N notification ) {
+            this.key = key;
+            this.notification = notification;
+        }
+
+        synchronized boolean replace( N newNotification ) {
+            if( taken ) {
+                return false;
+            }
+
+            notification = newNotification;
+            return true;
+        }
+
+        synchronized N take() {
+            taken = true;
+            return notification;
+        }
+    }
+
     /**
      * Executor task for a single listener that queues notifications and sends them serially to the
      * listener.
      */
     private class NotificationTask implements Runnable {
 
-        private final BlockingQueue<N> notificationQueue;
+        // Holds either notifications or CoalescedNotification entries
+        private final TrackingLinkedBlockingQueue<Object> notificationQueue;
+
+        private final ConcurrentMap<Object, CoalescedNotification<N>> pendingCoalesced;
+
+        private final ListenerStats stats;
 
         private volatile boolean done = false;
 
+        // Set by the constructor, read by the submitting thread once the task has been started
+        private RejectedExecutionException initialRejection;
+        private List<N> initialOverflow;
+
         @GuardedBy("queuingLock")
         private boolean queuedNotifications = false;
 
@@ -272,16 +528,55 @@ public class QueuedNotificationManager<L,N> implements NotificationManager<L,N>
 
         private final ListenerKey<L> listenerKey;
 
-        NotificationTask( ListenerKey<L> listenerKey, Iterable<N> notifications ) {
+        NotificationTask( ListenerKey<L> listenerKey, Iterable<N> notifications )
+                throws InterruptedException {
 
             this.listenerKey = listenerKey;
-            this.notificationQueue = new LinkedBlockingQueue<>( maxQueueCapacity );
+            this.notificationQueue = new TrackingLinkedBlockingQueue<>( maxQueueCapacity );
+            this.pendingCoalesced = coalescer == null ? null :
+                new ConcurrentHashMap<Object, CoalescedNotification<N>>();
+            this.stats = listenerStats.getUnchecked( listenerKey.getListener() );
+
+            // Nobody is draining the queue yet, so we must not block or throw here, as that would
+            // lose the notifications queued so far. Anything which does not fit is remembered
+            // and dealt with once the task is running.
+
+            queuingLock.lock();
+            try {
+                final Iterator<N> it = notifications.iterator();
+                while( it.hasNext() ) {
+                    final N notification = it.next();
+                    if( !queueNotification( notification, false ) ) {
+                        initialOverflow = new ArrayList<>();
+                        initialOverflow.add( notification );
+                        Iterators.addAll( initialOverflow, it );
+                        break;
+                    }
+                }
+            } catch( RejectedExecutionException e ) {
+                initialRejection = e;
+            } finally {
+                queuingLock.unlock();
+            }
+        }
 
-            for( N notification: notifications ) {
-                this.notificationQueue.add( notification );
+        /**
+         * Throws the rejection of a notification submitted to this task's constructor, if any.
+         */
+        void checkInitialRejection() {
+            if( initialRejection != null ) {
+                throw initialRejection;
             }
         }
 
+        /**
+         * Returns the notifications submitted to this task's constructor which did not fit into
+         * the queue, or null if all of them were queued.
+         */
+        List<N> getInitialOverflow() {
+            return initialOverflow;
+        }
+
         boolean submitNotifications( Iterable<N> notifications ) throws InterruptedException {
 
             queuingLock.lock();
@@ -294,51 +589,157 @@ public class QueuedNotificationManager<L,N> implements NotificationManager<L,N>
                     return false;
                 }
 
-                for( N notification: notifications ) {
+                try {
+                    for( N notification: notifications ) {
+                        queueNotification( notification, true );
+                    }
+                } finally {
 
-                    while( true ) {
+                    // Set the queuedNotifications flag to tell #run that we've just queued
+                    // notifications and not to exit yet, even if it thinks the queue is empty at
+                    // this point. This needs to happen even if we failed part way through, as
+                    // some notifications may have been queued.
 
-                        // Try to offer for up to a minute and log a message if it times out.
+                    queuedNotifications = true;
+                }
 
-                        // FIXME: we loop forever to guarantee delivery however this leaves it open
-                        // for 1 rogue listener to bring everyone to a halt. Another option is to
-                        // limit the tries and give up after a while and drop the notification.
-                        // Given a reasonably large queue capacity and long timeout, if we still
-                        // can't queue then most likely the listener is an unrecoverable state
-                        // (deadlock or endless loop).
+            } finally {
+                queuingLock.unlock();
+            }
 
-                        if( LOG.isDebugEnabled() ) {
-                            LOG.debug( "{}: Offering notification to the queue for listener {}: {}",
-                                       name, listenerKey.toString(), notification );
-                        }
+            return true;
+        }
 
-                        if( notificationQueue.offer( notification, 1, TimeUnit.MINUTES ) ) {
-                            break;
-                        }
+        /**
+         * Queues a notification according to the backpressure policy.
+         *
+         * @return false if the notification could not be queued without blocking and blocking
+         *         was not allowed
+         */
+        @GuardedBy("queuingLock")
+        private boolean queueNotification( N notification, boolean mayBlock )
+                throws InterruptedException {
+
+            final Object key = coalescer == null ? null : coalescer.getCoalescingKey( notification );
+            if( key == null ) {
+                return offer( notification, mayBlock );
+            }
 
-                        LOG.warn(
-                            "{}: Timed out trying to offer a notification to the queue for listener {}." +
-                            "The queue has reached its capacity of {}",
-                            name, listenerKey.toString(), maxQueueCapacity );
+            CoalescedNotification<N> entry = pendingCoalesced.get( key );
+            if( entry != null && entry.replace( notification ) ) {
+                if( LOG.isDebugEnabled() ) {
+                    LOG.debug( "{}: Coalesced notification for listener {}: {}",
+                               name, listenerKey.toString(), notification );
+                }
+
+                stats.coalescedNotifications.incrementAndGet();
+                return true;
+            }
+
+            entry = new CoalescedNotification<>( key, notification );
+            pendingCoalesced.put( key, entry );
+            boolean queued = false;
+            try {
+                queued = offer( entry, mayBlock );
+            } finally {
+                if( !queued ) {
+                    pendingCoalesced.remove( key, entry );
+                }
+            }
+            return queued;
+        }
+
+        @GuardedBy("queuingLock")
+        private boolean offer( Object entry, boolean mayBlock ) throws InterruptedException {
+
+            if( LOG.isDebugEnabled() ) {
+                LOG.debug( "{}: Offering notification to the queue for listener {}: {}",
+                           name, listenerKey.toString(), entry );
+            }
+
+            switch( backpressurePolicy ) {
+            case BLOCK:
+                if( !mayBlock ) {
+                    return notificationQueue.offer( entry );
+                }
+
+                while( true ) {
+
+                    // Try to offer for up to a minute and log a message if it times out.
+
+                    // FIXME: we loop forever to guarantee delivery however this leaves it open
+                    // for 1 rogue listener to bring everyone to a halt. Another option is to
+                    // limit the tries and give up after a while and drop the notification.
+                    // Given a reasonably large queue capacity and long timeout, if we still
+                    // can't queue then most likely the listener is an unrecoverable state
+                    // (deadlock or endless loop). The DROP_OLDEST and FAIL_FAST policies
+                    // avoid this.
+
+                    if( notificationQueue.offer( entry, 1, TimeUnit.MINUTES ) ) {
+                        return true;
                     }
+
+                    LOG.warn(
+                        "{}: Timed out trying to offer a notification to the queue for listener {}." +
+                        "The queue has reached its capacity of {}",
+                        name, listenerKey.toString(), maxQueueCapacity );
                 }
 
-                // Set the queuedNotifications flag to tell #run that we've just queued
-                // notifications and not to exit yet, even if it thinks the queue is empty at this
-                // point.
+            case DROP_OLDEST:
+                while( !notificationQueue.offer( entry ) ) {
 
-                queuedNotifications = true;
+                    // The queue is full - make room by discarding the head. #run may be removing
+                    // entries concurrently, in which case there is nothing to discard and we just
+                    // try again.
 
-            } finally {
-                queuingLock.unlock();
+                    Object dropped = notificationQueue.poll();
+                    if( dropped != null ) {
+                        unwrap( dropped );
+                        stats.droppedNotifications.incrementAndGet();
+
+                        if( LOG.isDebugEnabled() ) {
+                            LOG.debug( "{}: Dropped notification for listener {}: {}",
+                                       name, listenerKey.toString(), dropped );
+                        }
+                    }
+                }
+                return true;
+
+            case FAIL_FAST:
+                if( !notificationQueue.offer( entry ) ) {
+                    throw new RejectedExecutionException( String.format(
+                        "%s: The queue for listener %s has reached its capacity of %d",
+                        name, listenerKey.toString(), maxQueueCapacity ) );
+                }
+                return true;
+
+            default:
+                throw new IllegalStateException( "Unhandled policy " + backpressurePolicy );
             }
+        }
 
-            return true;
+        /**
+         * Returns the notification held in a queue entry, preventing it from being replaced.
+         */
+        @SuppressWarnings("unchecked")
+        private N unwrap( Object entry ) {
+
+            if( !(entry instanceof CoalescedNotification) ) {
+                return (N) entry;
+            }
+
+            CoalescedNotification<N> coalesced = (CoalescedNotification<N>) entry;
+            N notification = coalesced.take();
+            pendingCoalesced.remove( coalesced.key, coalesced );
+            return notification;
         }
 
         @Override
         public void run() {
 
+            final List<Object> entries = new ArrayList<>( maxBatchSize );
+            final List<N> batch = new ArrayList<>( maxBatchSize );
+
             try {
                 // Loop until we've dispatched all the notifications in the queue.
 
@@ -347,8 +748,8 @@ public class QueuedNotificationManager<L,N> implements NotificationManager<L,N>
                     // Get the notification at the head of the queue, waiting a little bit for one
                     // to get offered.
 
-                    N notification = notificationQueue.poll( 10, TimeUnit.MILLISECONDS );
-                    if( notification == null ) {
+                    Object entry = notificationQueue.poll( 10, TimeUnit.MILLISECONDS );
+                    if( entry == null ) {
 
                         // The queue is empty - try to get the queuingLock. If we can't get the lock
                         // then #submitNotifications is in the process of offering to the queue so
@@ -377,9 +778,28 @@ public class QueuedNotificationManager<L,N> implements NotificationManager<L,N>
                                 queuingLock.unlock();
                             }
                         }
+
+                        continue;
                     }
 
-                    notifyListener( notification );
+                    // Grab whatever else is already queued, up to the batch size, so we do not
+                    // go through the queue's locking for each notification.
+
+                    entries.add( entry );
+                    if( maxBatchSize > 1 ) {
+                        notificationQueue.drainTo( entries, maxBatchSize - 1 );
+                    }
+
+                    for( Object e: entries ) {
+                        batch.add( unwrap( e ) );
+                    }
+                    entries.clear();
+
+                    try {
+                        notifyListener( batch );
+                    } finally {
+                        batch.clear();
+                    }
                 }
             } catch( InterruptedException e ) {
 
@@ -391,10 +811,55 @@ public class QueuedNotificationManager<L,N> implements NotificationManager<L,N>
                 // We're exiting, gracefully or not - either way make sure we always remove
                 // ourselves from the cache.
 
+                stats.updateLargestQueueSize( notificationQueue.getLargestQueueSize() );
                 listenerCache.remove( listenerKey );
             }
         }
 
+        private void notifyListener( List<N> notifications ) {
+
+            stats.batchSizes.record( notifications.size() );
+
+            if( batchInvoker == null ) {
+                for( N notification: notifications ) {
+                    notifyListener( notification );
+                }
+                return;
+            }
+
+            try {
+
+                if( LOG.isDebugEnabled() ) {
+                    LOG.debug( "{}: Invoking listener {} with notifications: {}",
+                               name, listenerKey.toString(), notifications );
+                }
+
+                final long startTime = System.nanoTime();
+                try {
+                    batchInvoker.invokeListener( listenerKey.getListener(),
+                                                 ImmutableList.copyOf( notifications ) );
+                } finally {
+                    stats.latencies.record( TimeUnit.NANOSECONDS.toMicros( System.nanoTime() - startTime ) );
+                }
+
+            } catch( RuntimeException e ) {
+
+                // We'll let a RuntimeException from the listener slide and keep sending any
+                // remaining notifications.
+
+                LOG.error( String.format( "%1$s: Error notifying listener %2$s", name,
+                           listenerKey.toString() ), e );
+
+            } catch( Error e ) {
+
+                // A JVM Error is severe - best practice is to throw them up the chain. Set done to
+                // true so no new notifications can be added to this task as we're about to bail.
+
+                done = true;
+                throw e;
+            }
+        }
+
         private void notifyListener( N notification ) {
 
             if( notification == null ) {
@@ -408,7 +873,12 @@ public class QueuedNotificationManager<L,N> implements NotificationManager<L,N>
                                name, listenerKey.toString(), notification );
                 }
 
-                listenerInvoker.invokeListener( listenerKey.getListener(), notification );
+                final long startTime = System.nanoTime();
+                try {
+                    listenerInvoker.invokeListener( listenerKey.getListener(), notification );
+                } finally {
+                    stats.latencies.record( TimeUnit.NANOSECONDS.toMicros( System.nanoTime() - startTime ) );
+                }
 
             } catch( RuntimeException e ) {
 
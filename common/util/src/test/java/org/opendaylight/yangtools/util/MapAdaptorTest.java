@@ -74,7 +74,7 @@ public class MapAdaptorTest {
     }
 
     @Test
-    public void testTreeToTrie() {
+    public void testTreeToPersistent() {
         final Map<String, String> input = new TreeMap<>();
         for (char c = 'a'; c <= 'z'; ++c) {
             final String s = String.valueOf(c);
@@ -87,10 +87,10 @@ public class MapAdaptorTest {
 
         final Map<String, String> opt1 = adaptor.optimize(input);
         assertEquals(input, opt1);
-        assertEquals(ReadOnlyTrieMap.class, opt1.getClass());
+        assertEquals(PersistentHashMap.class, opt1.getClass());
 
         final Map<String, String> snap2 = adaptor.takeSnapshot(opt1);
-        assertTrue(snap2 instanceof ReadWriteTrieMap);
+        assertTrue(snap2 instanceof ReadWritePersistentHashMap);
         assertEquals(opt1, snap2);
         assertEquals(26, snap2.size());
 
@@ -114,7 +114,7 @@ public class MapAdaptorTest {
     }
 
     @Test
-    public void testTrieToHash() {
+    public void testPersistentToHash() {
         final Map<String, String> input = new TreeMap<>();
         for (char c = 'a'; c <= 'k'; ++c) {
             final String s = String.valueOf(c);
@@ -124,12 +124,12 @@ public class MapAdaptorTest {
         // Translated to read-only
         final Map<String, String> opt1 = adaptor.optimize(input);
         assertEquals(input, opt1);
-        assertEquals(ReadOnlyTrieMap.class, opt1.getClass());
+        assertEquals(PersistentHashMap.class, opt1.getClass());
         assertEquals(11, opt1.size());
 
-        // 11 elements -- should retain TrieMap
+        // 11 elements -- should retain PersistentHashMap
         final Map<String, String> snap1 = adaptor.takeSnapshot(opt1);
-        assertEquals(ReadWriteTrieMap.class, snap1.getClass());
+        assertEquals(ReadWritePersistentHashMap.class, snap1.getClass());
         assertEquals(11, snap1.size());
 
         for (char c = 'e'; c <= 'k'; ++c) {
@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+
+public class PersistentHashMapTest {
+    /**
+     * Key with a controlled hash code, so we can exercise collisions.
+     */
+    private static final class Key {
+        private final int hash;
+        private final int id;
+
+        Key(final int hash, final int id) {
+            this.hash = hash;
+            this.id = id;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return hash == other.hash && id == other.id;
+        }
+
+        @Override
+        public String toString() {
+            return hash + "/" + id;
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        final PersistentHashMap<String, String> map = PersistentHashMap.of();
+        assertTrue(map.isEmpty());
+        assertEquals(0, map.size());
+        assertNull(map.get("foo"));
+        assertSame(map, map.without("foo"));
+        assertFalse(map.entrySet().iterator().hasNext());
+    }
+
+    @Test
+    public void testWithWithout() {
+        final PersistentHashMap<String, String> empty = PersistentHashMap.of();
+        final PersistentHashMap<String, String> one = empty.with("a", "b");
+        assertEquals(1, one.size());
+        assertEquals("b", one.get("a"));
+        assertTrue(empty.isEmpty());
+
+        // Same mapping does not create a new map
+        assertSame(one, one.with("a", "b"));
+
+        final PersistentHashMap<String, String> two = one.with("a", "c");
+        assertEquals(1, two.size());
+        assertEquals("c", two.get("a"));
+        assertEquals("b", one.get("a"));
+
+        assertSame(two, two.without("x"));
+        assertTrue(two.without("a").isEmpty());
+    }
+
+    @Test
+    public void testCollisions() {
+        PersistentHashMap<Key, Integer> map = PersistentHashMap.of();
+        for (int i = 0; i < 10; ++i) {
+            map = map.with(new Key(42, i), i);
+            map = map.with(new Key(42 + (i << 5), i), i);
+        }
+        assertEquals(19, map.size());
+        for (int i = 0; i < 10; ++i) {
+            assertEquals(Integer.valueOf(i), map.get(new Key(42, i)));
+        }
+
+        for (int i = 0; i < 10; ++i) {
+            map = map.without(new Key(42, i));
+        }
+        assertEquals(9, map.size());
+        assertNull(map.get(new Key(42, 0)));
+        assertEquals(Integer.valueOf(5), map.get(new Key(42 + (5 << 5), 5)));
+    }
+
+    @Test
+    public void testRandomAgainstHashMap() {
+        final Random random = new Random(1234);
+        final Map<Key, Integer> expected = new HashMap<>();
+        PersistentHashMap<Key, Integer> map = PersistentHashMap.of();
+
+        for (int i = 0; i < 20000; ++i) {
+            // Small hash range to force collisions and deep tries
+            final Key key = new Key(random.nextInt(4096) * 0x10001, random.nextInt(4));
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.without(key);
+            } else {
+                expected.put(key, i);
+                map = map.with(key, i);
+            }
+            assertEquals(expected.size(), map.size());
+        }
+
+        assertEquals(expected, map);
+        assertEquals(map, expected);
+        assertEquals(expected.hashCode(), map.hashCode());
+        assertEquals(expected, PersistentHashMap.copyOf(expected));
+    }
+
+    @Test
+    public void testStructuralSharing() {
+        final Map<String, String> input = new HashMap<>();
+        for (int i = 0; i < 1000; ++i) {
+            input.put(String.valueOf(i), String.valueOf(i));
+        }
+
+        final PersistentHashMap<String, String> base = PersistentHashMap.copyOf(input);
+        final PersistentHashMap<String, String> modified = base.with("foo", "bar").without("0");
+
+        assertEquals(1000, base.size());
+        assertEquals(1000, modified.size());
+        assertEquals("0", base.get("0"));
+        assertNull(modified.get("0"));
+        assertNull(base.get("foo"));
+        assertEquals("bar", modified.get("foo"));
+        assertEquals(input, base);
+    }
+
+    private static final class RecordingCallback implements PersistentHashMap.DiffCallback<Key, Integer> {
+        private final Map<Key, Integer> state;
+        private int invocations;
+
+        RecordingCallback(final Map<Key, Integer> initial) {
+            state = new HashMap<>(initial);
+        }
+
+        @Override
+        public void added(final Key key, final Integer value) {
+            assertNull(state.put(key, value));
+            invocations++;
+        }
+
+        @Override
+        public void removed(final Key key, final Integer value) {
+            assertSame(value, state.remove(key));
+            invocations++;
+        }
+
+        @Override
+        public void changed(final Key key, final Integer before, final Integer after) {
+            assertSame(before, state.put(key, after));
+            invocations++;
+        }
+    }
+
+    @Test
+    public void testDiff() {
+        final Random random = new Random(4321);
+        PersistentHashMap<Key, Integer> base = PersistentHashMap.of();
+        for (int i = 0; i < 5000; ++i) {
+            base = base.with(new Key(random.nextInt(4096) * 0x10001, random.nextInt(4)), i);
+        }
+
+        PersistentHashMap<Key, Integer> modified = base;
+        for (int i = 0; i < 50; ++i) {
+            final Key key = new Key(random.nextInt(4096) * 0x10001, random.nextInt(4));
+            modified = random.nextBoolean() ? modified.with(key, -i) : modified.without(key);
+        }
+
+        // Applying the reported differences to the base has to yield the modified map
+        final RecordingCallback callback = new RecordingCallback(base);
+        base.diff(modified, callback);
+        assertEquals(modified, callback.state);
+        assertTrue(callback.invocations <= 50);
+
+        final RecordingCallback none = new RecordingCallback(base);
+        base.diff(base, none);
+        assertEquals(0, none.invocations);
+    }
+
+    @Test
+    public void testReadWrite() {
+        final PersistentHashMap<String, String> base = PersistentHashMap.<String, String>of().with("a", "a");
+        final ReadWritePersistentHashMap<String, String> rw = new ReadWritePersistentHashMap<>(base);
+
+        assertNull(rw.put("b", "b"));
+        assertEquals("a", rw.put("a", "c"));
+        assertNull(rw.remove("x"));
+        assertEquals(2, rw.size());
+
+        final Map<String, String> ro = rw.toReadOnly();
+        assertEquals("c", ro.get("a"));
+        assertEquals("b", ro.get("b"));
+        assertEquals(1, base.size());
+        assertEquals("a", base.get("a"));
+
+        rw.clear();
+        assertTrue(rw.isEmpty());
+        assertEquals(2, ro.size());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutable() {
+        PersistentHashMap.<String, String>of().put("a", "b");
+    }
+}
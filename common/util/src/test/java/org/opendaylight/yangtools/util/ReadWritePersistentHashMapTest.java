@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import org.junit.Test;
+
+public class ReadWritePersistentHashMapTest {
+
+    private static ReadWritePersistentHashMap<String, String> create() {
+        return new ReadWritePersistentHashMap<>(PersistentHashMap.<String, String>of()
+                .with("0", "zero").with("1", "one").with("2", "two"));
+    }
+
+    @Test
+    public void testEntrySetModification() {
+        final ReadWritePersistentHashMap<String, String> map = create();
+        final Map<String, String> before = map.toReadOnly();
+
+        final Iterator<Entry<String, String>> it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            final Entry<String, String> e = it.next();
+            if (e.getKey().equals("0")) {
+                it.remove();
+            } else if (e.getKey().equals("1")) {
+                assertEquals("one", e.setValue("ONE"));
+                assertEquals("ONE", e.getValue());
+            }
+        }
+
+        assertEquals(ImmutableMap.of("1", "ONE", "2", "two"), map);
+        // The snapshot taken before is not affected
+        assertEquals(ImmutableMap.of("0", "zero", "1", "one", "2", "two"), before);
+    }
+
+    @Test
+    public void testKeySetAndValuesModification() {
+        final ReadWritePersistentHashMap<String, String> map = create();
+
+        assertTrue(map.keySet().remove("0"));
+        assertFalse(map.keySet().remove("0"));
+        assertTrue(map.values().remove("two"));
+        assertEquals(ImmutableMap.of("1", "one"), map);
+
+        map.keySet().clear();
+        assertTrue(map.isEmpty());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testIteratorRemoveWithoutNext() {
+        create().entrySet().iterator().remove();
+    }
+}
@@ -10,6 +10,7 @@ package org.opendaylight.yangtools.util.concurrent;
 
 import static org.junit.Assert.fail;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -18,11 +19,15 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import org.junit.After;
 import org.junit.Test;
+import org.opendaylight.yangtools.util.concurrent.QueuedNotificationManager.BackpressurePolicy;
+import org.opendaylight.yangtools.util.concurrent.QueuedNotificationManager.BatchInvoker;
+import org.opendaylight.yangtools.util.concurrent.QueuedNotificationManager.NotificationCoalescer;
 
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.Lists;
@@ -134,6 +139,48 @@ public class QueuedNotificationManagerTest {
         }
     }
 
+    static class TestBatchNotifier<N> implements BatchInvoker<TestListener<N>,N> {
+
+        final List<Integer> batchSizes = Collections.synchronizedList( Lists.<Integer>newArrayList() );
+
+        @Override
+        public void invokeListener( TestListener<N> listener, List<N> notifications ) {
+            batchSizes.add( notifications.size() );
+            for( N notification: notifications ) {
+                listener.onNotification( notification );
+            }
+        }
+    }
+
+    /**
+     * Notifier which blocks on the first notification until released, so that tests can fill
+     * the listener's queue deterministically.
+     */
+    static class BlockingNotifier<N> implements QueuedNotificationManager.Invoker<TestListener<N>,N> {
+
+        final CountDownLatch entered = new CountDownLatch( 1 );
+        final CountDownLatch release = new CountDownLatch( 1 );
+
+        @Override
+        public void invokeListener( TestListener<N> listener, N notification ) {
+            entered.countDown();
+            Uninterruptibles.awaitUninterruptibly( release );
+            listener.onNotification( notification );
+        }
+
+        void awaitEntered() {
+            assertTrue( "Listener invoked", Uninterruptibles.awaitUninterruptibly(
+                    entered, 5, TimeUnit.SECONDS ) );
+        }
+    }
+
+    static final NotificationCoalescer<String> FIRST_CHAR_COALESCER = new NotificationCoalescer<String>() {
+        @Override
+        public Object getCoalescingKey( String notification ) {
+            return notification.startsWith( "x" ) ? null : notification.charAt( 0 );
+        }
+    };
+
     private ExecutorService queueExecutor;
 
     @After
@@ -298,4 +345,183 @@ public class QueuedNotificationManagerTest {
 
         listener.verifyNotifications();
     }
+
+    @Test(timeout=10000)
+    public void testBatchedNotifications() {
+
+        queueExecutor = Executors.newFixedThreadPool( 1 );
+        TestBatchNotifier<Integer> notifier = new TestBatchNotifier<>();
+        NotificationManager<TestListener<Integer>, Integer> manager =
+                new QueuedNotificationManager<>( queueExecutor, notifier, 10, 100,
+                        BackpressurePolicy.BLOCK, null, "TestMgr" );
+
+        int nNotifications = 50;
+        TestListener<Integer> listener = new TestListener<>( nNotifications, 1 );
+        listener.sleepTime = 20;
+
+        List<Integer> expNotifications = Lists.newArrayListWithCapacity( nNotifications );
+        for( int i = 1; i <= nNotifications; i++ ) {
+            expNotifications.add( i );
+        }
+        manager.submitNotifications( listener, expNotifications );
+
+        listener.verifyNotifications( expNotifications );
+
+        int total = 0;
+        for( Integer size: notifier.batchSizes ) {
+            assertTrue( "Batch size " + size, size > 0 && size <= 10 );
+            total += size;
+        }
+        assertEquals( "Total notifications", nNotifications, total );
+        assertTrue( "Batches were used", notifier.batchSizes.size() < nNotifications );
+    }
+
+    @Test(timeout=10000)
+    public void testCoalescedNotifications() {
+
+        queueExecutor = Executors.newFixedThreadPool( 1 );
+        BlockingNotifier<String> notifier = new BlockingNotifier<>();
+        QueuedNotificationManager<TestListener<String>, String> manager =
+                new QueuedNotificationManager<>( queueExecutor, notifier, 10,
+                        BackpressurePolicy.BLOCK, FIRST_CHAR_COALESCER, "TestMgr" );
+
+        TestListener<String> listener = new TestListener<>( 4, 1 );
+        manager.submitNotification( listener, "x0" );
+        notifier.awaitEntered();
+
+        manager.submitNotifications( listener, Arrays.asList( "a1", "b1", "a2", "x1" ) );
+
+        List<ListenerNotificationQueueStats> stats = manager.getListenerNotificationQueueStats();
+        assertEquals( "Stats size", 1, stats.size() );
+        assertEquals( "Coalesced notifications", 1, stats.get( 0 ).getCoalescedNotifications() );
+        assertEquals( "Queue size", 3, stats.get( 0 ).getCurrentQueueSize() );
+        assertEquals( "Batch size histogram buckets", 2, stats.get( 0 ).getBatchSizeHistogram().length );
+        assertEquals( "Latency histogram buckets", 32, stats.get( 0 ).getLatencyHistogram().length );
+
+        notifier.release.countDown();
+        listener.verifyNotifications( Arrays.asList( "x0", "a2", "b1", "x1" ) );
+    }
+
+    @Test(timeout=10000)
+    public void testDropOldestBackpressure() {
+
+        queueExecutor = Executors.newFixedThreadPool( 1 );
+        BlockingNotifier<Integer> notifier = new BlockingNotifier<>();
+        QueuedNotificationManager<TestListener<Integer>, Integer> manager =
+                new QueuedNotificationManager<>( queueExecutor, notifier, 2,
+                        BackpressurePolicy.DROP_OLDEST, null, "TestMgr" );
+
+        TestListener<Integer> listener = new TestListener<>( 3, 1 );
+        manager.submitNotification( listener, 0 );
+        notifier.awaitEntered();
+
+        manager.submitNotifications( listener, Arrays.asList( 1, 2, 3 ) );
+
+        List<ListenerNotificationQueueStats> stats = manager.getListenerNotificationQueueStats();
+        assertEquals( "Dropped notifications", 1, stats.get( 0 ).getDroppedNotifications() );
+        assertEquals( "Largest queue size", 2, stats.get( 0 ).getLargestQueueSize() );
+
+        notifier.release.countDown();
+        listener.verifyNotifications( Arrays.asList( 0, 2, 3 ) );
+    }
+
+    @Test(timeout=10000)
+    public void testFailFastBackpressure() {
+
+        queueExecutor = Executors.newFixedThreadPool( 1 );
+        BlockingNotifier<Integer> notifier = new BlockingNotifier<>();
+        QueuedNotificationManager<TestListener<Integer>, Integer> manager =
+                new QueuedNotificationManager<>( queueExecutor, notifier, 2,
+                        BackpressurePolicy.FAIL_FAST, null, "TestMgr" );
+
+        TestListener<Integer> listener = new TestListener<>( 3, 1 );
+        manager.submitNotification( listener, 0 );
+        notifier.awaitEntered();
+
+        try {
+            manager.submitNotifications( listener, Arrays.asList( 1, 2, 3 ) );
+            fail( "Expected RejectedExecutionException" );
+        } catch( RejectedExecutionException e ) {
+            // Expected
+        }
+
+        notifier.release.countDown();
+        listener.verifyNotifications( Arrays.asList( 0, 1, 2 ) );
+    }
+
+    @Test(timeout=10000)
+    public void testFailFastBackpressureOnFirstSubmission() {
+
+        queueExecutor = Executors.newFixedThreadPool( 1 );
+        QueuedNotificationManager<TestListener<Integer>, Integer> manager =
+                new QueuedNotificationManager<>( queueExecutor, new TestNotifier<Integer>(), 2,
+                        BackpressurePolicy.FAIL_FAST, null, "TestMgr" );
+
+        TestListener<Integer> listener = new TestListener<>( 2, 1 );
+        try {
+            manager.submitNotifications( listener, Arrays.asList( 1, 2, 3, 4 ) );
+            fail( "Expected RejectedExecutionException" );
+        } catch( RejectedExecutionException e ) {
+            // Expected
+        }
+
+        listener.verifyNotifications( Arrays.asList( 1, 2 ) );
+    }
+
+    @Test(timeout=10000)
+    public void testBlockBackpressureOnFirstSubmission() {
+
+        queueExecutor = Executors.newFixedThreadPool( 1 );
+        QueuedNotificationManager<TestListener<Integer>, Integer> manager =
+                new QueuedNotificationManager<>( queueExecutor, new TestNotifier<Integer>(), 2,
+                        BackpressurePolicy.BLOCK, null, "TestMgr" );
+
+        TestListener<Integer> listener = new TestListener<>( 5, 1 );
+        manager.submitNotifications( listener, Arrays.asList( 1, 2, 3, 4, 5 ) );
+
+        listener.verifyNotifications( Arrays.asList( 1, 2, 3, 4, 5 ) );
+    }
+
+    @Test(timeout=10000)
+    public void testStatsAccumulatedAcrossTasks() throws Exception {
+
+        queueExecutor = Executors.newFixedThreadPool( 1 );
+        BlockingNotifier<String> notifier = new BlockingNotifier<>();
+        QueuedNotificationManager<TestListener<String>, String> manager =
+                new QueuedNotificationManager<>( queueExecutor, notifier, 10,
+                        BackpressurePolicy.BLOCK, FIRST_CHAR_COALESCER, "TestMgr" );
+
+        TestListener<String> listener = new TestListener<>( 3, 1 );
+        manager.submitNotification( listener, "x0" );
+        notifier.awaitEntered();
+        manager.submitNotifications( listener, Arrays.asList( "a1", "a2", "x1" ) );
+        notifier.release.countDown();
+        listener.verifyNotifications( Arrays.asList( "x0", "a2", "x1" ) );
+
+        // Wait for the first notification task to finish. The executor has a single thread, so
+        // anything submitted to it runs only after the task exits.
+        Uninterruptibles.getUninterruptibly( queueExecutor.submit( new Runnable() {
+            @Override
+            public void run() {
+                // Nothing to do
+            }
+        } ) );
+
+        // Statistics are still reported while the listener has no task
+        List<ListenerNotificationQueueStats> idleStats = manager.getListenerNotificationQueueStats();
+        assertEquals( "Stats size", 1, idleStats.size() );
+        assertEquals( "Queue size", 0, idleStats.get( 0 ).getCurrentQueueSize() );
+        assertEquals( "Coalesced notifications", 1, idleStats.get( 0 ).getCoalescedNotifications() );
+
+        listener.reset( 1 );
+        listener.sleepTime = 500;
+        manager.submitNotifications( listener, Arrays.asList( "b1", "b2" ) );
+
+        List<ListenerNotificationQueueStats> stats = manager.getListenerNotificationQueueStats();
+        assertEquals( "Stats size", 1, stats.size() );
+        assertEquals( "Coalesced notifications", 2, stats.get( 0 ).getCoalescedNotifications() );
+        assertEquals( "Largest queue size", 2, stats.get( 0 ).getLargestQueueSize() );
+
+        listener.verifyNotifications( Arrays.asList( "b2" ) );
+    }
 }
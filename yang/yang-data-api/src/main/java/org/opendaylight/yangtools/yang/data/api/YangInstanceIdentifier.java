@@ -12,20 +12,18 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
-import com.google.common.collect.Lists;
+import com.google.common.collect.UnmodifiableIterator;
 import java.io.IOException;
-import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.lang.reflect.Array;
-import java.lang.reflect.Field;
-import java.util.ArrayList;
+import java.util.AbstractCollection;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
@@ -75,26 +73,41 @@ public final class YangInstanceIdentifier implements Path<YangInstanceIdentifier
             AtomicReferenceFieldUpdater.newUpdater(YangInstanceIdentifier.class, ImmutableList.class, "legacyPath");
     private static final AtomicReferenceFieldUpdater<YangInstanceIdentifier, String> TOSTRINGCACHE_UPDATER =
             AtomicReferenceFieldUpdater.newUpdater(YangInstanceIdentifier.class, String.class, "toStringCache");
-    private static final YangInstanceIdentifier EMPTY = trustedCreate(Collections.<PathArgument>emptyList());
-    private static final Field PATHARGUMENTS_FIELD;
+    private static final YangInstanceIdentifier EMPTY = new YangInstanceIdentifier();
 
     private static final long serialVersionUID = 3L;
-    private transient final Iterable<PathArgument> pathArguments;
+
+    /*
+     * Identifiers are organized as a stack: each instance points to its parent
+     * and holds only its last path argument. Appending a path argument is thus
+     * O(1) and shares the parent, as is getting the parent or the last path
+     * argument. The root of every stack is EMPTY.
+     */
+    private transient final YangInstanceIdentifier parent;
+    private transient final PathArgument pathArgument;
+    private transient final int depth;
     private final int hash;
 
+    /*
+     * Flat representation of path arguments, materialized only when someone
+     * asks for random access. It is also the serialized form of this object.
+     */
     private volatile ImmutableList<PathArgument> legacyPath = null;
     private transient volatile String toStringCache = null;
 
-    static {
-        final Field f;
-        try {
-            f = YangInstanceIdentifier.class.getDeclaredField("pathArguments");
-        } catch (NoSuchFieldException | SecurityException e) {
-            throw new ExceptionInInitializerError(e);
-        }
-        f.setAccessible(true);
+    private YangInstanceIdentifier() {
+        this.parent = null;
+        this.pathArgument = null;
+        this.depth = 0;
+        this.hash = new HashCodeBuilder<PathArgument>().build();
+        this.legacyPath = ImmutableList.of();
+    }
 
-        PATHARGUMENTS_FIELD = f;
+    private YangInstanceIdentifier(final YangInstanceIdentifier parent, final PathArgument pathArgument, final int hash) {
+        this.parent = parent;
+        this.pathArgument = Preconditions.checkNotNull(pathArgument, "pathArgument must not be null.");
+        this.depth = parent.depth + 1;
+        this.hash = hash;
     }
 
     private final ImmutableList<PathArgument> getLegacyPath() {
@@ -103,13 +116,38 @@ public final class YangInstanceIdentifier implements Path<YangInstanceIdentifier
         if (ret == null) {
             // We could have used a synchronized block, but the window is quite
             // small and worst that can happen is duplicate object construction.
-            ret = ImmutableList.copyOf(pathArguments);
+            final PathArgument[] args = new PathArgument[depth];
+            YangInstanceIdentifier current = this;
+            int offset = depth;
+            while (offset != 0) {
+                // Reuse an ancestor's flat representation if it has one
+                final ImmutableList<PathArgument> cached = current.legacyPath;
+                if (cached != null) {
+                    for (int i = 0; i < offset; ++i) {
+                        args[i] = cached.get(i);
+                    }
+                    break;
+                }
+
+                args[--offset] = current.pathArgument;
+                current = current.parent;
+            }
+
+            ret = ImmutableList.copyOf(args);
             LEGACYPATH_UPDATER.lazySet(this, ret);
         }
 
         return ret;
     }
 
+    private YangInstanceIdentifier getAncestor(final int ancestorDepth) {
+        YangInstanceIdentifier ret = this;
+        for (int i = depth; i > ancestorDepth; --i) {
+            ret = ret.parent;
+        }
+        return ret;
+    }
+
     /**
      * Returns a list of path arguments.
      *
@@ -127,7 +165,9 @@ public final class YangInstanceIdentifier implements Path<YangInstanceIdentifier
      * @return Immutable iteration of path arguments.
      */
     public Iterable<PathArgument> getPathArguments() {
-        return pathArguments;
+        // Do not materialize the flat representation just for iteration
+        final ImmutableList<PathArgument> ret = legacyPath;
+        return ret != null ? ret : new PathArgumentCollection(this);
     }
 
     /**
@@ -137,7 +177,12 @@ public final class YangInstanceIdentifier implements Path<YangInstanceIdentifier
      * @return Immutable iterable of path arguments in reverse order.
      */
     public Iterable<PathArgument> getReversePathArguments() {
-        return getLegacyPath().reverse();
+        return new Iterable<PathArgument>() {
+            @Override
+            public Iterator<PathArgument> iterator() {
+                return new ReversePathArgumentIterator(YangInstanceIdentifier.this);
+            }
+        };
     }
 
     /**
@@ -147,21 +192,30 @@ public final class YangInstanceIdentifier implements Path<YangInstanceIdentifier
      * @return The last past argument, or null if there are no PathArguments.
      */
     public PathArgument getLastPathArgument() {
-        return Iterables.getFirst(getReversePathArguments(), null);
+        return pathArgument;
     }
 
-    private YangInstanceIdentifier(final Iterable<PathArgument> path, final int hash) {
-        this.pathArguments = Preconditions.checkNotNull(path, "path must not be null.");
-        this.hash = hash;
+    /**
+     * Returns the parent of this identifier, i.e. the identifier with the last
+     * path argument removed. This operation does not allocate any objects.
+     *
+     * @return Parent identifier, or null if this identifier has no path arguments.
+     */
+    public YangInstanceIdentifier getParent() {
+        return parent;
     }
 
-    private static final YangInstanceIdentifier trustedCreate(final Iterable<PathArgument> path) {
-        final HashCodeBuilder<PathArgument> hash = new HashCodeBuilder<>();
+    private static final YangInstanceIdentifier trustedCreate(final ImmutableList<PathArgument> path) {
+        YangInstanceIdentifier ret = EMPTY;
         for (PathArgument a : path) {
-            hash.addArgument(a);
+            ret = ret.node(a);
         }
 
-        return new YangInstanceIdentifier(path, hash.build());
+        if (ret != EMPTY) {
+            // We already have the flat representation, no need to recreate it
+            LEGACYPATH_UPDATER.lazySet(ret, path);
+        }
+        return ret;
     }
 
     public static final YangInstanceIdentifier create(final Iterable<? extends PathArgument> path) {
@@ -169,7 +223,7 @@ public final class YangInstanceIdentifier implements Path<YangInstanceIdentifier
             return EMPTY;
         }
 
-        return trustedCreate(ImmutableList.copyOf(path));
+        return trustedCreate(ImmutableList.<PathArgument>copyOf(path));
     }
 
     public static final YangInstanceIdentifier create(final PathArgument... path) {
@@ -189,6 +243,23 @@ public final class YangInstanceIdentifier implements Path<YangInstanceIdentifier
         return hash;
     }
 
+    /*
+     * Compare two identifiers of the same depth by walking up both stacks. We stop
+     * as soon as we hit a common ancestor instance, which at the latest is EMPTY.
+     */
+    private static boolean pathEquals(final YangInstanceIdentifier first, final YangInstanceIdentifier second) {
+        YangInstanceIdentifier a = first;
+        YangInstanceIdentifier b = second;
+        while (a != b) {
+            if (!a.pathArgument.equals(b.pathArgument)) {
+                return false;
+            }
+            a = a.parent;
+            b = b.parent;
+        }
+        return true;
+    }
+
     @Override
     public boolean equals(final Object obj) {
         if (this == obj) {
@@ -201,10 +272,10 @@ public final class YangInstanceIdentifier implements Path<YangInstanceIdentifier
             return false;
         }
         YangInstanceIdentifier other = (YangInstanceIdentifier) obj;
-        if (this.hashCode() != obj.hashCode()) {
+        if (hash != other.hash || depth != other.depth) {
             return false;
         }
-        return Iterables.elementsEqual(pathArguments, other.pathArguments);
+        return pathEquals(this, other);
     }
 
     /**
@@ -225,7 +296,7 @@ public final class YangInstanceIdentifier implements Path<YangInstanceIdentifier
      * @return Instance Identifier with additional path argument added to the end.
      */
     public YangInstanceIdentifier node(final PathArgument arg) {
-        return new YangInstanceIdentifier(Iterables.concat(pathArguments, Collections.singleton(arg)), HashCodeBuilder.nextHashCode(hash, arg));
+        return new YangInstanceIdentifier(this, arg, HashCodeBuilder.nextHashCode(hash, arg));
     }
 
     /**
@@ -238,26 +309,30 @@ public final class YangInstanceIdentifier implements Path<YangInstanceIdentifier
      *         the specified parent is not in fact an ancestor of this object.
      */
     public Optional<YangInstanceIdentifier> relativeTo(final YangInstanceIdentifier ancestor) {
-        final Iterator<?> lit = pathArguments.iterator();
-        final Iterator<?> oit = ancestor.pathArguments.iterator();
-        int common = 0;
-
-        while (oit.hasNext()) {
-            // Ancestor is not really an ancestor
-            if (!lit.hasNext() || !lit.next().equals(oit.next())) {
-                return Optional.absent();
-            }
+        if (ancestor.depth > depth) {
+            return Optional.absent();
+        }
 
-            ++common;
+        // Ancestor is not really an ancestor
+        final YangInstanceIdentifier base = getAncestor(ancestor.depth);
+        if (!base.equals(ancestor)) {
+            return Optional.absent();
         }
 
-        if (common == 0) {
+        if (ancestor.depth == 0) {
             return Optional.of(this);
         }
-        if (!lit.hasNext()) {
+        if (base == this) {
             return Optional.of(EMPTY);
         }
-        return Optional.of(trustedCreate(Iterables.skip(pathArguments, common)));
+
+        final PathArgument[] args = new PathArgument[depth - ancestor.depth];
+        YangInstanceIdentifier current = this;
+        for (int i = args.length - 1; i >= 0; --i) {
+            args[i] = current.pathArgument;
+            current = current.parent;
+        }
+        return Optional.of(trustedCreate(ImmutableList.copyOf(args)));
     }
 
     private static int hashCode(final Object value) {
@@ -313,7 +388,7 @@ public final class YangInstanceIdentifier implements Path<YangInstanceIdentifier
      * @return new builder for InstanceIdentifier with path arguments copied from original instance identifier.
      */
     static public InstanceIdentifierBuilder builder(final YangInstanceIdentifier origin) {
-        return new BuilderImpl(origin.getPathArguments(), origin.hashCode());
+        return new BuilderImpl(origin);
     }
 
     /**
@@ -698,41 +773,118 @@ public final class YangInstanceIdentifier implements Path<YangInstanceIdentifier
         }
     }
 
+    /*
+     * Forward view of an identifier's path arguments. The stack is walked when an iterator
+     * is requested, reusing the flat representation of the closest ancestor which has one.
+     */
+    private static final class PathArgumentCollection extends AbstractCollection<PathArgument> {
+        private final YangInstanceIdentifier identifier;
+
+        PathArgumentCollection(final YangInstanceIdentifier identifier) {
+            this.identifier = identifier;
+        }
+
+        @Override
+        public int size() {
+            return identifier.depth;
+        }
+
+        @Override
+        public Iterator<PathArgument> iterator() {
+            final ImmutableList<PathArgument> cached = identifier.legacyPath;
+            return cached != null ? cached.iterator() : new PathArgumentIterator(identifier);
+        }
+    }
+
+    private static final class PathArgumentIterator extends UnmodifiableIterator<PathArgument> {
+        private final ImmutableList<PathArgument> prefix;
+        private final PathArgument[] suffix;
+        private int offset;
+
+        PathArgumentIterator(final YangInstanceIdentifier start) {
+            // Collect path arguments up to an ancestor with a flat representation, which is at the latest EMPTY
+            YangInstanceIdentifier current = start;
+            ImmutableList<PathArgument> cached = current.legacyPath;
+            while (cached == null) {
+                current = current.parent;
+                cached = current.legacyPath;
+            }
+
+            prefix = cached;
+            suffix = new PathArgument[start.depth - current.depth];
+            current = start;
+            for (int i = suffix.length - 1; i >= 0; --i) {
+                suffix[i] = current.pathArgument;
+                current = current.parent;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return offset < prefix.size() + suffix.length;
+        }
+
+        @Override
+        public PathArgument next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            final int i = offset++;
+            return i < prefix.size() ? prefix.get(i) : suffix[i - prefix.size()];
+        }
+    }
+
+    private static final class ReversePathArgumentIterator extends UnmodifiableIterator<PathArgument> {
+        private YangInstanceIdentifier current;
+
+        ReversePathArgumentIterator(final YangInstanceIdentifier start) {
+            this.current = start;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return current.depth != 0;
+        }
+
+        @Override
+        public PathArgument next() {
+            if (current.depth == 0) {
+                throw new NoSuchElementException();
+            }
+
+            final PathArgument ret = current.pathArgument;
+            current = current.parent;
+            return ret;
+        }
+    }
+
     private static class BuilderImpl implements InstanceIdentifierBuilder {
-        private final HashCodeBuilder<PathArgument> hash;
-        private final List<PathArgument> path;
+        private YangInstanceIdentifier current;
 
         public BuilderImpl() {
-            this.hash = new HashCodeBuilder<>();
-            this.path = new ArrayList<>();
+            this(EMPTY);
         }
 
-        public BuilderImpl(final Iterable<PathArgument> prefix, final int hash) {
-            this.path = Lists.newArrayList(prefix);
-            this.hash = new HashCodeBuilder<>(hash);
+        public BuilderImpl(final YangInstanceIdentifier origin) {
+            this.current = Preconditions.checkNotNull(origin);
         }
 
         @Override
         public InstanceIdentifierBuilder node(final QName nodeType) {
-            final PathArgument arg = new NodeIdentifier(nodeType);
-            path.add(arg);
-            hash.addArgument(arg);
+            current = current.node(new NodeIdentifier(nodeType));
             return this;
         }
 
         @Override
         public InstanceIdentifierBuilder nodeWithKey(final QName nodeType, final QName key, final Object value) {
-            final PathArgument arg = new NodeIdentifierWithPredicates(nodeType, key, value);
-            path.add(arg);
-            hash.addArgument(arg);
+            current = current.node(new NodeIdentifierWithPredicates(nodeType, key, value));
             return this;
         }
 
         @Override
         public InstanceIdentifierBuilder nodeWithKey(final QName nodeType, final Map<QName, Object> keyValues) {
-            final PathArgument arg = new NodeIdentifierWithPredicates(nodeType, keyValues);
-            path.add(arg);
-            hash.addArgument(arg);
+            current = current.node(new NodeIdentifierWithPredicates(nodeType, keyValues));
             return this;
         }
 
@@ -743,7 +895,7 @@ public final class YangInstanceIdentifier implements Path<YangInstanceIdentifier
 
         @Override
         public YangInstanceIdentifier build() {
-            return new YangInstanceIdentifier(ImmutableList.copyOf(path), hash.build());
+            return current;
         }
     }
 
@@ -751,20 +903,12 @@ public final class YangInstanceIdentifier implements Path<YangInstanceIdentifier
     public boolean contains(final YangInstanceIdentifier other) {
         Preconditions.checkArgument(other != null, "other should not be null");
 
-        final Iterator<?> lit = pathArguments.iterator();
-        final Iterator<?> oit = other.pathArguments.iterator();
-
-        while (lit.hasNext()) {
-            if (!oit.hasNext()) {
-                return false;
-            }
-
-            if (!lit.next().equals(oit.next())) {
-                return false;
-            }
+        if (depth > other.depth) {
+            return false;
         }
 
-        return true;
+        final YangInstanceIdentifier base = other.getAncestor(depth);
+        return hash == base.hash && pathEquals(this, base);
     }
 
     @Override
@@ -796,23 +940,18 @@ public final class YangInstanceIdentifier implements Path<YangInstanceIdentifier
         return ret;
     }
 
-    private void readObject(final ObjectInputStream inputStream) throws IOException, ClassNotFoundException {
-        inputStream.defaultReadObject();
-
-        try {
-            PATHARGUMENTS_FIELD.set(this, legacyPath);
-        } catch (IllegalArgumentException | IllegalAccessException e) {
-            throw new IOException(e);
-        }
+    private Object readResolve() {
+        // Only the flat path has been restored, rebuild the stack from it
+        return legacyPath.isEmpty() ? EMPTY : trustedCreate(legacyPath);
     }
 
     private void writeObject(final ObjectOutputStream outputStream) throws IOException {
         /*
          * This may look strange, but what we are doing here is side-stepping the fact
-         * that pathArguments is not generally serializable. We are forcing instantiation
-         * of the legacy path, which is an ImmutableList (thus Serializable) and write
-         * it out. The read path does the opposite -- it reads the legacyPath and then
-         * uses invocation API to set the field.
+         * that the stack is not serializable. We are forcing instantiation of the legacy
+         * path, which is an ImmutableList (thus Serializable) and write it out. The read
+         * path does the opposite -- it reads the legacyPath and then rebuilds the stack
+         * in readResolve().
          */
         getLegacyPath();
         outputStream.defaultWriteObject();
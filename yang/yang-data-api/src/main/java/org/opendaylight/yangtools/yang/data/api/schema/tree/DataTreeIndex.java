@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api.schema.tree;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+
+/**
+ * Definition of a secondary index over the entries of a keyed list. The index maps the
+ * value of a leaf, located at the same relative path in every entry of the list, to the
+ * entries holding that value. Entries which do not contain the leaf are not indexed.
+ * The same value can be held by multiple entries.
+ */
+@Beta
+public final class DataTreeIndex {
+    private final YangInstanceIdentifier listPath;
+    private final YangInstanceIdentifier leafPath;
+
+    private DataTreeIndex(final YangInstanceIdentifier listPath, final YangInstanceIdentifier leafPath) {
+        this.listPath = Preconditions.checkNotNull(listPath);
+        this.leafPath = Preconditions.checkNotNull(leafPath);
+        Preconditions.checkArgument(listPath.getLastPathArgument() != null, "List path must not be empty");
+        Preconditions.checkArgument(leafPath.getLastPathArgument() != null, "Leaf path must not be empty");
+    }
+
+    /**
+     * Create an index definition.
+     *
+     * @param listPath Path of the indexed list
+     * @param leafPath Path of the indexed leaf, relative to each list entry
+     * @return An index definition
+     */
+    public static DataTreeIndex create(final YangInstanceIdentifier listPath, final YangInstanceIdentifier leafPath) {
+        return new DataTreeIndex(listPath, leafPath);
+    }
+
+    /**
+     * Return the path of the indexed list.
+     *
+     * @return Path of the list node
+     */
+    public YangInstanceIdentifier getListPath() {
+        return listPath;
+    }
+
+    /**
+     * Return the path of the indexed leaf, relative to each list entry.
+     *
+     * @return Relative path of the leaf
+     */
+    public YangInstanceIdentifier getLeafPath() {
+        return leafPath;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * listPath.hashCode() + leafPath.hashCode();
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof DataTreeIndex)) {
+            return false;
+        }
+        final DataTreeIndex other = (DataTreeIndex) obj;
+        return listPath.equals(other.listPath) && leafPath.equals(other.leafPath);
+    }
+
+    @Override
+    public String toString() {
+        return Objects.toStringHelper(this).add("list", listPath).add("leaf", leafPath).toString();
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api.schema.tree;
+
+import com.google.common.annotations.Beta;
+
+/**
+ * A {@link DataTree} which maintains secondary indexes over keyed lists. Indexes are
+ * updated as part of each commit and every snapshot observes the indexes matching its
+ * data.
+ */
+@Beta
+public interface IndexedDataTree extends DataTree {
+    /**
+     * Start maintaining an index. The index is built from the current data, subsequent
+     * commits update it incrementally. Adding an index which is already maintained has
+     * no effect.
+     *
+     * @param index Index definition
+     */
+    void addIndex(DataTreeIndex index);
+
+    /**
+     * Stop maintaining an index. Snapshots taken before this method was invoked retain
+     * access to the index.
+     *
+     * @param index Index definition
+     */
+    void removeIndex(DataTreeIndex index);
+
+    @Override
+    IndexedDataTreeSnapshot takeSnapshot();
+}
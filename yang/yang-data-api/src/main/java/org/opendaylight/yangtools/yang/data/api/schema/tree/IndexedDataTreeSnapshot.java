@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api.schema.tree;
+
+import com.google.common.annotations.Beta;
+import java.util.Collection;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+
+/**
+ * A {@link DataTreeSnapshot} of an {@link IndexedDataTree}, which allows looking up
+ * list entries through secondary indexes.
+ */
+@Beta
+public interface IndexedDataTreeSnapshot extends DataTreeSnapshot {
+    /**
+     * Look up the list entries whose indexed leaf has the specified value.
+     *
+     * @param index Index definition
+     * @param value Leaf value
+     * @return Unmodifiable collection of matching entries, empty if there are none.
+     * @throws IllegalArgumentException if the index was not maintained when this snapshot
+     *         was taken
+     */
+    Collection<MapEntryNode> lookup(DataTreeIndex index, Object value);
+}
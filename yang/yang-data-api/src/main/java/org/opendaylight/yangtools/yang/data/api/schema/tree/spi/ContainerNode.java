@@ -107,7 +107,8 @@ abstract class ContainerNode extends AbstractTreeNode {
             map.put(child.getIdentifier(), TreeNodeFactory.createTreeNodeRecursively(child, version));
         }
 
-        return new MaterializedContainerNode(data, version, map, version);
+        // Optimize the map, so that large containers end up in a persistent map and can be snapshotted cheaply
+        return new MaterializedContainerNode(data, version, MapAdaptor.getDefaultInstance().optimize(map), version);
     }
 
     /**
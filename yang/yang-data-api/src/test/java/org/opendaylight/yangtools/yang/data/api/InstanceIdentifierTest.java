@@ -9,7 +9,10 @@
 package org.opendaylight.yangtools.yang.data.api;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
@@ -88,6 +91,25 @@ public class InstanceIdentifierTest {
         assertEquals( "PathArg 3 node type", nodeName3, it.next().getNodeType() );
     }
 
+    @Test
+    public void testForwardIteration() {
+
+        YangInstanceIdentifier id = YangInstanceIdentifier.builder().node(nodeName1).node(nodeName2).build();
+        YangInstanceIdentifier newID = id.node( nodeName3 ).node( nodeName4 );
+
+        assertEquals( "Path size", 4, Iterables.size(newID.getPathArguments()) );
+        assertEquals( "PathArgs", Lists.newArrayList(new NodeIdentifier(nodeName1), new NodeIdentifier(nodeName2),
+                new NodeIdentifier(nodeName3), new NodeIdentifier(nodeName4)), Lists.newArrayList(newID.getPathArguments()) );
+
+        // Iteration has to be consistent with the flat representation, before and after it is materialized
+        assertEquals( "PathArgs", id.getPath(), Lists.newArrayList(id.getPathArguments()) );
+        assertEquals( "PathArgs", newID.getPath(), Lists.newArrayList(newID.getPathArguments()) );
+        assertEquals( "PathArgs", newID.getPath(), Lists.newArrayList(newID.node( nodeName1 ).getParent().getPathArguments()) );
+
+        Iterator<PathArgument> it = YangInstanceIdentifier.builder().build().getPathArguments().iterator();
+        assertFalse( "hasNext", it.hasNext() );
+    }
+
     @Test
     public void testRelativeTo() {
 
@@ -129,6 +151,40 @@ public class InstanceIdentifierTest {
         assertEquals( "contains", false, id2.contains( id4 ) );
     }
 
+    @Test
+    public void testParent() {
+
+        YangInstanceIdentifier id1 = YangInstanceIdentifier.create(new NodeIdentifier(nodeName1), new NodeIdentifier(nodeName2));
+        YangInstanceIdentifier id2 = id1.node( nodeName3 );
+
+        assertSame( "parent", id1, id2.getParent() );
+        assertEquals( "parent", YangInstanceIdentifier.of( nodeName1 ), id1.getParent() );
+        assertEquals( "last", new NodeIdentifier( nodeName3 ), id2.getLastPathArgument() );
+        assertEquals( "root", 0, Iterables.size(id1.getParent().getParent().getPathArguments()) );
+        assertNull( "root parent", id1.getParent().getParent().getParent() );
+        assertNull( "root last", id1.getParent().getParent().getLastPathArgument() );
+    }
+
+    @Test
+    public void testReversePathArguments() {
+
+        YangInstanceIdentifier id = YangInstanceIdentifier.builder().node( nodeName1 ).node( nodeName2 ).build().node( nodeName3 );
+
+        Iterator<PathArgument> it = id.getReversePathArguments().iterator();
+        assertEquals( "PathArg 3 node type", nodeName3, it.next().getNodeType() );
+        assertEquals( "PathArg 2 node type", nodeName2, it.next().getNodeType() );
+        assertEquals( "PathArg 1 node type", nodeName1, it.next().getNodeType() );
+        assertFalse( "hasNext", it.hasNext() );
+
+        // Identifiers assembled differently must be equal and have the same path arguments
+        YangInstanceIdentifier other = YangInstanceIdentifier.create(new NodeIdentifier(nodeName1), new NodeIdentifier(nodeName2),
+                new NodeIdentifier(nodeName3));
+        assertEquals( "equals", other, id );
+        assertEquals( "hashCode", other.hashCode(), id.hashCode() );
+        assertEquals( "path", Lists.newArrayList(other.getPathArguments()), Lists.newArrayList(id.getPathArguments()) );
+        assertEquals( "toString", other.toString(), id.toString() );
+    }
+
     @Test
     public void testOf() {
 
@@ -322,5 +378,7 @@ public class InstanceIdentifierTest {
         ois.close();
 
         assertEquals(expected, read);
+        assertEquals(expected.getParent(), read.getParent());
+        assertEquals(expected.getLastPathArgument(), read.getLastPathArgument());
     }
 }
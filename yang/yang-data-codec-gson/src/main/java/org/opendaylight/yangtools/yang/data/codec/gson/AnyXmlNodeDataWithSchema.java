@@ -20,7 +20,6 @@ class AnyXmlNodeDataWithSchema extends SimpleNodeDataWithSchema {
 
     @Override
     public void write(final NormalizedNodeStreamWriter writer) throws IOException {
-        // FIXME: should be changed according to format of value
         writer.anyxmlNode(provideNodeIdentifier(), getValue());
     }
 }
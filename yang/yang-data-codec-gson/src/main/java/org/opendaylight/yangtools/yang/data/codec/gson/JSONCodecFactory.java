@@ -9,11 +9,21 @@ package org.opendaylight.yangtools.yang.data.codec.gson;
 
 import com.google.common.annotations.Beta;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
-
+import java.lang.ref.WeakReference;
 import org.opendaylight.yangtools.yang.data.impl.codec.TypeDefinitionAwareCodec;
+import org.opendaylight.yangtools.yang.model.api.ChoiceCaseNode;
+import org.opendaylight.yangtools.yang.model.api.ChoiceNode;
+import org.opendaylight.yangtools.yang.model.api.DataNodeContainer;
+import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.LeafListSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.LeafSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.NotificationDefinition;
+import org.opendaylight.yangtools.yang.model.api.RpcDefinition;
 import org.opendaylight.yangtools.yang.model.api.SchemaContext;
 import org.opendaylight.yangtools.yang.model.api.TypeDefinition;
 import org.opendaylight.yangtools.yang.model.api.type.LeafrefTypeDefinition;
@@ -25,6 +35,8 @@ import org.slf4j.LoggerFactory;
 /**
  * Factory for creating JSON equivalents of codecs. Each instance of this object is bound to
  * a particular {@link SchemaContext}, but can be reused by multiple {@link JSONNormalizedNodeStreamWriter}s.
+ * Instances sharing their codecs with all other users of a context are available via
+ * {@link #getShared(SchemaContext)}.
  */
 @Beta
 public final class JSONCodecFactory {
@@ -55,41 +67,135 @@ public final class JSONCodecFactory {
         return superType;
     }
 
-    private final LoadingCache<TypeDefinition<?>, JSONCodec<Object>> codecs =
-            CacheBuilder.newBuilder().softValues().build(new CacheLoader<TypeDefinition<?>, JSONCodec<Object>>() {
-        @SuppressWarnings("unchecked")
+    /**
+     * Supplier of a context which is not kept reachable by the supplier. Callers always reach
+     * the codecs through a {@link JSONCodecFactory}, which keeps the context reachable.
+     */
+    private static final class WeakContextSupplier implements Supplier<SchemaContext> {
+        private final WeakReference<SchemaContext> ref;
+
+        WeakContextSupplier(final SchemaContext context) {
+            ref = new WeakReference<>(context);
+        }
+
         @Override
-        public JSONCodec<Object> load(final TypeDefinition<?> key) throws Exception {
-            final TypeDefinition<?> type = resolveBaseTypeFrom(key);
+        public SchemaContext get() {
+            final SchemaContext ret = ref.get();
+            Preconditions.checkState(ret != null, "Schema context has been garbage-collected");
+            return ret;
+        }
+    }
+
+    /**
+     * Codecs for the types of a single context. These are what the shared factories actually
+     * share: they reference their context only weakly, as a value which references its key
+     * would keep it reachable forever.
+     */
+    private static final class CodecTables {
+        /*
+         * Each instance is bound to a single context, so the number of types is bounded and
+         * codecs can be held strongly.
+         */
+        private final LoadingCache<TypeDefinition<?>, JSONCodec<Object>> codecs =
+                CacheBuilder.newBuilder().build(new CacheLoader<TypeDefinition<?>, JSONCodec<Object>>() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public JSONCodec<Object> load(final TypeDefinition<?> key) throws Exception {
+                final TypeDefinition<?> type = resolveBaseTypeFrom(key);
+
+                if (type instanceof InstanceIdentifierType) {
+                    return (JSONCodec<Object>) iidCodec;
+                }
+                if (type instanceof IdentityrefType) {
+                    return (JSONCodec<Object>) idrefCodec;
+                }
+                if (type instanceof LeafrefTypeDefinition) {
+                    return LEAFREF_DEFAULT_CODEC;
+                }
+
+                final TypeDefinitionAwareCodec<Object, ? extends TypeDefinition<?>> codec = TypeDefinitionAwareCodec.from(type);
+                if (codec == null) {
+                    LOG.debug("Codec for type \"{}\" is not implemented yet.", type.getQName().getLocalName());
+                    return NULL_CODEC;
+                }
+
+                return AbstractJSONCodec.create(codec);
+            }
+        });
+
+        private final JSONCodec<?> iidCodec;
+        private final JSONCodec<?> idrefCodec;
 
-            if (type instanceof InstanceIdentifierType) {
-                return (JSONCodec<Object>) iidCodec;
+        CodecTables(final Supplier<SchemaContext> context) {
+            iidCodec = new JSONStringInstanceIdentifierCodec(context);
+            idrefCodec = new JSONStringIdentityrefCodec(context);
+        }
+
+        JSONCodec<Object> codecFor(final TypeDefinition<?> typeDefinition) {
+            return codecs.getUnchecked(typeDefinition);
+        }
+
+        void precomputeCodecs(final SchemaContext context) {
+            precomputeCodecs((DataNodeContainer) context);
+            for (RpcDefinition rpc : context.getOperations()) {
+                if (rpc.getInput() != null) {
+                    precomputeCodecs(rpc.getInput());
+                }
+                if (rpc.getOutput() != null) {
+                    precomputeCodecs(rpc.getOutput());
+                }
             }
-            if (type instanceof IdentityrefType) {
-                return (JSONCodec<Object>) idrefCodec;
+            for (NotificationDefinition notification : context.getNotifications()) {
+                precomputeCodecs(notification);
             }
-            if (type instanceof LeafrefTypeDefinition) {
-                return LEAFREF_DEFAULT_CODEC;
+            LOG.debug("Precomputed {} codecs for context {}", codecs.size(), context);
+        }
+
+        /*
+         * Writers look up codecs by the declared type, parsers by its base type, so we
+         * populate both.
+         */
+        private void precomputeCodecs(final TypeDefinition<?> type) {
+            if (type != null) {
+                codecFor(type);
+                codecFor(resolveBaseTypeFrom(type));
             }
+        }
 
-            final TypeDefinitionAwareCodec<Object, ? extends TypeDefinition<?>> codec = TypeDefinitionAwareCodec.from(type);
-            if (codec == null) {
-                LOG.debug("Codec for type \"{}\" is not implemented yet.", type.getQName().getLocalName());
-                return NULL_CODEC;
+        private void precomputeCodecs(final DataNodeContainer container) {
+            for (DataSchemaNode child : container.getChildNodes()) {
+                if (child instanceof LeafSchemaNode) {
+                    precomputeCodecs(((LeafSchemaNode) child).getType());
+                } else if (child instanceof LeafListSchemaNode) {
+                    precomputeCodecs(((LeafListSchemaNode) child).getType());
+                } else if (child instanceof DataNodeContainer) {
+                    precomputeCodecs((DataNodeContainer) child);
+                } else if (child instanceof ChoiceNode) {
+                    for (ChoiceCaseNode caze : ((ChoiceNode) child).getCases()) {
+                        precomputeCodecs(caze);
+                    }
+                }
             }
+        }
+    }
 
-            return AbstractJSONCodec.create(codec);
+    // Shared codecs. Keys are weak, so the codecs go away once their context is no longer used.
+    private static final LoadingCache<SchemaContext, CodecTables> SHARED_CODECS =
+            CacheBuilder.newBuilder().weakKeys().build(new CacheLoader<SchemaContext, CodecTables>() {
+        @Override
+        public CodecTables load(final SchemaContext key) {
+            final CodecTables ret = new CodecTables(new WeakContextSupplier(key));
+            ret.precomputeCodecs(key);
+            return ret;
         }
     });
 
     private final SchemaContext schemaContext;
-    private final JSONCodec<?> iidCodec;
-    private final JSONCodec<?> idrefCodec;
+    private final CodecTables codecs;
 
-    private JSONCodecFactory(final SchemaContext context) {
+    private JSONCodecFactory(final SchemaContext context, final CodecTables codecs) {
         this.schemaContext = Preconditions.checkNotNull(context);
-        iidCodec = new JSONStringInstanceIdentifierCodec(context);
-        idrefCodec = new JSONStringIdentityrefCodec(context);
+        this.codecs = Preconditions.checkNotNull(codecs);
     }
 
     /**
@@ -99,7 +205,21 @@ public final class JSONCodecFactory {
      * @return A codec factory instance.
      */
     public static JSONCodecFactory create(final SchemaContext context) {
-        return new JSONCodecFactory(context);
+        return new JSONCodecFactory(context, new CodecTables(Suppliers.ofInstance(Preconditions.checkNotNull(context))));
+    }
+
+    /**
+     * Return a codec factory attached to a particular context, which uses codecs shared with
+     * all other factories returned by this method for the same context. The shared codecs are
+     * precomputed for all leaf and leaf-list types defined in the context, so that users do not
+     * pay the cost of codec instantiation. They are retained for as long as the context is in
+     * use, which includes the returned factory holding on to it.
+     *
+     * @param context SchemaContext to which the factory should be bound
+     * @return A codec factory instance backed by shared codecs.
+     */
+    public static JSONCodecFactory getShared(final SchemaContext context) {
+        return new JSONCodecFactory(context, SHARED_CODECS.getUnchecked(context));
     }
 
     SchemaContext getSchemaContext() {
@@ -107,6 +227,6 @@ public final class JSONCodecFactory {
     }
 
     JSONCodec<Object> codecFor(final TypeDefinition<?> typeDefinition) {
-        return codecs.getUnchecked(typeDefinition);
+        return codecs.codecFor(typeDefinition);
     }
 }
@@ -48,6 +48,8 @@ public class JSONNormalizedNodeStreamWriter implements NormalizedNodeStreamWrite
 
     private final SchemaTracker tracker;
     private final JSONCodecFactory codecs;
+    // Held strongly, shared factories do not keep their context reachable
+    private final SchemaContext schemaContext;
     private final Writer writer;
     private final String indent;
     private JSONStreamWriterContext context;
@@ -63,7 +65,8 @@ public class JSONNormalizedNodeStreamWriter implements NormalizedNodeStreamWrite
             indent = null;
         }
         this.codecs = Preconditions.checkNotNull(codecFactory);
-        this.tracker = SchemaTracker.create(codecFactory.getSchemaContext(), path);
+        this.schemaContext = codecFactory.getSchemaContext();
+        this.tracker = SchemaTracker.create(schemaContext, path);
         this.context = new JSONStreamWriterRootContext(initialNs);
     }
 
@@ -75,7 +78,7 @@ public class JSONNormalizedNodeStreamWriter implements NormalizedNodeStreamWrite
      * @return A stream writer instance
      */
     public static NormalizedNodeStreamWriter create(final SchemaContext schemaContext, final Writer writer) {
-        return new JSONNormalizedNodeStreamWriter(JSONCodecFactory.create(schemaContext), SchemaPath.ROOT, writer, null, 0);
+        return new JSONNormalizedNodeStreamWriter(JSONCodecFactory.getShared(schemaContext), SchemaPath.ROOT, writer, null, 0);
     }
 
     /**
@@ -87,7 +90,7 @@ public class JSONNormalizedNodeStreamWriter implements NormalizedNodeStreamWrite
      * @return A stream writer instance
      */
     public static NormalizedNodeStreamWriter create(final SchemaContext schemaContext, final SchemaPath path, final Writer writer) {
-        return new JSONNormalizedNodeStreamWriter(JSONCodecFactory.create(schemaContext), path, writer, null, 0);
+        return new JSONNormalizedNodeStreamWriter(JSONCodecFactory.getShared(schemaContext), path, writer, null, 0);
     }
 
     /**
@@ -101,7 +104,7 @@ public class JSONNormalizedNodeStreamWriter implements NormalizedNodeStreamWrite
      */
     public static NormalizedNodeStreamWriter create(final SchemaContext schemaContext, final SchemaPath path,
             final URI initialNs, final Writer writer) {
-        return new JSONNormalizedNodeStreamWriter(JSONCodecFactory.create(schemaContext), path, writer, initialNs, 0);
+        return new JSONNormalizedNodeStreamWriter(JSONCodecFactory.getShared(schemaContext), path, writer, initialNs, 0);
     }
 
     /**
@@ -113,7 +116,7 @@ public class JSONNormalizedNodeStreamWriter implements NormalizedNodeStreamWrite
      * @return A stream writer instance
      */
     public static NormalizedNodeStreamWriter create(final SchemaContext schemaContext, final Writer writer, final int indentSize) {
-        return new JSONNormalizedNodeStreamWriter(JSONCodecFactory.create(schemaContext), SchemaPath.ROOT, writer, null, indentSize);
+        return new JSONNormalizedNodeStreamWriter(JSONCodecFactory.getShared(schemaContext), SchemaPath.ROOT, writer, null, indentSize);
     }
 
     /**
@@ -134,8 +137,8 @@ public class JSONNormalizedNodeStreamWriter implements NormalizedNodeStreamWrite
         final LeafSchemaNode schema = tracker.leafNode(name);
         final JSONCodec<Object> codec = codecs.codecFor(schema.getType());
 
-        context.emittingChild(codecs.getSchemaContext(), writer, indent);
-        context.writeChildJsonIdentifier(codecs.getSchemaContext(), writer, name.getNodeType());
+        context.emittingChild(schemaContext, writer, indent);
+        context.writeChildJsonIdentifier(schemaContext, writer, name.getNodeType());
         writeValue(codec.serialize(value), codec.needQuotes());
     }
 
@@ -150,7 +153,7 @@ public class JSONNormalizedNodeStreamWriter implements NormalizedNodeStreamWrite
         final LeafListSchemaNode schema = tracker.leafSetEntryNode();
         final JSONCodec<Object> codec = codecs.codecFor(schema.getType());
 
-        context.emittingChild(codecs.getSchemaContext(), writer, indent);
+        context.emittingChild(schemaContext, writer, indent);
         writeValue(codec.serialize(value), codec.needQuotes());
     }
 
@@ -214,15 +217,15 @@ public class JSONNormalizedNodeStreamWriter implements NormalizedNodeStreamWrite
         final AnyXmlSchemaNode schema = tracker.anyxmlNode(name);
         // FIXME: should have a codec based on this :)
 
-        context.emittingChild(codecs.getSchemaContext(), writer, indent);
-        context.writeChildJsonIdentifier(codecs.getSchemaContext(), writer, name.getNodeType());
+        context.emittingChild(schemaContext, writer, indent);
+        context.writeChildJsonIdentifier(schemaContext, writer, name.getNodeType());
         writeValue(String.valueOf(value), true);
     }
 
     @Override
     public void endNode() throws IOException {
         tracker.endNode();
-        context = context.endNode(codecs.getSchemaContext(), writer, indent);
+        context = context.endNode(schemaContext, writer, indent);
     }
 
     private void writeValue(final String str, final boolean needQuotes) throws IOException {
@@ -8,6 +8,7 @@
 package org.opendaylight.yangtools.yang.data.codec.gson;
 
 import com.google.common.base.Preconditions;
+import com.google.common.base.Supplier;
 
 import java.net.URI;
 
@@ -17,20 +18,20 @@ import org.opendaylight.yangtools.yang.model.api.Module;
 import org.opendaylight.yangtools.yang.model.api.SchemaContext;
 
 final class JSONStringInstanceIdentifierCodec extends AbstractModuleStringInstanceIdentifierCodec implements JSONCodec<YangInstanceIdentifier> {
-    private final SchemaContext context;
+    private final Supplier<SchemaContext> context;
 
-    JSONStringInstanceIdentifierCodec(final SchemaContext context) {
+    JSONStringInstanceIdentifierCodec(final Supplier<SchemaContext> context) {
         this.context = Preconditions.checkNotNull(context);
     }
 
     @Override
     protected Module moduleForPrefix(final String prefix) {
-        return context.findModuleByName(prefix, null);
+        return context.get().findModuleByName(prefix, null);
     }
 
     @Override
     protected String prefixForNamespace(final URI namespace) {
-        final Module module = context.findModuleByNamespaceAndRevision(namespace, null);
+        final Module module = context.get().findModuleByNamespaceAndRevision(namespace, null);
         return module == null ? null : module.getName();
     }
 
@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.gson;
+
+import com.google.common.base.Function;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.AugmentationIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.impl.codec.SchemaNodeTableCache;
+import org.opendaylight.yangtools.yang.model.api.AnyXmlSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.AugmentationSchema;
+import org.opendaylight.yangtools.yang.model.api.AugmentationTarget;
+import org.opendaylight.yangtools.yang.model.api.ChoiceCaseNode;
+import org.opendaylight.yangtools.yang.model.api.ChoiceNode;
+import org.opendaylight.yangtools.yang.model.api.DataNodeContainer;
+import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.LeafListSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.LeafSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.TypeDefinition;
+
+/**
+ * Dispatch table of a data node container, which maps JSON member names onto the schema
+ * nodes they represent, including any choices, cases and augmentations which need to be
+ * traversed to get there. Tables are shared through a {@link SchemaNodeTableCache}.
+ */
+final class JsonParserDispatch {
+    private static final SchemaNodeTableCache<DataSchemaNode, JsonParserDispatch> TABLES =
+            SchemaNodeTableCache.create(new Function<DataSchemaNode, JsonParserDispatch>() {
+                @Override
+                public JsonParserDispatch apply(final DataSchemaNode input) {
+                    return new JsonParserDispatch(input);
+                }
+            });
+
+    /**
+     * A child reachable from a data node container.
+     */
+    static final class Child {
+        private final AugmentationSchema augmentation;
+        private final AugmentationIdentifier augmentationIdentifier;
+        private final ImmutableList<DataSchemaNode> choicePath;
+        private final ImmutableList<NodeIdentifier> choiceIdentifiers;
+        private final DataSchemaNode schema;
+        private final NodeIdentifier identifier;
+        private final TypeDefinition<?> type;
+
+        private Child(final AugmentationSchema augmentation, final List<DataSchemaNode> choicePath,
+                final DataSchemaNode schema) {
+            this.augmentation = augmentation;
+            this.augmentationIdentifier = augmentation == null ? null : toAugmentationIdentifier(augmentation);
+            this.choicePath = ImmutableList.copyOf(choicePath);
+            this.schema = Preconditions.checkNotNull(schema);
+            this.identifier = new NodeIdentifier(schema.getQName());
+            this.type = typeDefinition(schema);
+
+            final ImmutableList.Builder<NodeIdentifier> b = ImmutableList.builder();
+            for (DataSchemaNode n : choicePath) {
+                b.add(new NodeIdentifier(n.getQName()));
+            }
+            this.choiceIdentifiers = b.build();
+        }
+
+        /**
+         * Return the augmentation of the parent through which this child is reachable.
+         *
+         * @return Augmentation schema, or null if the child is not reachable via augmentation
+         */
+        AugmentationSchema getAugmentation() {
+            return augmentation;
+        }
+
+        AugmentationIdentifier getAugmentationIdentifier() {
+            return augmentationIdentifier;
+        }
+
+        /**
+         * Return the choices and cases which need to be traversed to reach this child, in
+         * the order of traversal. Choices are at even offsets, their cases at odd offsets.
+         *
+         * @return List of choice and case nodes
+         */
+        ImmutableList<DataSchemaNode> getChoicePath() {
+            return choicePath;
+        }
+
+        NodeIdentifier getChoiceIdentifier(final int offset) {
+            return choiceIdentifiers.get(offset);
+        }
+
+        DataSchemaNode getSchema() {
+            return schema;
+        }
+
+        NodeIdentifier getIdentifier() {
+            return identifier;
+        }
+
+        /**
+         * Return the base type of a leaf or leaf-list child.
+         *
+         * @return Base type, or null if not applicable
+         */
+        TypeDefinition<?> getType() {
+            return type;
+        }
+
+        /**
+         * Create the stack of schema nodes as expected by {@link CompositeNodeDataWithSchema#addChild(Deque)},
+         * starting at specified offset into the choice path.
+         *
+         * @param offset Offset into the choice path
+         * @return A new stack of schema nodes
+         */
+        Deque<DataSchemaNode> schemaStack(final int offset) {
+            final Deque<DataSchemaNode> ret = new ArrayDeque<>(choicePath.size() - offset + 1);
+            ret.addAll(choicePath.subList(offset, choicePath.size()));
+            ret.add(schema);
+            return ret;
+        }
+    }
+
+    private final ImmutableListMultimap<String, Child> children;
+
+    private JsonParserDispatch(final DataSchemaNode parent) {
+        Preconditions.checkArgument(parent instanceof DataNodeContainer, "Node %s is not a data node container", parent);
+
+        final ImmutableListMultimap.Builder<String, Child> b = ImmutableListMultimap.builder();
+        final List<DataSchemaNode> choicePath = new ArrayList<>();
+        addChildren(b, parent, (DataNodeContainer) parent, choicePath);
+        this.children = b.build();
+    }
+
+    static JsonParserDispatch forNode(final DataSchemaNode node) {
+        return TABLES.get(node);
+    }
+
+    /**
+     * Look up a child by its namespace and local name.
+     *
+     * @param namespace Child namespace
+     * @param localName Child local name
+     * @return Child, or null if no such child exists
+     */
+    Child getChild(final URI namespace, final String localName) {
+        for (Child c : children.get(localName)) {
+            if (c.schema.getQName().getNamespace().equals(namespace)) {
+                return c;
+            }
+        }
+        return null;
+    }
+
+    /*
+     * Children are added in the order in which JsonParserStream used to search
+     * for them: direct children first, then children of cases, depth-first. The
+     * first match wins.
+     */
+    private static void addChildren(final ImmutableListMultimap.Builder<String, Child> b, final DataSchemaNode parent,
+            final DataNodeContainer container, final List<DataSchemaNode> choicePath) {
+        final List<ChoiceNode> choices = new ArrayList<>();
+        for (DataSchemaNode child : container.getChildNodes()) {
+            if (child instanceof ChoiceNode) {
+                choices.add((ChoiceNode) child);
+            } else {
+                final AugmentationSchema aug;
+                if (choicePath.isEmpty()) {
+                    aug = findAugmentation(parent, child, !isSimple(child) || child.isAugmenting());
+                } else {
+                    aug = findAugmentation(parent, choicePath.get(0), choicePath.get(0).isAugmenting());
+                }
+                b.put(child.getQName().getLocalName(), new Child(aug, choicePath, child));
+            }
+        }
+
+        for (ChoiceNode choice : choices) {
+            for (ChoiceCaseNode caze : choice.getCases()) {
+                choicePath.add(choice);
+                choicePath.add(caze);
+                addChildren(b, parent, caze, choicePath);
+                choicePath.remove(choicePath.size() - 1);
+                choicePath.remove(choicePath.size() - 1);
+            }
+        }
+    }
+
+    private static boolean isSimple(final DataSchemaNode node) {
+        return node instanceof LeafSchemaNode || node instanceof AnyXmlSchemaNode;
+    }
+
+    /*
+     * Mirrors CompositeNodeDataWithSchema.findCorrespondingAugment().
+     */
+    private static AugmentationSchema findAugmentation(final DataSchemaNode parent, final DataSchemaNode child,
+            final boolean check) {
+        if (check && parent instanceof AugmentationTarget && !(parent instanceof ChoiceCaseNode || parent instanceof ChoiceNode)) {
+            for (AugmentationSchema augmentation : ((AugmentationTarget) parent).getAvailableAugmentations()) {
+                if (augmentation.getDataChildByName(child.getQName()) != null) {
+                    return augmentation;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static AugmentationIdentifier toAugmentationIdentifier(final AugmentationSchema schema) {
+        final ImmutableSet.Builder<QName> qnames = ImmutableSet.builder();
+        for (DataSchemaNode child : schema.getChildNodes()) {
+            qnames.add(child.getQName());
+        }
+        return new AugmentationIdentifier(qnames.build());
+    }
+
+    private static TypeDefinition<?> typeDefinition(final DataSchemaNode node) {
+        TypeDefinition<?> baseType;
+        if (node instanceof LeafListSchemaNode) {
+            baseType = ((LeafListSchemaNode) node).getType();
+        } else if (node instanceof LeafSchemaNode) {
+            baseType = ((LeafSchemaNode) node).getType();
+        } else {
+            return null;
+        }
+
+        if (baseType != null) {
+            while (baseType.getBaseType() != null) {
+                baseType = baseType.getBaseType();
+            }
+        }
+        return baseType;
+    }
+}
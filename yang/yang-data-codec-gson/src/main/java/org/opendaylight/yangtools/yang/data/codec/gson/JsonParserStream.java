@@ -14,6 +14,7 @@ import com.google.gson.JsonIOException;
 import com.google.gson.JsonParseException;
 import com.google.gson.JsonSyntaxException;
 import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.MalformedJsonException;
 
 import java.io.Closeable;
@@ -30,14 +31,20 @@ import java.util.List;
 import java.util.Set;
 
 import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.Node;
 import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.NodeFactory;
+import org.opendaylight.yangtools.yang.data.impl.codec.ParserLevel;
 import org.opendaylight.yangtools.yang.model.api.AnyXmlSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.AugmentationSchema;
 import org.opendaylight.yangtools.yang.model.api.ChoiceCaseNode;
 import org.opendaylight.yangtools.yang.model.api.ChoiceNode;
+import org.opendaylight.yangtools.yang.model.api.ContainerSchemaNode;
 import org.opendaylight.yangtools.yang.model.api.DataNodeContainer;
 import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
 import org.opendaylight.yangtools.yang.model.api.LeafListSchemaNode;
 import org.opendaylight.yangtools.yang.model.api.LeafSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.ListSchemaNode;
 import org.opendaylight.yangtools.yang.model.api.Module;
 import org.opendaylight.yangtools.yang.model.api.SchemaContext;
 import org.opendaylight.yangtools.yang.model.api.SchemaNode;
@@ -46,6 +53,10 @@ import org.opendaylight.yangtools.yang.model.api.TypeDefinition;
 /**
  * This class parses JSON elements from a GSON JsonReader. It disallows multiple elements of the same name unlike the
  * default GSON JsonParser.
+ * <p>
+ * JSON objects are translated into writer events as they are read, using per-schema-node dispatch tables. Data
+ * is held back only where the writer requires it: until all keys of a list entry are known, and for members which
+ * are interleaved with an already-started choice or augmentation.
  */
 @Beta
 public final class JsonParserStream implements Closeable, Flushable {
@@ -58,7 +69,7 @@ public final class JsonParserStream implements Closeable, Flushable {
     private JsonParserStream(final NormalizedNodeStreamWriter writer, final SchemaContext schemaContext, final DataSchemaNode parentNode) {
         this.schema = Preconditions.checkNotNull(schemaContext);
         this.writer = Preconditions.checkNotNull(writer);
-        this.codecs = JSONCodecFactory.create(schemaContext);
+        this.codecs = JSONCodecFactory.getShared(schemaContext);
         this.parentNode = parentNode;
     }
 
@@ -78,11 +89,15 @@ public final class JsonParserStream implements Closeable, Flushable {
         reader.setLenient(true);
         boolean isEmpty = true;
         try {
-            reader.peek();
+            final JsonToken token = reader.peek();
             isEmpty = false;
-            CompositeNodeDataWithSchema compositeNodeDataWithSchema = new CompositeNodeDataWithSchema(parentNode);
-            read(reader, compositeNodeDataWithSchema);
-            compositeNodeDataWithSchema.write(writer);
+            if (token == JsonToken.BEGIN_OBJECT && parentNode instanceof DataNodeContainer) {
+                readObject(reader, new Level(parentNode), null);
+            } else {
+                CompositeNodeDataWithSchema compositeNodeDataWithSchema = new CompositeNodeDataWithSchema(parentNode);
+                read(reader, compositeNodeDataWithSchema);
+                compositeNodeDataWithSchema.write(writer);
+            }
 
             return this;
             // return read(reader);
@@ -106,6 +121,336 @@ public final class JsonParserStream implements Closeable, Flushable {
         }
     }
 
+    /*
+     * Streaming parser. Members are looked up in precomputed dispatch tables and emitted
+     * directly into the writer, as they are encountered. A member which cannot be emitted
+     * yet, as described in ParserLevel, is buffered in a DataWithSchema tree instead. In
+     * JSON the members of a list or leaf-list are contained in a single array, hence only
+     * choices and augmentations are groups.
+     */
+
+    /**
+     * Emission state of a JSON object, or of a choice or augmentation within it.
+     */
+    private static final class Level extends ParserLevel<Level> {
+        private final DataSchemaNode schema;
+        private final ChoiceCaseNode caze;
+        private final boolean augmentable;
+        private final int offset;
+
+        private Set<Object> bufferedGroups;
+        private CompositeNodeDataWithSchema buffer;
+
+        private Level(final DataSchemaNode schema, final ChoiceCaseNode caze, final boolean augmentable, final int offset,
+                final ListSchemaNode entry) {
+            super(entry);
+            this.schema = Preconditions.checkNotNull(schema);
+            this.caze = caze;
+            this.augmentable = augmentable;
+            this.offset = offset;
+        }
+
+        /**
+         * Create a level for a data node container.
+         */
+        Level(final DataSchemaNode schema) {
+            this(schema, null, true, 0, null);
+        }
+
+        static Level forListEntry(final ListSchemaNode schema) {
+            return new Level(schema, null, true, 0, schema);
+        }
+
+        /**
+         * Create a level for the selected case of a choice, whose members start at specified
+         * offset into {@link JsonParserDispatch.Child#getChoicePath()}.
+         */
+        static Level forCase(final ChoiceCaseNode caze, final int offset) {
+            return new Level(caze, caze, false, offset, null);
+        }
+
+        /**
+         * Create a level for an augmentation of a data node container.
+         */
+        static Level forAugmentation(final DataSchemaNode schema) {
+            return new Level(schema, null, false, 0, null);
+        }
+
+        boolean isPendingKey(final JsonParserDispatch.Child child) {
+            return child.getChoicePath().isEmpty() && isPendingKey(child.getSchema().getQName());
+        }
+
+        boolean isBuffered(final Object group) {
+            return bufferedGroups != null && bufferedGroups.contains(group);
+        }
+
+        void setBuffered(final Object group) {
+            if (bufferedGroups == null) {
+                bufferedGroups = new HashSet<>();
+            }
+            bufferedGroups.add(group);
+        }
+
+        CompositeNodeDataWithSchema getBuffer() {
+            if (buffer == null) {
+                if (caze != null) {
+                    buffer = new CaseNodeDataWithSchema(caze);
+                } else if (augmentable) {
+                    buffer = new CompositeNodeDataWithSchema(schema);
+                } else {
+                    // Augmentation members, which are grouped by our parent
+                    buffer = new CompositeNodeDataWithSchema(schema) {
+                        @Override
+                        AugmentationSchema findCorrespondingAugment(final DataSchemaNode parent, final DataSchemaNode child) {
+                            return null;
+                        }
+                    };
+                }
+            }
+            return buffer;
+        }
+    }
+
+    private void readObject(final JsonReader in, final Level level, final URI parentNamespace) throws IOException {
+        final JsonParserDispatch dispatch = JsonParserDispatch.forNode(level.schema);
+        final Set<String> namesakes = new HashSet<>();
+
+        in.beginObject();
+        while (in.hasNext()) {
+            final String jsonElementName = in.nextName();
+            final NamespaceAndName namespaceAndName = resolveNamespace(jsonElementName);
+            final String localName = namespaceAndName.getName();
+            final URI namespace;
+            if (namespaceAndName.getUri().isPresent()) {
+                namespace = namespaceAndName.getUri().get();
+            } else if (parentNamespace != null) {
+                namespace = parentNamespace;
+            } else {
+                throw new IllegalStateException("Namespace has to be specified at top level.");
+            }
+
+            if (!namesakes.add(jsonElementName)) {
+                throw new JsonSyntaxException("Duplicate name " + jsonElementName + " in JSON input.");
+            }
+
+            final JsonParserDispatch.Child child = dispatch.getChild(namespace, localName);
+            if (child == null) {
+                throw new IllegalStateException("Schema for node with name " + localName + " and namespace "
+                        + namespace + " doesn't exist.");
+            }
+            readMember(in, level, child, namespace);
+        }
+        in.endObject();
+
+        level.checkLive();
+        finish(level);
+    }
+
+    private void readMember(final JsonReader in, final Level level, final JsonParserDispatch.Child child,
+            final URI namespace) throws IOException {
+        final Object group;
+        final List<DataSchemaNode> choicePath = child.getChoicePath();
+        if (level.augmentable && child.getAugmentation() != null) {
+            group = child.getAugmentation();
+        } else if (level.offset < choicePath.size()) {
+            group = choicePath.get(level.offset);
+        } else {
+            // Direct member
+            if (level.isPendingKey(child)) {
+                level.putKey(writer, child.getSchema().getQName(), readValue(in, child));
+            } else if (level.canStream()) {
+                streamMember(in, child, namespace);
+            } else {
+                bufferMember(in, level, child, namespace);
+            }
+            return;
+        }
+
+        final Level open = level.getOpen(group);
+        if (open != null) {
+            if (open.caze != null) {
+                final DataSchemaNode caze = choicePath.get(level.offset + 1);
+                Preconditions.checkArgument(open.caze.equals(caze),
+                    "Data from case %s are specified but other data from case %s were specified earlier. Data aren't from the same case.",
+                    caze.getQName(), open.caze.getQName());
+            }
+            readMember(in, open, child, namespace);
+        } else if (level.canStream() && !level.isBuffered(group)) {
+            final Level started;
+            if (group instanceof ChoiceNode) {
+                writer.startChoiceNode(child.getChoiceIdentifier(level.offset), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+                started = Level.forCase((ChoiceCaseNode) choicePath.get(level.offset + 1), level.offset + 2);
+            } else {
+                writer.startAugmentationNode(child.getAugmentationIdentifier());
+                started = Level.forAugmentation(level.schema);
+            }
+
+            level.setOpen(group, started);
+            readMember(in, started, child, namespace);
+        } else {
+            level.setBuffered(group);
+            bufferMember(in, level, child, namespace);
+        }
+    }
+
+    private void bufferMember(final JsonReader in, final Level level, final JsonParserDispatch.Child child,
+            final URI namespace) throws IOException {
+        final AbstractNodeDataWithSchema newChild = level.getBuffer().addChild(child.schemaStack(level.offset));
+        if (newChild instanceof AnyXmlNodeDataWithSchema) {
+            ((AnyXmlNodeDataWithSchema) newChild).setValue(readAnyXml(in, newChild.getSchema().getQName()));
+        } else {
+            namespaces.push(namespace);
+            read(in, newChild);
+            namespaces.pop();
+        }
+    }
+
+    private void streamMember(final JsonReader in, final JsonParserDispatch.Child child, final URI namespace)
+            throws IOException {
+        final DataSchemaNode schema = child.getSchema();
+        if (schema instanceof LeafSchemaNode) {
+            writer.leafNode(child.getIdentifier(), readValue(in, child));
+        } else if (schema instanceof AnyXmlSchemaNode) {
+            writer.anyxmlNode(child.getIdentifier(), readAnyXml(in, schema.getQName()));
+        } else if (schema instanceof LeafListSchemaNode) {
+            writer.startLeafSet(child.getIdentifier(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+            in.beginArray();
+            while (in.hasNext()) {
+                writer.leafSetEntryNode(readValue(in, child));
+            }
+            in.endArray();
+            writer.endNode();
+        } else if (schema instanceof ContainerSchemaNode) {
+            writer.startContainerNode(child.getIdentifier(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+            readObject(in, new Level(schema), namespace);
+            writer.endNode();
+        } else if (schema instanceof ListSchemaNode) {
+            final ListSchemaNode list = (ListSchemaNode) schema;
+            final boolean keyed = !list.getKeyDefinition().isEmpty();
+            if (keyed) {
+                writer.startMapNode(child.getIdentifier(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+            } else {
+                writer.startUnkeyedList(child.getIdentifier(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+            }
+
+            in.beginArray();
+            while (in.hasNext()) {
+                if (keyed) {
+                    readObject(in, Level.forListEntry(list), namespace);
+                } else {
+                    writer.startUnkeyedListItem(child.getIdentifier(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+                    readObject(in, new Level(list), namespace);
+                }
+                writer.endNode();
+            }
+            in.endArray();
+            writer.endNode();
+        } else {
+            throw new IllegalArgumentException("Unhandled schema node " + schema);
+        }
+    }
+
+    private Object readValue(final JsonReader in, final JsonParserDispatch.Child child) throws IOException {
+        final String value;
+        switch (in.peek()) {
+        case STRING:
+        case NUMBER:
+            value = in.nextString();
+            break;
+        case BOOLEAN:
+            value = Boolean.toString(in.nextBoolean());
+            break;
+        case NULL:
+            in.nextNull();
+            value = null;
+            break;
+        default:
+            throw new IllegalArgumentException("Node " + child.getSchema().getQName() + " is not a simple type");
+        }
+
+        final TypeDefinition<?> type = child.getType();
+        return type == null ? value : codecs.codecFor(type).deserialize(value);
+    }
+
+    /**
+     * Reads the value of an anyxml node into a {@link Node}. A JSON object becomes a composite node whose
+     * members are its children, with array members becoming repeated children. A top-level array merges
+     * its elements into a single composite node. Any other value becomes a simple node holding its string
+     * form. Member names are qualified like data nodes, inheriting the parent's module unless prefixed.
+     */
+    private Node<?> readAnyXml(final JsonReader in, final QName qname) throws IOException {
+        final List<Node<?>> children;
+        switch (in.peek()) {
+        case BEGIN_OBJECT:
+            children = new ArrayList<>();
+            readAnyXmlMembers(in, qname, children);
+            return NodeFactory.createImmutableCompositeNode(qname, null, children);
+        case BEGIN_ARRAY:
+            children = new ArrayList<>();
+            in.beginArray();
+            while (in.hasNext()) {
+                if (in.peek() == JsonToken.BEGIN_OBJECT) {
+                    readAnyXmlMembers(in, qname, children);
+                } else {
+                    children.add(readAnyXml(in, qname));
+                }
+            }
+            in.endArray();
+            return NodeFactory.createImmutableCompositeNode(qname, null, children);
+        case STRING:
+        case NUMBER:
+            return NodeFactory.createImmutableSimpleNode(qname, null, in.nextString());
+        case BOOLEAN:
+            return NodeFactory.createImmutableSimpleNode(qname, null, Boolean.toString(in.nextBoolean()));
+        case NULL:
+            in.nextNull();
+            return NodeFactory.createImmutableSimpleNode(qname, null, null);
+        default:
+            throw new JsonSyntaxException("Unexpected " + in.peek() + " in anyxml node " + qname);
+        }
+    }
+
+    private void readAnyXmlMembers(final JsonReader in, final QName parent, final List<Node<?>> children)
+            throws IOException {
+        in.beginObject();
+        while (in.hasNext()) {
+            final QName qname = anyXmlMemberQName(parent, in.nextName());
+            if (in.peek() == JsonToken.BEGIN_ARRAY) {
+                in.beginArray();
+                while (in.hasNext()) {
+                    children.add(readAnyXml(in, qname));
+                }
+                in.endArray();
+            } else {
+                children.add(readAnyXml(in, qname));
+            }
+        }
+        in.endObject();
+    }
+
+    private QName anyXmlMemberQName(final QName parent, final String jsonElementName) {
+        final int lastIndexOfColon = jsonElementName.lastIndexOf(':');
+        final String localName = jsonElementName.substring(lastIndexOfColon + 1);
+        if (lastIndexOfColon != -1) {
+            final Module m = schema.findModuleByName(jsonElementName.substring(0, lastIndexOfColon), null);
+            if (m != null) {
+                return QName.create(m.getQNameModule(), localName);
+            }
+        }
+        return QName.create(parent, localName);
+    }
+
+    private void finish(final Level level) throws IOException {
+        final Level open = level.getOpen();
+        if (open != null) {
+            finish(open);
+            writer.endNode();
+        }
+        if (level.buffer != null) {
+            level.buffer.write(writer);
+        }
+    }
+
     private final void setValue(final AbstractNodeDataWithSchema parent, final String value) {
         Preconditions.checkArgument(parent instanceof SimpleNodeDataWithSchema, "Node %s is not a simple type", parent);
 
@@ -162,9 +507,8 @@ public final class JsonParserStream implements Closeable, Flushable {
 
                 AbstractNodeDataWithSchema newChild;
                 newChild = ((CompositeNodeDataWithSchema) parent).addChild(childDataSchemaNodes);
-//                FIXME:anyxml data shouldn't be skipped but should be loaded somehow. will be specified after 17AUG2014
                 if (newChild instanceof AnyXmlNodeDataWithSchema) {
-                    in.skipValue();
+                    ((AnyXmlNodeDataWithSchema) newChild).setValue(readAnyXml(in, newChild.getSchema().getQName()));
                 } else {
                     read(in, newChild);
                 }
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.gson;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.opendaylight.yangtools.yang.data.codec.gson.TestUtils.loadModules;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.model.api.ContainerSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.LeafSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+
+public class JSONCodecFactoryTest {
+    private static final QName CONT1 = QName.create("ns:complex:json", "2014-08-11", "cont1");
+    private static final QName LF11 = QName.create(CONT1, "lf11");
+
+    private static SchemaContext schemaContext;
+
+    @BeforeClass
+    public static void initialization() throws IOException, URISyntaxException {
+        schemaContext = loadModules("/complexjson/yang");
+    }
+
+    @Test
+    public void testSharedFactory() {
+        final ContainerSchemaNode cont1 = (ContainerSchemaNode) schemaContext.getDataChildByName(CONT1);
+        final LeafSchemaNode lf11 = (LeafSchemaNode) cont1.getDataChildByName(LF11);
+
+        final JSONCodecFactory factory = JSONCodecFactory.getShared(schemaContext);
+        assertSame(schemaContext, factory.getSchemaContext());
+        assertSame(factory.codecFor(lf11.getType()), JSONCodecFactory.getShared(schemaContext).codecFor(lf11.getType()));
+        assertNotSame(factory.codecFor(lf11.getType()), JSONCodecFactory.create(schemaContext).codecFor(lf11.getType()));
+    }
+
+    @Test
+    public void testPrecomputedCodecs() {
+        final ContainerSchemaNode cont1 = (ContainerSchemaNode) schemaContext.getDataChildByName(CONT1);
+        final LeafSchemaNode lf11 = (LeafSchemaNode) cont1.getDataChildByName(LF11);
+
+        final JSONCodecFactory factory = JSONCodecFactory.getShared(schemaContext);
+        final JSONCodec<Object> codec = factory.codecFor(lf11.getType());
+        assertSame(codec, factory.codecFor(lf11.getType()));
+        assertEquals(Integer.valueOf(42), codec.deserialize("42"));
+    }
+}
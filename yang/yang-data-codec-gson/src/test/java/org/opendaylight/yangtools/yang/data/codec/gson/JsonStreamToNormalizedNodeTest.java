@@ -16,7 +16,6 @@ import java.io.IOException;
 import java.io.StringReader;
 import java.net.URISyntaxException;
 import org.junit.BeforeClass;
-import org.junit.Ignore;
 import org.junit.Test;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
@@ -37,24 +36,18 @@ public class JsonStreamToNormalizedNodeTest {
         schemaContext = loadModules("/complexjson/yang");
     }
 
-    /**
-     * case when anyxml contains simple value will be implemented when anyxml normalized node reprezentation will be
-     * specified
-     */
-    @Ignore
     @Test
     public void anyXmlNodeWithSimpleValueInContainer() throws IOException, URISyntaxException {
-
+        String inputJson = loadTextFile("/complexjson/anyxml-node-with-simple-value-in-container.json");
+        verifyTransformationToNormalizedNode(inputJson,
+                TestingNormalizedNodeStructuresCreator.anyXmlNodeWithSimpleValueInContainer());
     }
 
-    /**
-     * case when anyxml contains complex xml will be implemented when anyxml normalized node reprezentation will be
-     * specified
-     */
-    @Ignore
     @Test
     public void anyXmlNodeWithCompositeValueInContainer() throws IOException, URISyntaxException {
-
+        String inputJson = loadTextFile("/complexjson/anyxml-node-with-composite-value-in-container.json");
+        verifyTransformationToNormalizedNode(inputJson,
+                TestingNormalizedNodeStructuresCreator.anyXmlNodeWithCompositeValueInContainer());
     }
 
     @Test
@@ -84,6 +77,13 @@ public class JsonStreamToNormalizedNodeTest {
                 TestingNormalizedNodeStructuresCreator.keyedListNodeInContainer());
     }
 
+    @Test
+    public void keyedListNodeWithKeyLastInContainer() throws IOException, URISyntaxException {
+        String inputJson = loadTextFile("/complexjson/keyed-list-node-key-last-in-container.json");
+        verifyTransformationToNormalizedNode(inputJson,
+                TestingNormalizedNodeStructuresCreator.keyedListNodeInContainer());
+    }
+
     @Test
     public void choiceNodeInContainer() throws IOException, URISyntaxException {
         String inputJson = loadTextFile("/complexjson/choice-node-in-container.json");
@@ -133,6 +133,38 @@ public class JsonStreamToNormalizedNodeTest {
         verifyTransformationToNormalizedNode(inputJson, TestingNormalizedNodeStructuresCreator.unkeyedNodeInContainer());
     }
 
+    @Test
+    public void directMemberAfterChoiceInContainer() throws IOException, URISyntaxException {
+        String inputJson = loadTextFile("/complexjson/direct-member-after-choice-in-container.json");
+        verifySameAsTreeParser(inputJson);
+    }
+
+    @Test
+    public void augmentationMemberAfterOtherGroupsInContainer() throws IOException, URISyntaxException {
+        String inputJson = loadTextFile("/complexjson/augmentation-member-after-other-groups-in-container.json");
+        verifySameAsTreeParser(inputJson);
+    }
+
+    @Test
+    public void keyedListNodeWithAugmentationBeforeKeysInContainer() throws IOException, URISyntaxException {
+        String inputJson = loadTextFile("/complexjson/keyed-list-node-augmentation-before-keys-in-container.json");
+        verifySameAsTreeParser(inputJson);
+    }
+
+    /*
+     * Compares the result with what the parser produced before it was made streaming, by reading
+     * the entire input into a CompositeNodeDataWithSchema tree and writing it out afterwards.
+     */
+    private void verifySameAsTreeParser(final String inputJson) throws IOException {
+        final NormalizedNodeResult expected = new NormalizedNodeResult();
+        final NormalizedNodeStreamWriter expectedWriter = ImmutableNormalizedNodeStreamWriter.from(expected);
+        final CompositeNodeDataWithSchema root = new CompositeNodeDataWithSchema(schemaContext);
+        JsonParserStream.create(expectedWriter, schemaContext).read(new JsonReader(new StringReader(inputJson)), root);
+        root.write(expectedWriter);
+
+        verifyTransformationToNormalizedNode(inputJson, expected.getResult());
+    }
+
     private void verifyTransformationToNormalizedNode(final String inputJson,
             final NormalizedNode<?, ?> awaitedStructure) {
         NormalizedNodeResult result = new NormalizedNodeResult();
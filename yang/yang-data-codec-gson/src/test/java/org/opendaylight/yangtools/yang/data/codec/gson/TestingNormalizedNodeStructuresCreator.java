@@ -11,6 +11,7 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import org.opendaylight.yangtools.yang.common.QName;
 import org.opendaylight.yangtools.yang.data.api.CompositeNode;
+import org.opendaylight.yangtools.yang.data.api.Node;
 import org.opendaylight.yangtools.yang.data.api.SimpleNode;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.AugmentationIdentifier;
@@ -30,7 +31,6 @@ import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 import org.opendaylight.yangtools.yang.data.api.schema.UnkeyedListEntryNode;
 import org.opendaylight.yangtools.yang.data.api.schema.UnkeyedListNode;
-import org.opendaylight.yangtools.yang.data.impl.ImmutableCompositeNode;
 import org.opendaylight.yangtools.yang.data.impl.NodeFactory;
 import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
 import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
@@ -256,15 +256,31 @@ public class TestingNormalizedNodeStructuresCreator {
     private static CompositeNode prepareLf12Value() {
         SimpleNode<?> anyxmlInData = NodeFactory.createImmutableSimpleNode(
                 QName.create("ns:complex:json", "2014-08-11", "anyxml-in-data"), null, "foo");
-        return ImmutableCompositeNode.builder().add(anyxmlInData)
-                .setQName(QName.create("ns:complex:json", "2014-08-11", "lf12-any")).build();
+        return NodeFactory.createImmutableCompositeNode(QName.create("ns:complex:json", "2014-08-11", "lf12-any"),
+                null, Lists.<Node<?>>newArrayList(anyxmlInData));
     }
 
     private static CompositeNode prepareLf13Value() {
         SimpleNode<?> anyxmlInData = NodeFactory.createImmutableSimpleNode(
                 QName.create("ns:complex:json", "2014-08-11", "anyxml-in-data"), null, "foo");
-        return ImmutableCompositeNode.builder().add(anyxmlInData)
-                .setQName(QName.create("ns:complex:json", "2014-08-11", "lf13-any")).build();
+        return NodeFactory.createImmutableCompositeNode(QName.create("ns:complex:json", "2014-08-11", "lf13-any"),
+                null, Lists.<Node<?>>newArrayList(anyxmlInData));
+    }
+
+    private static DataContainerChild<? extends PathArgument, ?> anyXmlNode(final String localName,
+            final Node<?> value) {
+        return Builders.anyXmlBuilder()
+                .withNodeIdentifier(new NodeIdentifier(QName.create("ns:complex:json", "2014-08-11", localName)))
+                .withValue(value).build();
+    }
+
+    public static NormalizedNode<?, ?> anyXmlNodeWithSimpleValueInContainer() {
+        return cont1Node(anyXmlNode("lf14-any", NodeFactory.createImmutableSimpleNode(
+                QName.create("ns:complex:json", "2014-08-11", "lf14-any"), null, "anyxml data")));
+    }
+
+    public static NormalizedNode<?, ?> anyXmlNodeWithCompositeValueInContainer() {
+        return cont1Node(anyXmlNode("lf12-any", prepareLf12Value()), anyXmlNode("lf13-any", prepareLf13Value()));
     }
 
     public static NormalizedNode<?, ?> leafNodeInContainer() {
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.codec;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Preconditions;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import javax.annotation.Nullable;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.model.api.ListSchemaNode;
+
+/**
+ * Emission state of streaming parsers, which translate input into {@link NormalizedNodeStreamWriter}
+ * events as it is read. A level corresponds to the content of a data node, or of a choice or
+ * augmentation within it.
+ * <p>
+ * Members of a level can be streamed directly into the writer only while the level is live and
+ * no group is open. A keyed list entry is not live until all of its keys are known, as the entry
+ * cannot be started before that. A group is a node made up of several members, such as a choice
+ * or an augmentation, which cannot be revisited once it has been closed. Hence once a group is
+ * open, it stays open until the end of the level, and parsers buffer any other members which
+ * arrive in the meantime and emit them once the group has been closed.
+ *
+ * @param <G> Type of the state of an open group
+ */
+@Beta
+public abstract class ParserLevel<G> {
+    private final ListSchemaNode entry;
+    private final Map<QName, Object> keys;
+    private Object openKey;
+    private G open;
+    private boolean live;
+
+    /**
+     * Create a new level.
+     *
+     * @param entry Schema of a keyed list entry, which is not live until all its keys are known,
+     *              or null if the level is live from the start
+     */
+    protected ParserLevel(@Nullable final ListSchemaNode entry) {
+        this.entry = entry;
+        if (entry != null) {
+            this.keys = new LinkedHashMap<>(entry.getKeyDefinition().size());
+            this.live = false;
+        } else {
+            this.keys = null;
+            this.live = true;
+        }
+    }
+
+    /**
+     * Check whether members of this level can be streamed into the writer as they arrive.
+     *
+     * @return True if the level is live and has no open group.
+     */
+    public final boolean canStream() {
+        return live && open == null;
+    }
+
+    /**
+     * Check whether a member is one of the keys which need to be known before this level
+     * becomes live.
+     *
+     * @param qname Member name
+     * @return True if the member is a key which is still awaited.
+     */
+    public final boolean isPendingKey(final QName qname) {
+        return !live && entry != null && entry.getKeyDefinition().contains(qname);
+    }
+
+    /**
+     * Record the value of a key. Once all keys are known, the list entry is started in the writer,
+     * together with its key leaves, and the level becomes live.
+     *
+     * @param writer Writer into which the entry is emitted
+     * @param qname Key name
+     * @param value Key value
+     * @return True if this was the last key and the entry has been started.
+     * @throws IOException if the writer reports an error
+     */
+    public final boolean putKey(final NormalizedNodeStreamWriter writer, final QName qname, final Object value)
+            throws IOException {
+        Preconditions.checkArgument(!keys.containsKey(qname), "Node %s detected multiple times", qname);
+        keys.put(qname, value);
+        if (keys.size() < entry.getKeyDefinition().size()) {
+            return false;
+        }
+
+        // Need to restore schema order...
+        final Map<QName, Object> predicates = new LinkedHashMap<>();
+        for (QName key : entry.getKeyDefinition()) {
+            predicates.put(key, keys.get(key));
+        }
+
+        writer.startMapEntryNode(new NodeIdentifierWithPredicates(entry.getQName(), predicates),
+            NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+        for (Entry<QName, Object> e : predicates.entrySet()) {
+            writer.leafNode(new NodeIdentifier(e.getKey()), e.getValue());
+        }
+        live = true;
+        return true;
+    }
+
+    /**
+     * Check that all keys have been seen by the end of the level.
+     *
+     * @throws IllegalStateException if some keys are missing
+     */
+    public final void checkLive() {
+        Preconditions.checkState(live, "Input is missing some of the keys of %s", entry == null ? null : entry.getQName());
+    }
+
+    /**
+     * Return the open group, if it is identified by the specified key.
+     *
+     * @param key Group key
+     * @return Open group, or null if no group is open or the open group has a different key
+     */
+    public final G getOpen(final Object key) {
+        return open != null && openKey == key ? open : null;
+    }
+
+    /**
+     * Return the open group.
+     *
+     * @return Open group, or null if no group is open
+     */
+    public final G getOpen() {
+        return open;
+    }
+
+    /**
+     * Record a group which has been started in the writer. Only a level which can stream can
+     * open a group.
+     *
+     * @param key Group key
+     * @param group Group state
+     */
+    public final void setOpen(final Object key, final G group) {
+        Preconditions.checkState(canStream(), "Level %s cannot open a group", this);
+        this.openKey = Preconditions.checkNotNull(key);
+        this.open = Preconditions.checkNotNull(group);
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.codec;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Function;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+/**
+ * Cache of tables computed from schema nodes, such as the dispatch tables of streaming parsers.
+ * Tables are computed once for each schema node and shared.
+ * <p>
+ * Schema nodes are held weakly, so that tables go away with their SchemaContext. A table has to
+ * reference only the children of its schema node, otherwise it would keep the node alive.
+ *
+ * @param <K> Type of schema nodes
+ * @param <T> Type of tables
+ */
+@Beta
+public final class SchemaNodeTableCache<K, T> {
+    private final LoadingCache<K, T> tables;
+
+    private SchemaNodeTableCache(final Function<K, T> factory) {
+        this.tables = CacheBuilder.newBuilder().weakKeys().build(CacheLoader.from(factory));
+    }
+
+    /**
+     * Create a new cache.
+     *
+     * @param factory Function which computes the table of a schema node
+     * @return A new cache
+     */
+    public static <K, T> SchemaNodeTableCache<K, T> create(final Function<K, T> factory) {
+        return new SchemaNodeTableCache<>(factory);
+    }
+
+    /**
+     * Return the table of a schema node, computing it if necessary.
+     *
+     * @param node Schema node
+     * @return Table
+     */
+    public T get(final K node) {
+        return tables.getUnchecked(node);
+    }
+}
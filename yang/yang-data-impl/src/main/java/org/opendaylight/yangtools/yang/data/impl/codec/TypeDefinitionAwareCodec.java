@@ -22,11 +22,13 @@ import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import com.google.common.io.BaseEncoding;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.List;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -571,9 +573,30 @@ public abstract class TypeDefinitionAwareCodec<J, T extends TypeDefinition<T>> i
 
     public static class UnionCodecStringImpl extends TypeDefinitionAwareCodec<Object, UnionTypeDefinition> implements
             UnionCodec<String> {
+        /*
+         * Member type codecs, resolved once. If any member type has no codec (eg identity ref),
+         * every value is considered valid.
+         */
+        private final List<TypeDefinitionAwareCodec<Object, ? extends TypeDefinition<?>>> memberCodecs;
+        private final boolean hasUncheckedMember;
 
         protected UnionCodecStringImpl(final Optional<UnionTypeDefinition> typeDef) {
             super(typeDef, Object.class);
+
+            final ImmutableList.Builder<TypeDefinitionAwareCodec<Object, ? extends TypeDefinition<?>>> b = ImmutableList.builder();
+            boolean unchecked = false;
+            if (typeDef.isPresent()) {
+                for (TypeDefinition<?> type : typeDef.get().getTypes()) {
+                    final TypeDefinitionAwareCodec<Object, ? extends TypeDefinition<?>> typeAwareCodec = from(type);
+                    if (typeAwareCodec == null) {
+                        unchecked = true;
+                    } else {
+                        b.add(typeAwareCodec);
+                    }
+                }
+            }
+            this.memberCodecs = b.build();
+            this.hasUncheckedMember = unchecked;
         }
 
         @Override
@@ -583,17 +606,9 @@ public abstract class TypeDefinitionAwareCodec<J, T extends TypeDefinition<T>> i
 
         @Override
         public Object deserialize(final String stringRepresentation) {
-            if( getTypeDefinition().isPresent() ) {
+            if (getTypeDefinition().isPresent() && !hasUncheckedMember) {
                 boolean valid = false;
-                for( TypeDefinition<?> type: getTypeDefinition().get().getTypes() ) {
-                    TypeDefinitionAwareCodec<Object, ? extends TypeDefinition<?>> typeAwareCodec = from( type );
-                    if( typeAwareCodec == null ) {
-                        // This is a type for which we have no codec (eg identity ref) so we'll say it's valid
-                        // but we'll continue in case there's another type for which we do have a codec.
-                        valid = true;
-                        continue;
-                    }
-
+                for (TypeDefinitionAwareCodec<Object, ? extends TypeDefinition<?>> typeAwareCodec : memberCodecs) {
                     try {
                         typeAwareCodec.deserialize( stringRepresentation );
                         valid = true;
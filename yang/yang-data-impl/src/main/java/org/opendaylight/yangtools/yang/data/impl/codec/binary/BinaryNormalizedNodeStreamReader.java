@@ -0,0 +1,367 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.codec.binary;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Charsets;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.io.DataInput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.QNameModule;
+import org.opendaylight.yangtools.yang.data.api.Node;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.AugmentationIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeWithValue;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.NodeFactory;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.NormalizedNodeResult;
+
+/**
+ * Reader counterpart to {@link BinaryNormalizedNodeStreamWriter}. It reads the binary
+ * representation from a {@link DataInput} and either replays it into a
+ * {@link NormalizedNodeStreamWriter}, or builds an immutable {@link NormalizedNode}.
+ *
+ * The reader mirrors the writer's dictionaries of modules, QNames, node identifiers and
+ * augmentation identifiers, so it has to consume the stream produced by a single writer
+ * instance from its beginning.
+ */
+@Beta
+public final class BinaryNormalizedNodeStreamReader {
+    private final List<QNameModule> modules = new ArrayList<>();
+    private final List<QName> qnames = new ArrayList<>();
+    private final List<PathArgument> arguments = new ArrayList<>();
+    private final DataInput input;
+
+    private BinaryNormalizedNodeStreamReader(final DataInput input) {
+        this.input = Preconditions.checkNotNull(input);
+    }
+
+    /**
+     * Create a new reader reading from specified input.
+     *
+     * @param input Input {@link DataInput}
+     * @return A new {@link BinaryNormalizedNodeStreamReader}
+     */
+    public static BinaryNormalizedNodeStreamReader create(final DataInput input) {
+        return new BinaryNormalizedNodeStreamReader(input);
+    }
+
+    /**
+     * Read a complete {@link NormalizedNode} from the input.
+     *
+     * @return An immutable NormalizedNode
+     * @throws IOException if the input fails or contains malformed data
+     */
+    public NormalizedNode<?, ?> readNormalizedNode() throws IOException {
+        final NormalizedNodeResult result = new NormalizedNodeResult();
+        streamNormalizedNode(ImmutableNormalizedNodeStreamWriter.from(result));
+        return result.getResult();
+    }
+
+    /**
+     * Read a single top-level node from the input and emit its events into
+     * a {@link NormalizedNodeStreamWriter}.
+     *
+     * @param writer Writer to receive the events
+     * @throws IOException if the input or writer fails, or the input contains malformed data
+     */
+    public void streamNormalizedNode(final NormalizedNodeStreamWriter writer) throws IOException {
+        int depth = 0;
+        do {
+            final byte type = input.readByte();
+            switch (type) {
+            case BinaryStreamConstants.LEAF_NODE:
+                writer.leafNode(readNodeIdentifier(), readValue());
+                break;
+            case BinaryStreamConstants.LEAF_SET_ENTRY_NODE:
+                writer.leafSetEntryNode(readValue());
+                break;
+            case BinaryStreamConstants.LEAF_SET:
+                writer.startLeafSet(readNodeIdentifier(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+                depth++;
+                break;
+            case BinaryStreamConstants.CONTAINER_NODE:
+                writer.startContainerNode(readNodeIdentifier(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+                depth++;
+                break;
+            case BinaryStreamConstants.UNKEYED_LIST:
+                writer.startUnkeyedList(readNodeIdentifier(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+                depth++;
+                break;
+            case BinaryStreamConstants.UNKEYED_LIST_ITEM:
+                writer.startUnkeyedListItem(readNodeIdentifier(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+                depth++;
+                break;
+            case BinaryStreamConstants.MAP_NODE:
+                writer.startMapNode(readNodeIdentifier(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+                depth++;
+                break;
+            case BinaryStreamConstants.MAP_ENTRY_NODE:
+                writer.startMapEntryNode(readPathArgument(NodeIdentifierWithPredicates.class),
+                    NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+                depth++;
+                break;
+            case BinaryStreamConstants.ORDERED_MAP_NODE:
+                writer.startOrderedMapNode(readNodeIdentifier(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+                depth++;
+                break;
+            case BinaryStreamConstants.CHOICE_NODE:
+                writer.startChoiceNode(readNodeIdentifier(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+                depth++;
+                break;
+            case BinaryStreamConstants.AUGMENTATION_NODE:
+                writer.startAugmentationNode(readPathArgument(AugmentationIdentifier.class));
+                depth++;
+                break;
+            case BinaryStreamConstants.ANYXML_NODE:
+                writer.anyxmlNode(readNodeIdentifier(), readXmlNode());
+                break;
+            case BinaryStreamConstants.END_NODE:
+                if (depth == 0) {
+                    throw new IOException("Unexpected end of node");
+                }
+                writer.endNode();
+                depth--;
+                break;
+            default:
+                throw new IOException("Unknown node type " + type);
+            }
+        } while (depth != 0);
+    }
+
+    /**
+     * Read a {@link YangInstanceIdentifier} from the input.
+     *
+     * @return A YangInstanceIdentifier
+     * @throws IOException if the input fails or contains malformed data
+     */
+    public YangInstanceIdentifier readYangInstanceIdentifier() throws IOException {
+        final int size = readVarInt();
+        final ImmutableList.Builder<PathArgument> builder = ImmutableList.builder();
+        for (int i = 0; i < size; ++i) {
+            builder.add(readPathArgument());
+        }
+        return YangInstanceIdentifier.create(builder.build());
+    }
+
+    /**
+     * Read a {@link PathArgument} from the input.
+     *
+     * @return A PathArgument
+     * @throws IOException if the input fails or contains malformed data
+     */
+    public PathArgument readPathArgument() throws IOException {
+        final byte type = input.readByte();
+        final PathArgument ret;
+        switch (type) {
+        case BinaryStreamConstants.PATH_ARGUMENT_REFERENCE:
+            final int code = readVarInt();
+            if (code < 0 || code >= arguments.size()) {
+                throw new IOException("Invalid path argument reference " + code);
+            }
+            return arguments.get(code);
+        case BinaryStreamConstants.NODE_IDENTIFIER:
+            ret = new NodeIdentifier(readQName());
+            break;
+        case BinaryStreamConstants.NODE_IDENTIFIER_WITH_PREDICATES:
+            // Entry identifiers are not dictionary-coded
+            final QName qname = readQName();
+            final int keys = readLength();
+            final ImmutableMap.Builder<QName, Object> keyValues = ImmutableMap.builder();
+            for (int i = 0; i < keys; ++i) {
+                keyValues.put(readQName(), readValue());
+            }
+            return new NodeIdentifierWithPredicates(qname, keyValues.build());
+        case BinaryStreamConstants.NODE_WITH_VALUE:
+            return new NodeWithValue(readQName(), readValue());
+        case BinaryStreamConstants.AUGMENTATION_IDENTIFIER:
+            final int names = readVarInt();
+            final ImmutableSet.Builder<QName> childNames = ImmutableSet.builder();
+            for (int i = 0; i < names; ++i) {
+                childNames.add(readQName());
+            }
+            ret = new AugmentationIdentifier(childNames.build());
+            break;
+        default:
+            throw new IOException("Unknown path argument type " + type);
+        }
+
+        arguments.add(ret);
+        return ret;
+    }
+
+    private <T extends PathArgument> T readPathArgument(final Class<T> expected) throws IOException {
+        final PathArgument arg = readPathArgument();
+        if (!expected.isInstance(arg)) {
+            throw new IOException(String.format("Expected %s, got %s", expected.getSimpleName(), arg));
+        }
+        return expected.cast(arg);
+    }
+
+    private NodeIdentifier readNodeIdentifier() throws IOException {
+        return readPathArgument(NodeIdentifier.class);
+    }
+
+    private QNameModule readModule() throws IOException {
+        final int code = readVarInt();
+        if (code != BinaryStreamConstants.NEW_DEFINITION) {
+            if (code < 0 || code > modules.size()) {
+                throw new IOException("Invalid module reference " + code);
+            }
+            return modules.get(code - 1);
+        }
+
+        final URI namespace = URI.create(readString());
+        final Date revision = input.readBoolean() ? new Date(readVarLong()) : null;
+        final QNameModule ret = QNameModule.create(namespace, revision);
+        modules.add(ret);
+        return ret;
+    }
+
+    private QName readQName() throws IOException {
+        final int code = readVarInt();
+        if (code != BinaryStreamConstants.NEW_DEFINITION) {
+            if (code < 0 || code > qnames.size()) {
+                throw new IOException("Invalid QName reference " + code);
+            }
+            return qnames.get(code - 1);
+        }
+
+        final QNameModule module = readModule();
+        final QName ret = QName.cachedReference(QName.create(module, readString()));
+        qnames.add(ret);
+        return ret;
+    }
+
+    private int readVarInt() throws IOException {
+        int ret = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            final byte b = input.readByte();
+            ret |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return ret;
+            }
+        }
+        throw new IOException("Malformed variable-length integer");
+    }
+
+    private long readVarLong() throws IOException {
+        long ret = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final byte b = input.readByte();
+            ret |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return ret;
+            }
+        }
+        throw new IOException("Malformed variable-length long");
+    }
+
+    private int readLength() throws IOException {
+        final int length = readVarInt();
+        if (length < 0) {
+            throw new IOException("Invalid length " + length);
+        }
+        return length;
+    }
+
+    private int readSignedVarInt() throws IOException {
+        final int v = readVarInt();
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private long readSignedVarLong() throws IOException {
+        final long v = readVarLong();
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private byte[] readBytes() throws IOException {
+        final byte[] bytes = new byte[readLength()];
+        input.readFully(bytes);
+        return bytes;
+    }
+
+    private Node<?> readXmlNode() throws IOException {
+        final byte type = input.readByte();
+        switch (type) {
+        case BinaryStreamConstants.SIMPLE_XML_NODE:
+            return NodeFactory.createImmutableSimpleNode(readQName(), null, readValue());
+        case BinaryStreamConstants.COMPOSITE_XML_NODE:
+            final QName qname = readQName();
+            final int size = readLength();
+            final List<Node<?>> children = new ArrayList<>(size);
+            for (int i = 0; i < size; ++i) {
+                children.add(readXmlNode());
+            }
+            return NodeFactory.createImmutableCompositeNode(qname, null, children);
+        default:
+            throw new IOException("Unknown anyxml node type " + type);
+        }
+    }
+
+    private String readString() throws IOException {
+        return new String(readBytes(), Charsets.UTF_8);
+    }
+
+    private Object readValue() throws IOException {
+        final byte type = input.readByte();
+        switch (type) {
+        case BinaryStreamConstants.NULL_VALUE:
+            return null;
+        case BinaryStreamConstants.STRING_VALUE:
+            return readString();
+        case BinaryStreamConstants.BOOLEAN_TRUE_VALUE:
+            return Boolean.TRUE;
+        case BinaryStreamConstants.BOOLEAN_FALSE_VALUE:
+            return Boolean.FALSE;
+        case BinaryStreamConstants.BYTE_VALUE:
+            return input.readByte();
+        case BinaryStreamConstants.SHORT_VALUE:
+            return (short) readSignedVarInt();
+        case BinaryStreamConstants.INT_VALUE:
+            return readSignedVarInt();
+        case BinaryStreamConstants.LONG_VALUE:
+            return readSignedVarLong();
+        case BinaryStreamConstants.BIG_INTEGER_VALUE:
+            return new BigInteger(readBytes());
+        case BinaryStreamConstants.BIG_DECIMAL_VALUE:
+            final int scale = readSignedVarInt();
+            return new BigDecimal(new BigInteger(readBytes()), scale);
+        case BinaryStreamConstants.QNAME_VALUE:
+            return readQName();
+        case BinaryStreamConstants.YANG_IDENTIFIER_VALUE:
+            return readYangInstanceIdentifier();
+        case BinaryStreamConstants.BITS_VALUE:
+            final int size = readVarInt();
+            final ImmutableSet.Builder<String> bits = ImmutableSet.builder();
+            for (int i = 0; i < size; ++i) {
+                bits.add(readString());
+            }
+            return bits.build();
+        case BinaryStreamConstants.BINARY_VALUE:
+            return readBytes();
+        default:
+            throw new IOException("Unknown value type " + type);
+        }
+    }
+}
@@ -0,0 +1,381 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.codec.binary;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Charsets;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterables;
+import java.io.DataOutput;
+import java.io.Flushable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.QNameModule;
+import org.opendaylight.yangtools.yang.data.api.CompositeNode;
+import org.opendaylight.yangtools.yang.data.api.Node;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.AugmentationIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeWithValue;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeWriter;
+
+/**
+ * A {@link NormalizedNodeStreamWriter} which translates the events into a compact binary
+ * representation written to a {@link DataOutput}. The resulting stream can be read back
+ * using {@link BinaryNormalizedNodeStreamReader}.
+ *
+ * Modules, QNames, node identifiers and augmentation identifiers are written out in full
+ * only on their first occurrence and as a dictionary reference afterwards. Dictionaries are
+ * maintained for the lifetime of the writer, hence everything written by a single writer
+ * instance needs to be read back, in order, by a single reader instance.
+ */
+@Beta
+public final class BinaryNormalizedNodeStreamWriter implements NormalizedNodeStreamWriter {
+    private final Map<QNameModule, Integer> moduleCodes = new HashMap<>();
+    private final Map<QName, Integer> qnameCodes = new HashMap<>();
+    private final Map<PathArgument, Integer> argumentCodes = new HashMap<>();
+    private final DataOutput output;
+
+    private BinaryNormalizedNodeStreamWriter(final DataOutput output) {
+        this.output = Preconditions.checkNotNull(output);
+    }
+
+    /**
+     * Create a new writer targeting specified output.
+     *
+     * @param output Output {@link DataOutput}
+     * @return A new {@link BinaryNormalizedNodeStreamWriter}
+     */
+    public static BinaryNormalizedNodeStreamWriter create(final DataOutput output) {
+        return new BinaryNormalizedNodeStreamWriter(output);
+    }
+
+    /**
+     * Write a complete {@link NormalizedNode} to the output.
+     *
+     * @param node Node to write
+     * @throws IOException if the output fails
+     */
+    public void writeNormalizedNode(final NormalizedNode<?, ?> node) throws IOException {
+        NormalizedNodeWriter.forStreamWriter(this, false).write(node);
+    }
+
+    /**
+     * Write a {@link YangInstanceIdentifier} to the output.
+     *
+     * @param identifier Identifier to write
+     * @throws IOException if the output fails
+     */
+    public void writeYangInstanceIdentifier(final YangInstanceIdentifier identifier) throws IOException {
+        final Iterable<PathArgument> args = identifier.getPathArguments();
+        writeVarInt(Iterables.size(args));
+        for (PathArgument arg : args) {
+            writePathArgument(arg);
+        }
+    }
+
+    /**
+     * Write a {@link PathArgument} to the output.
+     *
+     * @param arg Path argument to write
+     * @throws IOException if the output fails
+     */
+    public void writePathArgument(final PathArgument arg) throws IOException {
+        /*
+         * Only node and augmentation identifiers are dictionary-coded. List and leaf-set entry
+         * identifiers hardly ever repeat, so they are written out as their QName code and value.
+         */
+        if (arg instanceof NodeIdentifier || arg instanceof AugmentationIdentifier) {
+            final Integer code = argumentCodes.get(arg);
+            if (code != null) {
+                output.writeByte(BinaryStreamConstants.PATH_ARGUMENT_REFERENCE);
+                writeVarInt(code);
+                return;
+            }
+            argumentCodes.put(arg, argumentCodes.size());
+        }
+
+        if (arg instanceof NodeIdentifier) {
+            output.writeByte(BinaryStreamConstants.NODE_IDENTIFIER);
+            writeQName(arg.getNodeType());
+        } else if (arg instanceof NodeIdentifierWithPredicates) {
+            output.writeByte(BinaryStreamConstants.NODE_IDENTIFIER_WITH_PREDICATES);
+            writeQName(arg.getNodeType());
+
+            final Map<QName, Object> keys = ((NodeIdentifierWithPredicates) arg).getKeyValues();
+            writeVarInt(keys.size());
+            for (Entry<QName, Object> e : keys.entrySet()) {
+                writeQName(e.getKey());
+                writeValue(e.getValue());
+            }
+        } else if (arg instanceof NodeWithValue) {
+            output.writeByte(BinaryStreamConstants.NODE_WITH_VALUE);
+            writeQName(arg.getNodeType());
+            writeValue(((NodeWithValue) arg).getValue());
+        } else if (arg instanceof AugmentationIdentifier) {
+            output.writeByte(BinaryStreamConstants.AUGMENTATION_IDENTIFIER);
+
+            final Set<QName> names = ((AugmentationIdentifier) arg).getPossibleChildNames();
+            writeVarInt(names.size());
+            for (QName name : names) {
+                writeQName(name);
+            }
+        } else {
+            throw new IllegalArgumentException("Unhandled path argument " + arg);
+        }
+    }
+
+    private void writeModule(final QNameModule module) throws IOException {
+        final Integer code = moduleCodes.get(module);
+        if (code != null) {
+            writeVarInt(code + 1);
+            return;
+        }
+
+        writeVarInt(BinaryStreamConstants.NEW_DEFINITION);
+        writeString(module.getNamespace().toString());
+        final Date revision = module.getRevision();
+        if (revision != null) {
+            output.writeBoolean(true);
+            writeVarLong(revision.getTime());
+        } else {
+            output.writeBoolean(false);
+        }
+        moduleCodes.put(module, moduleCodes.size());
+    }
+
+    private void writeQName(final QName qname) throws IOException {
+        final Integer code = qnameCodes.get(qname);
+        if (code != null) {
+            writeVarInt(code + 1);
+            return;
+        }
+
+        writeVarInt(BinaryStreamConstants.NEW_DEFINITION);
+        writeModule(qname.getModule());
+        writeString(qname.getLocalName());
+        qnameCodes.put(qname, qnameCodes.size());
+    }
+
+    /**
+     * Write an unsigned integer as a variable-length quantity, seven bits
+     * per byte, least significant group first.
+     */
+    private void writeVarInt(final int value) throws IOException {
+        int v = value;
+        while ((v & ~0x7F) != 0) {
+            output.writeByte((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        output.writeByte(v);
+    }
+
+    private void writeVarLong(final long value) throws IOException {
+        long v = value;
+        while ((v & ~0x7FL) != 0) {
+            output.writeByte((int) (v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        output.writeByte((int) v);
+    }
+
+    /**
+     * Write a signed integer, zigzag-encoding it first, so that values with
+     * small magnitude take up few bytes regardless of their sign.
+     */
+    private void writeSignedVarInt(final int value) throws IOException {
+        writeVarInt((value << 1) ^ (value >> 31));
+    }
+
+    private void writeSignedVarLong(final long value) throws IOException {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    private void writeBytes(final byte[] bytes) throws IOException {
+        writeVarInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private void writeString(final String str) throws IOException {
+        // Values may exceed the 64KiB limit imposed by writeUTF()
+        writeBytes(str.getBytes(Charsets.UTF_8));
+    }
+
+    private void writeValue(final Object value) throws IOException {
+        if (value == null) {
+            output.writeByte(BinaryStreamConstants.NULL_VALUE);
+        } else if (value instanceof String) {
+            output.writeByte(BinaryStreamConstants.STRING_VALUE);
+            writeString((String) value);
+        } else if (value instanceof Boolean) {
+            output.writeByte((Boolean) value ? BinaryStreamConstants.BOOLEAN_TRUE_VALUE
+                    : BinaryStreamConstants.BOOLEAN_FALSE_VALUE);
+        } else if (value instanceof Byte) {
+            output.writeByte(BinaryStreamConstants.BYTE_VALUE);
+            output.writeByte((Byte) value);
+        } else if (value instanceof Short) {
+            output.writeByte(BinaryStreamConstants.SHORT_VALUE);
+            writeSignedVarInt((Short) value);
+        } else if (value instanceof Integer) {
+            output.writeByte(BinaryStreamConstants.INT_VALUE);
+            writeSignedVarInt((Integer) value);
+        } else if (value instanceof Long) {
+            output.writeByte(BinaryStreamConstants.LONG_VALUE);
+            writeSignedVarLong((Long) value);
+        } else if (value instanceof BigInteger) {
+            output.writeByte(BinaryStreamConstants.BIG_INTEGER_VALUE);
+            writeBytes(((BigInteger) value).toByteArray());
+        } else if (value instanceof BigDecimal) {
+            output.writeByte(BinaryStreamConstants.BIG_DECIMAL_VALUE);
+
+            final BigDecimal decimal = (BigDecimal) value;
+            writeSignedVarInt(decimal.scale());
+            writeBytes(decimal.unscaledValue().toByteArray());
+        } else if (value instanceof QName) {
+            output.writeByte(BinaryStreamConstants.QNAME_VALUE);
+            writeQName((QName) value);
+        } else if (value instanceof YangInstanceIdentifier) {
+            output.writeByte(BinaryStreamConstants.YANG_IDENTIFIER_VALUE);
+            writeYangInstanceIdentifier((YangInstanceIdentifier) value);
+        } else if (value instanceof Set) {
+            output.writeByte(BinaryStreamConstants.BITS_VALUE);
+
+            final Set<?> bits = (Set<?>) value;
+            writeVarInt(bits.size());
+            for (Object bit : bits) {
+                Preconditions.checkArgument(bit instanceof String, "Unsupported bit %s in value %s", bit, value);
+                writeString((String) bit);
+            }
+        } else if (value instanceof byte[]) {
+            output.writeByte(BinaryStreamConstants.BINARY_VALUE);
+            writeBytes((byte[]) value);
+        } else {
+            throw new IllegalArgumentException(String.format("Unsupported value %s of type %s", value, value.getClass()));
+        }
+    }
+
+    private void startNode(final byte type, final PathArgument name) throws IOException {
+        output.writeByte(type);
+        writePathArgument(name);
+    }
+
+    @Override
+    public void leafNode(final NodeIdentifier name, final Object value) throws IOException {
+        startNode(BinaryStreamConstants.LEAF_NODE, name);
+        writeValue(value);
+    }
+
+    @Override
+    public void startLeafSet(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        startNode(BinaryStreamConstants.LEAF_SET, name);
+    }
+
+    @Override
+    public void leafSetEntryNode(final Object value) throws IOException {
+        output.writeByte(BinaryStreamConstants.LEAF_SET_ENTRY_NODE);
+        writeValue(value);
+    }
+
+    @Override
+    public void startContainerNode(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        startNode(BinaryStreamConstants.CONTAINER_NODE, name);
+    }
+
+    @Override
+    public void startUnkeyedList(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        startNode(BinaryStreamConstants.UNKEYED_LIST, name);
+    }
+
+    @Override
+    public void startUnkeyedListItem(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        startNode(BinaryStreamConstants.UNKEYED_LIST_ITEM, name);
+    }
+
+    @Override
+    public void startMapNode(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        startNode(BinaryStreamConstants.MAP_NODE, name);
+    }
+
+    @Override
+    public void startMapEntryNode(final NodeIdentifierWithPredicates identifier, final int childSizeHint) throws IOException {
+        startNode(BinaryStreamConstants.MAP_ENTRY_NODE, identifier);
+    }
+
+    @Override
+    public void startOrderedMapNode(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        startNode(BinaryStreamConstants.ORDERED_MAP_NODE, name);
+    }
+
+    @Override
+    public void startChoiceNode(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        startNode(BinaryStreamConstants.CHOICE_NODE, name);
+    }
+
+    @Override
+    public void startAugmentationNode(final AugmentationIdentifier identifier) throws IOException {
+        startNode(BinaryStreamConstants.AUGMENTATION_NODE, identifier);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The value is expected to be a {@link Node}, as held by an anyxml {@link NormalizedNode}.
+     * Its element structure and simple values are preserved, XML attributes are not.
+     */
+    @Override
+    public void anyxmlNode(final NodeIdentifier name, final Object value) throws IOException {
+        Preconditions.checkArgument(value instanceof Node<?>, "Unsupported anyxml value %s", value);
+        startNode(BinaryStreamConstants.ANYXML_NODE, name);
+        writeXmlNode((Node<?>) value);
+    }
+
+    private void writeXmlNode(final Node<?> node) throws IOException {
+        if (node instanceof CompositeNode) {
+            final List<Node<?>> children = ((CompositeNode) node).getValue();
+            output.writeByte(BinaryStreamConstants.COMPOSITE_XML_NODE);
+            writeQName(node.getNodeType());
+            writeVarInt(children.size());
+            for (Node<?> child : children) {
+                writeXmlNode(child);
+            }
+        } else {
+            output.writeByte(BinaryStreamConstants.SIMPLE_XML_NODE);
+            writeQName(node.getNodeType());
+            writeValue(node.getValue());
+        }
+    }
+
+    @Override
+    public void endNode() throws IOException {
+        output.writeByte(BinaryStreamConstants.END_NODE);
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (output instanceof Flushable) {
+            ((Flushable) output).flush();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.codec.binary;
+
+/**
+ * Tags used in the binary NormalizedNode stream format.
+ *
+ * QNames, modules, node identifiers and augmentation identifiers are dictionary-coded:
+ * the first occurrence carries the full definition and is assigned the next index,
+ * subsequent occurrences are encoded as a reference to that index. List and leaf-set
+ * entry identifiers are always encoded in full. Integers, lengths and counts are encoded
+ * as unsigned LEB128 varints, signed values are zigzag-encoded first.
+ */
+final class BinaryStreamConstants {
+    // Node events
+    static final byte LEAF_NODE = 1;
+    static final byte LEAF_SET = 2;
+    static final byte LEAF_SET_ENTRY_NODE = 3;
+    static final byte CONTAINER_NODE = 4;
+    static final byte UNKEYED_LIST = 5;
+    static final byte UNKEYED_LIST_ITEM = 6;
+    static final byte MAP_NODE = 7;
+    static final byte MAP_ENTRY_NODE = 8;
+    static final byte ORDERED_MAP_NODE = 9;
+    static final byte CHOICE_NODE = 10;
+    static final byte AUGMENTATION_NODE = 11;
+    static final byte END_NODE = 12;
+    static final byte ANYXML_NODE = 13;
+
+    // Path arguments
+    static final byte NODE_IDENTIFIER = 1;
+    static final byte NODE_IDENTIFIER_WITH_PREDICATES = 2;
+    static final byte NODE_WITH_VALUE = 3;
+    static final byte AUGMENTATION_IDENTIFIER = 4;
+    static final byte PATH_ARGUMENT_REFERENCE = 5;
+
+    // Values
+    static final byte NULL_VALUE = 0;
+    static final byte STRING_VALUE = 1;
+    static final byte BOOLEAN_TRUE_VALUE = 2;
+    static final byte BYTE_VALUE = 3;
+    static final byte SHORT_VALUE = 4;
+    static final byte INT_VALUE = 5;
+    static final byte LONG_VALUE = 6;
+    static final byte BIG_INTEGER_VALUE = 7;
+    static final byte BIG_DECIMAL_VALUE = 8;
+    static final byte QNAME_VALUE = 9;
+    static final byte YANG_IDENTIFIER_VALUE = 10;
+    static final byte BITS_VALUE = 11;
+    static final byte BINARY_VALUE = 12;
+    static final byte BOOLEAN_FALSE_VALUE = 13;
+
+    // Anyxml content
+    static final byte SIMPLE_XML_NODE = 1;
+    static final byte COMPOSITE_XML_NODE = 2;
+
+    /*
+     * Dictionary references: zero introduces a new definition, any other
+     * value is a one-based index into the dictionary.
+     */
+    static final int NEW_DEFINITION = 0;
+
+    private BinaryStreamConstants() {
+        throw new UnsupportedOperationException("Utility class should not be instantiated");
+    }
+}
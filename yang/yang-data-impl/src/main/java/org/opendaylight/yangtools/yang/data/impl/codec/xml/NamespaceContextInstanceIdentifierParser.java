@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.codec.xml;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
+import java.net.URI;
+import javax.xml.namespace.NamespaceContext;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.util.AbstractStringInstanceIdentifierCodec;
+import org.opendaylight.yangtools.yang.model.api.Module;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+
+/**
+ * Instance identifier parser which resolves prefixes using a {@link NamespaceContext}, such as the one
+ * provided by an XMLStreamReader. Counterpart to {@link ElementInstanceIdentifierParser}.
+ */
+final class NamespaceContextInstanceIdentifierParser extends AbstractStringInstanceIdentifierCodec {
+    private final SchemaContext schema;
+    private final NamespaceContext context;
+
+    NamespaceContextInstanceIdentifierParser(final SchemaContext schema, final NamespaceContext context) {
+        this.context = Preconditions.checkNotNull(context);
+        this.schema = Preconditions.checkNotNull(schema);
+    }
+
+    @Override
+    protected String prefixForNamespace(final URI namespace) {
+        return context.getPrefix(namespace.toString());
+    }
+
+    @Override
+    protected QName createQName(final String prefix, final String localName) {
+        final String namespace = context.getNamespaceURI(prefix);
+        Preconditions.checkArgument(!Strings.isNullOrEmpty(namespace), "Failed to lookup prefix %s", prefix);
+
+        final URI ns = URI.create(namespace);
+        final Module module = schema.findModuleByNamespaceAndRevision(ns, null);
+        Preconditions.checkArgument(module != null, "Namespace %s is not owned by a module", ns);
+        return QName.create(module.getQNameModule(), localName);
+    }
+
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.codec.xml;
+
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableListMultimap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.impl.codec.SchemaNodeTableCache;
+import org.opendaylight.yangtools.yang.data.impl.codec.TypeDefinitionAwareCodec;
+import org.opendaylight.yangtools.yang.data.impl.schema.SchemaUtils;
+import org.opendaylight.yangtools.yang.data.impl.schema.transform.base.AugmentationSchemaProxy;
+import org.opendaylight.yangtools.yang.model.api.AugmentationSchema;
+import org.opendaylight.yangtools.yang.model.api.AugmentationTarget;
+import org.opendaylight.yangtools.yang.model.api.ChoiceCaseNode;
+import org.opendaylight.yangtools.yang.model.api.ChoiceNode;
+import org.opendaylight.yangtools.yang.model.api.DataNodeContainer;
+import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.LeafListSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.LeafSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.ListSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.TypeDefinition;
+import org.opendaylight.yangtools.yang.model.api.type.IdentityrefTypeDefinition;
+import org.opendaylight.yangtools.yang.model.api.type.LeafrefTypeDefinition;
+import org.opendaylight.yangtools.yang.model.util.InstanceIdentifierType;
+
+/**
+ * Dispatch table of a data node container, choice or augmentation, which maps XML element
+ * names onto the schema nodes they represent. Elements which belong to a choice or to an
+ * augmentation are mapped onto that choice or augmentation, which has its own table. The
+ * mapping follows the rules of the DOM parsers in
+ * {@link org.opendaylight.yangtools.yang.data.impl.schema.transform.base.parser.BaseDispatcherParser}.
+ * Tables are shared through a {@link SchemaNodeTableCache}.
+ */
+final class XmlParserDispatch {
+    private static final SchemaNodeTableCache<Object, XmlParserDispatch> TABLES =
+            SchemaNodeTableCache.create(new Function<Object, XmlParserDispatch>() {
+                @Override
+                public XmlParserDispatch apply(final Object input) {
+                    return new XmlParserDispatch(input);
+                }
+            });
+
+    /**
+     * A child element reachable from a data node container, choice or augmentation.
+     */
+    static final class Child {
+        private final QName qname;
+        private final DataSchemaNode schema;
+        private final Object group;
+        private final PathArgument identifier;
+        private final ChoiceCaseNode caze;
+        private final TypeDefinition<?> type;
+        private final TypeDefinitionAwareCodec<Object, ?> codec;
+
+        private Child(final QName qname, final DataSchemaNode schema, final Object group, final PathArgument identifier,
+                final ChoiceCaseNode caze) {
+            this.qname = Preconditions.checkNotNull(qname);
+            this.schema = schema;
+            this.group = group;
+            this.identifier = Preconditions.checkNotNull(identifier);
+            this.caze = caze;
+
+            if (schema instanceof LeafSchemaNode) {
+                this.type = XmlUtils.resolveBaseTypeFrom(((LeafSchemaNode) schema).getType());
+            } else if (schema instanceof LeafListSchemaNode) {
+                this.type = XmlUtils.resolveBaseTypeFrom(((LeafListSchemaNode) schema).getType());
+            } else {
+                this.type = null;
+            }
+            this.codec = isCodecType(type) ? XmlUtils.DEFAULT_XML_CODEC_PROVIDER.codecFor(type) : null;
+        }
+
+        /**
+         * Create a child which is reached through a choice or an augmentation.
+         */
+        static Child forGroup(final QName qname, final Object group, final PathArgument identifier,
+                final ChoiceCaseNode caze) {
+            return new Child(qname, null, group, identifier, caze);
+        }
+
+        /**
+         * Create a child which is a direct child.
+         */
+        static Child forSchema(final QName qname, final DataSchemaNode schema, final ChoiceCaseNode caze) {
+            return new Child(qname, Preconditions.checkNotNull(schema), null, new NodeIdentifier(schema.getQName()), caze);
+        }
+
+        /**
+         * Return the schema of a direct child.
+         *
+         * @return Schema node, or null if the child is reached through a choice or an augmentation
+         */
+        DataSchemaNode getSchema() {
+            return schema;
+        }
+
+        /**
+         * Return the choice schema, or augmentation schema proxy, through which this child
+         * is reached. Elements belonging to the same group share the returned object.
+         *
+         * @return Group schema, or null if this is a direct child
+         */
+        Object getGroup() {
+            return group;
+        }
+
+        /**
+         * Return the identifier of this child, or of its group, if it has one.
+         *
+         * @return A NodeIdentifier, or an AugmentationIdentifier
+         */
+        PathArgument getIdentifier() {
+            return identifier;
+        }
+
+        /**
+         * Return the case through which this child is reached from a choice.
+         *
+         * @return Case node, or null if the table does not belong to a choice, or the child
+         *         is reached via an augmentation of a case.
+         */
+        ChoiceCaseNode getCase() {
+            return caze;
+        }
+
+        /**
+         * Return the base type of a leaf or leaf-list child.
+         *
+         * @return Base type, or null if not applicable
+         */
+        TypeDefinition<?> getType() {
+            return type;
+        }
+
+        /**
+         * Return the codec for a leaf or leaf-list child, if its value can be decoded without
+         * any further context.
+         *
+         * @return Value codec, or null if not available
+         */
+        TypeDefinitionAwareCodec<Object, ?> getCodec() {
+            return codec;
+        }
+
+        private static boolean isCodecType(final TypeDefinition<?> type) {
+            return type != null && !(type instanceof LeafrefTypeDefinition) && !(type instanceof IdentityrefTypeDefinition)
+                    && !(type instanceof InstanceIdentifierType);
+        }
+    }
+
+    private final ImmutableListMultimap<String, Child> children;
+
+    private XmlParserDispatch(final Object parent) {
+        final ImmutableListMultimap.Builder<String, Child> b = ImmutableListMultimap.builder();
+        final Set<QName> seen = new HashSet<>();
+
+        if (parent instanceof ChoiceNode) {
+            final ChoiceNode choice = (ChoiceNode) parent;
+            final Map<AugmentationSchema, AugmentationSchema> proxies = new HashMap<>();
+            for (ChoiceCaseNode caze : choice.getCases()) {
+                final Map<QName, AugmentationSchema> augments = SchemaUtils.mapChildElementsFromAugments(caze);
+                final Map<QName, ChoiceNode> choices = SchemaUtils.mapChildElementsFromChoices(caze);
+                for (QName qname : SchemaUtils.getChildNodesRecursive(caze)) {
+                    if (seen.add(qname)) {
+                        b.put(qname.getLocalName(), createChild(choice, caze, qname, augments, choices, proxies));
+                    }
+                }
+            }
+        } else {
+            Preconditions.checkArgument(parent instanceof DataNodeContainer, "Node %s is not a data node container", parent);
+            final DataNodeContainer container = (DataNodeContainer) parent;
+            final Map<QName, AugmentationSchema> augments;
+            if (parent instanceof AugmentationTarget) {
+                augments = SchemaUtils.mapChildElementsFromAugments((AugmentationTarget) parent);
+            } else {
+                augments = Collections.emptyMap();
+            }
+
+            final Map<QName, ChoiceNode> choices = SchemaUtils.mapChildElementsFromChoices(container);
+            final Map<AugmentationSchema, AugmentationSchema> proxies = new HashMap<>();
+            for (QName qname : SchemaUtils.getChildNodesRecursive(container)) {
+                if (seen.add(qname)) {
+                    b.put(qname.getLocalName(), createChild(container, null, qname, augments, choices, proxies));
+                }
+            }
+        }
+
+        this.children = b.build();
+    }
+
+    /**
+     * Return the table for a data node container, a choice, or an augmentation schema
+     * previously returned by {@link Child#getGroup()}.
+     *
+     * @param node Schema node
+     * @return Dispatch table
+     */
+    static XmlParserDispatch forNode(final Object node) {
+        return TABLES.get(node);
+    }
+
+    /**
+     * Look up a child by its namespace and local name.
+     *
+     * @param namespace Child namespace
+     * @param localName Child local name
+     * @return Child, or null if no such child exists
+     */
+    Child getChild(final String namespace, final String localName) {
+        for (Child c : children.get(localName)) {
+            if (c.qname.getNamespace().toString().equals(namespace)) {
+                return c;
+            }
+        }
+        return null;
+    }
+
+    private static Child createChild(final Object parent, final ChoiceCaseNode caze, final QName qname,
+            final Map<QName, AugmentationSchema> augments, final Map<QName, ChoiceNode> choices,
+            final Map<AugmentationSchema, AugmentationSchema> proxies) {
+        final AugmentationSchema augment = augments.get(qname);
+        if (augment != null) {
+            AugmentationSchema proxy = proxies.get(augment);
+            if (proxy == null) {
+                proxy = new AugmentationSchemaProxy(augment, realSchemasForAugment(parent, caze, augment));
+                proxies.put(augment, proxy);
+            }
+            return Child.forGroup(qname, proxy, SchemaUtils.getNodeIdentifierForAugmentation(augment), caze);
+        }
+
+        final ChoiceNode choice = choices.get(qname);
+        if (choice != null) {
+            return Child.forGroup(qname, choice, new NodeIdentifier(choice.getQName()), caze);
+        }
+
+        final DataNodeContainer container = caze != null ? caze : (DataNodeContainer) parent;
+        final Optional<DataSchemaNode> schema = SchemaUtils.findFirstSchema(qname, container.getChildNodes());
+        Preconditions.checkState(schema.isPresent(), "Failed to find schema for %s in %s", qname, parent);
+        return Child.forSchema(qname, schema.get(), caze);
+    }
+
+    private static Set<DataSchemaNode> realSchemasForAugment(final Object parent, final ChoiceCaseNode caze,
+            final AugmentationSchema augment) {
+        if (caze != null) {
+            final Set<DataSchemaNode> ret = new HashSet<>(SchemaUtils.getRealSchemasForAugment((AugmentationTarget) parent, augment));
+            ret.addAll(SchemaUtils.getRealSchemasForAugment((AugmentationTarget) caze, augment));
+            return ret;
+        }
+        return SchemaUtils.getRealSchemasForAugment((AugmentationTarget) parent, augment);
+    }
+
+    /**
+     * Check whether a child schema node is represented by multiple sibling elements.
+     *
+     * @param schema Child schema node
+     * @return True if the schema node is a list or a leaf-list.
+     */
+    static boolean isMultiple(final DataSchemaNode schema) {
+        return schema instanceof ListSchemaNode || schema instanceof LeafListSchemaNode;
+    }
+}
@@ -0,0 +1,461 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.codec.xml;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.Node;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.AugmentationIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeWriter;
+import org.opendaylight.yangtools.yang.data.impl.ImmutableCompositeNode;
+import org.opendaylight.yangtools.yang.data.impl.SimpleNodeTOImpl;
+import org.opendaylight.yangtools.yang.data.impl.codec.ParserLevel;
+import org.opendaylight.yangtools.yang.data.impl.codec.TypeDefinitionAwareCodec;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.NormalizedNodeResult;
+import org.opendaylight.yangtools.yang.model.api.AnyXmlSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.ChoiceCaseNode;
+import org.opendaylight.yangtools.yang.model.api.ChoiceNode;
+import org.opendaylight.yangtools.yang.model.api.ContainerSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.DataNodeContainer;
+import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.LeafListSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.LeafSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.ListSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.model.api.SchemaNode;
+import org.opendaylight.yangtools.yang.model.api.TypeDefinition;
+import org.opendaylight.yangtools.yang.model.api.type.IdentityrefTypeDefinition;
+import org.opendaylight.yangtools.yang.model.api.type.LeafrefTypeDefinition;
+import org.opendaylight.yangtools.yang.model.util.InstanceIdentifierType;
+import org.opendaylight.yangtools.yang.model.util.SchemaContextUtil;
+
+/**
+ * This class parses XML elements from a {@link XMLStreamReader} and emits them into a
+ * {@link NormalizedNodeStreamWriter}, without building a DOM document first.
+ * <p>
+ * Elements are translated into writer events as they are read, using per-schema-node dispatch
+ * tables. Sibling elements which belong to the same list, leaf-list, choice or augmentation are
+ * emitted as a single node, as the DOM parsers do. Since such elements need not be adjacent,
+ * data is held back in the following cases:
+ * <ul>
+ * <li>a keyed list entry is not started until all of its keys have been seen,</li>
+ * <li>once a list, leaf-list, choice or augmentation has been started, it is kept open until the
+ *     end of the enclosing element, and any other siblings which come after it are built as
+ *     NormalizedNodes and emitted after it has been closed.</li>
+ * </ul>
+ * Element attributes are not reported, as {@link NormalizedNodeStreamWriter} has no means of
+ * conveying them.
+ */
+@Beta
+public final class XmlParserStream implements Closeable, Flushable {
+    private final NormalizedNodeStreamWriter writer;
+    private final SchemaContext schema;
+    private final DataSchemaNode parentNode;
+
+    private XmlParserStream(final NormalizedNodeStreamWriter writer, final SchemaContext schemaContext, final DataSchemaNode parentNode) {
+        this.schema = Preconditions.checkNotNull(schemaContext);
+        this.writer = Preconditions.checkNotNull(writer);
+        this.parentNode = Preconditions.checkNotNull(parentNode);
+    }
+
+    /**
+     * Create a new parser, which reads children of the specified schema node.
+     *
+     * @param writer Writer to which data is emitted
+     * @param schemaContext Associated {@link SchemaContext}
+     * @param parentNode Parent schema node, has to be a container or a list
+     * @return A new {@link XmlParserStream}
+     */
+    public static XmlParserStream create(final NormalizedNodeStreamWriter writer, final SchemaContext schemaContext, final SchemaNode parentNode) {
+        Preconditions.checkArgument(parentNode instanceof DataSchemaNode && parentNode instanceof DataNodeContainer,
+            "Instance of DataNodeContainer awaited, got %s", parentNode);
+        return new XmlParserStream(writer, schemaContext, (DataSchemaNode) parentNode);
+    }
+
+    /**
+     * Create a new parser, which reads top-level data nodes of the specified schema context.
+     *
+     * @param writer Writer to which data is emitted
+     * @param schemaContext Associated {@link SchemaContext}
+     * @return A new {@link XmlParserStream}
+     */
+    public static XmlParserStream create(final NormalizedNodeStreamWriter writer, final SchemaContext schemaContext) {
+        return new XmlParserStream(writer, schemaContext, schemaContext);
+    }
+
+    /**
+     * Parse a single element and emit it into the writer as a child of the parent node. If the
+     * reader is positioned at the start of the document, its root element is parsed, otherwise
+     * the reader has to be positioned at a start element. On return the reader is positioned at
+     * the matching end element, so siblings can be parsed by invoking this method repeatedly.
+     *
+     * @param reader Reader from which to read the element
+     * @return This parser
+     * @throws XMLStreamException if the input is not well-formed XML
+     * @throws IOException if the underlying writer reports an error
+     * @throws IllegalStateException if an element does not match the schema
+     * @throws IllegalArgumentException if an element's content does not match the schema
+     */
+    public XmlParserStream parse(final XMLStreamReader reader) throws XMLStreamException, IOException {
+        if (reader.getEventType() == XMLStreamConstants.START_DOCUMENT) {
+            reader.nextTag();
+        }
+        Preconditions.checkState(reader.isStartElement(), "Reader is not positioned at a start element");
+
+        final Level level = new Level(parentNode, writer);
+        readElement(reader, level);
+        finish(level);
+        return this;
+    }
+
+    /*
+     * Streaming parser. Elements are looked up in precomputed dispatch tables and emitted
+     * directly into the writer of their level, as they are encountered. An element which
+     * cannot be emitted yet, as described in ParserLevel, is built into a NormalizedNode
+     * instead. In XML every multi-element node is a group: lists and leaf-lists, as well
+     * as choices and augmentations.
+     */
+
+    /**
+     * A multi-element node, which is either open in the writer of its level, or buffered.
+     */
+    private static final class Group {
+        private final NormalizedNodeStreamWriter writer;
+        private final NormalizedNodeResult result;
+        private final Level level;
+
+        Group(final NormalizedNodeStreamWriter writer, final NormalizedNodeResult result, final Level level) {
+            this.writer = Preconditions.checkNotNull(writer);
+            this.result = result;
+            this.level = level;
+        }
+    }
+
+    /**
+     * Emission state of the content of an element, or of a choice or augmentation within it.
+     */
+    private static final class Level extends ParserLevel<Group> {
+        private final XmlParserDispatch dispatch;
+        private final NormalizedNodeStreamWriter writer;
+        private final Object schema;
+
+        private Set<Object> singles;
+        private Map<Object, Object> buffered;
+        private ChoiceCaseNode caze;
+
+        private Level(final Object schema, final NormalizedNodeStreamWriter writer, final ListSchemaNode entry) {
+            super(entry);
+            this.dispatch = XmlParserDispatch.forNode(schema);
+            this.writer = Preconditions.checkNotNull(writer);
+            this.schema = schema;
+        }
+
+        Level(final Object schema, final NormalizedNodeStreamWriter writer) {
+            this(schema, writer, null);
+        }
+
+        static Level forListEntry(final ListSchemaNode schema, final NormalizedNodeStreamWriter writer) {
+            return new Level(schema, writer, schema);
+        }
+
+        void addSingle(final DataSchemaNode child) {
+            if (singles == null) {
+                singles = new HashSet<>();
+            }
+            Preconditions.checkArgument(singles.add(child), "Node %s detected multiple times", child.getQName());
+        }
+
+        void checkCase(final ChoiceCaseNode childCase) {
+            if (childCase != null) {
+                if (caze == null) {
+                    caze = childCase;
+                } else {
+                    Preconditions.checkArgument(caze.equals(childCase),
+                        "Data from case %s are specified but other data from case %s were specified earlier. Data aren't from the same case.",
+                        childCase.getQName(), caze.getQName());
+                }
+            }
+        }
+
+        Group getBufferedGroup(final Object key) {
+            final Object ret = buffered == null ? null : buffered.get(key);
+            return ret instanceof Group ? (Group) ret : null;
+        }
+
+        /**
+         * Record a buffered group, or a completed NormalizedNodeResult of a buffered single element.
+         */
+        void addBuffered(final Object key, final Object value) {
+            if (buffered == null) {
+                buffered = new LinkedHashMap<>();
+            }
+            buffered.put(key, value);
+        }
+    }
+
+    private void readChildren(final XMLStreamReader reader, final Level level) throws XMLStreamException, IOException {
+        while (true) {
+            switch (reader.next()) {
+            case XMLStreamConstants.START_ELEMENT:
+                readElement(reader, level);
+                break;
+            case XMLStreamConstants.END_ELEMENT:
+                return;
+            case XMLStreamConstants.END_DOCUMENT:
+                throw new XMLStreamException("Unexpected end of document", reader.getLocation());
+            default:
+                // Whitespace, comments and similar
+                break;
+            }
+        }
+    }
+
+    private void readElement(final XMLStreamReader reader, final Level level) throws XMLStreamException, IOException {
+        final String namespace = reader.getNamespaceURI();
+        final String localName = reader.getLocalName();
+        final XmlParserDispatch.Child child = level.dispatch.getChild(Strings.nullToEmpty(namespace), localName);
+        if (child == null) {
+            throw new IllegalStateException("Schema for node with name " + localName + " and namespace "
+                    + namespace + " doesn't exist in " + level.schema);
+        }
+        level.checkCase(child.getCase());
+
+        final DataSchemaNode childSchema = child.getSchema();
+        final Object key;
+        if (childSchema == null) {
+            key = child.getGroup();
+        } else if (XmlParserDispatch.isMultiple(childSchema)) {
+            key = childSchema;
+        } else {
+            // Single element
+            level.addSingle(childSchema);
+            if (level.isPendingKey(childSchema.getQName())) {
+                level.putKey(level.writer, childSchema.getQName(), readValue(reader, child));
+            } else if (level.canStream()) {
+                streamSingle(reader, level.writer, child);
+            } else {
+                final NormalizedNodeResult result = new NormalizedNodeResult();
+                streamSingle(reader, ImmutableNormalizedNodeStreamWriter.from(result), child);
+                level.addBuffered(childSchema, result);
+            }
+            return;
+        }
+
+        Group group = level.getOpen(key);
+        if (group == null) {
+            group = level.getBufferedGroup(key);
+            if (group == null) {
+                if (level.canStream()) {
+                    group = startGroup(level.writer, null, child);
+                    level.setOpen(key, group);
+                } else {
+                    final NormalizedNodeResult result = new NormalizedNodeResult();
+                    group = startGroup(ImmutableNormalizedNodeStreamWriter.from(result), result, child);
+                    level.addBuffered(key, group);
+                }
+            }
+        }
+
+        readGroupMember(reader, group, child);
+    }
+
+    private static Group startGroup(final NormalizedNodeStreamWriter writer, final NormalizedNodeResult result,
+            final XmlParserDispatch.Child child) throws IOException {
+        final DataSchemaNode schema = child.getSchema();
+        if (schema instanceof ListSchemaNode) {
+            final ListSchemaNode list = (ListSchemaNode) schema;
+            final NodeIdentifier identifier = (NodeIdentifier) child.getIdentifier();
+            if (list.getKeyDefinition().isEmpty()) {
+                writer.startUnkeyedList(identifier, NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+            } else if (list.isUserOrdered()) {
+                writer.startOrderedMapNode(identifier, NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+            } else {
+                writer.startMapNode(identifier, NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+            }
+            return new Group(writer, result, null);
+        }
+        if (schema instanceof LeafListSchemaNode) {
+            writer.startLeafSet((NodeIdentifier) child.getIdentifier(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+            return new Group(writer, result, null);
+        }
+
+        final Object group = child.getGroup();
+        if (group instanceof ChoiceNode) {
+            writer.startChoiceNode((NodeIdentifier) child.getIdentifier(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+        } else {
+            writer.startAugmentationNode((AugmentationIdentifier) child.getIdentifier());
+        }
+        return new Group(writer, result, new Level(group, writer));
+    }
+
+    private void readGroupMember(final XMLStreamReader reader, final Group group, final XmlParserDispatch.Child child)
+            throws XMLStreamException, IOException {
+        if (group.level != null) {
+            // Choice or augmentation, resolve the element within it
+            readElement(reader, group.level);
+            return;
+        }
+
+        final DataSchemaNode schema = child.getSchema();
+        if (schema instanceof LeafListSchemaNode) {
+            group.writer.leafSetEntryNode(readValue(reader, child));
+            return;
+        }
+
+        final ListSchemaNode list = (ListSchemaNode) schema;
+        final Level entry;
+        if (list.getKeyDefinition().isEmpty()) {
+            group.writer.startUnkeyedListItem((NodeIdentifier) child.getIdentifier(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+            entry = new Level(list, group.writer);
+        } else {
+            entry = Level.forListEntry(list, group.writer);
+        }
+
+        readChildren(reader, entry);
+        entry.checkLive();
+        finish(entry);
+        group.writer.endNode();
+    }
+
+    private void streamSingle(final XMLStreamReader reader, final NormalizedNodeStreamWriter writer,
+            final XmlParserDispatch.Child child) throws XMLStreamException, IOException {
+        final DataSchemaNode schema = child.getSchema();
+        final NodeIdentifier identifier = (NodeIdentifier) child.getIdentifier();
+        if (schema instanceof LeafSchemaNode) {
+            writer.leafNode(identifier, readValue(reader, child));
+        } else if (schema instanceof ContainerSchemaNode) {
+            writer.startContainerNode(identifier, NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+            final Level level = new Level(schema, writer);
+            readChildren(reader, level);
+            finish(level);
+            writer.endNode();
+        } else if (schema instanceof AnyXmlSchemaNode) {
+            writer.anyxmlNode(identifier, readAnyXml(reader));
+        } else {
+            throw new IllegalArgumentException("Unhandled schema node " + schema);
+        }
+    }
+
+    private Object readValue(final XMLStreamReader reader, final XmlParserDispatch.Child child) throws XMLStreamException {
+        final String text = reader.getElementText().trim();
+
+        final TypeDefinitionAwareCodec<Object, ?> codec = child.getCodec();
+        if (codec != null) {
+            return codec.deserialize(text);
+        }
+
+        TypeDefinition<?> type = child.getType();
+        if (type instanceof LeafrefTypeDefinition) {
+            type = SchemaContextUtil.getBaseTypeForLeafRef((LeafrefTypeDefinition) type, schema, child.getSchema());
+        }
+        if (type instanceof InstanceIdentifierType) {
+            return new NamespaceContextInstanceIdentifierParser(schema, reader.getNamespaceContext()).deserialize(text);
+        }
+        if (type instanceof IdentityrefTypeDefinition) {
+            final int predicateStart = text.indexOf('[');
+            final String identity = predicateStart == -1 ? text : text.substring(0, predicateStart);
+            return new NamespaceContextIdentityrefParser(schema, reader.getNamespaceContext()).deserialize(identity.trim());
+        }
+
+        final TypeDefinitionAwareCodec<Object, ?> typeCodec = type == null ? null : XmlUtils.DEFAULT_XML_CODEC_PROVIDER.codecFor(type);
+        return typeCodec == null ? text : typeCodec.deserialize(text);
+    }
+
+    /*
+     * Mirrors XmlDocumentUtils.toDomNode(Element), which is what the DOM parsers use for
+     * schema-less content.
+     */
+    private static Node<?> readAnyXml(final XMLStreamReader reader) throws XMLStreamException {
+        final String namespace = reader.getNamespaceURI();
+        final QName qname = QName.create(Strings.isNullOrEmpty(namespace) ? null : URI.create(namespace), null,
+            reader.getLocalName());
+
+        List<Node<?>> children = null;
+        final StringBuilder text = new StringBuilder();
+        while (true) {
+            switch (reader.next()) {
+            case XMLStreamConstants.START_ELEMENT:
+                if (children == null) {
+                    children = new ArrayList<>();
+                }
+                children.add(readAnyXml(reader));
+                break;
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.CDATA:
+            case XMLStreamConstants.SPACE:
+                text.append(reader.getText());
+                break;
+            case XMLStreamConstants.END_ELEMENT:
+                if (children == null) {
+                    return new SimpleNodeTOImpl<>(qname, null, text.length() == 0 ? null : text.toString());
+                }
+                return ImmutableCompositeNode.create(qname, children);
+            case XMLStreamConstants.END_DOCUMENT:
+                throw new XMLStreamException("Unexpected end of document", reader.getLocation());
+            default:
+                break;
+            }
+        }
+    }
+
+    private void finish(final Level level) throws IOException {
+        if (level.getOpen() != null) {
+            finishGroup(level.getOpen());
+        }
+        if (level.buffered != null) {
+            final NormalizedNodeWriter nnWriter = NormalizedNodeWriter.forStreamWriter(level.writer);
+            for (Object value : level.buffered.values()) {
+                final NormalizedNodeResult result;
+                if (value instanceof Group) {
+                    final Group group = (Group) value;
+                    finishGroup(group);
+                    result = group.result;
+                } else {
+                    result = (NormalizedNodeResult) value;
+                }
+                nnWriter.write(result.getResult());
+            }
+        }
+    }
+
+    private void finishGroup(final Group group) throws IOException {
+        if (group.level != null) {
+            finish(group.level);
+        }
+        group.writer.endNode();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.flush();
+        writer.close();
+    }
+}
@@ -12,12 +12,14 @@ import java.io.IOException;
 import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.List;
+import org.opendaylight.yangtools.yang.data.api.Node;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.AugmentationIdentifier;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
 import org.opendaylight.yangtools.yang.data.api.schema.ChoiceNode;
 import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.LeafNode;
 import org.opendaylight.yangtools.yang.data.api.schema.LeafSetEntryNode;
 import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
 import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
@@ -61,7 +63,7 @@ public class ImmutableNormalizedNodeStreamWriter implements NormalizedNodeStream
     private final Deque<NormalizedNodeContainerBuilder> builders = new ArrayDeque<>();
 
     @SuppressWarnings("rawtypes")
-    private ImmutableNormalizedNodeStreamWriter( final NormalizedNodeContainerBuilder topLevelBuilder) {
+    protected ImmutableNormalizedNodeStreamWriter(final NormalizedNodeContainerBuilder topLevelBuilder) {
         builders.push(topLevelBuilder);
     }
 
@@ -132,8 +134,17 @@ public class ImmutableNormalizedNodeStreamWriter implements NormalizedNodeStream
 
     @Override
     public void leafNode(final NodeIdentifier name, final Object value) throws IllegalArgumentException {
+        writeLeaf(ImmutableNodes.leafNode(name, value));
+    }
+
+    /**
+     * Write an already-constructed leaf node into the current container.
+     *
+     * @param leaf Leaf node
+     */
+    protected final void writeLeaf(final LeafNode<?> leaf) {
         checkDataNodeContainer();
-        writeChild(ImmutableNodes.leafNode(name, value));
+        writeChild(leaf);
     }
 
     @Override
@@ -153,9 +164,21 @@ public class ImmutableNormalizedNodeStreamWriter implements NormalizedNodeStream
         builder.withChildValue(value);
     }
 
+    /**
+     * Write an already-constructed leaf-list entry into the current leaf-list.
+     *
+     * @param entry Leaf-list entry node
+     */
+    protected final void writeLeafSetEntry(final LeafSetEntryNode<?> entry) {
+        Preconditions.checkArgument(getCurrent() instanceof ImmutableLeafSetNodeBuilder<?>);
+        writeChild(entry);
+    }
+
     @Override
     public void anyxmlNode(final NodeIdentifier name, final Object value) throws IllegalArgumentException {
         checkDataNodeContainer();
+        Preconditions.checkArgument(value instanceof Node<?>, "Unsupported anyxml value %s", value);
+        writeChild(Builders.anyXmlBuilder().withNodeIdentifier(name).withValue((Node<?>) value).build());
     }
 
     @Override
@@ -239,7 +262,7 @@ public class ImmutableNormalizedNodeStreamWriter implements NormalizedNodeStream
     }
 
     @SuppressWarnings("rawtypes")
-    private static final class NormalizedNodeResultBuilder implements NormalizedNodeContainerBuilder {
+    static final class NormalizedNodeResultBuilder implements NormalizedNodeContainerBuilder {
 
         private final NormalizedNodeResult result;
 
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Objects;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import org.opendaylight.yangtools.yang.data.api.AttributesContainer;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.LeafNode;
+import org.opendaylight.yangtools.yang.data.api.schema.LeafSetEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.model.api.LeafListSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.LeafSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.TypeDefinition;
+import org.opendaylight.yangtools.yang.model.api.type.BooleanTypeDefinition;
+import org.opendaylight.yangtools.yang.model.api.type.EmptyTypeDefinition;
+import org.opendaylight.yangtools.yang.model.api.type.EnumTypeDefinition;
+import org.opendaylight.yangtools.yang.model.api.type.IdentityrefTypeDefinition;
+
+/**
+ * Datastore-wide interning of {@link NodeIdentifier}s and leaf nodes. Large data trees
+ * tend to contain many identical copies of these objects, typically one per list entry.
+ * Replacing them with a canonical instance allows the duplicates to be garbage-collected.
+ * <p>
+ * Interning a leaf is only worthwhile if its value is likely to repeat, otherwise the
+ * interner only adds overhead. {@link #isInternable(LeafSchemaNode)} and
+ * {@link #isInternable(LeafListSchemaNode)} provide the hint based on the type of the
+ * leaf: booleans, empty leaves, enumerations and identityrefs have a small set of
+ * possible values. Canonical instances are held weakly, so they do not outlive the data
+ * which refers to them.
+ */
+@Beta
+public final class NormalizedNodeInterner {
+    /**
+     * Snapshot of interning statistics.
+     */
+    public static final class Statistics {
+        private final long requestCount;
+        private final long hitCount;
+
+        private Statistics(final long requestCount, final long hitCount) {
+            this.requestCount = requestCount;
+            this.hitCount = hitCount;
+        }
+
+        /**
+         * Return the number of objects which were submitted for interning.
+         *
+         * @return Number of interning requests
+         */
+        public long getRequestCount() {
+            return requestCount;
+        }
+
+        /**
+         * Return the number of requests which resulted in an existing instance being
+         * reused.
+         *
+         * @return Number of interning hits
+         */
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        /**
+         * Return the ratio of interning hits to requests.
+         *
+         * @return Hit rate, 1.0 if there were no requests
+         */
+        public double getHitRate() {
+            return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+        }
+
+        @Override
+        public String toString() {
+            return Objects.toStringHelper(this).add("requests", requestCount).add("hits", hitCount)
+                    .add("hitRate", getHitRate()).toString();
+        }
+    }
+
+    static final class CountingInterner<T> {
+        private final Interner<T> interner = Interners.newWeakInterner();
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong hits = new AtomicLong();
+
+        T intern(final T object) {
+            final T ret = interner.intern(object);
+            requests.incrementAndGet();
+            if (ret != object) {
+                hits.incrementAndGet();
+            }
+            return ret;
+        }
+
+        Statistics getStatistics() {
+            return new Statistics(requests.get(), hits.get());
+        }
+    }
+
+    private static final CountingInterner<NodeIdentifier> IDENTIFIERS = new CountingInterner<>();
+    private static final CountingInterner<NormalizedNode<?, ?>> LEAVES = new CountingInterner<>();
+
+    private NormalizedNodeInterner() {
+        throw new UnsupportedOperationException("Utility class should not be instantiated");
+    }
+
+    /**
+     * Return the canonical instance of a node identifier.
+     *
+     * @param identifier Node identifier, may be null
+     * @return Canonical instance equal to identifier, null if identifier was null
+     */
+    public static NodeIdentifier intern(@Nullable final NodeIdentifier identifier) {
+        return identifier == null ? null : IDENTIFIERS.intern(identifier);
+    }
+
+    /**
+     * Return the canonical instance of a {@link LeafNode} or a {@link LeafSetEntryNode}.
+     * Other nodes and nodes which carry attributes are returned unchanged, as attributes
+     * do not participate in node equality.
+     *
+     * @param node Data node, may be null
+     * @return Canonical instance equal to node, null if node was null
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends NormalizedNode<?, ?>> T intern(@Nullable final T node) {
+        if (!(node instanceof LeafNode || node instanceof LeafSetEntryNode)) {
+            return node;
+        }
+        if (node instanceof AttributesContainer && !((AttributesContainer) node).getAttributes().isEmpty()) {
+            return node;
+        }
+        return (T) LEAVES.intern(node);
+    }
+
+    /**
+     * Check whether values of a leaf are expected to repeat often enough to make
+     * interning them worthwhile.
+     *
+     * @param schema Leaf schema, may be null
+     * @return True if the leaf's data should be interned.
+     */
+    public static boolean isInternable(@Nullable final LeafSchemaNode schema) {
+        return schema != null && isInternableType(schema.getType());
+    }
+
+    /**
+     * Check whether entries of a leaf-list are expected to repeat often enough to make
+     * interning them worthwhile.
+     *
+     * @param schema Leaf-list schema, may be null
+     * @return True if the leaf-list's entries should be interned.
+     */
+    public static boolean isInternable(@Nullable final LeafListSchemaNode schema) {
+        return schema != null && isInternableType(schema.getType());
+    }
+
+    /**
+     * Check whether a type has a small set of possible values.
+     *
+     * @param type Type definition, may be null
+     * @return True if the type has a small set of possible values
+     */
+    public static boolean isInternableType(@Nullable final TypeDefinition<?> type) {
+        TypeDefinition<?> current = type;
+        while (current != null) {
+            if (current instanceof BooleanTypeDefinition || current instanceof EmptyTypeDefinition
+                    || current instanceof EnumTypeDefinition || current instanceof IdentityrefTypeDefinition) {
+                return true;
+            }
+            current = current.getBaseType();
+        }
+        return false;
+    }
+
+    /**
+     * Return statistics of {@link NodeIdentifier} interning.
+     *
+     * @return Statistics snapshot
+     */
+    public static Statistics getIdentifierStatistics() {
+        return IDENTIFIERS.getStatistics();
+    }
+
+    /**
+     * Return statistics of leaf node interning.
+     *
+     * @return Statistics snapshot
+     */
+    public static Statistics getLeafStatistics() {
+        return LEAVES.getStatistics();
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Preconditions;
+import java.io.IOException;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.AugmentationIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeWithValue;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.codec.SchemaTracker;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.NormalizedNodeContainerBuilder;
+import org.opendaylight.yangtools.yang.model.api.LeafListSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.LeafSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.model.api.SchemaPath;
+
+/**
+ * Variant of {@link ImmutableNormalizedNodeStreamWriter}, which tracks the schema of the
+ * nodes being written and uses it to reduce the memory footprint of the resulting data.
+ * All {@link NodeIdentifier}s are replaced with their canonical instances and leaf nodes
+ * whose values are likely to repeat are interned. See {@link NormalizedNodeInterner} for
+ * details.
+ */
+@Beta
+public final class SchemaAwareImmutableNormalizedNodeStreamWriter extends ImmutableNormalizedNodeStreamWriter {
+    private final SchemaTracker tracker;
+
+    private SchemaAwareImmutableNormalizedNodeStreamWriter(final NormalizedNodeContainerBuilder<?, ?, ?, ?> builder,
+            final SchemaTracker tracker) {
+        super(builder);
+        this.tracker = Preconditions.checkNotNull(tracker);
+    }
+
+    /**
+     * Creates a {@link NormalizedNodeStreamWriter} which writes data to supplied builder.
+     *
+     * @param builder Builder to which data will be written.
+     * @param context Associated {@link SchemaContext}
+     * @param path Schema path of the node being built
+     * @return {@link NormalizedNodeStreamWriter} which writes data
+     */
+    public static NormalizedNodeStreamWriter from(final NormalizedNodeContainerBuilder<?, ?, ?, ?> builder,
+            final SchemaContext context, final SchemaPath path) {
+        return new SchemaAwareImmutableNormalizedNodeStreamWriter(builder, SchemaTracker.create(context, path));
+    }
+
+    /**
+     * Creates a {@link NormalizedNodeStreamWriter} which creates one instance of top
+     * level {@link org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode}.
+     *
+     * @param result {@link NormalizedNodeResult} object which will hold result value.
+     * @param context Associated {@link SchemaContext}
+     * @param path Schema path of the parent of the node being built
+     * @return {@link NormalizedNodeStreamWriter} which will write item to supplied result holder.
+     */
+    public static NormalizedNodeStreamWriter from(final NormalizedNodeResult result, final SchemaContext context,
+            final SchemaPath path) {
+        return new SchemaAwareImmutableNormalizedNodeStreamWriter(new NormalizedNodeResultBuilder(result),
+            SchemaTracker.create(context, path));
+    }
+
+    @Override
+    public void leafNode(final NodeIdentifier name, final Object value) {
+        final LeafSchemaNode schema;
+        try {
+            schema = tracker.leafNode(name);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to look up schema of " + name, e);
+        }
+        final NodeIdentifier id = NormalizedNodeInterner.intern(name);
+        if (NormalizedNodeInterner.isInternable(schema)) {
+            writeLeaf(NormalizedNodeInterner.intern(ImmutableNodes.leafNode(id, value)));
+        } else {
+            super.leafNode(id, value);
+        }
+    }
+
+    @Override
+    public void startLeafSet(final NodeIdentifier name, final int childSizeHint) {
+        tracker.startLeafSet(name);
+        super.startLeafSet(NormalizedNodeInterner.intern(name), childSizeHint);
+    }
+
+    @Override
+    public void leafSetEntryNode(final Object value) {
+        final LeafListSchemaNode schema = tracker.leafSetEntryNode();
+        if (NormalizedNodeInterner.isInternable(schema)) {
+            writeLeafSetEntry(NormalizedNodeInterner.intern(Builders.leafSetEntryBuilder()
+                .withNodeIdentifier(new NodeWithValue(schema.getQName(), value)).withValue(value).build()));
+        } else {
+            super.leafSetEntryNode(value);
+        }
+    }
+
+    @Override
+    public void anyxmlNode(final NodeIdentifier name, final Object value) {
+        tracker.anyxmlNode(name);
+        super.anyxmlNode(name, value);
+    }
+
+    @Override
+    public void startContainerNode(final NodeIdentifier name, final int childSizeHint) {
+        tracker.startContainerNode(name);
+        super.startContainerNode(NormalizedNodeInterner.intern(name), childSizeHint);
+    }
+
+    @Override
+    public void startUnkeyedList(final NodeIdentifier name, final int childSizeHint) {
+        tracker.startList(name);
+        super.startUnkeyedList(NormalizedNodeInterner.intern(name), childSizeHint);
+    }
+
+    private void startListItem(final PathArgument name) {
+        try {
+            tracker.startListItem(name);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to look up schema of " + name, e);
+        }
+    }
+
+    @Override
+    public void startUnkeyedListItem(final NodeIdentifier name, final int childSizeHint) {
+        startListItem(name);
+        super.startUnkeyedListItem(NormalizedNodeInterner.intern(name), childSizeHint);
+    }
+
+    @Override
+    public void startMapNode(final NodeIdentifier name, final int childSizeHint) {
+        tracker.startList(name);
+        super.startMapNode(NormalizedNodeInterner.intern(name), childSizeHint);
+    }
+
+    @Override
+    public void startMapEntryNode(final NodeIdentifierWithPredicates identifier, final int childSizeHint) {
+        startListItem(identifier);
+        super.startMapEntryNode(identifier, childSizeHint);
+    }
+
+    @Override
+    public void startOrderedMapNode(final NodeIdentifier name, final int childSizeHint) {
+        tracker.startList(name);
+        super.startOrderedMapNode(NormalizedNodeInterner.intern(name), childSizeHint);
+    }
+
+    @Override
+    public void startChoiceNode(final NodeIdentifier name, final int childSizeHint) {
+        tracker.startChoiceNode(name);
+        super.startChoiceNode(NormalizedNodeInterner.intern(name), childSizeHint);
+    }
+
+    @Override
+    public void startAugmentationNode(final AugmentationIdentifier identifier) {
+        tracker.startAugmentationNode(identifier);
+        super.startAugmentationNode(identifier);
+    }
+
+    @Override
+    public void endNode() {
+        super.endNode();
+        tracker.endNode();
+    }
+}
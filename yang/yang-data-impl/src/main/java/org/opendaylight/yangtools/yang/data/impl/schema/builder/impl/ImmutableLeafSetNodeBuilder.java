@@ -25,6 +25,7 @@ import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.ListNodeBuil
 import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.NormalizedNodeContainerBuilder;
 import org.opendaylight.yangtools.yang.data.impl.schema.nodes.AbstractImmutableNormalizedNode;
 import org.opendaylight.yangtools.yang.data.impl.schema.nodes.AbstractImmutableNormalizedValueNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.nodes.ChildrenMapBackedNode;
 
 public class ImmutableLeafSetNodeBuilder<T> implements ListNodeBuilder<T, LeafSetEntryNode<T>> {
     private static final int DEFAULT_CAPACITY = 4;
@@ -109,7 +110,7 @@ public class ImmutableLeafSetNodeBuilder<T> implements ListNodeBuilder<T, LeafSe
 
     protected final static class ImmutableLeafSetNode<T> extends
             AbstractImmutableNormalizedValueNode<YangInstanceIdentifier.NodeIdentifier, Iterable<LeafSetEntryNode<T>>> implements
-            Immutable, LeafSetNode<T> {
+            Immutable, LeafSetNode<T>, ChildrenMapBackedNode {
 
         private final Map<YangInstanceIdentifier.NodeWithValue, LeafSetEntryNode<T>> children;
 
@@ -124,6 +125,11 @@ public class ImmutableLeafSetNodeBuilder<T> implements ListNodeBuilder<T, LeafSe
             return Optional.fromNullable(children.get(child));
         }
 
+        @Override
+        public Map<YangInstanceIdentifier.NodeWithValue, LeafSetEntryNode<T>> getChildren() {
+            return children;
+        }
+
         @Override
         protected int valueHashCode() {
             return children.hashCode();
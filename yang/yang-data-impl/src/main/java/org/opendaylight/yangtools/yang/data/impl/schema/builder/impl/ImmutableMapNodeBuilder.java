@@ -22,6 +22,7 @@ import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
 import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
 import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.NormalizedNodeContainerBuilder;
 import org.opendaylight.yangtools.yang.data.impl.schema.nodes.AbstractImmutableNormalizedNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.nodes.ChildrenMapBackedNode;
 
 public class ImmutableMapNodeBuilder implements CollectionNodeBuilder<MapEntryNode, MapNode> {
     private static final int DEFAULT_CAPACITY = 4;
@@ -103,7 +104,7 @@ public class ImmutableMapNodeBuilder implements CollectionNodeBuilder<MapEntryNo
         return withoutChild(key);
     }
 
-    protected static final class ImmutableMapNode extends AbstractImmutableNormalizedNode<YangInstanceIdentifier.NodeIdentifier, Iterable<MapEntryNode>> implements Immutable,MapNode {
+    protected static final class ImmutableMapNode extends AbstractImmutableNormalizedNode<YangInstanceIdentifier.NodeIdentifier, Iterable<MapEntryNode>> implements Immutable,MapNode, ChildrenMapBackedNode {
 
         private final Map<YangInstanceIdentifier.NodeIdentifierWithPredicates, MapEntryNode> children;
 
@@ -118,6 +119,11 @@ public class ImmutableMapNodeBuilder implements CollectionNodeBuilder<MapEntryNo
             return Optional.fromNullable(children.get(child));
         }
 
+        @Override
+        public Map<YangInstanceIdentifier.NodeIdentifierWithPredicates, MapEntryNode> getChildren() {
+            return children;
+        }
+
         @Override
         public Iterable<MapEntryNode> getValue() {
             return Iterables.unmodifiableIterable(children.values());
@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.nodes;
+
+import com.google.common.annotations.Beta;
+import java.util.Map;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+
+/**
+ * An immutable node which keeps its children in a map, keyed by their identifier.
+ *
+ * This is an implementation-internal API, which allows algorithms to take advantage
+ * of the map implementation, such as the structural sharing of
+ * {@link org.opendaylight.yangtools.util.PersistentHashMap}.
+ */
+@Beta
+public interface ChildrenMapBackedNode {
+    /**
+     * DO NOT MODIFY THE RETURNED MAP.
+     *
+     * @return The map backing this node's children.
+     */
+    Map<? extends PathArgument, ? extends NormalizedNode<?, ?>> getChildren();
+}
@@ -40,4 +40,10 @@ final class AlwaysFailOperation implements ModificationApplyOperation {
     public void verifyStructure(final ModifiedNode modification) {
         throw new IllegalStateException("Schema Context is not available.");
     }
+
+    @Override
+    public void enforceConstraints(final YangInstanceIdentifier path, final NodeModification modification,
+            final Optional<TreeNode> before, final Optional<TreeNode> after) {
+        throw new IllegalStateException("Schema Context is not available.");
+    }
 }
\ No newline at end of file
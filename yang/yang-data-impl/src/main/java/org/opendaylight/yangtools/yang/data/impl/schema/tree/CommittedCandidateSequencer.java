@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Preconditions;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+
+/**
+ * Commits candidates to a {@link DataTree} and processes them in the order in which they
+ * were applied to it, for the benefit of trees which act on every commit of a backing tree.
+ * <p>
+ * Commits are not serialized, they proceed concurrently in the backing tree. Each committed
+ * candidate reflects the root it was actually applied to, which is the root installed by
+ * the previous commit. A committer whose candidate does not follow the last processed one
+ * leaves it behind, and it is processed by the committer which fills the gap. Only this
+ * hand-off is done under a lock. Processing happens outside of it, in a single committer
+ * at a time.
+ * <p>
+ * If some candidates are left waiting while no commit is in progress, their predecessor
+ * will never arrive, as the backing tree has been modified without going through this
+ * class. Such candidates are handed to {@link #lostCommits(Collection, NormalizedNode, NormalizedNode)}
+ * and processing continues from the current root of the backing tree.
+ *
+ * @param <T> Type of items processed for committed candidates
+ */
+@Beta
+public abstract class CommittedCandidateSequencer<T> {
+    private static final YangInstanceIdentifier ROOT_PATH = YangInstanceIdentifier.create(Collections.<PathArgument>emptyList());
+
+    private static final class Waiting<T> {
+        final NormalizedNode<?, ?> after;
+        final T item;
+
+        Waiting(final NormalizedNode<?, ?> after, final T item) {
+            this.after = after;
+            this.item = item;
+        }
+    }
+
+    private final DataTree delegate;
+
+    // Items waiting for their predecessor, keyed by the root their candidate was applied to
+    @GuardedBy("this")
+    private final Map<NormalizedNode<?, ?>, Waiting<T>> pending = new IdentityHashMap<>();
+
+    @GuardedBy("this")
+    private final Queue<T> ready = new ArrayDeque<>();
+
+    // Commits which have been started but not handed off yet
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    @GuardedBy("this")
+    private NormalizedNode<?, ?> lastRoot;
+
+    @GuardedBy("this")
+    private boolean processing;
+
+    protected CommittedCandidateSequencer(final DataTree delegate) {
+        this.delegate = Preconditions.checkNotNull(delegate);
+        this.lastRoot = currentRoot();
+    }
+
+    /**
+     * Commit a candidate to the backing tree and process it once all its predecessors have
+     * been processed. This may process candidates committed by other threads, too.
+     *
+     * @param candidate Prepared candidate
+     * @return Item created for the candidate, or null if the candidate did not install a new root
+     */
+    @Nullable
+    public final T commit(final DataTreeCandidate candidate) {
+        inFlight.incrementAndGet();
+        try {
+            delegate.commit(candidate);
+        } catch (RuntimeException e) {
+            inFlight.decrementAndGet();
+            throw e;
+        }
+
+        // The candidate now reflects the roots which were swapped in by the backing tree
+        final DataTreeCandidateNode root = candidate.getRootNode();
+        final NormalizedNode<?, ?> before = root.getDataBefore().orNull();
+        final NormalizedNode<?, ?> after = root.getDataAfter().orNull();
+        final T item = before != after ? createItem(candidate) : null;
+
+        synchronized (this) {
+            if (item != null) {
+                pending.put(before, new Waiting<>(after, item));
+            }
+            inFlight.decrementAndGet();
+
+            Waiting<T> next;
+            while ((next = pending.remove(lastRoot)) != null) {
+                ready.add(next.item);
+                lastRoot = next.after;
+            }
+
+            if (!pending.isEmpty()) {
+                resynchronize();
+            }
+            if (processing || ready.isEmpty()) {
+                return item;
+            }
+            processing = true;
+        }
+
+        processReady();
+        return item;
+    }
+
+    /**
+     * Create the item to be processed for a committed candidate.
+     *
+     * @param candidate Committed candidate, which installed a new root
+     * @return Item to be processed
+     */
+    protected abstract T createItem(DataTreeCandidate candidate);
+
+    /**
+     * Process an item. Items are processed one at a time, in commit order, outside of any lock.
+     *
+     * @param item Item to process
+     */
+    protected abstract void process(T item);
+
+    /**
+     * Invoked with a lock held when the backing tree has been found to be modified without going
+     * through this class.
+     *
+     * @param stale Items which will never be processed, as their predecessor is unknown
+     * @param lastRoot Root installed by the last candidate handed off for processing
+     * @param currentRoot Current root of the backing tree
+     * @return An item which takes the place of the unknown modifications, or null
+     */
+    @Nullable
+    @GuardedBy("this")
+    protected abstract T lostCommits(Collection<T> stale, NormalizedNode<?, ?> lastRoot,
+            NormalizedNode<?, ?> currentRoot);
+
+    private NormalizedNode<?, ?> currentRoot() {
+        return delegate.takeSnapshot().readNode(ROOT_PATH).orNull();
+    }
+
+    @GuardedBy("this")
+    private void resynchronize() {
+        // Take the snapshot first: any commit reflected in it is either already pending, or still in flight
+        final NormalizedNode<?, ?> currentRoot = currentRoot();
+        if (inFlight.get() != 0) {
+            return;
+        }
+
+        final Collection<T> stale = new ArrayDeque<>(pending.size());
+        for (Waiting<T> w : pending.values()) {
+            stale.add(w.item);
+        }
+        pending.clear();
+
+        final T item = lostCommits(stale, lastRoot, currentRoot);
+        if (item != null) {
+            ready.add(item);
+        }
+        lastRoot = currentRoot;
+    }
+
+    private void processReady() {
+        boolean done = false;
+        try {
+            while (true) {
+                final T next;
+                synchronized (this) {
+                    next = ready.poll();
+                    if (next == null) {
+                        processing = false;
+                        done = true;
+                        return;
+                    }
+                }
+
+                process(next);
+            }
+        } finally {
+            if (!done) {
+                // Let a subsequent committer pick up the remaining items
+                synchronized (this) {
+                    processing = false;
+                }
+            }
+        }
+    }
+}
@@ -9,14 +9,18 @@ package org.opendaylight.yangtools.yang.data.impl.schema.tree;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.AugmentationIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
 import org.opendaylight.yangtools.yang.data.api.schema.AugmentationNode;
 import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.DataContainerNode;
 import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 import org.opendaylight.yangtools.yang.data.api.schema.UnkeyedListEntryNode;
@@ -28,9 +32,11 @@ import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableUn
 import org.opendaylight.yangtools.yang.data.impl.schema.transform.base.AugmentationSchemaProxy;
 import org.opendaylight.yangtools.yang.model.api.AugmentationSchema;
 import org.opendaylight.yangtools.yang.model.api.AugmentationTarget;
+import org.opendaylight.yangtools.yang.model.api.ConstraintDefinition;
 import org.opendaylight.yangtools.yang.model.api.ContainerSchemaNode;
 import org.opendaylight.yangtools.yang.model.api.DataNodeContainer;
 import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.LeafListSchemaNode;
 import org.opendaylight.yangtools.yang.model.api.ListSchemaNode;
 
 import com.google.common.base.Function;
@@ -38,6 +44,7 @@ import com.google.common.base.Optional;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
 
 /**
  * Base strategy for applying changes to a ContainerNode, irrespective of its
@@ -48,6 +55,7 @@ import com.google.common.cache.LoadingCache;
 abstract class DataNodeContainerModificationStrategy<T extends DataNodeContainer> extends NormalizedNodeContainerModificationStrategy {
 
     private final T schema;
+    private final Collection<PathArgument> mandatoryChildren;
     private final LoadingCache<PathArgument, ModificationApplyOperation> childCache = CacheBuilder.newBuilder()
             .build(CacheLoader.from(new Function<PathArgument, ModificationApplyOperation>() {
 
@@ -69,12 +77,60 @@ abstract class DataNodeContainerModificationStrategy<T extends DataNodeContainer
             final Class<? extends NormalizedNode<?, ?>> nodeClass) {
         super(nodeClass);
         this.schema = schema;
+        this.mandatoryChildren = mandatoryChildren(schema, schema instanceof AugmentationSchema);
     }
 
     protected T getSchema() {
         return schema;
     }
 
+    /**
+     * Return the identifiers of children which have to be present in a data node. These are
+     * mandatory leaves, choices and anyxmls, and lists and leaf-lists with min-elements.
+     *
+     * @param schema Schema of the data node
+     * @param includeAugmenting Whether augmenting children should be included. Their data nodes
+     *        are not immediate children of the data node, but rather of the corresponding augmentation.
+     * @return Identifiers of mandatory children
+     */
+    static Collection<PathArgument> mandatoryChildren(final DataNodeContainer schema, final boolean includeAugmenting) {
+        final ImmutableList.Builder<PathArgument> ret = ImmutableList.builder();
+        for (DataSchemaNode child : schema.getChildNodes()) {
+            if (child.isAugmenting() && !includeAugmenting) {
+                continue;
+            }
+
+            final ConstraintDefinition constraints = child.getConstraints();
+            if (constraints == null) {
+                continue;
+            }
+
+            final Integer minElements = constraints.getMinElements();
+            if (constraints.isMandatory() || (minElements != null && minElements > 0
+                    && (child instanceof ListSchemaNode || child instanceof LeafListSchemaNode))) {
+                ret.add(new NodeIdentifier(child.getQName()));
+            }
+        }
+        return ret.build();
+    }
+
+    static void enforceMandatoryChildren(final YangInstanceIdentifier path, final DataContainerNode<?> data,
+            final Collection<PathArgument> mandatoryChildren) {
+        for (PathArgument child : mandatoryChildren) {
+            if (!data.getChild(child).isPresent()) {
+                throw new SchemaValidationFailedException(path, String.format(
+                    "Node %s is missing mandatory descendant %s", path, child.getNodeType()));
+            }
+        }
+    }
+
+    @Override
+    void enforceOnNode(final YangInstanceIdentifier path, final NormalizedNode<?, ?> data) {
+        if (!mandatoryChildren.isEmpty()) {
+            enforceMandatoryChildren(path, (DataContainerNode<?>) data, mandatoryChildren);
+        }
+    }
+
     @Override
     public Optional<ModificationApplyOperation> getChild(final PathArgument identifier) {
         try {
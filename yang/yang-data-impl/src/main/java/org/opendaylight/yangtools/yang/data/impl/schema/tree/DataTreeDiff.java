@@ -0,0 +1,289 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Objects;
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import org.opendaylight.yangtools.util.PersistentHashMap;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
+import org.opendaylight.yangtools.yang.data.api.schema.OrderedNodeContainer;
+import org.opendaylight.yangtools.yang.data.api.schema.UnkeyedListNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeSnapshot;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
+import org.opendaylight.yangtools.yang.data.impl.schema.nodes.ChildrenMapBackedNode;
+
+/**
+ * Utility for computing the structural difference between two versions of a tree. The
+ * difference is reported as a {@link DataTreeCandidate}, as if the second version was
+ * produced by a modification applied to the first one.
+ * <p>
+ * The comparison stops at subtrees which are the same object in both versions. Snapshots
+ * taken from a single {@link org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree}
+ * share all subtrees which were not modified between them, hence comparing such snapshots
+ * only visits the modified subtrees and the children of containers along the way. Subtrees
+ * which are equal, but not shared, are compared by value and are not reported. Children of
+ * large lists are kept in a {@link PersistentHashMap}; when both versions of such a list are
+ * backed by one, only the parts of the map which are not shared are visited, otherwise all
+ * children of the list are compared.
+ * <p>
+ * Nodes which appeared or disappeared are reported as {@link ModificationType#WRITE} and
+ * {@link ModificationType#DELETE} without any child nodes. Containers whose children
+ * changed are reported as {@link ModificationType#SUBTREE_MODIFIED}, with only the changed
+ * children present. Ordered lists whose order changed and unkeyed lists which changed are
+ * reported as {@link ModificationType#WRITE}, as their entries cannot be addressed
+ * individually.
+ */
+@Beta
+public final class DataTreeDiff {
+    private DataTreeDiff() {
+        throw new UnsupportedOperationException("Utility class should not be instantiated");
+    }
+
+    /**
+     * Compute the difference between two versions of a node.
+     *
+     * @param rootPath Path of the node
+     * @param before Node before the change
+     * @param after Node after the change
+     * @return Candidate describing the difference.
+     */
+    public static DataTreeCandidate diff(final YangInstanceIdentifier rootPath,
+            final Optional<NormalizedNode<?, ?>> before, final Optional<NormalizedNode<?, ?>> after) {
+        final PathArgument identifier;
+        if (rootPath.getLastPathArgument() != null) {
+            identifier = rootPath.getLastPathArgument();
+        } else {
+            Preconditions.checkArgument(before.isPresent() || after.isPresent(),
+                "Cannot compare two empty trees at the root");
+            identifier = (after.isPresent() ? after : before).get().getIdentifier();
+        }
+
+        DataTreeCandidateNode root = diffNode(identifier, before, after);
+        if (root == null) {
+            root = new DiffCandidateNode(identifier, ModificationType.UNMODIFIED, before, after,
+                Collections.<DataTreeCandidateNode>emptyList());
+        }
+        return new DiffDataTreeCandidate(rootPath, root);
+    }
+
+    /**
+     * Compute the difference between the same node in two snapshots.
+     *
+     * @param before Snapshot before the change
+     * @param after Snapshot after the change
+     * @param path Path of the node
+     * @return Candidate describing the difference.
+     */
+    public static DataTreeCandidate diff(final DataTreeSnapshot before, final DataTreeSnapshot after,
+            final YangInstanceIdentifier path) {
+        return diff(path, before.readNode(path), after.readNode(path));
+    }
+
+    /**
+     * Compute the difference between two snapshots.
+     *
+     * @param before Snapshot before the change
+     * @param after Snapshot after the change
+     * @return Candidate describing the difference.
+     */
+    public static DataTreeCandidate diff(final DataTreeSnapshot before, final DataTreeSnapshot after) {
+        return diff(before, after, YangInstanceIdentifier.create(Collections.<PathArgument>emptyList()));
+    }
+
+    /**
+     * Compute the candidate node for a pair of nodes.
+     *
+     * @return Candidate node, or null if the nodes do not differ.
+     */
+    private static DataTreeCandidateNode diffNode(final PathArgument identifier,
+            final Optional<NormalizedNode<?, ?>> before, final Optional<NormalizedNode<?, ?>> after) {
+        if (!after.isPresent()) {
+            return before.isPresent() ? leafCandidate(identifier, ModificationType.DELETE, before, after) : null;
+        }
+        if (!before.isPresent()) {
+            return leafCandidate(identifier, ModificationType.WRITE, before, after);
+        }
+
+        final NormalizedNode<?, ?> b = before.get();
+        final NormalizedNode<?, ?> a = after.get();
+        if (b == a) {
+            return null;
+        }
+
+        if (isAddressableContainer(b) && isAddressableContainer(a)) {
+            if (a instanceof OrderedNodeContainer && b instanceof OrderedNodeContainer
+                    && !sameOrder((OrderedNodeContainer<?>) b, (OrderedNodeContainer<?>) a)) {
+                return leafCandidate(identifier, ModificationType.WRITE, before, after);
+            }
+
+            final Collection<DataTreeCandidateNode> children = diffChildren((NormalizedNodeContainer<?, ?, ?>) b,
+                (NormalizedNodeContainer<?, ?, ?>) a);
+            return children.isEmpty() ? null
+                    : new DiffCandidateNode(identifier, ModificationType.SUBTREE_MODIFIED, before, after, children);
+        }
+
+        return b.equals(a) ? null : leafCandidate(identifier, ModificationType.WRITE, before, after);
+    }
+
+    private static boolean isAddressableContainer(final NormalizedNode<?, ?> node) {
+        return node instanceof NormalizedNodeContainer && !(node instanceof UnkeyedListNode);
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private static Collection<DataTreeCandidateNode> diffChildren(final NormalizedNodeContainer<?, ?, ?> before,
+            final NormalizedNodeContainer<?, ?, ?> after) {
+        if (before instanceof ChildrenMapBackedNode && after instanceof ChildrenMapBackedNode) {
+            final Map<?, ?> beforeMap = ((ChildrenMapBackedNode) before).getChildren();
+            final Map<?, ?> afterMap = ((ChildrenMapBackedNode) after).getChildren();
+            if (beforeMap instanceof PersistentHashMap && afterMap instanceof PersistentHashMap) {
+                final ChildrenDiff diff = new ChildrenDiff();
+                ((PersistentHashMap) beforeMap).diff((PersistentHashMap) afterMap, diff);
+                return diff.ret;
+            }
+        }
+
+        final NormalizedNodeContainer rawBefore = before;
+        final NormalizedNodeContainer rawAfter = after;
+        final Collection<DataTreeCandidateNode> ret = new ArrayList<>();
+
+        for (Object o : after.getValue()) {
+            final NormalizedNode<?, ?> child = (NormalizedNode<?, ?>) o;
+            final PathArgument id = child.getIdentifier();
+            final DataTreeCandidateNode node = diffNode(id, rawBefore.getChild(id), Optional.<NormalizedNode<?, ?>>of(child));
+            if (node != null) {
+                ret.add(node);
+            }
+        }
+        for (Object o : before.getValue()) {
+            final NormalizedNode<?, ?> child = (NormalizedNode<?, ?>) o;
+            final PathArgument id = child.getIdentifier();
+            if (!rawAfter.getChild(id).isPresent()) {
+                ret.add(leafCandidate(id, ModificationType.DELETE, Optional.<NormalizedNode<?, ?>>of(child),
+                    Optional.<NormalizedNode<?, ?>>absent()));
+            }
+        }
+
+        return ret;
+    }
+
+    private static final class ChildrenDiff implements PersistentHashMap.DiffCallback<PathArgument, NormalizedNode<?, ?>> {
+        final Collection<DataTreeCandidateNode> ret = new ArrayList<>();
+
+        @Override
+        public void added(final PathArgument key, final NormalizedNode<?, ?> value) {
+            ret.add(leafCandidate(key, ModificationType.WRITE, Optional.<NormalizedNode<?, ?>>absent(),
+                Optional.<NormalizedNode<?, ?>>of(value)));
+        }
+
+        @Override
+        public void removed(final PathArgument key, final NormalizedNode<?, ?> value) {
+            ret.add(leafCandidate(key, ModificationType.DELETE, Optional.<NormalizedNode<?, ?>>of(value),
+                Optional.<NormalizedNode<?, ?>>absent()));
+        }
+
+        @Override
+        public void changed(final PathArgument key, final NormalizedNode<?, ?> before, final NormalizedNode<?, ?> after) {
+            final DataTreeCandidateNode node = diffNode(key, Optional.<NormalizedNode<?, ?>>of(before),
+                Optional.<NormalizedNode<?, ?>>of(after));
+            if (node != null) {
+                ret.add(node);
+            }
+        }
+    }
+
+    private static boolean sameOrder(final OrderedNodeContainer<?> before, final OrderedNodeContainer<?> after) {
+        final Iterator<?> bi = before.getValue().iterator();
+        final Iterator<?> ai = after.getValue().iterator();
+        while (bi.hasNext() && ai.hasNext()) {
+            if (!((NormalizedNode<?, ?>) bi.next()).getIdentifier().equals(((NormalizedNode<?, ?>) ai.next()).getIdentifier())) {
+                return false;
+            }
+        }
+        return !bi.hasNext() && !ai.hasNext();
+    }
+
+    private static DataTreeCandidateNode leafCandidate(final PathArgument identifier, final ModificationType type,
+            final Optional<NormalizedNode<?, ?>> before, final Optional<NormalizedNode<?, ?>> after) {
+        return new DiffCandidateNode(identifier, type, before, after, Collections.<DataTreeCandidateNode>emptyList());
+    }
+
+    private static final class DiffCandidateNode implements DataTreeCandidateNode {
+        private final PathArgument identifier;
+        private final ModificationType type;
+        private final Optional<NormalizedNode<?, ?>> before;
+        private final Optional<NormalizedNode<?, ?>> after;
+        private final Collection<DataTreeCandidateNode> children;
+
+        DiffCandidateNode(final PathArgument identifier, final ModificationType type,
+                final Optional<NormalizedNode<?, ?>> before, final Optional<NormalizedNode<?, ?>> after,
+                final Collection<DataTreeCandidateNode> children) {
+            this.identifier = Preconditions.checkNotNull(identifier);
+            this.type = Preconditions.checkNotNull(type);
+            this.before = Preconditions.checkNotNull(before);
+            this.after = Preconditions.checkNotNull(after);
+            this.children = Collections.unmodifiableCollection(children);
+        }
+
+        @Override
+        public PathArgument getIdentifier() {
+            return identifier;
+        }
+
+        @Override
+        public Iterable<DataTreeCandidateNode> getChildNodes() {
+            return children;
+        }
+
+        @Override
+        public ModificationType getModificationType() {
+            return type;
+        }
+
+        @Override
+        public Optional<NormalizedNode<?, ?>> getDataAfter() {
+            return after;
+        }
+
+        @Override
+        public Optional<NormalizedNode<?, ?>> getDataBefore() {
+            return before;
+        }
+
+        @Override
+        public String toString() {
+            return Objects.toStringHelper(this).add("identifier", identifier).add("type", type)
+                    .add("children", children.size()).toString();
+        }
+    }
+
+    private static final class DiffDataTreeCandidate extends AbstractDataTreeCandidate {
+        private final DataTreeCandidateNode rootNode;
+
+        DiffDataTreeCandidate(final YangInstanceIdentifier rootPath, final DataTreeCandidateNode rootNode) {
+            super(rootPath);
+            this.rootNode = Preconditions.checkNotNull(rootNode);
+        }
+
+        @Override
+        public DataTreeCandidateNode getRootNode() {
+            return rootNode;
+        }
+    }
+}
@@ -0,0 +1,561 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Function;
+import com.google.common.base.Objects;
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.LeafSetNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
+import org.opendaylight.yangtools.yang.data.api.schema.UnkeyedListNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeSnapshot;
+import org.opendaylight.yangtools.yang.data.impl.schema.SchemaUtils;
+import org.opendaylight.yangtools.yang.model.api.AugmentationSchema;
+import org.opendaylight.yangtools.yang.model.api.AugmentationTarget;
+import org.opendaylight.yangtools.yang.model.api.ChoiceCaseNode;
+import org.opendaylight.yangtools.yang.model.api.ChoiceNode;
+import org.opendaylight.yangtools.yang.model.api.DataNodeContainer;
+import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.LeafListSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.LeafSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.ListSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+
+/**
+ * A compiled query selecting nodes from a {@link DataTreeSnapshot} or a {@link NormalizedNode}
+ * tree. Queries are built using {@link #builder(SchemaContext)}, which resolves every step
+ * against the schema, so that mistakes are reported once, when the query is built, rather
+ * than each time it is executed. A built query is immutable and can be executed any number
+ * of times, from any thread.
+ * <p>
+ * A query is a sequence of steps, each of which maps the set of currently-selected nodes
+ * to a new set:
+ * <ul>
+ * <li>{@link Builder#node(QName)} selects a child. Choice and augmentation nodes need not
+ *     be spelled out, they are inserted based on the schema,</li>
+ * <li>{@link Builder#anyEntry()} selects all entries of a list or leaf-list,</li>
+ * <li>{@link Builder#entry(Map)} selects list entries by their keys,</li>
+ * <li>{@link Builder#whereLeaf(QName, Object)}, {@link Builder#whereCountGreaterThan(QName, int)}
+ *     and {@link Builder#where(Predicate)} retain only the nodes matching a predicate.</li>
+ * </ul>
+ * Child steps following a predicate act as a projection: the predicate is evaluated on the
+ * selected node and the result contains its descendant. Leading steps which do not involve
+ * a wildcard or a predicate are looked up directly, without iterating.
+ * <p>
+ * Results are evaluated lazily while they are being iterated. No intermediate collections
+ * are created and iteration stops visiting the tree as soon as the caller stops consuming
+ * results or the {@link Builder#limit(int) limit} is reached.
+ */
+@Beta
+public final class DataTreeQuery {
+    private static final YangInstanceIdentifier ROOT = YangInstanceIdentifier.create(
+        Collections.<PathArgument>emptyList());
+
+    private final YangInstanceIdentifier prefix;
+    private final List<Step> steps;
+    private final int limit;
+
+    private DataTreeQuery(final YangInstanceIdentifier prefix, final List<Step> steps, final int limit) {
+        this.prefix = Preconditions.checkNotNull(prefix);
+        this.steps = ImmutableList.copyOf(steps);
+        this.limit = limit;
+    }
+
+    /**
+     * Start building a query.
+     *
+     * @param context Schema context against which the query is resolved
+     * @return A new query builder, positioned at the data tree root
+     */
+    public static Builder builder(final SchemaContext context) {
+        return new Builder(context);
+    }
+
+    /**
+     * Execute this query on a snapshot.
+     *
+     * @param snapshot Data tree snapshot
+     * @return Lazily-evaluated query results
+     */
+    public Iterable<NormalizedNode<?, ?>> execute(final DataTreeSnapshot snapshot) {
+        return evaluate(snapshot.readNode(prefix));
+    }
+
+    /**
+     * Execute this query on a tree.
+     *
+     * @param root Root node of the tree
+     * @return Lazily-evaluated query results
+     */
+    public Iterable<NormalizedNode<?, ?>> execute(final NormalizedNode<?, ?> root) {
+        return evaluate(NormalizedNodes.findNode(root, prefix));
+    }
+
+    /**
+     * Execute this query on a snapshot and return the first result. Evaluation stops as soon
+     * as the first result is found.
+     *
+     * @param snapshot Data tree snapshot
+     * @return First result, or absent if the query does not match anything
+     */
+    public Optional<NormalizedNode<?, ?>> findFirst(final DataTreeSnapshot snapshot) {
+        final Iterator<NormalizedNode<?, ?>> it = execute(snapshot).iterator();
+        return it.hasNext() ? Optional.<NormalizedNode<?, ?>>of(it.next()) : Optional.<NormalizedNode<?, ?>>absent();
+    }
+
+    private Iterable<NormalizedNode<?, ?>> evaluate(final Optional<NormalizedNode<?, ?>> start) {
+        if (!start.isPresent() || limit == 0) {
+            return Collections.emptyList();
+        }
+
+        final NormalizedNode<?, ?> startNode = start.get();
+        return new Iterable<NormalizedNode<?, ?>>() {
+            @Override
+            public Iterator<NormalizedNode<?, ?>> iterator() {
+                Iterator<NormalizedNode<?, ?>> it = Iterators.<NormalizedNode<?, ?>>singletonIterator(startNode);
+                for (Step step : steps) {
+                    it = step.apply(it);
+                }
+                return limit < 0 ? it : Iterators.limit(it, limit);
+            }
+
+            @Override
+            public String toString() {
+                return Iterables.toString(this);
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return Objects.toStringHelper(this).add("prefix", prefix).add("steps", steps).add("limit", limit).toString();
+    }
+
+    /**
+     * Builder of {@link DataTreeQuery} instances. The builder tracks the schema node selected
+     * by the steps added so far and rejects steps which cannot match any data.
+     */
+    public static final class Builder {
+        private final List<PathArgument> prefix = new ArrayList<>();
+        private final List<PathArgument> pending = new ArrayList<>();
+        private final List<Step> steps = new ArrayList<>();
+        private DataSchemaNode current;
+        private boolean atList;
+        private int limit = -1;
+
+        private Builder(final SchemaContext context) {
+            this.current = Preconditions.checkNotNull(context);
+        }
+
+        /**
+         * Select a child of the currently-selected nodes.
+         *
+         * @param qname Child node name
+         * @return This builder
+         * @throws IllegalArgumentException if the child does not exist in the schema
+         * @throws IllegalStateException if the selected nodes are lists or leaves
+         */
+        public Builder node(final QName qname) {
+            final List<PathArgument> args = new ArrayList<>(2);
+            final DataSchemaNode child = resolveChild(qname, args);
+            pending.addAll(args);
+            current = child;
+            atList = child instanceof ListSchemaNode || child instanceof LeafListSchemaNode;
+            return this;
+        }
+
+        /**
+         * Select all entries of the currently-selected lists or leaf-lists.
+         *
+         * @return This builder
+         * @throws IllegalStateException if the selected nodes are not lists or leaf-lists
+         */
+        public Builder anyEntry() {
+            Preconditions.checkState(atList, "Node %s is not a list", current.getQName());
+            addStep(EntriesStep.INSTANCE);
+            atList = false;
+            return this;
+        }
+
+        /**
+         * Select the entries of the currently-selected lists matching specified key values.
+         * If all keys are specified, the entry is looked up directly. Otherwise all entries
+         * are iterated and matched against the specified subset of key values.
+         *
+         * @param keyValues Key values
+         * @return This builder
+         * @throws IllegalArgumentException if a key is not defined by the list
+         * @throws IllegalStateException if the selected nodes are not keyed lists
+         */
+        public Builder entry(final Map<QName, Object> keyValues) {
+            Preconditions.checkState(atList && current instanceof ListSchemaNode
+                    && !((ListSchemaNode) current).getKeyDefinition().isEmpty(),
+                    "Node %s is not a keyed list", current.getQName());
+            final Set<QName> keys = ImmutableSet.copyOf(((ListSchemaNode) current).getKeyDefinition());
+            Preconditions.checkArgument(keys.containsAll(keyValues.keySet()), "Keys %s are not a subset of %s",
+                keyValues.keySet(), keys);
+
+            final Map<QName, Object> values = ImmutableMap.copyOf(keyValues);
+            if (keys.equals(values.keySet())) {
+                pending.add(new NodeIdentifierWithPredicates(current.getQName(), values));
+            } else {
+                addStep(EntriesStep.INSTANCE);
+                addStep(new FilterStep(new KeyPredicate(values)));
+            }
+            atList = false;
+            return this;
+        }
+
+        /**
+         * Select the entry of the currently-selected lists matching a key value.
+         *
+         * @param key Key name
+         * @param value Key value
+         * @return This builder
+         * @see #entry(Map)
+         */
+        public Builder entry(final QName key, final Object value) {
+            return entry(Collections.singletonMap(key, value));
+        }
+
+        /**
+         * Retain only the nodes which have a child leaf with a particular value.
+         *
+         * @param leaf Leaf name
+         * @param value Leaf value
+         * @return This builder
+         * @throws IllegalArgumentException if the leaf does not exist in the schema
+         */
+        public Builder whereLeaf(final QName leaf, final Object value) {
+            Preconditions.checkNotNull(value);
+            final List<PathArgument> args = new ArrayList<>(2);
+            final DataSchemaNode child = resolveChild(leaf, args);
+            Preconditions.checkArgument(child instanceof LeafSchemaNode, "Node %s is not a leaf", leaf);
+            addStep(new FilterStep(new LeafPredicate(YangInstanceIdentifier.create(args), value)));
+            return this;
+        }
+
+        /**
+         * Retain only the nodes which have a child list or leaf-list with more than
+         * a certain number of entries. Missing lists are considered to be empty.
+         *
+         * @param list List name
+         * @param count Number of entries which needs to be exceeded
+         * @return This builder
+         * @throws IllegalArgumentException if the list does not exist in the schema
+         */
+        public Builder whereCountGreaterThan(final QName list, final int count) {
+            final List<PathArgument> args = new ArrayList<>(2);
+            final DataSchemaNode child = resolveChild(list, args);
+            Preconditions.checkArgument(child instanceof ListSchemaNode || child instanceof LeafListSchemaNode,
+                "Node %s is not a list", list);
+            addStep(new FilterStep(new CountPredicate(YangInstanceIdentifier.create(args), count)));
+            return this;
+        }
+
+        /**
+         * Retain only the nodes matching a predicate.
+         *
+         * @param predicate Predicate
+         * @return This builder
+         */
+        public Builder where(final Predicate<? super NormalizedNode<?, ?>> predicate) {
+            addStep(new FilterStep(predicate));
+            return this;
+        }
+
+        /**
+         * Limit the number of results.
+         *
+         * @param limit Maximum number of results
+         * @return This builder
+         */
+        public Builder limit(final int limit) {
+            Preconditions.checkArgument(limit >= 0, "Limit %s is negative", limit);
+            this.limit = limit;
+            return this;
+        }
+
+        /**
+         * Build a query based on the current state of this builder.
+         *
+         * @return A compiled query
+         */
+        public DataTreeQuery build() {
+            final List<Step> ret = new ArrayList<>(steps);
+            final List<PathArgument> retPrefix = new ArrayList<>(prefix);
+            if (!pending.isEmpty()) {
+                if (ret.isEmpty()) {
+                    retPrefix.addAll(pending);
+                } else {
+                    ret.add(new ChildStep(YangInstanceIdentifier.create(pending)));
+                }
+            }
+            return new DataTreeQuery(retPrefix.isEmpty() ? ROOT : YangInstanceIdentifier.create(retPrefix), ret,
+                limit);
+        }
+
+        private void addStep(final Step step) {
+            if (!pending.isEmpty()) {
+                if (steps.isEmpty()) {
+                    prefix.addAll(pending);
+                } else {
+                    steps.add(new ChildStep(YangInstanceIdentifier.create(pending)));
+                }
+                pending.clear();
+            }
+            steps.add(step);
+        }
+
+        private DataSchemaNode resolveChild(final QName qname, final List<PathArgument> args) {
+            Preconditions.checkState(!atList, "Cannot select %s, list %s entries need to be selected first", qname,
+                current.getQName());
+
+            final DataSchemaNode child;
+            if (current instanceof ChoiceNode) {
+                child = findCaseChild((ChoiceNode) current, qname, args);
+            } else if (current instanceof DataNodeContainer) {
+                child = findChild((DataNodeContainer) current, qname, args);
+            } else {
+                throw new IllegalStateException(String.format("Node %s does not have any children",
+                    current.getQName()));
+            }
+
+            Preconditions.checkArgument(child != null, "Node %s does not have child %s", current.getQName(), qname);
+            return child;
+        }
+
+        /*
+         * Children of choice cases are looked up transparently, adding the identifiers
+         * of the choice and augmentation nodes which hold them in the data tree.
+         */
+        private static DataSchemaNode findChild(final DataNodeContainer parent, final QName qname,
+                final List<PathArgument> args) {
+            final DataSchemaNode child = parent.getDataChildByName(qname);
+            if (child != null) {
+                addChild(parent, qname, args);
+                return child;
+            }
+
+            for (DataSchemaNode node : parent.getChildNodes()) {
+                if (node instanceof ChoiceNode) {
+                    final int mark = args.size();
+                    addChild(parent, node.getQName(), args);
+                    final DataSchemaNode found = findCaseChild((ChoiceNode) node, qname, args);
+                    if (found != null) {
+                        return found;
+                    }
+                    args.subList(mark, args.size()).clear();
+                }
+            }
+            return null;
+        }
+
+        private static DataSchemaNode findCaseChild(final ChoiceNode choice, final QName qname,
+                final List<PathArgument> args) {
+            for (ChoiceCaseNode caze : choice.getCases()) {
+                final DataSchemaNode found = findChild(caze, qname, args);
+                if (found != null) {
+                    return found;
+                }
+            }
+            return null;
+        }
+
+        private static void addChild(final DataNodeContainer parent, final QName qname, final List<PathArgument> args) {
+            if (parent instanceof AugmentationTarget) {
+                for (AugmentationSchema augment : ((AugmentationTarget) parent).getAvailableAugmentations()) {
+                    if (augment.getDataChildByName(qname) != null) {
+                        args.add(SchemaUtils.getNodeIdentifierForAugmentation(augment));
+                        break;
+                    }
+                }
+            }
+            args.add(new NodeIdentifier(qname));
+        }
+    }
+
+    private abstract static class Step {
+        abstract Iterator<NormalizedNode<?, ?>> apply(Iterator<NormalizedNode<?, ?>> input);
+    }
+
+    private static final class ChildStep extends Step {
+        private final Function<NormalizedNode<?, ?>, NormalizedNode<?, ?>> function;
+        private final YangInstanceIdentifier path;
+
+        ChildStep(final YangInstanceIdentifier path) {
+            this.path = Preconditions.checkNotNull(path);
+            this.function = new Function<NormalizedNode<?, ?>, NormalizedNode<?, ?>>() {
+                @Override
+                public NormalizedNode<?, ?> apply(final NormalizedNode<?, ?> input) {
+                    return NormalizedNodes.findNode(input, ChildStep.this.path).orNull();
+                }
+            };
+        }
+
+        @Override
+        Iterator<NormalizedNode<?, ?>> apply(final Iterator<NormalizedNode<?, ?>> input) {
+            return Iterators.filter(Iterators.transform(input, function), Predicates.notNull());
+        }
+
+        @Override
+        public String toString() {
+            return "child " + path;
+        }
+    }
+
+    private static final class EntriesStep extends Step {
+        static final EntriesStep INSTANCE = new EntriesStep();
+
+        private static final Function<NormalizedNode<?, ?>, Iterator<? extends NormalizedNode<?, ?>>> ENTRIES =
+                new Function<NormalizedNode<?, ?>, Iterator<? extends NormalizedNode<?, ?>>>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Iterator<? extends NormalizedNode<?, ?>> apply(final NormalizedNode<?, ?> input) {
+                if (input instanceof MapNode || input instanceof LeafSetNode || input instanceof UnkeyedListNode) {
+                    return ((Iterable<? extends NormalizedNode<?, ?>>) input.getValue()).iterator();
+                }
+                return Collections.<NormalizedNode<?, ?>>emptyIterator();
+            }
+        };
+
+        @Override
+        Iterator<NormalizedNode<?, ?>> apply(final Iterator<NormalizedNode<?, ?>> input) {
+            return Iterators.concat(Iterators.transform(input, ENTRIES));
+        }
+
+        @Override
+        public String toString() {
+            return "entries";
+        }
+    }
+
+    private static final class FilterStep extends Step {
+        private final Predicate<? super NormalizedNode<?, ?>> predicate;
+
+        FilterStep(final Predicate<? super NormalizedNode<?, ?>> predicate) {
+            this.predicate = Preconditions.checkNotNull(predicate);
+        }
+
+        @Override
+        Iterator<NormalizedNode<?, ?>> apply(final Iterator<NormalizedNode<?, ?>> input) {
+            return Iterators.filter(input, predicate);
+        }
+
+        @Override
+        public String toString() {
+            return "filter " + predicate;
+        }
+    }
+
+    private static final class KeyPredicate implements Predicate<NormalizedNode<?, ?>> {
+        private final Map<QName, Object> keyValues;
+
+        KeyPredicate(final Map<QName, Object> keyValues) {
+            this.keyValues = Preconditions.checkNotNull(keyValues);
+        }
+
+        @Override
+        public boolean apply(final NormalizedNode<?, ?> input) {
+            final PathArgument id = input.getIdentifier();
+            if (!(id instanceof NodeIdentifierWithPredicates)) {
+                return false;
+            }
+
+            final Map<QName, Object> entryKeys = ((NodeIdentifierWithPredicates) id).getKeyValues();
+            for (Map.Entry<QName, Object> e : keyValues.entrySet()) {
+                if (!e.getValue().equals(entryKeys.get(e.getKey()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return "keys " + keyValues;
+        }
+    }
+
+    private static final class LeafPredicate implements Predicate<NormalizedNode<?, ?>> {
+        private final YangInstanceIdentifier path;
+        private final Object value;
+
+        LeafPredicate(final YangInstanceIdentifier path, final Object value) {
+            this.path = Preconditions.checkNotNull(path);
+            this.value = Preconditions.checkNotNull(value);
+        }
+
+        @Override
+        public boolean apply(final NormalizedNode<?, ?> input) {
+            final Optional<NormalizedNode<?, ?>> leaf = NormalizedNodes.findNode(input, path);
+            return leaf.isPresent() && value.equals(leaf.get().getValue());
+        }
+
+        @Override
+        public String toString() {
+            return path + " = " + value;
+        }
+    }
+
+    private static final class CountPredicate implements Predicate<NormalizedNode<?, ?>> {
+        private final YangInstanceIdentifier path;
+        private final int count;
+
+        CountPredicate(final YangInstanceIdentifier path, final int count) {
+            this.path = Preconditions.checkNotNull(path);
+            this.count = count;
+        }
+
+        @Override
+        public boolean apply(final NormalizedNode<?, ?> input) {
+            final Optional<NormalizedNode<?, ?>> list = NormalizedNodes.findNode(input, path);
+            if (!list.isPresent()) {
+                return count < 0;
+            }
+
+            // Iterate only as far as needed to decide
+            final Iterator<?> it = ((Iterable<?>) list.get().getValue()).iterator();
+            int seen = 0;
+            while (it.hasNext()) {
+                it.next();
+                if (++seen > count) {
+                    return true;
+                }
+            }
+            return seen > count;
+        }
+
+        @Override
+        public String toString() {
+            return "count(" + path + ") > " + count;
+        }
+    }
+}
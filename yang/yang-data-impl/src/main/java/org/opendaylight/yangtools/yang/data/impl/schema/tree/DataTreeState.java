@@ -9,7 +9,12 @@ package org.opendaylight.yangtools.yang.data.impl.schema.tree;
 
 import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeIndex;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
 import org.opendaylight.yangtools.yang.model.api.SchemaContext;
 
@@ -22,18 +27,22 @@ final class DataTreeState {
     private final LatestOperationHolder holder;
     private final SchemaContext schemaContext;
     private final TreeNode root;
+    private final Map<DataTreeIndex, SecondaryIndex> indexes;
 
     private DataTreeState(final TreeNode root) {
         this.root = Preconditions.checkNotNull(root);
         holder = new LatestOperationHolder();
         schemaContext = null;
+        indexes = ImmutableMap.of();
     }
 
-    private DataTreeState(final TreeNode root, final LatestOperationHolder holder, final SchemaContext schemaContext) {
+    private DataTreeState(final TreeNode root, final LatestOperationHolder holder, final SchemaContext schemaContext,
+            final Map<DataTreeIndex, SecondaryIndex> indexes) {
         // It should be impossible to instantiate a new root without a SchemaContext
         this.schemaContext = Preconditions.checkNotNull(schemaContext);
         this.holder = Preconditions.checkNotNull(holder);
         this.root = Preconditions.checkNotNull(root);
+        this.indexes = Preconditions.checkNotNull(indexes);
     }
 
     static DataTreeState createInitial(final TreeNode root) {
@@ -45,16 +54,53 @@ final class DataTreeState {
     }
 
     InMemoryDataTreeSnapshot newSnapshot() {
-        return new InMemoryDataTreeSnapshot(schemaContext, root, holder.newSnapshot());
+        return new InMemoryDataTreeSnapshot(schemaContext, root, holder.newSnapshot(), indexes);
     }
 
     DataTreeState withSchemaContext(final SchemaContext newSchemaContext, final SchemaAwareApplyOperation operation) {
         holder.setCurrent(operation);
-        return new DataTreeState(root, holder, newSchemaContext);
+        return new DataTreeState(root, holder, newSchemaContext, indexes);
     }
 
-    DataTreeState withRoot(final TreeNode newRoot) {
-        return new DataTreeState(newRoot, holder, schemaContext);
+    /**
+     * Create the state resulting from a modification, updating all indexes to match
+     * the new root.
+     *
+     * @param newRoot New data tree root
+     * @param modification Modification which produced newRoot from the current root
+     * @return New state
+     */
+    DataTreeState withRoot(final TreeNode newRoot, final ModifiedNode modification) {
+        if (indexes.isEmpty()) {
+            return new DataTreeState(newRoot, holder, schemaContext, indexes);
+        }
+
+        final ImmutableMap.Builder<DataTreeIndex, SecondaryIndex> b = ImmutableMap.builder();
+        for (Entry<DataTreeIndex, SecondaryIndex> e : indexes.entrySet()) {
+            b.put(e.getKey(), e.getValue().update(modification, newRoot));
+        }
+        return new DataTreeState(newRoot, holder, schemaContext, b.build());
+    }
+
+    DataTreeState withIndex(final DataTreeIndex index) {
+        if (indexes.containsKey(index)) {
+            return this;
+        }
+
+        final ImmutableMap.Builder<DataTreeIndex, SecondaryIndex> b = ImmutableMap.builder();
+        b.putAll(indexes);
+        b.put(index, SecondaryIndex.create(index, root));
+        return new DataTreeState(root, holder, schemaContext, b.build());
+    }
+
+    DataTreeState withoutIndex(final DataTreeIndex index) {
+        if (!indexes.containsKey(index)) {
+            return this;
+        }
+
+        final Map<DataTreeIndex, SecondaryIndex> m = new HashMap<>(indexes);
+        m.remove(index);
+        return new DataTreeState(root, holder, schemaContext, ImmutableMap.copyOf(m));
     }
 
     @Override
@@ -15,10 +15,11 @@ import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
-import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeIndex;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.IndexedDataTree;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
 import org.opendaylight.yangtools.yang.model.api.SchemaContext;
@@ -28,7 +29,7 @@ import org.slf4j.LoggerFactory;
 /**
  * Read-only snapshot of the data tree.
  */
-final class InMemoryDataTree implements DataTree {
+final class InMemoryDataTree implements IndexedDataTree {
     private static final YangInstanceIdentifier PUBLIC_ROOT_PATH = YangInstanceIdentifier.create(Collections.<PathArgument>emptyList());
     private static final AtomicReferenceFieldUpdater<InMemoryDataTree, DataTreeState> STATE_UPDATER =
             AtomicReferenceFieldUpdater.newUpdater(InMemoryDataTree.class, DataTreeState.class, "state");
@@ -39,7 +40,17 @@ final class InMemoryDataTree implements DataTree {
      */
     private volatile DataTreeState state;
 
+    /**
+     * Whether schema constraints are enforced when a modification is prepared.
+     */
+    private final boolean enforceConstraints;
+
     public InMemoryDataTree(final TreeNode rootNode, final SchemaContext schemaContext) {
+        this(rootNode, schemaContext, false);
+    }
+
+    public InMemoryDataTree(final TreeNode rootNode, final SchemaContext schemaContext, final boolean enforceConstraints) {
+        this.enforceConstraints = enforceConstraints;
         state = DataTreeState.createInitial(rootNode);
         if (schemaContext != null) {
             setSchemaContext(schemaContext);
@@ -71,6 +82,28 @@ final class InMemoryDataTree implements DataTree {
         return state.newSnapshot();
     }
 
+    @Override
+    public void addIndex(final DataTreeIndex index) {
+        Preconditions.checkNotNull(index);
+
+        DataTreeState currentState, newState;
+        do {
+            currentState = state;
+            newState = currentState.withIndex(index);
+        } while (!STATE_UPDATER.compareAndSet(this, currentState, newState));
+    }
+
+    @Override
+    public void removeIndex(final DataTreeIndex index) {
+        Preconditions.checkNotNull(index);
+
+        DataTreeState currentState, newState;
+        do {
+            currentState = state;
+            newState = currentState.withoutIndex(index);
+        } while (!STATE_UPDATER.compareAndSet(this, currentState, newState));
+    }
+
     @Override
     public void validate(final DataTreeModification modification) throws DataValidationFailedException {
         Preconditions.checkArgument(modification instanceof InMemoryDataTreeModification, "Invalid modification class %s", modification.getClass());
@@ -94,7 +127,17 @@ final class InMemoryDataTree implements DataTree {
         final Optional<TreeNode> newRoot = m.getStrategy().apply(m.getRootModification(),
             Optional.<TreeNode>of(currentRoot), m.getVersion());
         Preconditions.checkState(newRoot.isPresent(), "Apply strategy failed to produce root node");
-        return new InMemoryDataTreeCandidate(PUBLIC_ROOT_PATH, root, currentRoot, newRoot.get());
+
+        if (enforceConstraints) {
+            /*
+             * Structure has already been checked when the modification was built, so all that
+             * remains are the constraints. Only the parts of the tree touched by the modification
+             * are visited.
+             */
+            m.getStrategy().enforceConstraints(PUBLIC_ROOT_PATH, root, Optional.of(currentRoot), newRoot);
+        }
+        return new InMemoryDataTreeCandidate(PUBLIC_ROOT_PATH, root, currentRoot, newRoot.get(), m.getStrategy(),
+            m.getVersion());
     }
 
     @Override
@@ -110,19 +153,59 @@ final class InMemoryDataTree implements DataTree {
             LOG.trace("Data Tree is {}", NormalizedNodes.toStringTree(c.getAfterRoot().getData()));
         }
 
-        final TreeNode newRoot = c.getAfterRoot();
+        TreeNode baseRoot = c.getBeforeRoot();
+        TreeNode newRoot = c.getAfterRoot();
         DataTreeState currentState, newState;
         do {
             currentState = state;
             final TreeNode currentRoot = currentState.getRoot();
-            LOG.debug("Updating datastore from {} to {}", currentRoot, newRoot);
-
-            final TreeNode oldRoot = c.getBeforeRoot();
-            Preconditions.checkState(oldRoot == currentRoot, "Store tree %s and candidate base %s differ.", currentRoot, oldRoot);
+            if (baseRoot != currentRoot) {
+                /*
+                 * Another candidate has been committed since this one was prepared. Instead
+                 * of rejecting it outright, we re-check the modification against the current
+                 * root. The checks are performed on the version of each touched subtree, hence
+                 * modifications of disjoint subtrees do not conflict and we can re-apply the
+                 * modification on top of the current root.
+                 */
+                LOG.debug("Rebasing candidate {} from {} onto {}", c, baseRoot, currentRoot);
+                newRoot = rebaseCandidate(c, currentRoot);
+                baseRoot = currentRoot;
+            }
 
-            newState = currentState.withRoot(newRoot);
+            LOG.debug("Updating datastore from {} to {}", currentRoot, newRoot);
+            newState = currentState.withRoot(newRoot, c.getModificationRoot());
             LOG.trace("Updated state from {} to {}", currentState, newState);
         } while (!STATE_UPDATER.compareAndSet(this, currentState, newState));
+
+        if (baseRoot != c.getBeforeRoot()) {
+            c.rebased(baseRoot, newRoot);
+        }
+    }
+
+    private TreeNode rebaseCandidate(final InMemoryDataTreeCandidate candidate, final TreeNode currentRoot) {
+        final ModifiedNode root = candidate.getModificationRoot();
+        final ModificationApplyOperation strategy = candidate.getStrategy();
+
+        try {
+            strategy.checkApplicable(PUBLIC_ROOT_PATH, root, Optional.of(currentRoot));
+        } catch (DataValidationFailedException e) {
+            throw new IllegalStateException(String.format("Store tree %s and candidate base %s differ in a conflicting way.",
+                currentRoot, candidate.getBeforeRoot()), e);
+        }
+
+        final Optional<TreeNode> newRoot = strategy.apply(root, Optional.of(currentRoot), candidate.getVersion());
+        Preconditions.checkState(newRoot.isPresent(), "Apply strategy failed to produce root node");
+
+        if (enforceConstraints) {
+            // Disjoint modifications can still violate constraints together, e.g. min-elements
+            try {
+                strategy.enforceConstraints(PUBLIC_ROOT_PATH, root, Optional.of(currentRoot), newRoot);
+            } catch (SchemaValidationFailedException e) {
+                throw new IllegalStateException(String.format("Candidate %s violates constraints when rebased onto %s",
+                    candidate, currentRoot), e);
+            }
+        }
+        return newRoot.get();
     }
 
     @Override
@@ -11,6 +11,7 @@ import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.Version;
 
 final class InMemoryDataTreeCandidate extends AbstractDataTreeCandidate {
     private static abstract class AbstractNode implements DataTreeCandidateNode {
@@ -102,12 +103,41 @@ final class InMemoryDataTreeCandidate extends AbstractDataTreeCandidate {
         }
     }
 
-    private final RootNode root;
+    private final ModificationApplyOperation strategy;
+    private final Version version;
+    private volatile RootNode root;
 
     InMemoryDataTreeCandidate(final YangInstanceIdentifier rootPath, final ModifiedNode modificationRoot,
-            final TreeNode beforeRoot, final TreeNode afterRoot) {
+            final TreeNode beforeRoot, final TreeNode afterRoot, final ModificationApplyOperation strategy,
+            final Version version) {
         super(rootPath);
         this.root = new RootNode(modificationRoot, beforeRoot, afterRoot);
+        this.strategy = Preconditions.checkNotNull(strategy);
+        this.version = Preconditions.checkNotNull(version);
+    }
+
+    ModifiedNode getModificationRoot() {
+        return root.getMod();
+    }
+
+    ModificationApplyOperation getStrategy() {
+        return strategy;
+    }
+
+    Version getVersion() {
+        return version;
+    }
+
+    /**
+     * Re-point this candidate at the roots it was actually committed with. This is invoked
+     * by the data tree once it has rebased the modification onto a newer root, so that
+     * listeners observe the before/after state which really was installed.
+     *
+     * @param beforeRoot Root the modification was applied to
+     * @param afterRoot Resulting root
+     */
+    void rebased(final TreeNode beforeRoot, final TreeNode afterRoot) {
+        this.root = new RootNode(root.getMod(), beforeRoot, afterRoot);
     }
 
     TreeNode getAfterRoot() {
@@ -1,6 +1,6 @@
 package org.opendaylight.yangtools.yang.data.impl.schema.tree;
 
-
+import com.google.common.annotations.Beta;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeFactory;
@@ -21,10 +21,27 @@ public final class InMemoryDataTreeFactory implements DataTreeFactory {
 
     @Override
     public InMemoryDataTree create() {
+        return create(false);
+    }
+
+    /**
+     * Create a new data tree, optionally enforcing schema constraints, such as mandatory
+     * nodes and min/max-elements, when a modification is prepared. Violations are reported
+     * by {@link InMemoryDataTree#prepare(org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification)}
+     * throwing a {@link SchemaValidationFailedException}. Only the parts of the tree affected by
+     * a modification are validated, hence the overhead is proportional to the size of the
+     * modification.
+     *
+     * @param enforceConstraints Whether constraints should be enforced
+     * @return A new data tree
+     */
+    @Beta
+    public InMemoryDataTree create(final boolean enforceConstraints) {
         final NodeIdentifier root = new NodeIdentifier(SchemaContext.NAME);
         final NormalizedNode<?, ?> data = Builders.containerBuilder().withNodeIdentifier(root).build();
 
-        return new InMemoryDataTree(TreeNodeFactory.createTreeNodeRecursively(data, Version.initial()), null);
+        return new InMemoryDataTree(TreeNodeFactory.createTreeNodeRecursively(data, Version.initial()), null,
+            enforceConstraints);
     }
 
     /**
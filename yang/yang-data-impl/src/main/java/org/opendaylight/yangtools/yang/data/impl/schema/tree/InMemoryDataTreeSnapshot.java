@@ -3,23 +3,35 @@ package org.opendaylight.yangtools.yang.data.impl.schema.tree;
 
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
-import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeSnapshot;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeIndex;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.IndexedDataTreeSnapshot;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
 import org.opendaylight.yangtools.yang.model.api.SchemaContext;
 
-final class InMemoryDataTreeSnapshot implements DataTreeSnapshot {
+final class InMemoryDataTreeSnapshot implements IndexedDataTreeSnapshot {
     private final RootModificationApplyOperation applyOper;
     private final SchemaContext schemaContext;
     private final TreeNode rootNode;
+    private final Map<DataTreeIndex, SecondaryIndex> indexes;
 
     InMemoryDataTreeSnapshot(final SchemaContext schemaContext, final TreeNode rootNode,
             final RootModificationApplyOperation applyOper) {
+        this(schemaContext, rootNode, applyOper, Collections.<DataTreeIndex, SecondaryIndex>emptyMap());
+    }
+
+    InMemoryDataTreeSnapshot(final SchemaContext schemaContext, final TreeNode rootNode,
+            final RootModificationApplyOperation applyOper, final Map<DataTreeIndex, SecondaryIndex> indexes) {
         this.schemaContext = Preconditions.checkNotNull(schemaContext);
         this.rootNode = Preconditions.checkNotNull(rootNode);
         this.applyOper = Preconditions.checkNotNull(applyOper);
+        this.indexes = Preconditions.checkNotNull(indexes);
     }
 
     TreeNode getRootNode() {
@@ -35,6 +47,13 @@ final class InMemoryDataTreeSnapshot implements DataTreeSnapshot {
         return NormalizedNodes.findNode(rootNode.getData(), path);
     }
 
+    @Override
+    public Collection<MapEntryNode> lookup(final DataTreeIndex index, final Object value) {
+        final SecondaryIndex i = indexes.get(index);
+        Preconditions.checkArgument(i != null, "Index %s is not maintained", index);
+        return i.lookup(Preconditions.checkNotNull(value));
+    }
+
     @Override
     public InMemoryDataTreeModification newModification() {
         return new InMemoryDataTreeModification(this, applyOper);
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Iterables;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
+import org.opendaylight.yangtools.yang.model.api.ConstraintDefinition;
+import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
+
+/**
+ * Enforcement of min-elements and max-elements of a list or leaf-list. Unordered lists
+ * do not provide their size in constant time, hence we keep the number of elements
+ * of each list version we have seen. The number of elements of a modified list is then
+ * derived from the number of elements of the original list and the modified children,
+ * making the check proportional to the size of the modification. The counts are keyed
+ * by {@link TreeNode} identity and held weakly, so they disappear together with the
+ * tree versions they belong to.
+ */
+final class MinMaxElementsValidation {
+    private final Cache<TreeNode, Integer> counts = CacheBuilder.newBuilder().weakKeys().build();
+    private final int minElements;
+    private final int maxElements;
+
+    private MinMaxElementsValidation(final int minElements, final int maxElements) {
+        this.minElements = minElements;
+        this.maxElements = maxElements;
+    }
+
+    /**
+     * Create a validation for a list or leaf-list schema node.
+     *
+     * @param schema Schema node
+     * @return A validation, or null if the node does not constrain the number of its elements.
+     */
+    static MinMaxElementsValidation from(final DataSchemaNode schema) {
+        final ConstraintDefinition constraints = schema.getConstraints();
+        if (constraints == null) {
+            return null;
+        }
+
+        final Integer min = constraints.getMinElements();
+        final Integer max = constraints.getMaxElements();
+        final int minElements = min == null ? 0 : min;
+        final int maxElements = max == null ? Integer.MAX_VALUE : max;
+        if (minElements <= 0 && maxElements == Integer.MAX_VALUE) {
+            return null;
+        }
+        return new MinMaxElementsValidation(minElements, maxElements);
+    }
+
+    int getMinElements() {
+        return minElements;
+    }
+
+    private static int countElements(final NormalizedNode<?, ?> data) {
+        return Iterables.size(((NormalizedNodeContainer<?, ?, ?>) data).getValue());
+    }
+
+    private int getCount(final TreeNode node) {
+        Integer ret = counts.getIfPresent(node);
+        if (ret == null) {
+            ret = countElements(node.getData());
+            counts.put(node, ret);
+        }
+        return ret;
+    }
+
+    /**
+     * Enforce the constraint on a list which has been written as a whole.
+     *
+     * @param path List path
+     * @param data List data
+     */
+    void enforceOnData(final YangInstanceIdentifier path, final NormalizedNode<?, ?> data) {
+        checkCount(path, countElements(data));
+    }
+
+    /**
+     * Enforce the constraint on a list which has been modified.
+     *
+     * @param path List path
+     * @param modification Modification of the list
+     * @param before List before the modification
+     * @param after List after the modification
+     */
+    void enforceOnModification(final YangInstanceIdentifier path, final NodeModification modification,
+            final TreeNode before, final TreeNode after) {
+        int count = getCount(before);
+        for (NodeModification child : modification.getChildren()) {
+            final PathArgument id = child.getIdentifier();
+            if (before.getChild(id).isPresent()) {
+                count--;
+            }
+            if (after.getChild(id).isPresent()) {
+                count++;
+            }
+        }
+
+        counts.put(after, count);
+        checkCount(path, count);
+    }
+
+    private void checkCount(final YangInstanceIdentifier path, final int count) {
+        if (count < minElements) {
+            throw new SchemaValidationFailedException(path, String.format(
+                "%s does not have enough elements (%s), needs at least %s", path, count, minElements));
+        }
+        if (count > maxElements) {
+            throw new SchemaValidationFailedException(path, String.format(
+                "%s has too many elements (%s), can have at most %s", path, count, maxElements));
+        }
+    }
+}
@@ -89,4 +89,20 @@ interface ModificationApplyOperation extends StoreTreeNode<ModificationApplyOper
      * @throws DataValidationFailedException
      */
     void checkApplicable(YangInstanceIdentifier path, NodeModification modification, Optional<TreeNode> current) throws DataValidationFailedException;
+
+    /**
+     *
+     * Enforces schema constraints, such as mandatory nodes and min/max-elements, on the
+     * result of applying a modification. Only nodes touched by the modification are
+     * examined, hence the cost is proportional to the size of the modification, not to
+     * the size of the tree.
+     *
+     * @param path Path to the node
+     * @param modification Modification which was applied
+     * @param before Node to which the modification was applied
+     * @param after Node resulting from the modification
+     * @throws SchemaValidationFailedException if the resulting node violates a constraint
+     */
+    void enforceConstraints(YangInstanceIdentifier path, NodeModification modification, Optional<TreeNode> before,
+            Optional<TreeNode> after);
 }
@@ -11,8 +11,11 @@ import static com.google.common.base.Preconditions.checkArgument;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.Map;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.DataContainerChild;
 import org.opendaylight.yangtools.yang.data.api.schema.LeafSetNode;
 import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
@@ -41,9 +44,16 @@ import org.opendaylight.yangtools.yang.model.api.ListSchemaNode;
 abstract class NormalizedNodeContainerModificationStrategy extends SchemaAwareApplyOperation {
 
     private final Class<? extends NormalizedNode<?, ?>> nodeClass;
+    private final MinMaxElementsValidation elementsValidation;
 
     protected NormalizedNodeContainerModificationStrategy(final Class<? extends NormalizedNode<?, ?>> nodeClass) {
+        this(nodeClass, null);
+    }
+
+    protected NormalizedNodeContainerModificationStrategy(final Class<? extends NormalizedNode<?, ?>> nodeClass,
+            final MinMaxElementsValidation elementsValidation) {
         this.nodeClass = nodeClass;
+        this.elementsValidation = elementsValidation;
     }
 
     @Override
@@ -199,24 +209,96 @@ abstract class NormalizedNodeContainerModificationStrategy extends SchemaAwareAp
         }
     }
 
+    @Override
+    final void enforceOnData(final YangInstanceIdentifier path, final NormalizedNode<?, ?> data) {
+        if (elementsValidation != null) {
+            elementsValidation.enforceOnData(path, data);
+        }
+        enforceOnNode(path, data);
+
+        for (Object child : ((NormalizedNodeContainer<?, ?, ?>) data).getValue()) {
+            final NormalizedNode<?, ?> childData = (NormalizedNode<?, ?>) child;
+            final YangInstanceIdentifier.PathArgument childId = childData.getIdentifier();
+            final ModificationApplyOperation childOp = resolveChildOperation(childId);
+            if (childOp instanceof SchemaAwareApplyOperation) {
+                ((SchemaAwareApplyOperation) childOp).enforceOnData(path.node(childId), childData);
+            }
+        }
+    }
+
+    @Override
+    final void enforceOnModification(final YangInstanceIdentifier path, final NodeModification modification,
+            final TreeNode before, final TreeNode after) {
+        if (elementsValidation != null) {
+            elementsValidation.enforceOnModification(path, modification, before, after);
+        }
+        enforceOnNode(path, after.getData());
+
+        for (NodeModification childMod : modification.getChildren()) {
+            final YangInstanceIdentifier.PathArgument childId = childMod.getIdentifier();
+            resolveChildOperation(childId).enforceConstraints(path.node(childId), childMod,
+                before.getChild(childId), after.getChild(childId));
+        }
+    }
+
+    /**
+     * Enforce constraints which a node imposes on its immediate children, such as presence
+     * of mandatory nodes. The children themselves are examined separately.
+     *
+     * @param path Path to the node
+     * @param data Node data
+     */
+    void enforceOnNode(final YangInstanceIdentifier path, final NormalizedNode<?, ?> data) {
+        // No constraints by default
+    }
+
     @SuppressWarnings("rawtypes")
     protected abstract NormalizedNodeContainerBuilder createBuilder(NormalizedNode<?, ?> original);
 
     public static class ChoiceModificationStrategy extends NormalizedNodeContainerModificationStrategy {
 
         private final Map<YangInstanceIdentifier.PathArgument, ModificationApplyOperation> childNodes;
+        private final Map<YangInstanceIdentifier.PathArgument, Collection<YangInstanceIdentifier.PathArgument>> caseMandatoryNodes;
+        private final boolean mandatory;
 
         public ChoiceModificationStrategy(final ChoiceNode schemaNode) {
             super(org.opendaylight.yangtools.yang.data.api.schema.ChoiceNode.class);
             ImmutableMap.Builder<YangInstanceIdentifier.PathArgument, ModificationApplyOperation> child = ImmutableMap.builder();
+            ImmutableMap.Builder<YangInstanceIdentifier.PathArgument, Collection<YangInstanceIdentifier.PathArgument>> mandatoryNodes = ImmutableMap.builder();
 
             for (ChoiceCaseNode caze : schemaNode.getCases()) {
+                final Collection<YangInstanceIdentifier.PathArgument> cazeMandatory =
+                        DataNodeContainerModificationStrategy.mandatoryChildren(caze, false);
                 for (DataSchemaNode cazeChild : caze.getChildNodes()) {
                     SchemaAwareApplyOperation childNode = SchemaAwareApplyOperation.from(cazeChild);
-                    child.put(new YangInstanceIdentifier.NodeIdentifier(cazeChild.getQName()), childNode);
+                    final YangInstanceIdentifier.NodeIdentifier childId = new YangInstanceIdentifier.NodeIdentifier(cazeChild.getQName());
+                    child.put(childId, childNode);
+                    mandatoryNodes.put(childId, cazeMandatory);
                 }
             }
             childNodes = child.build();
+            caseMandatoryNodes = mandatoryNodes.build();
+            mandatory = schemaNode.getConstraints() != null && schemaNode.getConstraints().isMandatory();
+        }
+
+        @Override
+        void enforceOnNode(final YangInstanceIdentifier path, final NormalizedNode<?, ?> data) {
+            final org.opendaylight.yangtools.yang.data.api.schema.ChoiceNode choice =
+                    (org.opendaylight.yangtools.yang.data.api.schema.ChoiceNode) data;
+
+            // All children belong to the same case, hence looking at the first one is sufficient
+            final Iterator<DataContainerChild<? extends YangInstanceIdentifier.PathArgument, ?>> it = choice.getValue().iterator();
+            if (!it.hasNext()) {
+                if (mandatory) {
+                    throw new SchemaValidationFailedException(path, String.format("Mandatory choice %s has no case", path));
+                }
+                return;
+            }
+
+            final Collection<YangInstanceIdentifier.PathArgument> cazeMandatory = caseMandatoryNodes.get(it.next().getIdentifier());
+            if (cazeMandatory != null) {
+                DataNodeContainerModificationStrategy.enforceMandatoryChildren(path, choice, cazeMandatory);
+            }
         }
 
         @Override
@@ -238,7 +320,7 @@ abstract class NormalizedNodeContainerModificationStrategy extends SchemaAwareAp
 
         @SuppressWarnings({ "unchecked", "rawtypes" })
         protected OrderedLeafSetModificationStrategy(final LeafListSchemaNode schema) {
-            super((Class) LeafSetNode.class);
+            super((Class) LeafSetNode.class, MinMaxElementsValidation.from(schema));
             entryStrategy = Optional.<ModificationApplyOperation> of(new ValueNodeModificationStrategy.LeafSetEntryModificationStrategy(schema));
         }
 
@@ -268,7 +350,7 @@ abstract class NormalizedNodeContainerModificationStrategy extends SchemaAwareAp
         private final Optional<ModificationApplyOperation> entryStrategy;
 
         protected OrderedMapModificationStrategy(final ListSchemaNode schema) {
-            super(OrderedMapNode.class);
+            super(OrderedMapNode.class, MinMaxElementsValidation.from(schema));
             entryStrategy = Optional.<ModificationApplyOperation> of(new DataNodeContainerModificationStrategy.ListEntryModificationStrategy(schema));
         }
 
@@ -304,7 +386,7 @@ abstract class NormalizedNodeContainerModificationStrategy extends SchemaAwareAp
 
         @SuppressWarnings({ "unchecked", "rawtypes" })
         protected UnorderedLeafSetModificationStrategy(final LeafListSchemaNode schema) {
-            super((Class) LeafSetNode.class);
+            super((Class) LeafSetNode.class, MinMaxElementsValidation.from(schema));
             entryStrategy = Optional.<ModificationApplyOperation> of(new ValueNodeModificationStrategy.LeafSetEntryModificationStrategy(schema));
         }
 
@@ -329,7 +411,7 @@ abstract class NormalizedNodeContainerModificationStrategy extends SchemaAwareAp
         private final Optional<ModificationApplyOperation> entryStrategy;
 
         protected UnorderedMapModificationStrategy(final ListSchemaNode schema) {
-            super(MapNode.class);
+            super(MapNode.class, MinMaxElementsValidation.from(schema));
             entryStrategy = Optional.<ModificationApplyOperation> of(new DataNodeContainerModificationStrategy.ListEntryModificationStrategy(schema));
         }
 
@@ -78,6 +78,12 @@ abstract class RootModificationApplyOperation implements ModificationApplyOperat
         return getDelegate().apply(modification, currentMeta, version);
     }
 
+    @Override
+    public final void enforceConstraints(final YangInstanceIdentifier path, final NodeModification modification,
+            final Optional<TreeNode> before, final Optional<TreeNode> after) {
+        getDelegate().enforceConstraints(path, modification, before, after);
+    }
+
     @Override
     public boolean equals(final Object obj) {
         return getDelegate().equals(obj);
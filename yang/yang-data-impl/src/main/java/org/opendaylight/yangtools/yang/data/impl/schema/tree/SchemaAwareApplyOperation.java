@@ -220,6 +220,59 @@ abstract class SchemaAwareApplyOperation implements ModificationApplyOperation {
         }
     }
 
+    @Override
+    public final void enforceConstraints(final YangInstanceIdentifier path, final NodeModification modification,
+            final Optional<TreeNode> before, final Optional<TreeNode> after) {
+        if (!after.isPresent()) {
+            // Removal of a node can only violate constraints of its parent, which enforces them
+            return;
+        }
+
+        switch (modification.getType()) {
+        case UNMODIFIED:
+        case DELETE:
+            return;
+        case SUBTREE_MODIFIED:
+        case MERGE:
+            if (before.isPresent()) {
+                enforceOnModification(path, modification, before.get(), after.get());
+                return;
+            }
+            // A merge on a non-existing node equals to a write
+        case WRITE:
+            enforceOnData(path, after.get().getData());
+            return;
+        default:
+            throw new IllegalArgumentException("Provided modification type is not supported.");
+        }
+    }
+
+    /**
+     * Enforce schema constraints on data which has been written, including all of its
+     * descendants.
+     *
+     * @param path Path to the data
+     * @param data Written data
+     */
+    void enforceOnData(final YangInstanceIdentifier path, final NormalizedNode<?, ?> data) {
+        // No constraints by default
+    }
+
+    /**
+     * Enforce schema constraints on a node which existed before the modification and was
+     * modified, rather than overwritten. Implementations are expected to examine only the
+     * modified parts of the subtree.
+     *
+     * @param path Path to the node
+     * @param modification Modification of the node
+     * @param before Node before the modification
+     * @param after Node after the modification
+     */
+    void enforceOnModification(final YangInstanceIdentifier path, final NodeModification modification,
+            final TreeNode before, final TreeNode after) {
+        enforceOnData(path, after.getData());
+    }
+
     protected abstract TreeNode applyMerge(ModifiedNode modification,
             TreeNode currentMeta, Version version);
 
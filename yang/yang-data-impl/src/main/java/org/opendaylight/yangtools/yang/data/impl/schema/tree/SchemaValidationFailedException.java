@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Preconditions;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+
+/**
+ * Exception thrown when the data resulting from a modification violates a constraint
+ * imposed by the schema, such as a missing mandatory node or a list with too few or too
+ * many elements.
+ */
+@Beta
+public class SchemaValidationFailedException extends IllegalArgumentException {
+    private static final long serialVersionUID = 1L;
+    private final YangInstanceIdentifier path;
+
+    /**
+     * Create a new instance.
+     *
+     * @param path Path of the offending node
+     * @param message Specific message describing the failure
+     */
+    public SchemaValidationFailedException(final YangInstanceIdentifier path, final String message) {
+        super(message);
+        this.path = Preconditions.checkNotNull(path);
+    }
+
+    /**
+     * Returns the offending object path.
+     *
+     * @return Path of the offending object
+     */
+    public YangInstanceIdentifier getPath() {
+        return path;
+    }
+}
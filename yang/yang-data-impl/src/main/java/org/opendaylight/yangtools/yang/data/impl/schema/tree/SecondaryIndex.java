@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import org.opendaylight.yangtools.util.MapAdaptor;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeIndex;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.StoreTreeNodes;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
+
+/**
+ * A single version of a secondary index, consistent with one version of the indexed
+ * list. Instances are immutable, a new version is derived from the previous one for each
+ * commit which touches the list. Both the value-to-keys map and the key set of each
+ * value are held in persistent maps, so deriving a new version costs time proportional to
+ * the number of modified entries rather than the size of the list, even if many entries
+ * share the same value.
+ */
+final class SecondaryIndex {
+    private static final MapAdaptor ADAPTOR = MapAdaptor.getDefaultInstance();
+
+    /**
+     * Accumulates changes to the index entries. The key set of each touched value is
+     * made mutable once and frozen again when the new version is built.
+     */
+    private static final class EntriesBuilder {
+        private final Map<Object, Map<PathArgument, Boolean>> modified = new HashMap<>();
+        private final Map<Object, Map<PathArgument, Boolean>> entries;
+
+        EntriesBuilder(final Map<Object, Map<PathArgument, Boolean>> entries) {
+            this.entries = entries;
+        }
+
+        void addKey(final Object value, final PathArgument key) {
+            keysFor(value).put(key, Boolean.TRUE);
+        }
+
+        void removeKey(final Object value, final PathArgument key) {
+            keysFor(value).remove(key);
+        }
+
+        private Map<PathArgument, Boolean> keysFor(final Object value) {
+            Map<PathArgument, Boolean> keys = modified.get(value);
+            if (keys == null) {
+                final Map<PathArgument, Boolean> existing = entries.get(value);
+                keys = existing == null ? new HashMap<PathArgument, Boolean>() : ADAPTOR.takeSnapshot(existing);
+                modified.put(value, keys);
+            }
+            return keys;
+        }
+
+        Map<Object, Map<PathArgument, Boolean>> build() {
+            for (Entry<Object, Map<PathArgument, Boolean>> e : modified.entrySet()) {
+                if (e.getValue().isEmpty()) {
+                    entries.remove(e.getKey());
+                } else {
+                    entries.put(e.getKey(), ADAPTOR.optimize(e.getValue()));
+                }
+            }
+            return ADAPTOR.optimize(entries);
+        }
+    }
+
+    private final DataTreeIndex definition;
+    private final Map<Object, Map<PathArgument, Boolean>> entries;
+    private final TreeNode listNode;
+
+    private SecondaryIndex(final DataTreeIndex definition, final Map<Object, Map<PathArgument, Boolean>> entries,
+            final TreeNode listNode) {
+        this.definition = Preconditions.checkNotNull(definition);
+        this.entries = Preconditions.checkNotNull(entries);
+        this.listNode = listNode;
+    }
+
+    /**
+     * Build an index from scratch.
+     *
+     * @param definition Index definition
+     * @param root Data tree root
+     * @return A new index version
+     */
+    static SecondaryIndex create(final DataTreeIndex definition, final TreeNode root) {
+        final TreeNode list = StoreTreeNodes.findNode(root, definition.getListPath()).orNull();
+        final EntriesBuilder entries = new EntriesBuilder(new HashMap<Object, Map<PathArgument, Boolean>>());
+        if (list != null) {
+            for (MapEntryNode entry : listEntries(list.getData())) {
+                final Object value = leafValue(definition, entry);
+                if (value != null) {
+                    entries.addKey(value, entry.getIdentifier());
+                }
+            }
+        }
+        return new SecondaryIndex(definition, entries.build(), list);
+    }
+
+    /**
+     * Derive the index version matching a new data tree root.
+     *
+     * @param rootModification Modification which produced the new root from the root
+     *        this index was last updated to
+     * @param newRoot New data tree root
+     * @return Updated index, or this object if the list was not affected
+     */
+    SecondaryIndex update(final ModifiedNode rootModification, final TreeNode newRoot) {
+        final TreeNode newList = StoreTreeNodes.findNode(newRoot, definition.getListPath()).orNull();
+        if (newList == listNode) {
+            return this;
+        }
+
+        final EntriesBuilder newEntries = new EntriesBuilder(ADAPTOR.takeSnapshot(entries));
+        final ModifiedNode listModification = findListModification(rootModification);
+        if (listModification != null && listNode != null && newList != null) {
+            // Only entries touched by the modification need to be visited
+            for (ModifiedNode child : listModification.getChildren()) {
+                final PathArgument id = child.getIdentifier();
+                updateEntry(newEntries, childEntry(listNode, id), childEntry(newList, id));
+            }
+        } else {
+            // The list or one of its parents was replaced, compare entries by identity
+            final NormalizedNodeContainer<?, PathArgument, MapEntryNode> before = listNode == null ? null
+                    : listContainer(listNode.getData());
+            final NormalizedNodeContainer<?, PathArgument, MapEntryNode> after = newList == null ? null
+                    : listContainer(newList.getData());
+            if (before != null) {
+                for (MapEntryNode entry : before.getValue()) {
+                    final MapEntryNode other = after == null ? null : after.getChild(entry.getIdentifier()).orNull();
+                    if (other != entry) {
+                        updateEntry(newEntries, entry, other);
+                    }
+                }
+            }
+            if (after != null) {
+                for (MapEntryNode entry : after.getValue()) {
+                    if (before == null || !before.getChild(entry.getIdentifier()).isPresent()) {
+                        updateEntry(newEntries, null, entry);
+                    }
+                }
+            }
+        }
+
+        return new SecondaryIndex(definition, newEntries.build(), newList);
+    }
+
+    /**
+     * Look up entries whose indexed leaf has a particular value.
+     *
+     * @param value Leaf value
+     * @return Matching entries
+     */
+    Collection<MapEntryNode> lookup(final Object value) {
+        final Map<PathArgument, Boolean> keys = entries.get(value);
+        if (keys == null || listNode == null) {
+            return Collections.emptyList();
+        }
+
+        final ImmutableList.Builder<MapEntryNode> ret = ImmutableList.builder();
+        for (PathArgument key : keys.keySet()) {
+            ret.add((MapEntryNode) listNode.getChild(key).get().getData());
+        }
+        return ret.build();
+    }
+
+    private ModifiedNode findListModification(final ModifiedNode rootModification) {
+        ModifiedNode current = rootModification;
+        for (PathArgument arg : definition.getListPath().getPathArguments()) {
+            if (current.getType() != ModificationType.SUBTREE_MODIFIED) {
+                return null;
+            }
+            final Optional<ModifiedNode> child = current.getChild(arg);
+            if (!child.isPresent()) {
+                return null;
+            }
+            current = child.get();
+        }
+        return current.getType() == ModificationType.SUBTREE_MODIFIED ? current : null;
+    }
+
+    private void updateEntry(final EntriesBuilder builder, final MapEntryNode before,
+            final MapEntryNode after) {
+        if (before == after) {
+            return;
+        }
+
+        final Object oldValue = before == null ? null : leafValue(definition, before);
+        final Object newValue = after == null ? null : leafValue(definition, after);
+        if (oldValue != null && oldValue.equals(newValue)) {
+            return;
+        }
+        if (oldValue != null) {
+            builder.removeKey(oldValue, before.getIdentifier());
+        }
+        if (newValue != null) {
+            builder.addKey(newValue, after.getIdentifier());
+        }
+    }
+
+    private static Object leafValue(final DataTreeIndex definition, final MapEntryNode entry) {
+        final Optional<NormalizedNode<?, ?>> leaf = NormalizedNodes.findNode(entry, definition.getLeafPath());
+        return leaf.isPresent() ? leaf.get().getValue() : null;
+    }
+
+    private static MapEntryNode childEntry(final TreeNode list, final PathArgument id) {
+        final Optional<TreeNode> child = list.getChild(id);
+        return child.isPresent() ? (MapEntryNode) child.get().getData() : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static NormalizedNodeContainer<?, PathArgument, MapEntryNode> listContainer(final NormalizedNode<?, ?> data) {
+        Preconditions.checkArgument(data instanceof NormalizedNodeContainer, "Indexed node %s is not a list", data);
+        return (NormalizedNodeContainer<?, PathArgument, MapEntryNode>) data;
+    }
+
+    private static Iterable<MapEntryNode> listEntries(final NormalizedNode<?, ?> data) {
+        return listContainer(data).getValue();
+    }
+
+    @Override
+    public String toString() {
+        return Objects.toStringHelper(this).add("definition", definition).add("list", listNode).toString();
+    }
+}
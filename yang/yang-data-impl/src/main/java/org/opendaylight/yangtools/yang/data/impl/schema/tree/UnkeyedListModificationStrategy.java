@@ -14,6 +14,7 @@ import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdent
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 import org.opendaylight.yangtools.yang.data.api.schema.UnkeyedListEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.UnkeyedListNode;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.IncorrectDataStructureException;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.MutableTreeNode;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
@@ -26,9 +27,11 @@ import org.opendaylight.yangtools.yang.model.api.ListSchemaNode;
 final class UnkeyedListModificationStrategy extends SchemaAwareApplyOperation {
 
     private final Optional<ModificationApplyOperation> entryStrategy;
+    private final MinMaxElementsValidation elementsValidation;
 
     protected UnkeyedListModificationStrategy(final ListSchemaNode schema) {
         entryStrategy = Optional.<ModificationApplyOperation> of(new DataNodeContainerModificationStrategy.UnkeyedListItemModificationStrategy(schema));
+        elementsValidation = MinMaxElementsValidation.from(schema);
     }
 
     @Override
@@ -112,6 +115,20 @@ final class UnkeyedListModificationStrategy extends SchemaAwareApplyOperation {
         return meta.seal();
     }
 
+    @Override
+    void enforceOnData(final YangInstanceIdentifier path, final NormalizedNode<?, ?> data) {
+        if (elementsValidation != null) {
+            elementsValidation.enforceOnData(path, data);
+        }
+
+        // Unkeyed list modifications are always writes, hence all entries need to be examined
+        final DataNodeContainerModificationStrategy.UnkeyedListItemModificationStrategy entryOp =
+                (DataNodeContainerModificationStrategy.UnkeyedListItemModificationStrategy) entryStrategy.get();
+        for (UnkeyedListEntryNode entry : ((UnkeyedListNode) data).getValue()) {
+            entryOp.enforceOnData(path.node(entry.getIdentifier()), entry);
+        }
+    }
+
     @Override
     public Optional<ModificationApplyOperation> getChild(final PathArgument child) {
         if (child instanceof NodeIdentifier) {
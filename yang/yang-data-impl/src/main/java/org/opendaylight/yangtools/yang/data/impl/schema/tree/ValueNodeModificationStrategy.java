@@ -17,6 +17,7 @@ import org.opendaylight.yangtools.yang.data.api.schema.tree.IncorrectDataStructu
 import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNodeFactory;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.Version;
+import org.opendaylight.yangtools.yang.data.impl.schema.NormalizedNodeInterner;
 import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
 import org.opendaylight.yangtools.yang.model.api.LeafListSchemaNode;
 import org.opendaylight.yangtools.yang.model.api.LeafSchemaNode;
@@ -27,11 +28,14 @@ abstract class ValueNodeModificationStrategy<T extends DataSchemaNode> extends S
 
     private final T schema;
     private final Class<? extends NormalizedNode<?, ?>> nodeClass;
+    private final boolean intern;
 
-    protected ValueNodeModificationStrategy(final T schema, final Class<? extends NormalizedNode<?, ?>> nodeClass) {
+    protected ValueNodeModificationStrategy(final T schema, final Class<? extends NormalizedNode<?, ?>> nodeClass,
+            final boolean intern) {
         super();
         this.schema = schema;
         this.nodeClass = nodeClass;
+        this.intern = intern;
     }
 
     @Override
@@ -62,7 +66,8 @@ abstract class ValueNodeModificationStrategy<T extends DataSchemaNode> extends S
     @Override
     protected TreeNode applyWrite(final ModifiedNode modification,
             final Optional<TreeNode> currentMeta, final Version version) {
-        return TreeNodeFactory.createTreeNodeRecursively(modification.getWrittenValue(), version);
+        final NormalizedNode<?, ?> value = modification.getWrittenValue();
+        return TreeNodeFactory.createTreeNodeRecursively(intern ? NormalizedNodeInterner.intern(value) : value, version);
     }
 
     @Override
@@ -74,14 +79,14 @@ abstract class ValueNodeModificationStrategy<T extends DataSchemaNode> extends S
     public static class LeafSetEntryModificationStrategy extends ValueNodeModificationStrategy<LeafListSchemaNode> {
         @SuppressWarnings({ "unchecked", "rawtypes" })
         protected LeafSetEntryModificationStrategy(final LeafListSchemaNode schema) {
-            super(schema, (Class) LeafSetEntryNode.class);
+            super(schema, (Class) LeafSetEntryNode.class, NormalizedNodeInterner.isInternable(schema));
         }
     }
 
     public static class LeafModificationStrategy extends ValueNodeModificationStrategy<LeafSchemaNode> {
         @SuppressWarnings({ "unchecked", "rawtypes" })
         protected LeafModificationStrategy(final LeafSchemaNode schema) {
-            super(schema, (Class) LeafNode.class);
+            super(schema, (Class) LeafNode.class, NormalizedNodeInterner.isInternable(schema));
         }
     }
 }
\ No newline at end of file
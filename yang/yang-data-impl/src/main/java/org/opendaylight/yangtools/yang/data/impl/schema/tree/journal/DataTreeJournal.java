@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree.journal;
+
+import com.google.common.annotations.Beta;
+import com.google.common.util.concurrent.ListenableFuture;
+import java.io.IOException;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+
+/**
+ * A durable backend for a {@link DataTree}. It records committed candidates in order
+ * and periodically stores a snapshot of the entire tree, so that the tree state can be
+ * recovered after a restart.
+ */
+@Beta
+public interface DataTreeJournal extends AutoCloseable {
+    /**
+     * Restore the persisted state into a data tree. This method needs to be invoked
+     * before any candidates are appended.
+     *
+     * @param tree Data tree to restore, needs to have a schema context set
+     * @throws IOException if the persisted state cannot be read
+     * @throws DataValidationFailedException if the persisted state cannot be applied to the tree
+     */
+    void recover(DataTree tree) throws IOException, DataValidationFailedException;
+
+    /**
+     * Append a committed candidate. Candidates must be appended in the order
+     * in which they were committed. The journal captures the candidate's effects
+     * before this method returns.
+     *
+     * @param candidate Committed candidate
+     * @return Future completing once the candidate is durable
+     */
+    ListenableFuture<Void> append(DataTreeCandidate candidate);
+
+    /**
+     * Store a snapshot of the tree, reflecting the state after all previously-appended
+     * candidates. Once the snapshot is durable, the journal may discard those candidates.
+     *
+     * @param root Root node of the tree
+     * @return Future completing once the snapshot is durable
+     */
+    ListenableFuture<Void> snapshot(NormalizedNode<?, ?> root);
+
+    @Override
+    void close() throws IOException;
+}
@@ -0,0 +1,589 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree.journal;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.CRC32;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.impl.codec.binary.BinaryNormalizedNodeStreamReader;
+import org.opendaylight.yangtools.yang.data.impl.codec.binary.BinaryNormalizedNodeStreamWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link DataTreeJournal} storing its data in a directory. Candidates are appended to
+ * journal segment files through a {@link FileChannel}. Appends are performed by a dedicated
+ * thread, which picks up all candidates queued since its last pass and makes them durable
+ * with a single {@link FileChannel#force(boolean)} call. Concurrent committers therefore
+ * share the cost of synchronizing the disk (group commit).
+ *
+ * Each snapshot starts a new segment, so that the snapshot and all segments following it
+ * fully describe the tree state. Older segments and snapshots are deleted once a newer
+ * snapshot is durable.
+ */
+@Beta
+public final class FileDataTreeJournal implements DataTreeJournal {
+    public static final int DEFAULT_MAX_BATCH_SIZE = 1000;
+
+    private static final Logger LOG = LoggerFactory.getLogger(FileDataTreeJournal.class);
+    private static final YangInstanceIdentifier ROOT_PATH = YangInstanceIdentifier.create(Collections.<PathArgument>emptyList());
+    private static final String JOURNAL_PREFIX = "journal-";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String TMP_SUFFIX = ".tmp";
+    private static final int JOURNAL_MAGIC = 0x44544A4C;
+    private static final int SNAPSHOT_MAGIC = 0x44545353;
+    private static final int FORMAT_VERSION = 3;
+
+    private abstract static class Request {
+        final SettableFuture<Void> future = SettableFuture.create();
+    }
+
+    private static final class AppendRequest extends Request {
+        final byte[] record;
+        final int checksum;
+
+        AppendRequest(final byte[] record, final int checksum) {
+            this.record = Preconditions.checkNotNull(record);
+            this.checksum = checksum;
+        }
+    }
+
+    private static final class SnapshotRequest extends Request {
+        final NormalizedNode<?, ?> root;
+
+        SnapshotRequest(final NormalizedNode<?, ?> root) {
+            this.root = Preconditions.checkNotNull(root);
+        }
+    }
+
+    private static final class CloseRequest extends Request {
+
+    }
+
+    /**
+     * Exposes the internal buffer, so we can hand it to the channel without copying.
+     */
+    private static final class ExposedByteArrayOutputStream extends ByteArrayOutputStream {
+        ExposedByteArrayOutputStream(final int size) {
+            super(size);
+        }
+
+        ByteBuffer toByteBuffer() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+    }
+
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+    private final ExposedByteArrayOutputStream batchBuffer = new ExposedByteArrayOutputStream(65536);
+    private final DataOutputStream batchOutput = new DataOutputStream(batchBuffer);
+    private final File directory;
+    private final int maxBatchSize;
+    private final Thread thread;
+
+    private volatile Exception failure;
+    private volatile boolean closed;
+
+    // Owned by the journal thread once it has been started
+    private FileChannel channel;
+    private long nextSegment;
+
+    private FileDataTreeJournal(final File directory, final int maxBatchSize, final long nextSegment) {
+        this.directory = Preconditions.checkNotNull(directory);
+        this.maxBatchSize = maxBatchSize;
+        this.nextSegment = nextSegment;
+        this.thread = new ThreadFactoryBuilder().setDaemon(true)
+                .setNameFormat("datatree-journal-" + directory.getName() + "-%d").build()
+                .newThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        processRequests();
+                    }
+                });
+    }
+
+    /**
+     * Open a journal in specified directory, creating it if necessary.
+     *
+     * @param directory Journal directory
+     * @return A new journal
+     * @throws IOException if the directory cannot be accessed
+     */
+    public static FileDataTreeJournal open(final File directory) throws IOException {
+        return open(directory, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    /**
+     * Open a journal in specified directory, creating it if necessary.
+     *
+     * @param directory Journal directory
+     * @param maxBatchSize Maximum number of candidates made durable in one go
+     * @return A new journal
+     * @throws IOException if the directory cannot be accessed
+     */
+    public static FileDataTreeJournal open(final File directory, final int maxBatchSize) throws IOException {
+        Preconditions.checkArgument(maxBatchSize > 0, "Batch size has to be positive, not %s", maxBatchSize);
+        Files.createDirectories(directory.toPath());
+
+        /*
+         * We never append to existing segments, as they may have been truncated
+         * in the middle of a record. The next segment has to sort after all existing
+         * files.
+         */
+        final long nextSegment = Math.max(lastId(directory, JOURNAL_PREFIX) + 1, lastId(directory, SNAPSHOT_PREFIX));
+        final FileDataTreeJournal ret = new FileDataTreeJournal(directory, maxBatchSize, nextSegment);
+        ret.thread.start();
+        LOG.debug("Opened journal in {}, next segment is {}", directory, ret.nextSegment);
+        return ret;
+    }
+
+    private static String fileName(final String prefix, final long id) {
+        return String.format("%s%016x", prefix, id);
+    }
+
+    private static List<Long> listIds(final File directory, final String prefix) {
+        final List<Long> ret = new ArrayList<>();
+        final String[] names = directory.list();
+        if (names != null) {
+            for (String name : names) {
+                if (name.startsWith(prefix) && !name.endsWith(TMP_SUFFIX)) {
+                    try {
+                        ret.add(Long.parseLong(name.substring(prefix.length()), 16));
+                    } catch (NumberFormatException e) {
+                        LOG.debug("Ignoring unrecognized file {}", name, e);
+                    }
+                }
+            }
+        }
+        Collections.sort(ret);
+        return ret;
+    }
+
+    private static long lastId(final File directory, final String prefix) {
+        final List<Long> ids = listIds(directory, prefix);
+        return ids.isEmpty() ? -1 : ids.get(ids.size() - 1);
+    }
+
+    @Override
+    public void recover(final DataTree tree) throws IOException, DataValidationFailedException {
+        final long snapshot = lastId(directory, SNAPSHOT_PREFIX);
+        if (snapshot >= 0) {
+            final NormalizedNode<?, ?> root = readSnapshot(new File(directory, fileName(SNAPSHOT_PREFIX, snapshot)));
+            final DataTreeModification mod = tree.takeSnapshot().newModification();
+            mod.write(ROOT_PATH, root);
+            commit(tree, mod);
+            LOG.debug("Recovered snapshot {}", snapshot);
+        }
+
+        for (Long segment : listIds(directory, JOURNAL_PREFIX)) {
+            if (segment >= snapshot) {
+                replaySegment(tree, new File(directory, fileName(JOURNAL_PREFIX, segment)));
+            }
+        }
+    }
+
+    private static void commit(final DataTree tree, final DataTreeModification mod) throws DataValidationFailedException {
+        mod.ready();
+        tree.validate(mod);
+        tree.commit(tree.prepare(mod));
+    }
+
+    private static NormalizedNode<?, ?> readSnapshot(final File file) throws IOException {
+        try (final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            checkHeader(in, SNAPSHOT_MAGIC, file);
+            return BinaryNormalizedNodeStreamReader.create(in).readNormalizedNode();
+        }
+    }
+
+    private static void checkHeader(final DataInputStream in, final int magic, final File file) throws IOException {
+        final int m = in.readInt();
+        if (m != magic) {
+            throw new IOException(String.format("File %s has unexpected magic %08x", file, m));
+        }
+        final int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException(String.format("File %s has unsupported version %s", file, version));
+        }
+    }
+
+    /**
+     * Replay a single journal segment. If the segment is found to be truncated or corrupted,
+     * the valid records are replayed and the rest of the segment is cut off. Segments
+     * following it have been started after a recovery which has seen only the valid records,
+     * hence they can be replayed on top of them. Cutting the segment ensures that subsequent
+     * recoveries reach the same state.
+     */
+    private static void replaySegment(final DataTree tree, final File file) throws IOException, DataValidationFailedException {
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        final CRC32 crc = new CRC32();
+        final long fileLength = file.length();
+        long validLength = 0;
+        boolean complete = true;
+        int records = 0;
+
+        try (final InputStream is = new BufferedInputStream(new FileInputStream(file))) {
+            final DataInputStream in = new DataInputStream(is);
+            try {
+                checkHeader(in, JOURNAL_MAGIC, file);
+            } catch (EOFException e) {
+                LOG.warn("Journal segment {} has no header, removing it", file, e);
+                Files.delete(file.toPath());
+                return;
+            }
+            validLength = 8;
+
+            while (true) {
+                final int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    // A partial length is a torn write, too
+                    complete = validLength == fileLength;
+                    break;
+                }
+
+                // Do not trust the length until we know the record fits into the file
+                if (length < 0 || length > fileLength - validLength - 8) {
+                    LOG.debug("Segment {} has a record of invalid length {} at offset {}", file, length, validLength);
+                    complete = false;
+                    break;
+                }
+
+                final byte[] record;
+                final long checksum;
+                try {
+                    checksum = in.readInt() & 0xFFFFFFFFL;
+                    record = new byte[length];
+                    in.readFully(record);
+                } catch (EOFException e) {
+                    LOG.debug("Segment {} ends with a partial record", file, e);
+                    complete = false;
+                    break;
+                }
+
+                crc.reset();
+                crc.update(record, 0, record.length);
+                if (crc.getValue() != checksum) {
+                    LOG.warn("Record {} in segment {} has invalid checksum", records, file);
+                    complete = false;
+                    break;
+                }
+
+                JournalRecords.applyRecord(new DataInputStream(new ByteArrayInputStream(record)), mod);
+                validLength += 8 + length;
+                records++;
+            }
+        }
+
+        // All records are replayed in a single modification, as they are applied in order
+        commit(tree, mod);
+        LOG.debug("Replayed {} records from segment {}", records, file);
+
+        if (!complete) {
+            LOG.warn("Journal segment {} is incomplete, truncating it from {} to {} bytes", file, fileLength, validLength);
+            try (final FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                ch.truncate(validLength);
+                ch.force(true);
+            }
+        }
+    }
+
+    @Override
+    public ListenableFuture<Void> append(final DataTreeCandidate candidate) {
+        /*
+         * The record is encoded by the caller, so it captures the candidate as it is at the
+         * time of the append and any encoding failure is reported before anything is queued.
+         * This also spreads the encoding cost across committers.
+         */
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try {
+            final DataOutputStream out = new DataOutputStream(bos);
+            JournalRecords.writeCandidate(out, candidate);
+            out.flush();
+        } catch (IOException | RuntimeException e) {
+            return Futures.immediateFailedFuture(e);
+        }
+
+        final byte[] record = bos.toByteArray();
+        final CRC32 crc = new CRC32();
+        crc.update(record, 0, record.length);
+        return enqueue(new AppendRequest(record, (int) crc.getValue()));
+    }
+
+    @Override
+    public ListenableFuture<Void> snapshot(final NormalizedNode<?, ?> root) {
+        return enqueue(new SnapshotRequest(root));
+    }
+
+    private ListenableFuture<Void> enqueue(final Request request) {
+        if (closed) {
+            return Futures.immediateFailedFuture(new IllegalStateException("Journal has been closed"));
+        }
+        final Exception f = failure;
+        if (f != null) {
+            return Futures.immediateFailedFuture(f);
+        }
+
+        queue.add(request);
+        if (closed && queue.remove(request)) {
+            /*
+             * We have raced with close() and the writer thread may have already exited, in which
+             * case nobody would complete the request. If the writer thread picked it up, it is
+             * responsible for completing it.
+             */
+            request.future.setException(new IllegalStateException("Journal has been closed"));
+        }
+        return request.future;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        // Mark the journal closed before enqueueing the request, so no append can slip behind it
+        closed = true;
+        final CloseRequest request = new CloseRequest();
+        queue.add(request);
+
+        try {
+            request.future.get();
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while closing journal", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to close journal", e.getCause());
+        }
+    }
+
+    private void processRequests() {
+        final List<Request> batch = new ArrayList<>(maxBatchSize);
+        try {
+            boolean running = true;
+            while (running) {
+                batch.add(queue.take());
+                queue.drainTo(batch, maxBatchSize - 1);
+                running = processBatch(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            LOG.warn("Journal thread interrupted, shutting down", e);
+            failure = e;
+            for (Request r : batch) {
+                r.future.setException(e);
+            }
+        } finally {
+            try {
+                closeSegment();
+            } catch (IOException e) {
+                LOG.warn("Failed to close journal segment", e);
+            }
+
+            // Anything which raced with close()
+            final List<Request> leftover = new ArrayList<>();
+            queue.drainTo(leftover);
+            failClosed(leftover);
+        }
+    }
+
+    /**
+     * Process a batch of requests.
+     *
+     * @return false if the journal has been closed
+     */
+    private boolean processBatch(final List<Request> batch) {
+        final List<SettableFuture<Void>> pending = new ArrayList<>(batch.size());
+
+        for (Request r : batch) {
+            final Exception f = failure;
+            if (f != null) {
+                if (r instanceof CloseRequest) {
+                    r.future.set(null);
+                    failClosed(batch.subList(batch.indexOf(r) + 1, batch.size()));
+                    return false;
+                }
+                r.future.setException(f);
+                continue;
+            }
+
+            try {
+                if (r instanceof AppendRequest) {
+                    appendRecord((AppendRequest) r);
+                    pending.add(r.future);
+                } else if (r instanceof SnapshotRequest) {
+                    syncBatch(pending);
+                    writeSnapshot(((SnapshotRequest) r).root);
+                    r.future.set(null);
+                } else if (r instanceof CloseRequest) {
+                    syncBatch(pending);
+                    r.future.set(null);
+                    failClosed(batch.subList(batch.indexOf(r) + 1, batch.size()));
+                    return false;
+                }
+            } catch (IOException | RuntimeException e) {
+                LOG.error("Journal in {} failed, no further data will be persisted", directory, e);
+                failure = e;
+                for (SettableFuture<Void> p : pending) {
+                    p.setException(e);
+                }
+                pending.clear();
+                r.future.setException(e);
+            }
+        }
+
+        try {
+            syncBatch(pending);
+        } catch (IOException e) {
+            LOG.error("Journal in {} failed, no further data will be persisted", directory, e);
+            failure = e;
+            for (SettableFuture<Void> p : pending) {
+                p.setException(e);
+            }
+        }
+        return true;
+    }
+
+    private static void failClosed(final List<Request> requests) {
+        for (Request r : requests) {
+            r.future.setException(new IllegalStateException("Journal has been closed"));
+        }
+    }
+
+    private void appendRecord(final AppendRequest request) throws IOException {
+        batchOutput.writeInt(request.record.length);
+        batchOutput.writeInt(request.checksum);
+        batchOutput.write(request.record);
+    }
+
+    private void syncBatch(final List<SettableFuture<Void>> pending) throws IOException {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        batchOutput.flush();
+        if (channel == null) {
+            openSegment();
+        }
+
+        final ByteBuffer buf = batchBuffer.toByteBuffer();
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+        channel.force(false);
+        batchBuffer.reset();
+
+        LOG.trace("Synchronized {} records", pending.size());
+        for (SettableFuture<Void> p : pending) {
+            p.set(null);
+        }
+        pending.clear();
+    }
+
+    private void openSegment() throws IOException {
+        final File file = new File(directory, fileName(JOURNAL_PREFIX, nextSegment));
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        nextSegment++;
+        syncDirectory();
+
+        final ByteBuffer header = ByteBuffer.allocate(8);
+        header.putInt(JOURNAL_MAGIC).putInt(FORMAT_VERSION).flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        LOG.debug("Started journal segment {}", file);
+    }
+
+    /**
+     * Make changes to the directory entries, such as file creation and renames, durable.
+     */
+    private void syncDirectory() throws IOException {
+        try (final FileChannel dir = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+            dir.force(true);
+        }
+    }
+
+    private void closeSegment() throws IOException {
+        if (channel != null) {
+            try {
+                channel.force(true);
+            } finally {
+                channel.close();
+                channel = null;
+            }
+        }
+    }
+
+    private void writeSnapshot(final NormalizedNode<?, ?> root) throws IOException {
+        // The snapshot covers everything up to now, subsequent candidates go to a new segment
+        closeSegment();
+        final long id = nextSegment;
+
+        final File tmp = new File(directory, fileName(SNAPSHOT_PREFIX, id) + TMP_SUFFIX);
+        try (final FileOutputStream fos = new FileOutputStream(tmp)) {
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos));
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            BinaryNormalizedNodeStreamWriter.create(out).writeNormalizedNode(root);
+            out.flush();
+            fos.getChannel().force(true);
+        }
+        Files.move(tmp.toPath(), new File(directory, fileName(SNAPSHOT_PREFIX, id)).toPath(),
+            StandardCopyOption.ATOMIC_MOVE);
+
+        // The rename has to be durable before we delete anything it supersedes
+        syncDirectory();
+        LOG.debug("Written snapshot {} in {}", id, directory);
+
+        // Compact: everything before the snapshot is no longer needed
+        for (Long segment : listIds(directory, JOURNAL_PREFIX)) {
+            if (segment < id) {
+                Files.deleteIfExists(new File(directory, fileName(JOURNAL_PREFIX, segment)).toPath());
+            }
+        }
+        for (Long snapshot : listIds(directory, SNAPSHOT_PREFIX)) {
+            if (snapshot < id) {
+                Files.deleteIfExists(new File(directory, fileName(SNAPSHOT_PREFIX, snapshot)).toPath());
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree.journal;
+
+import com.google.common.base.Optional;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.impl.codec.binary.BinaryNormalizedNodeStreamReader;
+import org.opendaylight.yangtools.yang.data.impl.codec.binary.BinaryNormalizedNodeStreamWriter;
+
+/**
+ * Utility methods for translating a {@link DataTreeCandidate} into a journal record and
+ * back. A record is a sequence of write/delete edits, which reproduce the candidate's
+ * effects when applied to the tree state the candidate was committed on.
+ */
+final class JournalRecords {
+    private static final byte END_OF_RECORD = 0;
+    private static final byte WRITE = 1;
+    private static final byte DELETE = 2;
+
+    private JournalRecords() {
+        throw new UnsupportedOperationException("Utility class should not be instantiated");
+    }
+
+    static void writeCandidate(final DataOutput output, final DataTreeCandidate candidate) throws IOException {
+        final BinaryNormalizedNodeStreamWriter writer = BinaryNormalizedNodeStreamWriter.create(output);
+        final DataTreeCandidateNode root = candidate.getRootNode();
+        writeNode(output, writer, candidate.getRootPath(), root);
+        output.writeByte(END_OF_RECORD);
+    }
+
+    private static void writeNode(final DataOutput output, final BinaryNormalizedNodeStreamWriter writer,
+            final YangInstanceIdentifier path, final DataTreeCandidateNode node) throws IOException {
+        switch (node.getModificationType()) {
+        case DELETE:
+            output.writeByte(DELETE);
+            writer.writeYangInstanceIdentifier(path);
+            break;
+        case MERGE:
+        case WRITE:
+            /*
+             * The after-image is the result of the operation on the before-image,
+             * hence we can always replay it as a write.
+             */
+            final Optional<NormalizedNode<?, ?>> after = node.getDataAfter();
+            if (after.isPresent()) {
+                output.writeByte(WRITE);
+                writer.writeYangInstanceIdentifier(path);
+                writer.writeNormalizedNode(after.get());
+            } else {
+                output.writeByte(DELETE);
+                writer.writeYangInstanceIdentifier(path);
+            }
+            break;
+        case SUBTREE_MODIFIED:
+            for (DataTreeCandidateNode child : node.getChildNodes()) {
+                writeNode(output, writer, path.node(child.getIdentifier()), child);
+            }
+            break;
+        case UNMODIFIED:
+            break;
+        default:
+            throw new IllegalArgumentException("Unhandled modification type " + node.getModificationType());
+        }
+    }
+
+    static void applyRecord(final DataInput input, final DataTreeModification modification) throws IOException {
+        final BinaryNormalizedNodeStreamReader reader = BinaryNormalizedNodeStreamReader.create(input);
+        while (true) {
+            final byte type = input.readByte();
+            switch (type) {
+            case END_OF_RECORD:
+                return;
+            case WRITE:
+                final YangInstanceIdentifier path = reader.readYangInstanceIdentifier();
+                modification.write(path, reader.readNormalizedNode());
+                break;
+            case DELETE:
+                modification.delete(reader.readYangInstanceIdentifier());
+                break;
+            default:
+                throw new IOException("Unknown journal edit type " + type);
+            }
+        }
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree.journal;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.SettableFuture;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.concurrent.ExecutionException;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeSnapshot;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
+import org.opendaylight.yangtools.yang.data.impl.schema.tree.CommittedCandidateSequencer;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link DataTree} which records every committed candidate in a {@link DataTreeJournal}.
+ * A commit returns only after the candidate has been made durable. Every
+ * <code>snapshotInterval</code> commits the entire tree is snapshotted, which allows
+ * the journal to discard older records.
+ *
+ * The candidate is committed to the backing tree before it is appended to the journal,
+ * as committing may rebase it onto concurrently-committed candidates and the journal
+ * has to record the rebased result. Commits are not serialized: each committed candidate
+ * reflects the root it was applied to, which {@link CommittedCandidateSequencer} uses to
+ * order the candidates for appending. If the journal fails to record a candidate or
+ * a snapshot, the backing tree holds state which would not survive a restart, hence the
+ * tree is marked as failed and any further commits are rejected. The same happens if the
+ * backing tree is modified without going through this class.
+ */
+@Beta
+public final class JournaledDataTree implements DataTree {
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 10000;
+
+    private static final Logger LOG = LoggerFactory.getLogger(JournaledDataTree.class);
+
+    private static final class PendingCommit {
+        final SettableFuture<Void> future = SettableFuture.create();
+        final DataTreeCandidate candidate;
+
+        PendingCommit(final DataTreeCandidate candidate) {
+            this.candidate = Preconditions.checkNotNull(candidate);
+        }
+    }
+
+    private final DataTree delegate;
+    private final DataTreeJournal journal;
+    private final int snapshotInterval;
+    private final CommittedCandidateSequencer<PendingCommit> sequencer;
+
+    // Accessed only by the committer which is appending
+    private int commitsSinceSnapshot;
+    private volatile Throwable failure;
+
+    private JournaledDataTree(final DataTree delegate, final DataTreeJournal journal, final int snapshotInterval) {
+        this.delegate = Preconditions.checkNotNull(delegate);
+        this.journal = Preconditions.checkNotNull(journal);
+        this.snapshotInterval = snapshotInterval;
+        this.sequencer = new CommittedCandidateSequencer<PendingCommit>(delegate) {
+            @Override
+            protected PendingCommit createItem(final DataTreeCandidate candidate) {
+                return new PendingCommit(candidate);
+            }
+
+            @Override
+            protected void process(final PendingCommit commit) {
+                append(commit);
+            }
+
+            @Override
+            protected PendingCommit lostCommits(final Collection<PendingCommit> stale,
+                    final NormalizedNode<?, ?> lastRoot, final NormalizedNode<?, ?> currentRoot) {
+                failLostCommits(stale);
+                return null;
+            }
+        };
+    }
+
+    /**
+     * Recover the state stored in a journal into a data tree and return a data tree which
+     * will record all subsequent commits into that journal.
+     *
+     * @param delegate Backing data tree, needs to have a schema context set
+     * @param journal Journal to recover from and record to
+     * @param snapshotInterval Number of commits between snapshots
+     * @return A journaled data tree
+     * @throws IOException if the journal cannot be read
+     * @throws DataValidationFailedException if the journal contents cannot be applied to the tree
+     */
+    public static JournaledDataTree recover(final DataTree delegate, final DataTreeJournal journal,
+            final int snapshotInterval) throws IOException, DataValidationFailedException {
+        Preconditions.checkArgument(snapshotInterval > 0, "Snapshot interval has to be positive, not %s", snapshotInterval);
+        journal.recover(delegate);
+        return new JournaledDataTree(delegate, journal, snapshotInterval);
+    }
+
+    /**
+     * Recover the state stored in a journal into a data tree, using the default snapshot interval.
+     *
+     * @param delegate Backing data tree, needs to have a schema context set
+     * @param journal Journal to recover from and record to
+     * @return A journaled data tree
+     * @throws IOException if the journal cannot be read
+     * @throws DataValidationFailedException if the journal contents cannot be applied to the tree
+     */
+    public static JournaledDataTree recover(final DataTree delegate, final DataTreeJournal journal)
+            throws IOException, DataValidationFailedException {
+        return recover(delegate, journal, DEFAULT_SNAPSHOT_INTERVAL);
+    }
+
+    @Override
+    public DataTreeSnapshot takeSnapshot() {
+        return delegate.takeSnapshot();
+    }
+
+    @Override
+    public void setSchemaContext(final SchemaContext newSchemaContext) {
+        delegate.setSchemaContext(newSchemaContext);
+    }
+
+    @Override
+    public void validate(final DataTreeModification modification) throws DataValidationFailedException {
+        delegate.validate(modification);
+    }
+
+    @Override
+    public DataTreeCandidate prepare(final DataTreeModification modification) {
+        return delegate.prepare(modification);
+    }
+
+    @Override
+    public void commit(final DataTreeCandidate candidate) {
+        if (candidate.getRootNode().getModificationType() == ModificationType.UNMODIFIED) {
+            delegate.commit(candidate);
+            return;
+        }
+
+        checkNotFailed();
+
+        /*
+         * Candidates are appended in the order in which they were applied to the backing tree,
+         * by a single committer at a time. Waiting for durability happens afterwards, so that
+         * concurrent committers can share the journal synchronization.
+         */
+        final PendingCommit commit = sequencer.commit(candidate);
+        if (commit == null) {
+            // Nothing was installed, hence there is nothing to record
+            return;
+        }
+
+        try {
+            commit.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for candidate to become durable", e);
+        } catch (ExecutionException e) {
+            fail(e.getCause());
+            throw new IllegalStateException(String.format("Failed to persist candidate %s", candidate), e.getCause());
+        }
+    }
+
+    /*
+     * The journal cannot reproduce the tree state anymore, as the backing tree has been
+     * modified without going through us.
+     */
+    private void failLostCommits(final Collection<PendingCommit> stale) {
+        final IllegalStateException cause = new IllegalStateException(String.format(
+            "Backing tree %s was modified without being journaled", delegate));
+        fail(cause);
+        for (PendingCommit c : stale) {
+            c.future.setException(cause);
+        }
+    }
+
+    private void append(final PendingCommit commit) {
+        final Throwable f = failure;
+        if (f != null) {
+            commit.future.setException(f);
+            return;
+        }
+
+        Futures.addCallback(journal.append(commit.candidate), new FutureCallback<Void>() {
+            @Override
+            public void onSuccess(final Void result) {
+                commit.future.set(null);
+            }
+
+            @Override
+            public void onFailure(final Throwable t) {
+                fail(t);
+                commit.future.setException(t);
+            }
+        });
+
+        if (++commitsSinceSnapshot >= snapshotInterval) {
+            commitsSinceSnapshot = 0;
+            // The state after this candidate, not the current root, which may reflect candidates not appended yet
+            takeJournalSnapshot(commit.candidate.getRootNode().getDataAfter().get());
+        }
+    }
+
+    private void checkNotFailed() {
+        final Throwable f = failure;
+        if (f != null) {
+            throw new IllegalStateException(String.format("Data tree %s has failed to persist its state", delegate), f);
+        }
+    }
+
+    private void fail(final Throwable cause) {
+        if (failure == null) {
+            LOG.error("Data tree {} failed to persist its state, rejecting further commits", delegate, cause);
+            failure = cause;
+        }
+    }
+
+    private void takeJournalSnapshot(final NormalizedNode<?, ?> root) {
+        Futures.addCallback(journal.snapshot(root), new FutureCallback<Void>() {
+            @Override
+            public void onSuccess(final Void result) {
+                LOG.debug("Data tree {} snapshot completed", delegate);
+            }
+
+            @Override
+            public void onFailure(final Throwable t) {
+                /*
+                 * Without snapshots the journal cannot discard any records and would grow
+                 * without bounds, so treat this the same as a failed append.
+                 */
+                fail(t);
+            }
+        });
+    }
+
+    @Override
+    public String toString() {
+        return Objects.toStringHelper(this).add("delegate", delegate).add("journal", journal).toString();
+    }
+}
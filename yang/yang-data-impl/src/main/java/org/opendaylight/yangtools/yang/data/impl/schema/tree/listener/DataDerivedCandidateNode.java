@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree.listener;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeWithValue;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.LeafSetNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
+
+/**
+ * A {@link DataTreeCandidateNode} derived from the before- and after-image of a node.
+ * This is used to descend below a node which was written or deleted as a whole, where
+ * the candidate itself does not carry any child nodes.
+ */
+final class DataDerivedCandidateNode implements DataTreeCandidateNode {
+    private final PathArgument identifier;
+    private final Optional<NormalizedNode<?, ?>> before;
+    private final Optional<NormalizedNode<?, ?>> after;
+
+    private DataDerivedCandidateNode(final PathArgument identifier, final Optional<NormalizedNode<?, ?>> before,
+            final Optional<NormalizedNode<?, ?>> after) {
+        this.identifier = Preconditions.checkNotNull(identifier);
+        this.before = Preconditions.checkNotNull(before);
+        this.after = Preconditions.checkNotNull(after);
+    }
+
+    /**
+     * Return the children of a node, as derived from its before- and after-image. Children which
+     * are the same object in both images are reported as unmodified.
+     *
+     * @param before Before-image of the parent
+     * @param after After-image of the parent
+     * @return Collection of child nodes
+     */
+    static Collection<DataTreeCandidateNode> childNodes(final Optional<NormalizedNode<?, ?>> before,
+            final Optional<NormalizedNode<?, ?>> after) {
+        final Map<PathArgument, NormalizedNode<?, ?>> beforeChildren = children(before);
+        final Map<PathArgument, NormalizedNode<?, ?>> afterChildren = children(after);
+        if (beforeChildren.isEmpty() && afterChildren.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final Collection<DataTreeCandidateNode> ret = new ArrayList<>(afterChildren.size());
+        for (Map.Entry<PathArgument, NormalizedNode<?, ?>> e : afterChildren.entrySet()) {
+            ret.add(new DataDerivedCandidateNode(e.getKey(),
+                Optional.<NormalizedNode<?, ?>>fromNullable(beforeChildren.get(e.getKey())),
+                Optional.<NormalizedNode<?, ?>>of(e.getValue())));
+        }
+        for (Map.Entry<PathArgument, NormalizedNode<?, ?>> e : beforeChildren.entrySet()) {
+            if (!afterChildren.containsKey(e.getKey())) {
+                ret.add(new DataDerivedCandidateNode(e.getKey(), Optional.<NormalizedNode<?, ?>>of(e.getValue()),
+                    Optional.<NormalizedNode<?, ?>>absent()));
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Return a single child of a node, as derived from its before- and after-image. This does not
+     * need to enumerate the other children, so it should be preferred when the identifier is known.
+     *
+     * @param identifier Child identifier
+     * @param before Before-image of the parent
+     * @param after After-image of the parent
+     * @return Child node, or null if it is present in neither image
+     */
+    static DataTreeCandidateNode childNode(final PathArgument identifier, final Optional<NormalizedNode<?, ?>> before,
+            final Optional<NormalizedNode<?, ?>> after) {
+        final Optional<NormalizedNode<?, ?>> childBefore = child(before, identifier);
+        final Optional<NormalizedNode<?, ?>> childAfter = child(after, identifier);
+        if (!childBefore.isPresent() && !childAfter.isPresent()) {
+            return null;
+        }
+        return new DataDerivedCandidateNode(identifier, childBefore, childAfter);
+    }
+
+    /**
+     * Return a node describing the change between two root nodes.
+     *
+     * @param before Before-image, may be null
+     * @param after After-image, may be null
+     * @return Root node, or null if both images are null
+     */
+    static DataTreeCandidateNode rootNode(final NormalizedNode<?, ?> before, final NormalizedNode<?, ?> after) {
+        if (after != null) {
+            return new DataDerivedCandidateNode(after.getIdentifier(), Optional.<NormalizedNode<?, ?>>fromNullable(before),
+                Optional.<NormalizedNode<?, ?>>of(after));
+        }
+        if (before != null) {
+            return new DataDerivedCandidateNode(before.getIdentifier(), Optional.<NormalizedNode<?, ?>>of(before),
+                Optional.<NormalizedNode<?, ?>>absent());
+        }
+        return null;
+    }
+
+    /**
+     * Check whether a node's children are list or leaf-set entries, hence whether a
+     * {@link NodeIdentifier} below it acts as a wildcard.
+     *
+     * @param node Node image
+     * @return True if the node is a map or a leaf-set
+     */
+    static boolean hasEntries(final Optional<NormalizedNode<?, ?>> node) {
+        return node.isPresent() && (node.get() instanceof MapNode || node.get() instanceof LeafSetNode);
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private static Optional<NormalizedNode<?, ?>> child(final Optional<NormalizedNode<?, ?>> node,
+            final PathArgument identifier) {
+        if (!node.isPresent() || !(node.get() instanceof NormalizedNodeContainer)) {
+            return Optional.absent();
+        }
+
+        // Entry containers are keyed by a specific identifier type, do not let them see a different one
+        final NormalizedNode<?, ?> n = node.get();
+        if (n instanceof MapNode && !(identifier instanceof NodeIdentifierWithPredicates)
+                || n instanceof LeafSetNode && !(identifier instanceof NodeWithValue)) {
+            return Optional.absent();
+        }
+        return ((NormalizedNodeContainer) n).getChild(identifier);
+    }
+
+    private static Map<PathArgument, NormalizedNode<?, ?>> children(final Optional<NormalizedNode<?, ?>> node) {
+        if (!node.isPresent() || !(node.get() instanceof NormalizedNodeContainer)) {
+            return Collections.emptyMap();
+        }
+
+        final Map<PathArgument, NormalizedNode<?, ?>> ret = new LinkedHashMap<>();
+        for (Object child : ((NormalizedNodeContainer<?, ?, ?>) node.get()).getValue()) {
+            final NormalizedNode<?, ?> n = (NormalizedNode<?, ?>) child;
+            ret.put(n.getIdentifier(), n);
+        }
+        return ret;
+    }
+
+    @Override
+    public PathArgument getIdentifier() {
+        return identifier;
+    }
+
+    @Override
+    public Iterable<DataTreeCandidateNode> getChildNodes() {
+        return childNodes(before, after);
+    }
+
+    @Override
+    public ModificationType getModificationType() {
+        if (!after.isPresent()) {
+            return ModificationType.DELETE;
+        }
+        if (before.isPresent() && before.get() == after.get()) {
+            return ModificationType.UNMODIFIED;
+        }
+        return ModificationType.WRITE;
+    }
+
+    @Override
+    public Optional<NormalizedNode<?, ?>> getDataAfter() {
+        return after;
+    }
+
+    @Override
+    public Optional<NormalizedNode<?, ?>> getDataBefore() {
+        return before;
+    }
+}
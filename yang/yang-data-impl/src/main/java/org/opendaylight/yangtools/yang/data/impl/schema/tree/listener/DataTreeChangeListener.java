@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree.listener;
+
+import com.google.common.annotations.Beta;
+import java.util.Collection;
+import java.util.EventListener;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+
+/**
+ * Interface implemented by classes interested in receiving notifications about
+ * data tree changes. It is registered with a {@link DataTreeChangePublisher}
+ * for a particular, potentially wildcarded, path.
+ */
+@Beta
+public interface DataTreeChangeListener extends EventListener {
+    /**
+     * Invoked when there was a data change in the subtree the listener is registered for.
+     * Each candidate is rooted at a concrete path matching the registration and contains
+     * only the changes in the corresponding subtree. A single commit may result in multiple
+     * candidates, for example when the registration path contains a wildcard.
+     *
+     * @param changes Collection of change events, may not be null or empty.
+     */
+    void onDataTreeChanged(Collection<DataTreeCandidate> changes);
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree.listener;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import javax.annotation.concurrent.GuardedBy;
+import org.opendaylight.yangtools.concepts.AbstractListenerRegistration;
+import org.opendaylight.yangtools.concepts.ListenerRegistration;
+import org.opendaylight.yangtools.util.concurrent.ListenerNotificationQueueStats;
+import org.opendaylight.yangtools.util.concurrent.QueuedNotificationManager;
+import org.opendaylight.yangtools.util.concurrent.QueuedNotificationManager.Invoker;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Registry of {@link DataTreeChangeListener}s and the dispatcher of committed
+ * {@link DataTreeCandidate}s to them. Registrations are kept in a trie keyed by path
+ * arguments, which allows a candidate to be walked exactly once, descending only into
+ * subtrees which have some listeners registered below them. Each listener receives only
+ * the part of the candidate which is rooted at its registration path.
+ *
+ * Registration paths may be wildcarded, by using a {@link YangInstanceIdentifier.NodeIdentifier}
+ * in place of a list entry or leaf-set entry identifier. Such a path matches every entry
+ * of that list.
+ *
+ * Notifications are delivered asynchronously through a {@link QueuedNotificationManager},
+ * which guarantees that each listener observes changes in the order they were published.
+ */
+@Beta
+public final class DataTreeChangePublisher {
+    private static final Logger LOG = LoggerFactory.getLogger(DataTreeChangePublisher.class);
+    private static final Invoker<DataTreeChangeListener, Collection<DataTreeCandidate>> LISTENER_INVOKER =
+            new Invoker<DataTreeChangeListener, Collection<DataTreeCandidate>>() {
+                @Override
+                public void invokeListener(final DataTreeChangeListener listener,
+                        final Collection<DataTreeCandidate> notification) {
+                    listener.onDataTreeChanged(notification);
+                }
+            };
+
+    private final class Registration<L extends DataTreeChangeListener> extends AbstractListenerRegistration<L> {
+        private final RegistrationTreeNode<Registration<?>> node;
+
+        Registration(final L listener, final RegistrationTreeNode<Registration<?>> node) {
+            super(listener);
+            this.node = Preconditions.checkNotNull(node);
+        }
+
+        boolean isActive() {
+            return !isClosed();
+        }
+
+        @Override
+        protected void removeRegistration() {
+            removeListener(this);
+        }
+    }
+
+    private final QueuedNotificationManager<DataTreeChangeListener, Collection<DataTreeCandidate>> notificationManager;
+    private final ReadWriteLock rwLock = new ReentrantReadWriteLock();
+
+    @GuardedBy("rwLock")
+    private final RegistrationTreeNode<Registration<?>> rootNode = new RegistrationTreeNode<>(null, null);
+
+    /**
+     * Create a new publisher.
+     *
+     * @param executor the {@link Executor} used to deliver notifications
+     * @param maxQueueCapacity the capacity of each listener's notification queue
+     * @param name the name of this instance, used for logging
+     */
+    public DataTreeChangePublisher(final Executor executor, final int maxQueueCapacity, final String name) {
+        notificationManager = new QueuedNotificationManager<>(executor, LISTENER_INVOKER, maxQueueCapacity, name);
+    }
+
+    /**
+     * Register a listener for changes in the subtree identified by a path.
+     *
+     * @param path Path to the subtree, may contain wildcards
+     * @param listener Listener instance
+     * @return A listener registration. Closing it unregisters the listener.
+     */
+    public <L extends DataTreeChangeListener> ListenerRegistration<L> registerTreeChangeListener(
+            final YangInstanceIdentifier path, final L listener) {
+        Preconditions.checkNotNull(listener);
+
+        final Lock lock = rwLock.writeLock();
+        lock.lock();
+        try {
+            RegistrationTreeNode<Registration<?>> node = rootNode;
+            for (PathArgument arg : path.getPathArguments()) {
+                node = node.ensureChild(arg);
+            }
+
+            final Registration<L> reg = new Registration<>(listener, node);
+            node.addRegistration(reg);
+            LOG.debug("Registered listener {} at {}", listener, path);
+            return reg;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void removeListener(final Registration<?> registration) {
+        final Lock lock = rwLock.writeLock();
+        lock.lock();
+        try {
+            registration.node.removeRegistration(registration);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Publish a committed candidate to all listeners whose registration paths it affects.
+     *
+     * @param candidate Committed candidate
+     */
+    public void publishChange(final DataTreeCandidate candidate) {
+        if (candidate.getRootNode().getModificationType() == ModificationType.UNMODIFIED) {
+            return;
+        }
+
+        final Map<Registration<?>, List<DataTreeCandidate>> changes = new LinkedHashMap<>();
+        final Lock lock = rwLock.readLock();
+        lock.lock();
+        try {
+            final List<PathArgument> rootPath = new ArrayList<>();
+            for (PathArgument arg : candidate.getRootPath().getPathArguments()) {
+                rootPath.add(arg);
+            }
+            lookupRoot(changes, rootNode, rootPath, 0, candidate);
+        } finally {
+            lock.unlock();
+        }
+
+        for (Map.Entry<Registration<?>, List<DataTreeCandidate>> e : changes.entrySet()) {
+            if (e.getKey().isActive()) {
+                notificationManager.submitNotification(e.getKey().getInstance(), e.getValue());
+            }
+        }
+    }
+
+    /**
+     * Descend the registration trie along the candidate's root path. Listeners registered
+     * above the candidate's root receive the whole candidate.
+     */
+    private static void lookupRoot(final Map<Registration<?>, List<DataTreeCandidate>> changes,
+            final RegistrationTreeNode<Registration<?>> node, final List<PathArgument> rootPath,
+            final int offset, final DataTreeCandidate candidate) {
+        if (offset == rootPath.size()) {
+            walk(changes, node, candidate.getRootPath(), candidate.getRootNode());
+            return;
+        }
+
+        for (Registration<?> reg : node.getRegistrations()) {
+            addChange(changes, reg, candidate);
+        }
+
+        final PathArgument arg = rootPath.get(offset);
+        final RegistrationTreeNode<Registration<?>> exact = node.getExactChild(arg);
+        if (exact != null) {
+            lookupRoot(changes, exact, rootPath, offset + 1, candidate);
+        }
+        final RegistrationTreeNode<Registration<?>> wildcard = node.getWildcardChild(arg);
+        if (wildcard != null) {
+            lookupRoot(changes, wildcard, rootPath, offset + 1, candidate);
+        }
+    }
+
+    private static void walk(final Map<Registration<?>, List<DataTreeCandidate>> changes,
+            final RegistrationTreeNode<Registration<?>> node, final YangInstanceIdentifier path,
+            final DataTreeCandidateNode candidate) {
+        if (candidate.getModificationType() == ModificationType.UNMODIFIED) {
+            return;
+        }
+
+        final Collection<Registration<?>> regs = node.getRegistrations();
+        if (!regs.isEmpty()) {
+            final DataTreeCandidate change = new SubtreeDataTreeCandidate(path, candidate);
+            for (Registration<?> reg : regs) {
+                addChange(changes, reg, change);
+            }
+        }
+
+        if (!node.hasChildren()) {
+            return;
+        }
+
+        /*
+         * Subtree modifications carry their modified children. Nodes which were
+         * written or deleted as a whole do not, so we derive them from the data.
+         * Unless a wildcard needs to be matched against all entries, we look up only
+         * the children which have registrations below them.
+         */
+        final Iterable<DataTreeCandidateNode> children;
+        if (candidate.getModificationType() == ModificationType.SUBTREE_MODIFIED) {
+            children = candidate.getChildNodes();
+        } else if (node.hasNodeIdentifierChildren() && (DataDerivedCandidateNode.hasEntries(candidate.getDataBefore())
+                || DataDerivedCandidateNode.hasEntries(candidate.getDataAfter()))) {
+            children = DataDerivedCandidateNode.childNodes(candidate.getDataBefore(), candidate.getDataAfter());
+        } else {
+            for (Map.Entry<PathArgument, RegistrationTreeNode<Registration<?>>> e : node.getChildren().entrySet()) {
+                final DataTreeCandidateNode child = DataDerivedCandidateNode.childNode(e.getKey(),
+                    candidate.getDataBefore(), candidate.getDataAfter());
+                if (child != null) {
+                    walk(changes, e.getValue(), path.node(e.getKey()), child);
+                }
+            }
+            return;
+        }
+
+        for (DataTreeCandidateNode child : children) {
+            final PathArgument arg = child.getIdentifier();
+            final RegistrationTreeNode<Registration<?>> exact = node.getExactChild(arg);
+            if (exact != null) {
+                walk(changes, exact, path.node(arg), child);
+            }
+            final RegistrationTreeNode<Registration<?>> wildcard = node.getWildcardChild(arg);
+            if (wildcard != null) {
+                walk(changes, wildcard, path.node(arg), child);
+            }
+        }
+    }
+
+    private static void addChange(final Map<Registration<?>, List<DataTreeCandidate>> changes,
+            final Registration<?> reg, final DataTreeCandidate change) {
+        List<DataTreeCandidate> list = changes.get(reg);
+        if (list == null) {
+            list = new ArrayList<>(1);
+            changes.put(reg, list);
+        }
+        list.add(change);
+    }
+
+    /**
+     * Returns {@link ListenerNotificationQueueStats} instances for each current listener
+     * notification task in progress.
+     *
+     * @return List of statistics
+     */
+    public List<ListenerNotificationQueueStats> getListenerNotificationQueueStats() {
+        return notificationManager.getListenerNotificationQueueStats();
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree.listener;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import java.util.Collection;
+import java.util.Collections;
+import org.opendaylight.yangtools.concepts.ListenerRegistration;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeSnapshot;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.impl.schema.tree.CommittedCandidateSequencer;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link DataTree} which publishes every committed candidate to a {@link DataTreeChangePublisher},
+ * hence notifying registered {@link DataTreeChangeListener}s.
+ *
+ * Commits are not serialized. Candidates are published in the order in which they were
+ * applied to the backing tree, as arranged by {@link CommittedCandidateSequencer}, so
+ * listeners observe changes in commit order. If the backing tree is modified without going
+ * through this class, the difference is published instead of the unknown modifications.
+ */
+@Beta
+public final class NotifyingDataTree implements DataTree {
+    private static final Logger LOG = LoggerFactory.getLogger(NotifyingDataTree.class);
+    private static final YangInstanceIdentifier ROOT_PATH = YangInstanceIdentifier.create(Collections.<PathArgument>emptyList());
+
+    private final DataTreeChangePublisher publisher;
+    private final DataTree delegate;
+    private final CommittedCandidateSequencer<DataTreeCandidate> sequencer;
+
+    public NotifyingDataTree(final DataTree delegate, final DataTreeChangePublisher publisher) {
+        this.delegate = Preconditions.checkNotNull(delegate);
+        this.publisher = Preconditions.checkNotNull(publisher);
+        this.sequencer = new CommittedCandidateSequencer<DataTreeCandidate>(delegate) {
+            @Override
+            protected DataTreeCandidate createItem(final DataTreeCandidate candidate) {
+                return candidate;
+            }
+
+            @Override
+            protected void process(final DataTreeCandidate candidate) {
+                publisher.publishChange(candidate);
+            }
+
+            @Override
+            protected DataTreeCandidate lostCommits(final Collection<DataTreeCandidate> stale,
+                    final NormalizedNode<?, ?> lastRoot, final NormalizedNode<?, ?> currentRoot) {
+                // Publish the difference between the last published root and the current one instead
+                LOG.warn("Backing tree {} was modified outside of {}, resynchronizing with {} stale changes dropped",
+                    delegate, NotifyingDataTree.this, stale.size());
+                final DataTreeCandidateNode node = DataDerivedCandidateNode.rootNode(lastRoot, currentRoot);
+                return node == null ? null : new SubtreeDataTreeCandidate(ROOT_PATH, node);
+            }
+        };
+    }
+
+    /**
+     * Register a listener for changes in the subtree identified by a path.
+     *
+     * @param path Path to the subtree, may contain wildcards
+     * @param listener Listener instance
+     * @return A listener registration. Closing it unregisters the listener.
+     */
+    public <L extends DataTreeChangeListener> ListenerRegistration<L> registerTreeChangeListener(
+            final YangInstanceIdentifier path, final L listener) {
+        return publisher.registerTreeChangeListener(path, listener);
+    }
+
+    @Override
+    public DataTreeSnapshot takeSnapshot() {
+        return delegate.takeSnapshot();
+    }
+
+    @Override
+    public void setSchemaContext(final SchemaContext newSchemaContext) {
+        delegate.setSchemaContext(newSchemaContext);
+    }
+
+    @Override
+    public void validate(final DataTreeModification modification) throws DataValidationFailedException {
+        delegate.validate(modification);
+    }
+
+    @Override
+    public DataTreeCandidate prepare(final DataTreeModification modification) {
+        return delegate.prepare(modification);
+    }
+
+    @Override
+    public void commit(final DataTreeCandidate candidate) {
+        sequencer.commit(candidate);
+    }
+
+    @Override
+    public String toString() {
+        return Objects.toStringHelper(this).add("delegate", delegate).toString();
+    }
+}
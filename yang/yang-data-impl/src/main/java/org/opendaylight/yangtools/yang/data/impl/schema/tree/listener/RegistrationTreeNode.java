@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree.listener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeWithValue;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+
+/**
+ * A single node in the registration trie maintained by {@link DataTreeChangePublisher}.
+ * Each node corresponds to a path argument and holds the registrations made for the
+ * path leading to it. A {@link NodeIdentifier} in place of a list entry or leaf-set entry
+ * identifier acts as a wildcard, matching any entry of that list.
+ *
+ * This class is not thread-safe, access to it needs to be externally synchronized.
+ *
+ * @param <T> Registration type
+ */
+final class RegistrationTreeNode<T> {
+    private final Map<PathArgument, RegistrationTreeNode<T>> children = new HashMap<>();
+    private final Collection<T> registrations = new ArrayList<>(2);
+    private final RegistrationTreeNode<T> parent;
+    private final PathArgument identifier;
+
+    RegistrationTreeNode(final RegistrationTreeNode<T> parent, final PathArgument identifier) {
+        this.parent = parent;
+        this.identifier = identifier;
+    }
+
+    RegistrationTreeNode<T> ensureChild(final PathArgument child) {
+        RegistrationTreeNode<T> potential = children.get(child);
+        if (potential == null) {
+            potential = new RegistrationTreeNode<>(this, child);
+            children.put(child, potential);
+        }
+        return potential;
+    }
+
+    /**
+     * Return the child node registered with exactly the specified identifier.
+     *
+     * @param arg Child identifier
+     * @return Child node, or null if not present
+     */
+    RegistrationTreeNode<T> getExactChild(final PathArgument arg) {
+        return children.get(arg);
+    }
+
+    /**
+     * Return the child node which acts as a wildcard for the specified list or
+     * leaf-set entry identifier.
+     *
+     * @param arg Child identifier
+     * @return Wildcard child node, or null if not present
+     */
+    RegistrationTreeNode<T> getWildcardChild(final PathArgument arg) {
+        if (arg instanceof NodeIdentifierWithPredicates || arg instanceof NodeWithValue) {
+            return children.get(new NodeIdentifier(arg.getNodeType()));
+        }
+        return null;
+    }
+
+    /**
+     * Return all child nodes, keyed by their identifier.
+     *
+     * @return Unmodifiable map of children
+     */
+    Map<PathArgument, RegistrationTreeNode<T>> getChildren() {
+        return Collections.unmodifiableMap(children);
+    }
+
+    /**
+     * Check whether any child is identified by a {@link NodeIdentifier}, hence may act as a wildcard.
+     *
+     * @return True if a potential wildcard child exists
+     */
+    boolean hasNodeIdentifierChildren() {
+        for (PathArgument arg : children.keySet()) {
+            if (arg instanceof NodeIdentifier) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean hasChildren() {
+        return !children.isEmpty();
+    }
+
+    Collection<T> getRegistrations() {
+        return Collections.unmodifiableCollection(registrations);
+    }
+
+    void addRegistration(final T registration) {
+        registrations.add(registration);
+    }
+
+    /**
+     * Remove a registration and prune any nodes which have become empty as a result.
+     *
+     * @param registration Registration to remove
+     */
+    void removeRegistration(final T registration) {
+        registrations.remove(registration);
+
+        RegistrationTreeNode<T> node = this;
+        while (node.parent != null && node.registrations.isEmpty() && node.children.isEmpty()) {
+            node.parent.children.remove(node.identifier);
+            node = node.parent;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RegistrationTreeNode [identifier=" + identifier + ", registrations=" + registrations.size()
+                + ", children=" + children.keySet() + "]";
+    }
+}
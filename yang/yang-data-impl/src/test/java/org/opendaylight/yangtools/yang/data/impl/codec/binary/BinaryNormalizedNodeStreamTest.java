@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.codec.binary;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.CompositeNode;
+import org.opendaylight.yangtools.yang.data.api.Node;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.AugmentationIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeWithValue;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.AnyXmlNode;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.DataContainerChild;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.impl.NodeFactory;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+
+public class BinaryNormalizedNodeStreamTest {
+    private static final QName TEST_QNAME = QName.create("urn:opendaylight:binary:test", "2014-10-10", "test");
+    private static final QName LIST_QNAME = QName.create(TEST_QNAME, "list");
+    private static final QName ID_QNAME = QName.create(TEST_QNAME, "id");
+    private static final QName NAME_QNAME = QName.create(TEST_QNAME, "name");
+    private static final QName LEAF_LIST_QNAME = QName.create(TEST_QNAME, "leaf-list");
+    private static final QName CHOICE_QNAME = QName.create(TEST_QNAME, "choice");
+    private static final QName AUGMENTED_QNAME = QName.create(TEST_QNAME, "augmented");
+    private static final QName UNKEYED_QNAME = QName.create(TEST_QNAME, "unkeyed");
+
+    private static byte[] toBytes(final NormalizedNode<?, ?> node) throws IOException {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bos);
+        BinaryNormalizedNodeStreamWriter.create(out).writeNormalizedNode(node);
+        out.flush();
+        return bos.toByteArray();
+    }
+
+    private static BinaryNormalizedNodeStreamReader reader(final byte[] bytes) {
+        return BinaryNormalizedNodeStreamReader.create(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+
+    private static NormalizedNode<?, ?> createTestNode() {
+        return Builders.containerBuilder()
+                .withNodeIdentifier(new NodeIdentifier(TEST_QNAME))
+                .withChild(ImmutableNodes.leafNode(QName.create(TEST_QNAME, "string"), "foo"))
+                .withChild(ImmutableNodes.leafNode(QName.create(TEST_QNAME, "boolean"), Boolean.TRUE))
+                .withChild(ImmutableNodes.leafNode(QName.create(TEST_QNAME, "byte"), (byte) 1))
+                .withChild(ImmutableNodes.leafNode(QName.create(TEST_QNAME, "short"), (short) 2))
+                .withChild(ImmutableNodes.leafNode(QName.create(TEST_QNAME, "int"), 3))
+                .withChild(ImmutableNodes.leafNode(QName.create(TEST_QNAME, "long"), 4L))
+                .withChild(ImmutableNodes.leafNode(QName.create(TEST_QNAME, "biginteger"), BigInteger.TEN))
+                .withChild(ImmutableNodes.leafNode(QName.create(TEST_QNAME, "bigdecimal"), new BigDecimal("1.25")))
+                .withChild(ImmutableNodes.leafNode(QName.create(TEST_QNAME, "identityref"), ID_QNAME))
+                .withChild(ImmutableNodes.leafNode(QName.create(TEST_QNAME, "bits"), ImmutableSet.of("a", "b")))
+                .withChild(ImmutableNodes.leafNode(QName.create(TEST_QNAME, "instance-identifier"),
+                    YangInstanceIdentifier.builder().node(TEST_QNAME).nodeWithKey(LIST_QNAME, ID_QNAME, 5).build()))
+                .withChild(Builders.<String>leafSetBuilder()
+                    .withNodeIdentifier(new NodeIdentifier(LEAF_LIST_QNAME))
+                    .withChildValue("one")
+                    .withChildValue("two")
+                    .build())
+                .withChild(ImmutableNodes.mapNodeBuilder(LIST_QNAME)
+                    .withChild(ImmutableNodes.mapEntryBuilder(LIST_QNAME, ID_QNAME, 1)
+                        .withChild(ImmutableNodes.leafNode(NAME_QNAME, "first")).build())
+                    .withChild(ImmutableNodes.mapEntryBuilder(LIST_QNAME, ID_QNAME, 2)
+                        .withChild(ImmutableNodes.leafNode(NAME_QNAME, "second")).build())
+                    .build())
+                .withChild(Builders.unkeyedListBuilder()
+                    .withNodeIdentifier(new NodeIdentifier(UNKEYED_QNAME))
+                    .withChild(Builders.unkeyedListEntryBuilder()
+                        .withNodeIdentifier(new NodeIdentifier(UNKEYED_QNAME))
+                        .withChild(ImmutableNodes.leafNode(NAME_QNAME, "unkeyed")).build())
+                    .build())
+                .withChild(Builders.choiceBuilder()
+                    .withNodeIdentifier(new NodeIdentifier(CHOICE_QNAME))
+                    .withChild(ImmutableNodes.leafNode(QName.create(TEST_QNAME, "case-leaf"), "case"))
+                    .build())
+                .withChild(Builders.augmentationBuilder()
+                    .withNodeIdentifier(new AugmentationIdentifier(ImmutableSet.of(AUGMENTED_QNAME)))
+                    .withChild(ImmutableNodes.leafNode(AUGMENTED_QNAME, "augmented"))
+                    .build())
+                .build();
+    }
+
+    @Test
+    public void testNodeRoundTrip() throws IOException {
+        final NormalizedNode<?, ?> node = createTestNode();
+        assertEquals(node, reader(toBytes(node)).readNormalizedNode());
+    }
+
+    @Test
+    public void testLeafRoundTrip() throws IOException {
+        final NormalizedNode<?, ?> node = ImmutableNodes.leafNode(NAME_QNAME, "leaf");
+        assertEquals(node, reader(toBytes(node)).readNormalizedNode());
+    }
+
+    @Test
+    public void testIdentifierRoundTrip() throws IOException {
+        final YangInstanceIdentifier id = YangInstanceIdentifier.builder()
+                .node(TEST_QNAME)
+                .nodeWithKey(LIST_QNAME, ImmutableMap.<QName, Object>of(ID_QNAME, 10, NAME_QNAME, "ten"))
+                .build()
+                .node(new NodeWithValue(LEAF_LIST_QNAME, "one"))
+                .node(new AugmentationIdentifier(ImmutableSet.of(AUGMENTED_QNAME)));
+
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bos);
+        final BinaryNormalizedNodeStreamWriter writer = BinaryNormalizedNodeStreamWriter.create(out);
+        writer.writeYangInstanceIdentifier(id);
+        writer.writePathArgument(new NodeIdentifierWithPredicates(LIST_QNAME, ID_QNAME, 1));
+        writer.writeYangInstanceIdentifier(id);
+        out.flush();
+
+        final BinaryNormalizedNodeStreamReader reader = reader(bos.toByteArray());
+        assertEquals(id, reader.readYangInstanceIdentifier());
+        assertEquals(new NodeIdentifierWithPredicates(LIST_QNAME, ID_QNAME, 1), reader.readPathArgument());
+        assertEquals(id, reader.readYangInstanceIdentifier());
+    }
+
+    @Test
+    public void testBackReferences() throws IOException {
+        final NormalizedNode<?, ?> node = createTestNode();
+
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bos);
+        final BinaryNormalizedNodeStreamWriter writer = BinaryNormalizedNodeStreamWriter.create(out);
+        writer.writeNormalizedNode(node);
+        final int first = out.size();
+        writer.writeNormalizedNode(node);
+        out.flush();
+
+        // The second copy is made up of references and values only
+        final int second = out.size() - first;
+        assertTrue("Second copy of " + second + " bytes is not smaller than first " + first, second * 2 < first);
+
+        final BinaryNormalizedNodeStreamReader reader = reader(bos.toByteArray());
+        assertEquals(node, reader.readNormalizedNode());
+        assertEquals(node, reader.readNormalizedNode());
+    }
+
+    @Test
+    public void testEntryIdentifiersNotReferenced() throws IOException {
+        final PathArgument entry = new NodeIdentifierWithPredicates(LIST_QNAME, ID_QNAME, 1);
+
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bos);
+        final BinaryNormalizedNodeStreamWriter writer = BinaryNormalizedNodeStreamWriter.create(out);
+        writer.writePathArgument(entry);
+        final int first = out.size();
+        writer.writePathArgument(entry);
+        out.flush();
+
+        // The second occurrence refers to the QName, but carries the key values again
+        final byte[] bytes = bos.toByteArray();
+        assertEquals(BinaryStreamConstants.NODE_IDENTIFIER_WITH_PREDICATES, bytes[first]);
+
+        final BinaryNormalizedNodeStreamReader reader = reader(concat(bytes,
+            new byte[] { BinaryStreamConstants.PATH_ARGUMENT_REFERENCE, 0 }));
+        assertEquals(entry, reader.readPathArgument());
+        assertEquals(entry, reader.readPathArgument());
+        try {
+            reader.readPathArgument();
+            fail("Entry identifier should not have been assigned a reference");
+        } catch (IOException e) {
+            // Expected
+        }
+    }
+
+    private static final byte[] NEGATIVE_VARINT = { (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F };
+
+    private static byte[] concat(final byte[] first, final byte[] rest) {
+        final byte[] ret = new byte[first.length + rest.length];
+        System.arraycopy(first, 0, ret, 0, first.length);
+        System.arraycopy(rest, 0, ret, first.length, rest.length);
+        return ret;
+    }
+
+    private static byte[] concat(final byte first, final byte[] rest) {
+        final byte[] ret = new byte[rest.length + 1];
+        ret[0] = first;
+        System.arraycopy(rest, 0, ret, 1, rest.length);
+        return ret;
+    }
+
+    @Test(expected = IOException.class)
+    public void testNegativeArgumentReference() throws IOException {
+        reader(concat(BinaryStreamConstants.PATH_ARGUMENT_REFERENCE, NEGATIVE_VARINT)).readPathArgument();
+    }
+
+    @Test(expected = IOException.class)
+    public void testOutOfRangeArgumentReference() throws IOException {
+        reader(new byte[] { BinaryStreamConstants.PATH_ARGUMENT_REFERENCE, 5 }).readPathArgument();
+    }
+
+    @Test(expected = IOException.class)
+    public void testNegativeQNameReference() throws IOException {
+        reader(concat(BinaryStreamConstants.NODE_IDENTIFIER, NEGATIVE_VARINT)).readPathArgument();
+    }
+
+    @Test
+    public void testValueBoundaries() throws IOException {
+        final Object[] values = new Object[] {
+            Byte.MIN_VALUE, Byte.MAX_VALUE, Short.MIN_VALUE, Short.MAX_VALUE, (short) -1,
+            Integer.MIN_VALUE, Integer.MAX_VALUE, 0, -1, 127, 128,
+            Long.MIN_VALUE, Long.MAX_VALUE, -64L, 64L,
+            new BigInteger("18446744073709551615"), BigInteger.ZERO,
+            new BigDecimal("-12.345"), new BigDecimal("1E+5"), Boolean.FALSE, "",
+        };
+
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bos);
+        final BinaryNormalizedNodeStreamWriter writer = BinaryNormalizedNodeStreamWriter.create(out);
+        for (Object value : values) {
+            writer.writeNormalizedNode(ImmutableNodes.leafNode(NAME_QNAME, value));
+        }
+        out.flush();
+
+        final BinaryNormalizedNodeStreamReader reader = reader(bos.toByteArray());
+        for (Object value : values) {
+            assertEquals(ImmutableNodes.leafNode(NAME_QNAME, value), reader.readNormalizedNode());
+        }
+    }
+
+    @Test
+    public void testAnyxmlRoundTrip() throws IOException {
+        final QName anyxmlQName = QName.create(TEST_QNAME, "anyxml");
+        final QName nestedQName = QName.create(TEST_QNAME, "nested");
+        final CompositeNode xml = NodeFactory.createImmutableCompositeNode(anyxmlQName, null, Arrays.<Node<?>>asList(
+            NodeFactory.createImmutableSimpleNode(NAME_QNAME, null, "simple"),
+            NodeFactory.createImmutableCompositeNode(nestedQName, null, Arrays.<Node<?>>asList(
+                NodeFactory.createImmutableSimpleNode(ID_QNAME, null, "nested-simple")))));
+
+        final NormalizedNode<?, ?> node = Builders.containerBuilder()
+                .withNodeIdentifier(new NodeIdentifier(TEST_QNAME))
+                .withChild(Builders.anyXmlBuilder().withNodeIdentifier(new NodeIdentifier(anyxmlQName))
+                    .withValue(xml).build())
+                .build();
+
+        final ContainerNode read = (ContainerNode) reader(toBytes(node)).readNormalizedNode();
+        final Optional<DataContainerChild<? extends PathArgument, ?>> child = read.getChild(new NodeIdentifier(anyxmlQName));
+        assertTrue(child.isPresent());
+        assertTrue(child.get() instanceof AnyXmlNode);
+
+        final CompositeNode value = (CompositeNode) ((AnyXmlNode) child.get()).getValue();
+        assertEquals(anyxmlQName, value.getNodeType());
+        assertEquals(2, value.getValue().size());
+        assertEquals("simple", value.getFirstSimpleByName(NAME_QNAME).getValue());
+        assertEquals("nested-simple", value.getFirstCompositeByName(nestedQName).getFirstSimpleByName(ID_QNAME).getValue());
+    }
+}
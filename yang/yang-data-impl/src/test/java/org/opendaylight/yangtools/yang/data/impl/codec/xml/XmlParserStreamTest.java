@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.codec.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamReader;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.NormalizedDataBuilderTest;
+import org.opendaylight.yangtools.yang.data.impl.schema.NormalizedNodeResult;
+import org.opendaylight.yangtools.yang.data.impl.schema.transform.dom.DomUtils;
+import org.opendaylight.yangtools.yang.data.impl.schema.transform.dom.parser.DomToNormalizedNodeParserFactory;
+import org.opendaylight.yangtools.yang.model.api.ContainerSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.Module;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.parser.impl.YangParserImpl;
+import org.w3c.dom.Document;
+
+/**
+ * Checks that {@link XmlParserStream} produces the same data as the DOM parsers.
+ */
+@RunWith(Parameterized.class)
+public class XmlParserStreamTest {
+    private static final XMLInputFactory INPUT_FACTORY = XMLInputFactory.newInstance();
+
+    @Parameterized.Parameters()
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][]{
+                {"augment_choice_hell.yang", "augment_choice_hell_ok.xml"},
+                {"augment_choice_hell.yang", "augment_choice_hell_ok2.xml"},
+                {"test.yang", "simple.xml"},
+        });
+    }
+
+    private final SchemaContext schema;
+    private final ContainerSchemaNode containerNode;
+    private final String xmlPath;
+
+    public XmlParserStreamTest(final String yangPath, final String xmlPath) {
+        final YangParserImpl parser = new YangParserImpl();
+        final Set<Module> modules = parser.parseYangModelsFromStreams(
+            Collections.singletonList(NormalizedDataBuilderTest.class.getResourceAsStream(yangPath)));
+        this.schema = parser.resolveSchemaContext(modules);
+        this.containerNode = (ContainerSchemaNode) NormalizedDataBuilderTest.getSchemaNode(schema, "test", "container");
+        this.xmlPath = xmlPath;
+    }
+
+    @Test
+    public void testSameAsDomParser() throws Exception {
+        final ContainerNode expected;
+        try (InputStream in = NormalizedDataBuilderTest.class.getResourceAsStream(xmlPath)) {
+            assertNotNull(in);
+            final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(true);
+            final Document doc = factory.newDocumentBuilder().parse(in);
+            expected = DomToNormalizedNodeParserFactory.getInstance(DomUtils.defaultValueCodecProvider())
+                    .getContainerNodeParser().parse(Collections.singletonList(doc.getDocumentElement()), containerNode);
+        }
+
+        final NormalizedNodeResult result = new NormalizedNodeResult();
+        try (InputStream in = NormalizedDataBuilderTest.class.getResourceAsStream(xmlPath)) {
+            final XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(in);
+            XmlParserStream.create(ImmutableNormalizedNodeStreamWriter.from(result), schema).parse(reader);
+            reader.close();
+        }
+
+        assertEquals(expected, result.getResult());
+    }
+}
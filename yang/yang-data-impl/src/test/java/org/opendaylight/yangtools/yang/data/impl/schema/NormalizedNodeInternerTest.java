@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.LeafNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.model.util.BooleanType;
+import org.opendaylight.yangtools.yang.model.util.StringType;
+
+public class NormalizedNodeInternerTest {
+    private static final QName LEAF = QName.create("urn:opendaylight:interner-test", "2014-12-01", "leaf");
+
+    @Test
+    public void testIdentifierInterning() {
+        final NodeIdentifier first = new NodeIdentifier(LEAF);
+        final NodeIdentifier second = new NodeIdentifier(LEAF);
+        assertNotSame(first, second);
+
+        final long hits = NormalizedNodeInterner.getIdentifierStatistics().getHitCount();
+        assertSame(NormalizedNodeInterner.intern(first), NormalizedNodeInterner.intern(second));
+        assertTrue(NormalizedNodeInterner.getIdentifierStatistics().getHitCount() > hits);
+    }
+
+    @Test
+    public void testLeafInterning() {
+        final LeafNode<String> first = ImmutableNodes.leafNode(LEAF, "value");
+        final LeafNode<String> second = ImmutableNodes.leafNode(LEAF, "value");
+        assertNotSame(first, second);
+
+        final NormalizedNodeInterner.Statistics before = NormalizedNodeInterner.getLeafStatistics();
+        assertSame(NormalizedNodeInterner.intern(first), NormalizedNodeInterner.intern(second));
+
+        // Other tests may be interning concurrently, exact counts are checked in testCountingInterner()
+        final NormalizedNodeInterner.Statistics after = NormalizedNodeInterner.getLeafStatistics();
+        assertTrue(after.getRequestCount() >= before.getRequestCount() + 2);
+        assertTrue(after.getHitCount() >= before.getHitCount() + 1);
+    }
+
+    @Test
+    public void testCountingInterner() {
+        final NormalizedNodeInterner.CountingInterner<LeafNode<String>> interner =
+                new NormalizedNodeInterner.CountingInterner<>();
+        final LeafNode<String> first = ImmutableNodes.leafNode(LEAF, "counted");
+        assertSame(first, interner.intern(first));
+        assertSame(first, interner.intern(ImmutableNodes.leafNode(LEAF, "counted")));
+
+        final NormalizedNodeInterner.Statistics stats = interner.getStatistics();
+        assertEquals(2, stats.getRequestCount());
+        assertEquals(1, stats.getHitCount());
+        assertEquals(0.5, stats.getHitRate(), 0);
+    }
+
+    @Test
+    public void testNodesWithAttributesAreNotInterned() {
+        final LeafNode<String> plain = NormalizedNodeInterner.intern(ImmutableNodes.leafNode(LEAF, "attr"));
+        final LeafNode<String> withAttributes = Builders.<String>leafBuilder().withNodeIdentifier(new NodeIdentifier(LEAF))
+                .withValue("attr").withAttributes(Collections.singletonMap(LEAF, "x")).build();
+
+        assertSame(withAttributes, NormalizedNodeInterner.intern(withAttributes));
+        assertNotSame(plain, NormalizedNodeInterner.intern(withAttributes));
+    }
+
+    @Test
+    public void testContainersAreNotInterned() {
+        final NormalizedNode<?, ?> container = ImmutableNodes.containerNode(LEAF);
+        assertSame(container, NormalizedNodeInterner.intern(container));
+    }
+
+    @Test
+    public void testInternableTypes() {
+        assertTrue(NormalizedNodeInterner.isInternableType(BooleanType.getInstance()));
+        assertFalse(NormalizedNodeInterner.isInternableType(StringType.getInstance()));
+        assertFalse(NormalizedNodeInterner.isInternableType(null));
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import com.google.common.collect.Iterables;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.model.api.Module;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.model.api.SchemaPath;
+import org.opendaylight.yangtools.yang.parser.impl.YangParserImpl;
+
+public class SchemaAwareImmutableNormalizedNodeStreamWriterTest {
+    private static final QName TOP = QName.create("urn:opendaylight:params:xml:ns:yang:controller:md:sal:dom:store:interner-test",
+        "2014-12-01", "top");
+    private static final QName ITEM = QName.create(TOP, "item");
+    private static final QName ID = QName.create(TOP, "id");
+    private static final QName STATE = QName.create(TOP, "state");
+    private static final QName ENABLED = QName.create(TOP, "enabled");
+    private static final QName KIND = QName.create(TOP, "kind");
+    private static final QName FIRST_KIND = QName.create(TOP, "first-kind");
+    private static final QName DESCRIPTION = QName.create(TOP, "description");
+
+    private static SchemaContext schemaContext;
+
+    @BeforeClass
+    public static void setUp() {
+        final YangParserImpl parser = new YangParserImpl();
+        final Set<Module> modules = parser.parseYangModelsFromStreams(Collections.singletonList(
+            SchemaAwareImmutableNormalizedNodeStreamWriterTest.class.getResourceAsStream("/interner-test.yang")));
+        schemaContext = parser.resolveSchemaContext(modules);
+    }
+
+    private static void writeItem(final NormalizedNodeStreamWriter writer, final int id) throws IOException {
+        writer.startMapEntryNode(new NodeIdentifierWithPredicates(ITEM, ID, id), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+        writer.leafNode(new NodeIdentifier(ID), id);
+        writer.leafNode(new NodeIdentifier(STATE), "up");
+        writer.leafNode(new NodeIdentifier(ENABLED), Boolean.TRUE);
+        writer.leafNode(new NodeIdentifier(KIND), FIRST_KIND);
+        writer.leafNode(new NodeIdentifier(DESCRIPTION), "same description");
+        writer.endNode();
+    }
+
+    private static NormalizedNode<?, ?> child(final MapEntryNode entry, final QName qname) {
+        return entry.getChild(new NodeIdentifier(qname)).get();
+    }
+
+    @Test
+    public void testInterning() throws IOException {
+        final NormalizedNodeResult result = new NormalizedNodeResult();
+        final NormalizedNodeStreamWriter writer = SchemaAwareImmutableNormalizedNodeStreamWriter.from(result,
+            schemaContext, SchemaPath.ROOT);
+        writer.startContainerNode(new NodeIdentifier(TOP), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+        writer.startMapNode(new NodeIdentifier(ITEM), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+        writeItem(writer, 1);
+        writeItem(writer, 2);
+        writer.endNode();
+        writer.endNode();
+
+        final ContainerNode top = (ContainerNode) result.getResult();
+        final MapNode items = (MapNode) top.getChild(new NodeIdentifier(ITEM)).get();
+        assertEquals(2, Iterables.size(items.getValue()));
+        final MapEntryNode first = items.getChild(new NodeIdentifierWithPredicates(ITEM, ID, 1)).get();
+        final MapEntryNode second = items.getChild(new NodeIdentifierWithPredicates(ITEM, ID, 2)).get();
+
+        // Leaves with a small set of values are shared, and so are their identifiers
+        assertSame(child(first, STATE), child(second, STATE));
+        assertSame(child(first, ENABLED), child(second, ENABLED));
+        assertSame(child(first, KIND), child(second, KIND));
+
+        // Other leaves are not, but their identifiers are
+        final NormalizedNode<?, ?> firstDescription = child(first, DESCRIPTION);
+        final NormalizedNode<?, ?> secondDescription = child(second, DESCRIPTION);
+        assertEquals(firstDescription, secondDescription);
+        assertNotSame(firstDescription, secondDescription);
+        assertSame(firstDescription.getIdentifier(), secondDescription.getIdentifier());
+        assertSame(child(first, ID).getIdentifier(), child(second, ID).getIdentifier());
+    }
+}
@@ -7,6 +7,7 @@ import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
 import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.ConflictingModificationAppliedException;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
@@ -647,4 +648,74 @@ public class ConcurrentTreeModificationTest {
         InMemoryDataTreeSnapshot snapshotAfterCommits = inMemoryDataTree.takeSnapshot();
         assertFalse(snapshotAfterCommits.readNode(TestModel.TEST_PATH).isPresent());
     }
+
+    private InMemoryDataTree createTreeWithEmptyOuterList() throws DataValidationFailedException {
+        InMemoryDataTree inMemoryDataTree = InMemoryDataTreeFactory.getInstance().create();
+        inMemoryDataTree.setSchemaContext(schemaContext);
+        DataTreeModification initialDataTreeModification = inMemoryDataTree.takeSnapshot().newModification();
+        initialDataTreeModification.write(TestModel.TEST_PATH, ImmutableContainerNodeBuilder.create()
+                .withNodeIdentifier(new YangInstanceIdentifier.NodeIdentifier(TestModel.TEST_QNAME))
+                .withChild(mapNodeBuilder(TestModel.OUTER_LIST_QNAME).build()).build());
+        inMemoryDataTree.commit(inMemoryDataTree.prepare(initialDataTreeModification));
+        return inMemoryDataTree;
+    }
+
+    @Test
+    public void preparedDisjointEntriesRebaseTest() throws DataValidationFailedException {
+        InMemoryDataTree inMemoryDataTree = createTreeWithEmptyOuterList();
+        InMemoryDataTreeSnapshot initialDataTreeSnapshot = inMemoryDataTree.takeSnapshot();
+
+        DataTreeModification modificationTree1 = new InMemoryDataTreeModification(initialDataTreeSnapshot,
+                rootOper);
+        DataTreeModification modificationTree2 = new InMemoryDataTreeModification(initialDataTreeSnapshot,
+                rootOper);
+
+        modificationTree1.write(OUTER_LIST_1_PATH, FOO_NODE);
+        modificationTree2.write(OUTER_LIST_2_PATH, BAR_NODE);
+
+        DataTreeCandidate prepare1 = inMemoryDataTree.prepare(modificationTree1);
+        DataTreeCandidate prepare2 = inMemoryDataTree.prepare(modificationTree2);
+        inMemoryDataTree.commit(prepare1);
+        inMemoryDataTree.commit(prepare2);
+
+        InMemoryDataTreeSnapshot snapshotAfterCommits = inMemoryDataTree.takeSnapshot();
+        assertPresentAndType(snapshotAfterCommits.readNode(OUTER_LIST_1_PATH), MapEntryNode.class);
+        assertPresentAndType(snapshotAfterCommits.readNode(OUTER_LIST_2_PATH), MapEntryNode.class);
+
+        // The rebased candidate has to report the state it was really committed on
+        final NormalizedNode<?, ?> before = prepare2.getRootNode().getDataBefore().get();
+        final NormalizedNode<?, ?> after = prepare2.getRootNode().getDataAfter().get();
+        assertTrue(NormalizedNodes.findNode(before, OUTER_LIST_1_PATH).isPresent());
+        assertFalse(NormalizedNodes.findNode(before, OUTER_LIST_2_PATH).isPresent());
+        assertTrue(NormalizedNodes.findNode(after, OUTER_LIST_1_PATH).isPresent());
+        assertTrue(NormalizedNodes.findNode(after, OUTER_LIST_2_PATH).isPresent());
+    }
+
+    @Test
+    public void preparedConflictingEntriesRebaseTest() throws DataValidationFailedException {
+        InMemoryDataTree inMemoryDataTree = createTreeWithEmptyOuterList();
+        InMemoryDataTreeSnapshot initialDataTreeSnapshot = inMemoryDataTree.takeSnapshot();
+
+        DataTreeModification modificationTree1 = new InMemoryDataTreeModification(initialDataTreeSnapshot,
+                rootOper);
+        DataTreeModification modificationTree2 = new InMemoryDataTreeModification(initialDataTreeSnapshot,
+                rootOper);
+
+        modificationTree1.write(OUTER_LIST_1_PATH, FOO_NODE);
+        modificationTree2.write(OUTER_LIST_1_PATH, FOO_NODE);
+
+        DataTreeCandidate prepare1 = inMemoryDataTree.prepare(modificationTree1);
+        DataTreeCandidate prepare2 = inMemoryDataTree.prepare(modificationTree2);
+        inMemoryDataTree.commit(prepare1);
+
+        try {
+            inMemoryDataTree.commit(prepare2);
+            fail("Exception should have been thrown.");
+        } catch (IllegalStateException ex) {
+            assertTrue(ex.getCause() instanceof ConflictingModificationAppliedException);
+        }
+
+        InMemoryDataTreeSnapshot snapshotAfterCommits = inMemoryDataTree.takeSnapshot();
+        assertPresentAndType(snapshotAfterCommits.readNode(OUTER_LIST_1_PATH), MapEntryNode.class);
+    }
 }
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+import java.util.Set;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.model.api.Module;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.parser.impl.YangParserImpl;
+
+public class ConstraintEnforcementTest {
+    private static final QName CONSTRAINTS_QNAME = QName.create(
+        "urn:opendaylight:params:xml:ns:yang:controller:md:sal:dom:store:constraints-test", "2014-12-01", "constraints");
+    private static final QName MANDATORY_LEAF_QNAME = QName.create(CONSTRAINTS_QNAME, "mandatory-leaf");
+    private static final QName BOUNDED_LIST_QNAME = QName.create(CONSTRAINTS_QNAME, "bounded-list");
+    private static final QName BOUNDED_LEAF_LIST_QNAME = QName.create(CONSTRAINTS_QNAME, "bounded-leaf-list");
+    private static final QName ID_QNAME = QName.create(CONSTRAINTS_QNAME, "id");
+
+    private static final YangInstanceIdentifier CONSTRAINTS_PATH = YangInstanceIdentifier.of(CONSTRAINTS_QNAME);
+    private static final YangInstanceIdentifier MANDATORY_LEAF_PATH = CONSTRAINTS_PATH.node(MANDATORY_LEAF_QNAME);
+    private static final YangInstanceIdentifier BOUNDED_LIST_PATH = CONSTRAINTS_PATH.node(BOUNDED_LIST_QNAME);
+    private static final YangInstanceIdentifier BOUNDED_LEAF_LIST_PATH = CONSTRAINTS_PATH.node(BOUNDED_LEAF_LIST_QNAME);
+
+    private SchemaContext schemaContext;
+    private InMemoryDataTree tree;
+
+    @Before
+    public void setUp() {
+        final YangParserImpl parser = new YangParserImpl();
+        final Set<Module> modules = parser.parseYangModelsFromStreams(Collections.singletonList(
+            getClass().getResourceAsStream("/odl-datastore-constraints-test.yang")));
+        schemaContext = parser.resolveSchemaContext(modules);
+
+        tree = InMemoryDataTreeFactory.getInstance().create(true);
+        tree.setSchemaContext(schemaContext);
+    }
+
+    private static MapEntryNode listEntry(final int id) {
+        return ImmutableNodes.mapEntry(BOUNDED_LIST_QNAME, ID_QNAME, id);
+    }
+
+    private static YangInstanceIdentifier listEntryPath(final int id) {
+        return YangInstanceIdentifier.builder(BOUNDED_LIST_PATH).nodeWithKey(BOUNDED_LIST_QNAME, ID_QNAME, id).build();
+    }
+
+    private static ContainerNode validContainer() {
+        return Builders.containerBuilder().withNodeIdentifier(new YangInstanceIdentifier.NodeIdentifier(CONSTRAINTS_QNAME))
+                .withChild(ImmutableNodes.leafNode(MANDATORY_LEAF_QNAME, "value"))
+                .withChild(ImmutableNodes.mapNodeBuilder(BOUNDED_LIST_QNAME).withChild(listEntry(1)).build())
+                .build();
+    }
+
+    private DataTreeModification newModification() {
+        return tree.takeSnapshot().newModification();
+    }
+
+    private void commit(final DataTreeModification modification) throws Exception {
+        modification.ready();
+        tree.validate(modification);
+        tree.commit(tree.prepare(modification));
+    }
+
+    private void assertViolation(final DataTreeModification modification, final YangInstanceIdentifier path)
+            throws Exception {
+        modification.ready();
+        tree.validate(modification);
+        try {
+            tree.prepare(modification);
+            fail("Modification should have been rejected");
+        } catch (SchemaValidationFailedException e) {
+            assertEquals(path, e.getPath());
+        }
+    }
+
+    @Test
+    public void testValidWrite() throws Exception {
+        final DataTreeModification mod = newModification();
+        mod.write(CONSTRAINTS_PATH, validContainer());
+        commit(mod);
+
+        assertTrue(tree.takeSnapshot().readNode(listEntryPath(1)).isPresent());
+    }
+
+    @Test
+    public void testMissingMandatoryLeaf() throws Exception {
+        final DataTreeModification mod = newModification();
+        mod.write(CONSTRAINTS_PATH, Builders.containerBuilder()
+            .withNodeIdentifier(new YangInstanceIdentifier.NodeIdentifier(CONSTRAINTS_QNAME))
+            .withChild(ImmutableNodes.mapNodeBuilder(BOUNDED_LIST_QNAME).withChild(listEntry(1)).build())
+            .build());
+        assertViolation(mod, CONSTRAINTS_PATH);
+    }
+
+    @Test
+    public void testDeleteMandatoryLeaf() throws Exception {
+        final DataTreeModification init = newModification();
+        init.write(CONSTRAINTS_PATH, validContainer());
+        commit(init);
+
+        final DataTreeModification mod = newModification();
+        mod.delete(MANDATORY_LEAF_PATH);
+        assertViolation(mod, CONSTRAINTS_PATH);
+    }
+
+    @Test
+    public void testMinElements() throws Exception {
+        final DataTreeModification init = newModification();
+        init.write(CONSTRAINTS_PATH, validContainer());
+        commit(init);
+
+        // Adding and removing entries incrementally keeps the list within bounds
+        final DataTreeModification add = newModification();
+        add.write(listEntryPath(2), listEntry(2));
+        add.delete(listEntryPath(1));
+        commit(add);
+
+        final DataTreeModification mod = newModification();
+        mod.delete(listEntryPath(2));
+        assertViolation(mod, BOUNDED_LIST_PATH);
+    }
+
+    @Test
+    public void testMaxElements() throws Exception {
+        final DataTreeModification init = newModification();
+        init.write(CONSTRAINTS_PATH, validContainer());
+        commit(init);
+
+        final DataTreeModification add = newModification();
+        add.merge(listEntryPath(2), listEntry(2));
+        add.merge(listEntryPath(3), listEntry(3));
+        commit(add);
+
+        final DataTreeModification mod = newModification();
+        mod.merge(listEntryPath(4), listEntry(4));
+        assertViolation(mod, BOUNDED_LIST_PATH);
+    }
+
+    @Test
+    public void testLeafListMaxElements() throws Exception {
+        final DataTreeModification mod = newModification();
+        mod.write(CONSTRAINTS_PATH, validContainer());
+        mod.write(BOUNDED_LEAF_LIST_PATH, Builders.<String>leafSetBuilder()
+            .withNodeIdentifier(new YangInstanceIdentifier.NodeIdentifier(BOUNDED_LEAF_LIST_QNAME))
+            .withChildValue("a").withChildValue("b").withChildValue("c")
+            .build());
+        assertViolation(mod, BOUNDED_LEAF_LIST_PATH);
+    }
+
+    @Test
+    public void testNotEnforcedByDefault() throws Exception {
+        tree = InMemoryDataTreeFactory.getInstance().create();
+        tree.setSchemaContext(schemaContext);
+
+        final DataTreeModification mod = newModification();
+        mod.write(CONSTRAINTS_PATH, ImmutableNodes.containerNode(CONSTRAINTS_QNAME));
+        commit(mod);
+
+        assertTrue(tree.takeSnapshot().readNode(CONSTRAINTS_PATH).isPresent());
+    }
+}
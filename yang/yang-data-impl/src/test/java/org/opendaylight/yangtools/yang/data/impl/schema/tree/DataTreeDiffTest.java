@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.mapEntry;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.mapNodeBuilder;
+import static org.opendaylight.yangtools.yang.data.impl.schema.tree.TestModel.outerEntry;
+import static org.opendaylight.yangtools.yang.data.impl.schema.tree.TestModel.outerEntryPath;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.Iterables;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeSnapshot;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableMapNodeBuilder;
+
+public class DataTreeDiffTest {
+    private InMemoryDataTree inMemoryDataTree;
+
+    @Before
+    public void prepare() {
+        inMemoryDataTree = TestModel.createTestDataTree();
+    }
+
+    private static DataTreeCandidate diff(final NormalizedNode<?, ?> before, final NormalizedNode<?, ?> after) {
+        return DataTreeDiff.diff(TestModel.TEST_PATH, Optional.<NormalizedNode<?, ?>>of(before),
+            Optional.<NormalizedNode<?, ?>>of(after));
+    }
+
+    private static DataTreeCandidateNode onlyChild(final DataTreeCandidateNode node) {
+        return Iterables.getOnlyElement(node.getChildNodes());
+    }
+
+    @Test
+    public void testSameInstanceIsUnmodified() {
+        final ContainerNode data = TestModel.testContainer(outerEntry(1, "one"));
+        final DataTreeCandidate candidate = diff(data, data);
+        assertEquals(TestModel.TEST_PATH, candidate.getRootPath());
+        assertEquals(ModificationType.UNMODIFIED, candidate.getRootNode().getModificationType());
+    }
+
+    @Test
+    public void testEqualTreesAreUnmodified() {
+        final DataTreeCandidate candidate = diff(TestModel.testContainer(outerEntry(1, "one")),
+            TestModel.testContainer(outerEntry(1, "one")));
+        assertEquals(ModificationType.UNMODIFIED, candidate.getRootNode().getModificationType());
+        assertTrue(Iterables.isEmpty(candidate.getRootNode().getChildNodes()));
+    }
+
+    @Test
+    public void testChangedLeaf() {
+        final DataTreeCandidate candidate = diff(TestModel.testContainer(outerEntry(1, "one"), outerEntry(2, "two")),
+            TestModel.testContainer(outerEntry(1, "one"), outerEntry(2, "changed")));
+
+        final DataTreeCandidateNode root = candidate.getRootNode();
+        assertEquals(ModificationType.SUBTREE_MODIFIED, root.getModificationType());
+
+        final DataTreeCandidateNode list = onlyChild(root);
+        assertEquals(new NodeIdentifier(TestModel.OUTER_LIST_QNAME), list.getIdentifier());
+        assertEquals(ModificationType.SUBTREE_MODIFIED, list.getModificationType());
+
+        final DataTreeCandidateNode entry = onlyChild(list);
+        assertEquals(mapEntry(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, 2).getIdentifier(), entry.getIdentifier());
+
+        final DataTreeCandidateNode leaf = onlyChild(onlyChild(entry));
+        assertEquals(ModificationType.WRITE, leaf.getModificationType());
+        assertEquals("two", leaf.getDataBefore().get().getValue());
+        assertEquals("changed", leaf.getDataAfter().get().getValue());
+    }
+
+    @Test
+    public void testAddedAndRemovedEntries() {
+        final DataTreeCandidate candidate = diff(TestModel.testContainer(outerEntry(1, "one"), outerEntry(2, "two")),
+            TestModel.testContainer(outerEntry(2, "two"), outerEntry(3, "three")));
+
+        final DataTreeCandidateNode list = onlyChild(candidate.getRootNode());
+        assertEquals(2, Iterables.size(list.getChildNodes()));
+        for (DataTreeCandidateNode entry : list.getChildNodes()) {
+            if (entry.getModificationType() == ModificationType.WRITE) {
+                assertEquals(outerEntry(3, "three"), entry.getDataAfter().get());
+                assertTrue(Iterables.isEmpty(entry.getChildNodes()));
+            } else {
+                assertEquals(ModificationType.DELETE, entry.getModificationType());
+                assertEquals(outerEntry(1, "one"), entry.getDataBefore().get());
+            }
+        }
+    }
+
+    @Test
+    public void testLargeList() {
+        final CollectionNodeBuilder<MapEntryNode, MapNode> builder = mapNodeBuilder(TestModel.OUTER_LIST_QNAME);
+        for (int i = 0; i < 1000; ++i) {
+            builder.withChild(outerEntry(i, "entry"));
+        }
+        final MapNode before = builder.build();
+        final MapNode after = ImmutableMapNodeBuilder.create(before).withChild(outerEntry(500, "changed"))
+                .withoutChild(outerEntry(10, "entry").getIdentifier()).withChild(outerEntry(1000, "added")).build();
+
+        final DataTreeCandidateNode list = DataTreeDiff.diff(TestModel.OUTER_LIST_PATH,
+            Optional.<NormalizedNode<?, ?>>of(before), Optional.<NormalizedNode<?, ?>>of(after)).getRootNode();
+        assertEquals(ModificationType.SUBTREE_MODIFIED, list.getModificationType());
+        assertEquals(3, Iterables.size(list.getChildNodes()));
+        for (DataTreeCandidateNode entry : list.getChildNodes()) {
+            switch (entry.getModificationType()) {
+            case WRITE:
+                assertEquals(outerEntry(1000, "added"), entry.getDataAfter().get());
+                break;
+            case DELETE:
+                assertEquals(outerEntry(10, "entry"), entry.getDataBefore().get());
+                break;
+            case SUBTREE_MODIFIED:
+                assertEquals(outerEntry(500, "changed"), entry.getDataAfter().get());
+                assertEquals("changed", onlyChild(onlyChild(entry)).getDataAfter().get().getValue());
+                break;
+            default:
+                throw new AssertionError("Unexpected modification " + entry);
+            }
+        }
+    }
+
+    @Test
+    public void testSnapshots() throws Exception {
+        final DataTreeModification init = inMemoryDataTree.takeSnapshot().newModification();
+        init.write(TestModel.TEST_PATH, TestModel.testContainer(mapEntry(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, 1),
+            mapEntry(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, 2)));
+        TestModel.commit(inMemoryDataTree, init);
+        final DataTreeSnapshot before = inMemoryDataTree.takeSnapshot();
+
+        final YangInstanceIdentifier entryPath = outerEntryPath(3);
+        final DataTreeModification mod = before.newModification();
+        mod.write(entryPath, mapEntry(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, 3));
+        TestModel.commit(inMemoryDataTree, mod);
+        final DataTreeSnapshot after = inMemoryDataTree.takeSnapshot();
+
+        final DataTreeCandidateNode root = DataTreeDiff.diff(before, after).getRootNode();
+        assertEquals(ModificationType.SUBTREE_MODIFIED, root.getModificationType());
+
+        final DataTreeCandidateNode entry = onlyChild(onlyChild(onlyChild(root)));
+        assertEquals(entryPath.getLastPathArgument(), entry.getIdentifier());
+        assertEquals(ModificationType.WRITE, entry.getModificationType());
+
+        assertEquals(ModificationType.UNMODIFIED, DataTreeDiff.diff(after, after).getRootNode().getModificationType());
+    }
+}
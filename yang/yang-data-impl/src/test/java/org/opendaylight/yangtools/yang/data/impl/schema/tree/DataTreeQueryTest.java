@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.opendaylight.yangtools.yang.data.impl.schema.tree.TestModel.outerEntry;
+import static org.opendaylight.yangtools.yang.data.impl.schema.tree.TestModel.outerEntryPath;
+
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeSnapshot;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+
+public class DataTreeQueryTest {
+    private SchemaContext schemaContext;
+    private InMemoryDataTree inMemoryDataTree;
+
+    @Before
+    public void prepare() throws Exception {
+        schemaContext = TestModel.createTestContext();
+        inMemoryDataTree = TestModel.createTestDataTree(schemaContext);
+
+        final DataTreeModification mod = inMemoryDataTree.takeSnapshot().newModification();
+        mod.write(TestModel.TEST_PATH, TestModel.testContainer(outerEntry(1, "a", "x", "y"), outerEntry(2, "b", "x"),
+            outerEntry(3, "a")));
+        TestModel.commit(inMemoryDataTree, mod);
+    }
+
+    private static Set<Object> values(final Iterable<NormalizedNode<?, ?>> nodes) {
+        final Set<Object> ret = new HashSet<>();
+        for (NormalizedNode<?, ?> node : nodes) {
+            if (node.getIdentifier() instanceof NodeIdentifierWithPredicates) {
+                ret.add(((NodeIdentifierWithPredicates) node.getIdentifier()).getKeyValues().values().iterator().next());
+            } else {
+                ret.add(node.getValue());
+            }
+        }
+        return ret;
+    }
+
+    private DataTreeQuery.Builder outerEntries() {
+        return DataTreeQuery.builder(schemaContext).node(TestModel.TEST_QNAME).node(TestModel.OUTER_LIST_QNAME)
+                .anyEntry();
+    }
+
+    @Test
+    public void testLeafPredicateThroughChoice() {
+        final DataTreeQuery query = outerEntries().whereLeaf(TestModel.TWO_QNAME, "a").build();
+        assertEquals(ImmutableSet.of(1, 3), values(query.execute(inMemoryDataTree.takeSnapshot())));
+    }
+
+    @Test
+    public void testCountPredicate() {
+        final DataTreeSnapshot snapshot = inMemoryDataTree.takeSnapshot();
+        assertEquals(ImmutableSet.of(1, 2), values(outerEntries().whereCountGreaterThan(TestModel.INNER_LIST_QNAME, 0)
+            .build().execute(snapshot)));
+        assertEquals(ImmutableSet.of(1), values(outerEntries().whereCountGreaterThan(TestModel.INNER_LIST_QNAME, 1)
+            .build().execute(snapshot)));
+    }
+
+    @Test
+    public void testKeyLookupAndProjection() {
+        final DataTreeQuery byKey = DataTreeQuery.builder(schemaContext).node(TestModel.TEST_QNAME)
+                .node(TestModel.OUTER_LIST_QNAME).entry(TestModel.ID_QNAME, 1)
+                .node(TestModel.INNER_LIST_QNAME).anyEntry().node(TestModel.VALUE_QNAME).build();
+        assertEquals(ImmutableSet.of("x-value", "y-value"), values(byKey.execute(inMemoryDataTree.takeSnapshot())));
+
+        final DataTreeQuery projection = outerEntries().whereLeaf(TestModel.TWO_QNAME, "a")
+                .node(TestModel.INNER_LIST_QNAME).anyEntry().whereLeaf(TestModel.NAME_QNAME, "y")
+                .node(TestModel.VALUE_QNAME).build();
+        assertEquals(ImmutableSet.of("y-value"), values(projection.execute(inMemoryDataTree.takeSnapshot())));
+    }
+
+    @Test
+    public void testLimitTerminatesEarly() {
+        final int[] visited = new int[1];
+        final DataTreeQuery query = outerEntries().where(new Predicate<NormalizedNode<?, ?>>() {
+            @Override
+            public boolean apply(final NormalizedNode<?, ?> input) {
+                visited[0]++;
+                return true;
+            }
+        }).limit(1).build();
+
+        final Iterable<NormalizedNode<?, ?>> result = query.execute(inMemoryDataTree.takeSnapshot());
+        assertEquals(0, visited[0]);
+        assertEquals(1, Iterables.size(result));
+        assertEquals(1, visited[0]);
+        assertTrue(query.findFirst(inMemoryDataTree.takeSnapshot()).isPresent());
+    }
+
+    @Test
+    public void testQueryReuse() throws Exception {
+        final DataTreeQuery query = outerEntries().whereLeaf(TestModel.TWO_QNAME, "b").build();
+        final DataTreeSnapshot before = inMemoryDataTree.takeSnapshot();
+
+        final DataTreeModification mod = before.newModification();
+        mod.write(outerEntryPath(4), outerEntry(4, "b"));
+        TestModel.commit(inMemoryDataTree, mod);
+
+        assertEquals(ImmutableSet.of(2), values(query.execute(before)));
+        assertEquals(ImmutableSet.of(2, 4), values(query.execute(inMemoryDataTree.takeSnapshot())));
+        assertEquals(ImmutableSet.of(2, 4), values(query.execute(inMemoryDataTree.takeSnapshot().readNode(
+            TestModel.TEST_PATH.getParent()).get())));
+    }
+
+    @Test
+    public void testMissingData() {
+        final InMemoryDataTree emptyTree = TestModel.createTestDataTree(schemaContext);
+        assertFalse(outerEntries().build().execute(emptyTree.takeSnapshot()).iterator().hasNext());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownChild() {
+        DataTreeQuery.builder(schemaContext).node(TestModel.TEST_QNAME).node(TestModel.TWO_QNAME);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testEntriesOfContainer() {
+        DataTreeQuery.builder(schemaContext).node(TestModel.TEST_QNAME).anyEntry();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testChildOfList() {
+        DataTreeQuery.builder(schemaContext).node(TestModel.TEST_QNAME).node(TestModel.OUTER_LIST_QNAME)
+            .node(TestModel.ID_QNAME);
+    }
+}
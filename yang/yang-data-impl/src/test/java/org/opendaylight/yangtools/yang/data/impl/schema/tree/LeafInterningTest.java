@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.leafNode;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.mapEntry;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.mapNodeBuilder;
+
+import java.util.Collections;
+import java.util.Set;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.LeafNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeSnapshot;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.model.api.Module;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.parser.impl.YangParserImpl;
+
+public class LeafInterningTest {
+    private static final QName TOP = QName.create("urn:opendaylight:params:xml:ns:yang:controller:md:sal:dom:store:interner-test",
+        "2014-12-01", "top");
+    private static final QName ITEM = QName.create(TOP, "item");
+    private static final QName ID = QName.create(TOP, "id");
+    private static final QName STATE = QName.create(TOP, "state");
+    private static final QName DESCRIPTION = QName.create(TOP, "description");
+    private static final YangInstanceIdentifier TOP_PATH = YangInstanceIdentifier.of(TOP);
+
+    private InMemoryDataTree inMemoryDataTree;
+
+    @Before
+    public void prepare() throws Exception {
+        final YangParserImpl parser = new YangParserImpl();
+        final Set<Module> modules = parser.parseYangModelsFromStreams(Collections.singletonList(
+            LeafInterningTest.class.getResourceAsStream("/interner-test.yang")));
+        final SchemaContext schemaContext = parser.resolveSchemaContext(modules);
+        inMemoryDataTree = TestModel.createTestDataTree(schemaContext);
+
+        final DataTreeModification mod = inMemoryDataTree.takeSnapshot().newModification();
+        mod.write(TOP_PATH, Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(TOP))
+            .withChild(mapNodeBuilder(ITEM).withChild(mapEntry(ITEM, ID, 1)).withChild(mapEntry(ITEM, ID, 2)).build())
+            .build());
+        TestModel.commit(inMemoryDataTree, mod);
+    }
+
+    private static YangInstanceIdentifier leafPath(final int id, final QName leaf) {
+        return YangInstanceIdentifier.builder(TOP_PATH).node(ITEM).nodeWithKey(ITEM, ID, id).node(leaf).build();
+    }
+
+    private NormalizedNode<?, ?> writeAndRead(final QName leaf, final Object value) throws Exception {
+        final DataTreeModification mod = inMemoryDataTree.takeSnapshot().newModification();
+        final LeafNode<Object> first = leafNode(leaf, value);
+        final LeafNode<Object> second = leafNode(leaf, value);
+        assertNotSame(first, second);
+        mod.write(leafPath(1, leaf), first);
+        mod.write(leafPath(2, leaf), second);
+        TestModel.commit(inMemoryDataTree, mod);
+
+        final DataTreeSnapshot snapshot = inMemoryDataTree.takeSnapshot();
+        final NormalizedNode<?, ?> ret = snapshot.readNode(leafPath(1, leaf)).get();
+        assertEquals(ret, snapshot.readNode(leafPath(2, leaf)).get());
+        return ret;
+    }
+
+    @Test
+    public void testEnumLeafIsInterned() throws Exception {
+        final NormalizedNode<?, ?> stored = writeAndRead(STATE, "up");
+        assertSame(stored, inMemoryDataTree.takeSnapshot().readNode(leafPath(2, STATE)).get());
+    }
+
+    @Test
+    public void testStringLeafIsNotInterned() throws Exception {
+        final NormalizedNode<?, ?> stored = writeAndRead(DESCRIPTION, "same description");
+        assertNotSame(stored, inMemoryDataTree.takeSnapshot().readNode(leafPath(2, DESCRIPTION)).get());
+    }
+}
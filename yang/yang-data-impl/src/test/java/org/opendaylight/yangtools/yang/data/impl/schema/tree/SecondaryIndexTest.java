@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.leafNode;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.mapNodeBuilder;
+import static org.opendaylight.yangtools.yang.data.impl.schema.tree.TestModel.outerEntry;
+import static org.opendaylight.yangtools.yang.data.impl.schema.tree.TestModel.outerEntryPath;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeIndex;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.IndexedDataTreeSnapshot;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
+
+public class SecondaryIndexTest {
+    private static final NodeIdentifier CHOICE_ID = new NodeIdentifier(TestModel.OUTER_CHOICE_QNAME);
+    private static final DataTreeIndex TWO_INDEX = DataTreeIndex.create(TestModel.OUTER_LIST_PATH,
+        YangInstanceIdentifier.create(CHOICE_ID, new NodeIdentifier(TestModel.TWO_QNAME)));
+
+    private InMemoryDataTree inMemoryDataTree;
+
+    @Before
+    public void prepare() {
+        inMemoryDataTree = TestModel.createTestDataTree();
+    }
+
+    private static Set<Object> ids(final Collection<MapEntryNode> entries) {
+        final Set<Object> ret = new HashSet<>();
+        for (MapEntryNode entry : entries) {
+            ret.add(entry.getIdentifier().getKeyValues().get(TestModel.ID_QNAME));
+        }
+        return ret;
+    }
+
+    private void writeInitialData() throws Exception {
+        final DataTreeModification mod = inMemoryDataTree.takeSnapshot().newModification();
+        mod.write(TestModel.TEST_PATH, TestModel.testContainer(outerEntry(1, "a"), outerEntry(2, "b"), outerEntry(3, "a")));
+        TestModel.commit(inMemoryDataTree, mod);
+    }
+
+    @Test
+    public void testIndexBuiltFromExistingData() throws Exception {
+        writeInitialData();
+        inMemoryDataTree.addIndex(TWO_INDEX);
+
+        final IndexedDataTreeSnapshot snapshot = inMemoryDataTree.takeSnapshot();
+        assertEquals(ImmutableSet.of(1, 3), ids(snapshot.lookup(TWO_INDEX, "a")));
+        assertEquals(ImmutableSet.of(2), ids(snapshot.lookup(TWO_INDEX, "b")));
+        assertTrue(snapshot.lookup(TWO_INDEX, "c").isEmpty());
+    }
+
+    @Test
+    public void testIndexUpdatedOnCommit() throws Exception {
+        inMemoryDataTree.addIndex(TWO_INDEX);
+        writeInitialData();
+        final IndexedDataTreeSnapshot before = inMemoryDataTree.takeSnapshot();
+        assertEquals(ImmutableSet.of(1, 3), ids(before.lookup(TWO_INDEX, "a")));
+
+        final DataTreeModification mod = before.newModification();
+        mod.write(outerEntryPath(2).node(CHOICE_ID).node(TestModel.TWO_QNAME), leafNode(TestModel.TWO_QNAME, "a"));
+        mod.delete(outerEntryPath(1));
+        mod.write(outerEntryPath(4), outerEntry(4, "c"));
+        TestModel.commit(inMemoryDataTree, mod);
+
+        final IndexedDataTreeSnapshot after = inMemoryDataTree.takeSnapshot();
+        assertEquals(ImmutableSet.of(2, 3), ids(after.lookup(TWO_INDEX, "a")));
+        assertTrue(after.lookup(TWO_INDEX, "b").isEmpty());
+        assertEquals(ImmutableSet.of(4), ids(after.lookup(TWO_INDEX, "c")));
+
+        // The old snapshot keeps seeing its own version of the index
+        assertEquals(ImmutableSet.of(1, 3), ids(before.lookup(TWO_INDEX, "a")));
+        assertEquals(ImmutableSet.of(2), ids(before.lookup(TWO_INDEX, "b")));
+    }
+
+    @Test
+    public void testIndexUpdatedOnListReplacement() throws Exception {
+        inMemoryDataTree.addIndex(TWO_INDEX);
+        writeInitialData();
+
+        final DataTreeModification mod = inMemoryDataTree.takeSnapshot().newModification();
+        mod.write(TestModel.OUTER_LIST_PATH, mapNodeBuilder(TestModel.OUTER_LIST_QNAME)
+            .withChild(outerEntry(3, "b")).withChild(outerEntry(5, "a")).build());
+        TestModel.commit(inMemoryDataTree, mod);
+
+        final IndexedDataTreeSnapshot snapshot = inMemoryDataTree.takeSnapshot();
+        assertEquals(ImmutableSet.of(5), ids(snapshot.lookup(TWO_INDEX, "a")));
+        assertEquals(ImmutableSet.of(3), ids(snapshot.lookup(TWO_INDEX, "b")));
+    }
+
+    @Test
+    public void testRemovedIndex() throws Exception {
+        inMemoryDataTree.addIndex(TWO_INDEX);
+        writeInitialData();
+        final IndexedDataTreeSnapshot before = inMemoryDataTree.takeSnapshot();
+        inMemoryDataTree.removeIndex(TWO_INDEX);
+
+        assertEquals(ImmutableSet.of(1, 3), ids(before.lookup(TWO_INDEX, "a")));
+        try {
+            inMemoryDataTree.takeSnapshot().lookup(TWO_INDEX, "a");
+            fail("Lookup through a removed index should fail");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testManyEntriesSharingValue() throws Exception {
+        final CollectionNodeBuilder<MapEntryNode, MapNode> list = mapNodeBuilder(TestModel.OUTER_LIST_QNAME);
+        for (int i = 0; i < 10000; ++i) {
+            list.withChild(outerEntry(i, i % 1000 == 0 ? "b" : "a"));
+        }
+        final DataTreeModification mod = inMemoryDataTree.takeSnapshot().newModification();
+        mod.write(TestModel.TEST_PATH, Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(TestModel.TEST_QNAME))
+            .withChild(list.build()).build());
+        TestModel.commit(inMemoryDataTree, mod);
+        inMemoryDataTree.addIndex(TWO_INDEX);
+
+        final IndexedDataTreeSnapshot before = inMemoryDataTree.takeSnapshot();
+        assertEquals(9990, before.lookup(TWO_INDEX, "a").size());
+        assertEquals(10, before.lookup(TWO_INDEX, "b").size());
+
+        final DataTreeModification update = before.newModification();
+        update.write(outerEntryPath(1).node(CHOICE_ID).node(TestModel.TWO_QNAME), leafNode(TestModel.TWO_QNAME, "b"));
+        update.delete(outerEntryPath(2));
+        TestModel.commit(inMemoryDataTree, update);
+
+        final IndexedDataTreeSnapshot after = inMemoryDataTree.takeSnapshot();
+        assertEquals(9988, after.lookup(TWO_INDEX, "a").size());
+        assertEquals(ImmutableSet.of(0, 1, 1000, 2000, 3000, 4000, 5000, 6000, 7000, 8000, 9000),
+            ids(after.lookup(TWO_INDEX, "b")));
+
+        // Structure is shared, but the previous version is unaffected
+        assertEquals(9990, before.lookup(TWO_INDEX, "a").size());
+        assertEquals(10, before.lookup(TWO_INDEX, "b").size());
+    }
+}
@@ -7,13 +7,28 @@
  */
 package org.opendaylight.yangtools.yang.data.impl.schema.tree;
 
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.leafNode;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.mapEntryBuilder;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.mapNodeBuilder;
+
 import org.opendaylight.yangtools.yang.common.QName;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.DataContainerNodeBuilder;
 import org.opendaylight.yangtools.yang.model.api.Module;
 import org.opendaylight.yangtools.yang.model.api.SchemaContext;
 import org.opendaylight.yangtools.yang.parser.impl.YangParserImpl;
 
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Set;
 
@@ -48,4 +63,51 @@ public class TestModel {
         Set<Module> modules = parser.parseYangModelsFromStreams(Collections.singletonList(getDatastoreTestInputStream()));
         return parser.resolveSchemaContext(modules);
     }
+
+    static InMemoryDataTree createTestDataTree() {
+        return createTestDataTree(createTestContext());
+    }
+
+    static InMemoryDataTree createTestDataTree(final SchemaContext schemaContext) {
+        final InMemoryDataTree ret = InMemoryDataTreeFactory.getInstance().create();
+        ret.setSchemaContext(schemaContext);
+        return ret;
+    }
+
+    static void commit(final InMemoryDataTree dataTree, final DataTreeModification modification)
+            throws DataValidationFailedException {
+        modification.ready();
+        dataTree.validate(modification);
+        dataTree.commit(dataTree.prepare(modification));
+    }
+
+    /**
+     * Create an outer-list entry, with the specified value of the 'two' leaf in 'outer-choice'
+     * and an inner-list entry for each of the specified names.
+     */
+    public static MapEntryNode outerEntry(final int id, final String two, final String... innerNames) {
+        final DataContainerNodeBuilder<NodeIdentifierWithPredicates, MapEntryNode> entry = mapEntryBuilder(
+            OUTER_LIST_QNAME, ID_QNAME, id)
+                .withChild(Builders.choiceBuilder().withNodeIdentifier(new NodeIdentifier(OUTER_CHOICE_QNAME))
+                    .withChild(leafNode(TWO_QNAME, two)).build());
+        if (innerNames.length != 0) {
+            final CollectionNodeBuilder<MapEntryNode, MapNode> inner = mapNodeBuilder(INNER_LIST_QNAME);
+            for (String name : innerNames) {
+                inner.withChild(mapEntryBuilder(INNER_LIST_QNAME, NAME_QNAME, name)
+                    .withChild(leafNode(VALUE_QNAME, name + "-value")).build());
+            }
+            entry.withChild(inner.build());
+        }
+        return entry.build();
+    }
+
+    public static YangInstanceIdentifier outerEntryPath(final int id) {
+        return YangInstanceIdentifier.builder(OUTER_LIST_PATH).nodeWithKey(OUTER_LIST_QNAME, ID_QNAME, id).build();
+    }
+
+    public static ContainerNode testContainer(final MapEntryNode... outerEntries) {
+        return Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(TEST_QNAME))
+                .withChild(mapNodeBuilder(OUTER_LIST_QNAME).withValue(Arrays.asList(outerEntries)).build())
+                .build();
+    }
 }
@@ -0,0 +1,319 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree.journal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.mapEntry;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.mapNodeBuilder;
+
+import com.google.common.base.Optional;
+import com.google.common.io.Files;
+import com.google.common.util.concurrent.ListenableFuture;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.tree.InMemoryDataTreeFactory;
+import org.opendaylight.yangtools.yang.data.impl.schema.tree.TestModel;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+
+public class FileDataTreeJournalTest {
+    private SchemaContext schemaContext;
+    private File directory;
+    private DataTreeJournal journal;
+
+    @Before
+    public void setUp() {
+        schemaContext = TestModel.createTestContext();
+        directory = Files.createTempDir();
+    }
+
+    @After
+    public void tearDown() {
+        for (File f : directory.listFiles()) {
+            f.delete();
+        }
+        directory.delete();
+    }
+
+    private static YangInstanceIdentifier outerEntryPath(final int id) {
+        return YangInstanceIdentifier.builder(TestModel.OUTER_LIST_PATH)
+                .nodeWithKey(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, id).build();
+    }
+
+    private JournaledDataTree openTree(final int snapshotInterval) throws IOException, DataValidationFailedException {
+        final DataTree tree = InMemoryDataTreeFactory.getInstance().create();
+        tree.setSchemaContext(schemaContext);
+        journal = FileDataTreeJournal.open(directory);
+        return JournaledDataTree.recover(tree, journal, snapshotInterval);
+    }
+
+    private static void commit(final DataTree tree, final DataTreeModification modification)
+            throws DataValidationFailedException {
+        modification.ready();
+        tree.validate(modification);
+        tree.commit(tree.prepare(modification));
+    }
+
+    private static void writeEntries(final DataTree tree, final int from, final int to)
+            throws DataValidationFailedException {
+        for (int i = from; i < to; ++i) {
+            final DataTreeModification mod = tree.takeSnapshot().newModification();
+            mod.write(outerEntryPath(i), mapEntry(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, i));
+            commit(tree, mod);
+        }
+    }
+
+    private static void assertEntries(final DataTree tree, final int from, final int to) {
+        for (int i = from; i < to; ++i) {
+            final Optional<NormalizedNode<?, ?>> entry = tree.takeSnapshot().readNode(outerEntryPath(i));
+            assertTrue("Missing entry " + i, entry.isPresent());
+            assertEquals(mapEntry(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, i), entry.get());
+        }
+    }
+
+    private void initialize(final JournaledDataTree tree) throws DataValidationFailedException {
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(TestModel.TEST_PATH, ImmutableNodes.containerNode(TestModel.TEST_QNAME));
+        mod.write(TestModel.OUTER_LIST_PATH, mapNodeBuilder(TestModel.OUTER_LIST_QNAME).build());
+        commit(tree, mod);
+    }
+
+    @Test
+    public void testEmptyRecovery() throws Exception {
+        final JournaledDataTree tree = openTree(JournaledDataTree.DEFAULT_SNAPSHOT_INTERVAL);
+        assertFalse(tree.takeSnapshot().readNode(TestModel.TEST_PATH).isPresent());
+        journal.close();
+    }
+
+    @Test
+    public void testJournalReplay() throws Exception {
+        final JournaledDataTree tree = openTree(JournaledDataTree.DEFAULT_SNAPSHOT_INTERVAL);
+        initialize(tree);
+        writeEntries(tree, 0, 10);
+
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.delete(outerEntryPath(5));
+        commit(tree, mod);
+        journal.close();
+
+        final JournaledDataTree recovered = openTree(JournaledDataTree.DEFAULT_SNAPSHOT_INTERVAL);
+        assertEntries(recovered, 0, 5);
+        assertEntries(recovered, 6, 10);
+        assertFalse(recovered.takeSnapshot().readNode(outerEntryPath(5)).isPresent());
+        journal.close();
+    }
+
+    @Test
+    public void testSnapshotRecovery() throws Exception {
+        final JournaledDataTree tree = openTree(4);
+        initialize(tree);
+        writeEntries(tree, 0, 21);
+        journal.close();
+
+        // Compaction should have removed most of the segments
+        assertTrue(directory.listFiles().length < 10);
+
+        final JournaledDataTree recovered = openTree(4);
+        assertEntries(recovered, 0, 21);
+
+        // Continue where we left off and recover again
+        writeEntries(recovered, 21, 30);
+        journal.close();
+
+        final JournaledDataTree again = openTree(4);
+        assertEntries(again, 0, 30);
+        journal.close();
+    }
+
+    @Test
+    public void testTruncatedJournal() throws Exception {
+        final JournaledDataTree tree = openTree(JournaledDataTree.DEFAULT_SNAPSHOT_INTERVAL);
+        initialize(tree);
+        writeEntries(tree, 0, 3);
+        journal.close();
+
+        // Simulate a torn write at the end of the only segment
+        final File segment = directory.listFiles()[0];
+        try (final RandomAccessFile raf = new RandomAccessFile(segment, "rw")) {
+            raf.setLength(raf.length() - 3);
+        }
+
+        final JournaledDataTree recovered = openTree(JournaledDataTree.DEFAULT_SNAPSHOT_INTERVAL);
+        assertEntries(recovered, 0, 2);
+        assertFalse(recovered.takeSnapshot().readNode(outerEntryPath(2)).isPresent());
+        journal.close();
+    }
+
+    @Test
+    public void testRecoveryAfterTruncatedJournal() throws Exception {
+        final JournaledDataTree tree = openTree(JournaledDataTree.DEFAULT_SNAPSHOT_INTERVAL);
+        initialize(tree);
+        writeEntries(tree, 0, 3);
+        journal.close();
+
+        final File segment = directory.listFiles()[0];
+        try (final RandomAccessFile raf = new RandomAccessFile(segment, "rw")) {
+            raf.setLength(raf.length() - 3);
+        }
+
+        // Commits after recovery go to a new segment, which has to be replayed as well
+        final JournaledDataTree recovered = openTree(JournaledDataTree.DEFAULT_SNAPSHOT_INTERVAL);
+        writeEntries(recovered, 3, 6);
+        journal.close();
+
+        final JournaledDataTree again = openTree(JournaledDataTree.DEFAULT_SNAPSHOT_INTERVAL);
+        assertEntries(again, 0, 2);
+        assertFalse(again.takeSnapshot().readNode(outerEntryPath(2)).isPresent());
+        assertEntries(again, 3, 6);
+        journal.close();
+    }
+
+    @Test
+    public void testCorruptRecordLength() throws Exception {
+        final JournaledDataTree tree = openTree(JournaledDataTree.DEFAULT_SNAPSHOT_INTERVAL);
+        initialize(tree);
+        writeEntries(tree, 0, 3);
+        journal.close();
+
+        // Overwrite the length of the first record, which follows the segment header
+        final File segment = directory.listFiles()[0];
+        try (final RandomAccessFile raf = new RandomAccessFile(segment, "rw")) {
+            raf.seek(8);
+            raf.writeInt(Integer.MAX_VALUE);
+        }
+
+        final JournaledDataTree recovered = openTree(JournaledDataTree.DEFAULT_SNAPSHOT_INTERVAL);
+        assertFalse(recovered.takeSnapshot().readNode(TestModel.TEST_PATH).isPresent());
+        assertEquals(8, segment.length());
+        journal.close();
+    }
+
+    @Test
+    public void testFailedAppendFailsTree() throws Exception {
+        final JournaledDataTree tree = openTree(JournaledDataTree.DEFAULT_SNAPSHOT_INTERVAL);
+        initialize(tree);
+        journal.close();
+
+        try {
+            writeEntries(tree, 0, 1);
+            fail("Commit should have failed");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+
+        // The tree no longer matches the journal, further commits have to be rejected
+        try {
+            writeEntries(tree, 1, 2);
+            fail("Commit should have been rejected");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+        assertFalse(tree.takeSnapshot().readNode(outerEntryPath(1)).isPresent());
+    }
+
+    @Test(timeout = 30000)
+    public void testConcurrentCommitsRecovered() throws Exception {
+        final JournaledDataTree tree = openTree(7);
+        initialize(tree);
+
+        final int threadCount = 4;
+        final int perThread = 50;
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Throwable> failures = new ArrayList<>();
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < threadCount; ++i) {
+            final int base = i * perThread;
+            final Thread t = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        writeEntries(tree, base, base + perThread);
+                    } catch (Exception e) {
+                        synchronized (failures) {
+                            failures.add(e);
+                        }
+                    }
+                }
+            };
+            threads.add(t);
+            t.start();
+        }
+
+        start.countDown();
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertTrue(failures.toString(), failures.isEmpty());
+        journal.close();
+
+        // Rebased candidates have to be journaled in the order they were applied
+        final JournaledDataTree recovered = openTree(7);
+        assertEntries(recovered, 0, threadCount * perThread);
+        journal.close();
+    }
+
+    @Test(timeout = 30000)
+    public void testRequestsRacingWithCloseComplete() throws Exception {
+        journal = FileDataTreeJournal.open(directory);
+        final NormalizedNode<?, ?> root = ImmutableNodes.containerNode(TestModel.TEST_QNAME);
+        final CountDownLatch started = new CountDownLatch(4);
+        final List<List<ListenableFuture<Void>>> results = new ArrayList<>();
+        final List<Thread> threads = new ArrayList<>();
+
+        for (int i = 0; i < 4; ++i) {
+            final List<ListenableFuture<Void>> futures = new ArrayList<>();
+            results.add(futures);
+            final Thread t = new Thread() {
+                @Override
+                public void run() {
+                    started.countDown();
+                    for (int j = 0; j < 100; ++j) {
+                        futures.add(journal.snapshot(root));
+                    }
+                }
+            };
+            threads.add(t);
+            t.start();
+        }
+
+        started.await();
+        journal.close();
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        // Every request has to be either persisted or failed, none may be left hanging
+        for (List<ListenableFuture<Void>> futures : results) {
+            for (ListenableFuture<Void> f : futures) {
+                try {
+                    f.get(5, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    assertTrue(e.getCause() instanceof IllegalStateException);
+                }
+            }
+        }
+    }
+}
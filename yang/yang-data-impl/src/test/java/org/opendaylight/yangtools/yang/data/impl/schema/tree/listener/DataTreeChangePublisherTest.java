@@ -0,0 +1,313 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree.listener;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.mapEntry;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.mapNodeBuilder;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.yangtools.concepts.ListenerRegistration;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.tree.InMemoryDataTreeFactory;
+import org.opendaylight.yangtools.yang.data.impl.schema.tree.TestModel;
+
+public class DataTreeChangePublisherTest {
+    private static final Executor SAME_THREAD = new Executor() {
+        @Override
+        public void execute(final Runnable command) {
+            command.run();
+        }
+    };
+
+    private static final YangInstanceIdentifier OUTER_LIST_WILDCARD = YangInstanceIdentifier
+            .builder(TestModel.OUTER_LIST_PATH).node(TestModel.OUTER_LIST_QNAME).build();
+
+    private static final class CollectingListener implements DataTreeChangeListener {
+        private final List<DataTreeCandidate> changes = new ArrayList<>();
+        private int invocations;
+
+        @Override
+        public void onDataTreeChanged(final Collection<DataTreeCandidate> changes) {
+            assertFalse(changes.isEmpty());
+            this.changes.addAll(changes);
+            invocations++;
+        }
+    }
+
+    private NotifyingDataTree tree;
+    private DataTree delegate;
+
+    @Before
+    public void setUp() {
+        delegate = InMemoryDataTreeFactory.getInstance().create();
+        delegate.setSchemaContext(TestModel.createTestContext());
+        tree = new NotifyingDataTree(delegate, new DataTreeChangePublisher(SAME_THREAD, 100, "test"));
+    }
+
+    private static YangInstanceIdentifier outerEntryPath(final int id) {
+        return YangInstanceIdentifier.builder(TestModel.OUTER_LIST_PATH)
+                .nodeWithKey(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, id).build();
+    }
+
+    private void commit(final DataTreeModification modification) throws DataValidationFailedException {
+        modification.ready();
+        tree.validate(modification);
+        tree.commit(tree.prepare(modification));
+    }
+
+    private void writeEntries(final int... ids) throws DataValidationFailedException {
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        for (int id : ids) {
+            mod.write(outerEntryPath(id), mapEntry(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, id));
+        }
+        commit(mod);
+    }
+
+    private void initialize() throws DataValidationFailedException {
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(TestModel.TEST_PATH, ImmutableNodes.containerNode(TestModel.TEST_QNAME));
+        mod.write(TestModel.OUTER_LIST_PATH, mapNodeBuilder(TestModel.OUTER_LIST_QNAME).build());
+        commit(mod);
+    }
+
+    @Test
+    public void testWildcardListener() throws DataValidationFailedException {
+        initialize();
+        final CollectingListener listener = new CollectingListener();
+        tree.registerTreeChangeListener(OUTER_LIST_WILDCARD, listener);
+
+        writeEntries(1, 2);
+        assertEquals(1, listener.invocations);
+        assertEquals(2, listener.changes.size());
+        for (DataTreeCandidate change : listener.changes) {
+            assertEquals(ModificationType.WRITE, change.getRootNode().getModificationType());
+            assertTrue(change.getRootPath().equals(outerEntryPath(1)) || change.getRootPath().equals(outerEntryPath(2)));
+            assertTrue(change.getRootNode().getDataAfter().isPresent());
+        }
+    }
+
+    @Test
+    public void testExactListenerFiltering() throws DataValidationFailedException {
+        initialize();
+        final CollectingListener listener = new CollectingListener();
+        tree.registerTreeChangeListener(outerEntryPath(1), listener);
+
+        writeEntries(2);
+        assertEquals(0, listener.invocations);
+
+        writeEntries(1);
+        assertEquals(1, listener.invocations);
+        assertEquals(outerEntryPath(1), listener.changes.get(0).getRootPath());
+
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.delete(outerEntryPath(1));
+        commit(mod);
+        assertEquals(2, listener.invocations);
+        assertEquals(ModificationType.DELETE, listener.changes.get(1).getRootNode().getModificationType());
+        assertFalse(listener.changes.get(1).getRootNode().getDataAfter().isPresent());
+    }
+
+    @Test
+    public void testListenerBelowWrittenNode() throws DataValidationFailedException {
+        final CollectingListener listener = new CollectingListener();
+        tree.registerTreeChangeListener(OUTER_LIST_WILDCARD, listener);
+
+        // Write the entire container at once, the entries need to be derived from data
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(TestModel.TEST_PATH, ImmutableNodes.containerNode(TestModel.TEST_QNAME));
+        mod.write(TestModel.OUTER_LIST_PATH, mapNodeBuilder(TestModel.OUTER_LIST_QNAME)
+            .withChild(mapEntry(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, 1))
+            .withChild(mapEntry(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, 2))
+            .withChild(mapEntry(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, 3))
+            .build());
+        commit(mod);
+
+        assertEquals(1, listener.invocations);
+        assertEquals(3, listener.changes.size());
+
+        // Replacing the container removes the entries
+        final DataTreeModification replace = tree.takeSnapshot().newModification();
+        replace.write(TestModel.TEST_PATH, ImmutableNodes.containerNode(TestModel.TEST_QNAME));
+        commit(replace);
+
+        assertEquals(2, listener.invocations);
+        assertEquals(6, listener.changes.size());
+        for (DataTreeCandidate change : listener.changes.subList(3, 6)) {
+            assertEquals(ModificationType.DELETE, change.getRootNode().getModificationType());
+        }
+    }
+
+    @Test
+    public void testRootListener() throws DataValidationFailedException {
+        final CollectingListener listener = new CollectingListener();
+        tree.registerTreeChangeListener(YangInstanceIdentifier.builder().build(), listener);
+
+        initialize();
+        assertEquals(1, listener.invocations);
+        assertEquals(ModificationType.SUBTREE_MODIFIED, listener.changes.get(0).getRootNode().getModificationType());
+    }
+
+    @Test
+    public void testUnregister() throws DataValidationFailedException {
+        initialize();
+        final CollectingListener wildcard = new CollectingListener();
+        final CollectingListener exact = new CollectingListener();
+        final ListenerRegistration<CollectingListener> reg = tree.registerTreeChangeListener(OUTER_LIST_WILDCARD,
+            wildcard);
+        tree.registerTreeChangeListener(outerEntryPath(1), exact);
+
+        writeEntries(1);
+        assertEquals(1, wildcard.invocations);
+        assertEquals(1, exact.invocations);
+
+        reg.close();
+        writeEntries(1, 2);
+        assertEquals(1, wildcard.invocations);
+        assertEquals(2, exact.invocations);
+    }
+
+    @Test
+    public void testRebasedCandidatePublished() throws DataValidationFailedException {
+        initialize();
+        final CollectingListener listener = new CollectingListener();
+        tree.registerTreeChangeListener(TestModel.OUTER_LIST_PATH, listener);
+
+        // Both modifications are prepared against the same root, the second commit gets rebased
+        final DataTreeModification first = tree.takeSnapshot().newModification();
+        first.write(outerEntryPath(1), mapEntry(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, 1));
+        first.ready();
+        final DataTreeModification second = tree.takeSnapshot().newModification();
+        second.write(outerEntryPath(2), mapEntry(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, 2));
+        second.ready();
+
+        final DataTreeCandidate firstCandidate = tree.prepare(first);
+        final DataTreeCandidate secondCandidate = tree.prepare(second);
+        tree.commit(secondCandidate);
+        tree.commit(firstCandidate);
+
+        assertEquals(2, listener.invocations);
+        final MapNode before = (MapNode) listener.changes.get(1).getRootNode().getDataBefore().get();
+        final MapNode after = (MapNode) listener.changes.get(1).getRootNode().getDataAfter().get();
+        assertEquals(1, Iterables.size(before.getValue()));
+        assertEquals(2, Iterables.size(after.getValue()));
+    }
+
+    @Test
+    public void testConcurrentCommitsPublishedOnce() throws Exception {
+        initialize();
+        final CollectingListener listener = new CollectingListener();
+        tree.registerTreeChangeListener(OUTER_LIST_WILDCARD, listener);
+
+        final int threadCount = 4;
+        final int perThread = 50;
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Throwable> failures = new ArrayList<>();
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < threadCount; ++i) {
+            final int base = i * perThread;
+            final Thread t = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int j = base; j < base + perThread; ++j) {
+                            writeEntries(j);
+                        }
+                    } catch (Exception e) {
+                        synchronized (failures) {
+                            failures.add(e);
+                        }
+                    }
+                }
+            };
+            threads.add(t);
+            t.start();
+        }
+
+        start.countDown();
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertTrue(failures.toString(), failures.isEmpty());
+
+        final Set<YangInstanceIdentifier> paths = new HashSet<>();
+        for (DataTreeCandidate change : listener.changes) {
+            assertEquals(ModificationType.WRITE, change.getRootNode().getModificationType());
+            assertTrue("Duplicate notification for " + change.getRootPath(), paths.add(change.getRootPath()));
+        }
+        assertEquals(threadCount * perThread, paths.size());
+    }
+
+    @Test
+    public void testExactListenerBelowWrittenList() throws DataValidationFailedException {
+        initialize();
+        final CollectingListener listener = new CollectingListener();
+        tree.registerTreeChangeListener(outerEntryPath(2), listener);
+
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(TestModel.OUTER_LIST_PATH, mapNodeBuilder(TestModel.OUTER_LIST_QNAME)
+            .withChild(mapEntry(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, 1))
+            .withChild(mapEntry(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, 2))
+            .build());
+        commit(mod);
+
+        assertEquals(1, listener.invocations);
+        assertEquals(outerEntryPath(2), listener.changes.get(0).getRootPath());
+        assertEquals(ModificationType.WRITE, listener.changes.get(0).getRootNode().getModificationType());
+    }
+
+    @Test
+    public void testResynchronizeAfterBypassingCommit() throws DataValidationFailedException {
+        initialize();
+        final CollectingListener listener = new CollectingListener();
+        tree.registerTreeChangeListener(OUTER_LIST_WILDCARD, listener);
+
+        // Modify the backing tree directly, the wrapper never sees this candidate
+        final DataTreeModification bypass = delegate.takeSnapshot().newModification();
+        bypass.write(outerEntryPath(1), mapEntry(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, 1));
+        bypass.ready();
+        delegate.validate(bypass);
+        delegate.commit(delegate.prepare(bypass));
+        assertEquals(0, listener.invocations);
+
+        // The next commit does not follow the last published root, we need to catch up
+        writeEntries(2);
+        assertEquals(1, listener.invocations);
+        final Set<YangInstanceIdentifier> paths = new HashSet<>();
+        for (DataTreeCandidate change : listener.changes) {
+            assertEquals(ModificationType.WRITE, change.getRootNode().getModificationType());
+            paths.add(change.getRootPath());
+        }
+        assertEquals(ImmutableSet.of(outerEntryPath(1), outerEntryPath(2)), paths);
+
+        // Subsequent commits are published normally
+        writeEntries(3);
+        assertEquals(2, listener.invocations);
+        assertEquals(outerEntryPath(3), listener.changes.get(2).getRootPath());
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.model.util;
+
+import com.google.common.annotations.Beta;
+import javax.annotation.Nullable;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.model.api.SchemaNode;
+import org.opendaylight.yangtools.yang.model.api.SchemaPath;
+
+/**
+ * A {@link SchemaContext} which maintains an index of its schema nodes by their
+ * {@link SchemaPath}. {@link SchemaContextUtil#findDataSchemaNode(SchemaContext, SchemaPath)}
+ * consults the index before walking the schema tree.
+ */
+@Beta
+public interface IndexedSchemaContext extends SchemaContext {
+    /**
+     * Look up a schema node in the index. The index contains the node which
+     * {@link SchemaContextUtil#findDataSchemaNode(SchemaContext, SchemaPath)} would find
+     * by walking the schema tree, for each path at which it can find one.
+     *
+     * @param path Schema path
+     * @return Schema node, or null if the path is not indexed
+     */
+    @Nullable SchemaNode findIndexedSchemaNode(SchemaPath path);
+}
@@ -8,8 +8,13 @@
 package org.opendaylight.yangtools.yang.model.util;
 
 import com.google.common.base.Function;
+import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Splitter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.Iterables;
 import java.util.Arrays;
 import java.util.Iterator;
@@ -48,6 +53,105 @@ public final class SchemaContextUtil {
     private static final Splitter COLON_SPLITTER = Splitter.on(':');
     private static final Splitter SLASH_SPLITTER = Splitter.on('/');
 
+    /*
+     * Resolved XPaths and leafrefs, per SchemaContext. Weak keys, so that these
+     * go away with their SchemaContext. Cached entries reference only schema
+     * nodes, so they do not keep the context alive. Each per-context cache is
+     * bounded, so that lookups with ever-changing keys cannot grow it forever.
+     */
+    private static final int MAX_CACHED_RESOLUTIONS = 16384;
+
+    private static final LoadingCache<SchemaContext, ResolutionCache> RESOLUTION_CACHES =
+            CacheBuilder.newBuilder().weakKeys().build(new CacheLoader<SchemaContext, ResolutionCache>() {
+                @Override
+                public ResolutionCache load(final SchemaContext key) {
+                    return new ResolutionCache();
+                }
+            });
+
+    /**
+     * Key composed of a schema object, compared by identity, and an optional
+     * value, compared by equality.
+     */
+    private static final class ResolutionKey {
+        private final Object node;
+        private final Object value;
+
+        ResolutionKey(final Object node, final Object value) {
+            this.node = Preconditions.checkNotNull(node);
+            this.value = value;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(node) + (value == null ? 0 : value.hashCode());
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof ResolutionKey)) {
+                return false;
+            }
+            final ResolutionKey other = (ResolutionKey) obj;
+            return node == other.node && (value == null ? other.value == null : value.equals(other.value));
+        }
+    }
+
+    /**
+     * XPath cache key, compared by its string form and absolute flag, so that
+     * equal XPaths hit the same entry regardless of their implementation.
+     */
+    private static final class XPathKey {
+        private final String xpath;
+        private final boolean absolute;
+
+        XPathKey(final String xpath, final boolean absolute) {
+            this.xpath = Preconditions.checkNotNull(xpath);
+            this.absolute = absolute;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * xpath.hashCode() + (absolute ? 1 : 0);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof XPathKey)) {
+                return false;
+            }
+            final XPathKey other = (XPathKey) obj;
+            return absolute == other.absolute && xpath.equals(other.xpath);
+        }
+    }
+
+    /**
+     * Memoized results for a single SchemaContext. Lookups which do not resolve are cached
+     * as absent, as they do not resolve on subsequent attempts either.
+     */
+    private static final class ResolutionCache {
+        // (Module, XPathKey) -> node
+        final Cache<ResolutionKey, Optional<SchemaNode>> absolutePaths = newCache();
+        // (SchemaNode, (Module, XPathKey)) -> node
+        final Cache<ResolutionKey, Optional<SchemaNode>> relativePaths = newCache();
+        // (LeafrefTypeDefinition, (SchemaNode)) -> base type
+        final Cache<ResolutionKey, Optional<TypeDefinition<?>>> leafrefs = newCache();
+
+        private static <V> Cache<ResolutionKey, V> newCache() {
+            return CacheBuilder.newBuilder().maximumSize(MAX_CACHED_RESOLUTIONS).build();
+        }
+    }
+
+    private static ResolutionCache resolutionCache(final SchemaContext context) {
+        return RESOLUTION_CACHES.getUnchecked(context);
+    }
+
     private SchemaContextUtil() {
     }
 
@@ -79,6 +183,13 @@ public final class SchemaContextUtil {
             return null;
         }
 
+        if (context instanceof IndexedSchemaContext) {
+            final SchemaNode indexed = ((IndexedSchemaContext) context).findIndexedSchemaNode(schemaPath);
+            if (indexed != null) {
+                return indexed;
+            }
+        }
+
         LOG.trace("Looking for path {} in context {}", schemaPath, context);
         return findNodeInSchemaContext(context, prefixedPath);
     }
@@ -122,10 +233,15 @@ public final class SchemaContextUtil {
         if (strXPath != null) {
             Preconditions.checkArgument(strXPath.indexOf('[') == -1, "Revision Aware XPath may not contain a condition");
             if (nonCondXPath.isAbsolute()) {
-                List<QName> qnamedPath = xpathToQNamePath(context, module, strXPath);
-                if (qnamedPath != null) {
-                    return findNodeInSchemaContext(context, qnamedPath);
+                final Cache<ResolutionKey, Optional<SchemaNode>> cache = resolutionCache(context).absolutePaths;
+                final ResolutionKey key = new ResolutionKey(module, new XPathKey(strXPath, true));
+                Optional<SchemaNode> ret = cache.getIfPresent(key);
+                if (ret == null) {
+                    List<QName> qnamedPath = xpathToQNamePath(context, module, strXPath);
+                    ret = Optional.fromNullable(qnamedPath == null ? null : findNodeInSchemaContext(context, qnamedPath));
+                    cache.put(key, ret);
                 }
+                return ret.orNull();
             }
         }
         return null;
@@ -182,11 +298,16 @@ public final class SchemaContextUtil {
 
         SchemaPath actualNodePath = actualSchemaNode.getPath();
         if (actualNodePath != null) {
-            Iterable<QName> qnamePath = resolveRelativeXPath(context, module, relativeXPath, actualSchemaNode);
-
-            if (qnamePath != null) {
-                return findNodeInSchemaContext(context, qnamePath);
+            final Cache<ResolutionKey, Optional<SchemaNode>> cache = resolutionCache(context).relativePaths;
+            final ResolutionKey key = new ResolutionKey(actualSchemaNode,
+                    new ResolutionKey(module, new XPathKey(relativeXPath.toString(), false)));
+            Optional<SchemaNode> ret = cache.getIfPresent(key);
+            if (ret == null) {
+                Iterable<QName> qnamePath = resolveRelativeXPath(context, module, relativeXPath, actualSchemaNode);
+                ret = Optional.fromNullable(qnamePath == null ? null : findNodeInSchemaContext(context, qnamePath));
+                cache.put(key, ret);
             }
+            return ret.orNull();
         }
         return null;
     }
@@ -576,6 +697,17 @@ public final class SchemaContextUtil {
      * @return recursively found type definition this leafref is pointing to or null if the xpath is incorrect (null is there to preserve backwards compatibility)
      */
     public static TypeDefinition<?> getBaseTypeForLeafRef(final LeafrefTypeDefinition typeDefinition, final SchemaContext schemaContext, final SchemaNode schema) {
+        final Cache<ResolutionKey, Optional<TypeDefinition<?>>> cache = resolutionCache(schemaContext).leafrefs;
+        final ResolutionKey key = new ResolutionKey(typeDefinition, new ResolutionKey(schema, null));
+        Optional<TypeDefinition<?>> ret = cache.getIfPresent(key);
+        if (ret == null) {
+            ret = Optional.<TypeDefinition<?>>fromNullable(resolveBaseTypeForLeafRef(typeDefinition, schemaContext, schema));
+            cache.put(key, ret);
+        }
+        return ret.orNull();
+    }
+
+    private static TypeDefinition<?> resolveBaseTypeForLeafRef(final LeafrefTypeDefinition typeDefinition, final SchemaContext schemaContext, final SchemaNode schema) {
         RevisionAwareXPath pathStatement = typeDefinition.getPathStatement();
         pathStatement = new RevisionAwareXPathImpl(stripConditionsFromXPathString(pathStatement), pathStatement.isAbsolute());
 
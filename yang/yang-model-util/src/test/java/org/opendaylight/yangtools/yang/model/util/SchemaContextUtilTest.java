@@ -11,15 +11,26 @@ import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.model.api.ContainerSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.LeafSchemaNode;
 import org.opendaylight.yangtools.yang.model.api.SchemaContext;
 import org.opendaylight.yangtools.yang.model.api.Module;
 import org.opendaylight.yangtools.yang.model.api.SchemaPath;
 import org.opendaylight.yangtools.yang.model.api.RevisionAwareXPath;
 import org.opendaylight.yangtools.yang.model.api.SchemaNode;
+import org.opendaylight.yangtools.yang.model.api.type.LeafrefTypeDefinition;
 
+import java.net.URI;
 import java.util.Collections;
+import java.util.Date;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 public class SchemaContextUtilTest {
     @Mock private SchemaContext mockSchemaContext;
@@ -49,4 +60,114 @@ public class SchemaContextUtilTest {
 
         assertEquals("Should be null.", null, SchemaContextUtil.findParentModule(mockSchemaContext, schemaNode));
     }
-}
\ No newline at end of file
+
+    private static final URI NAMESPACE = URI.create("urn:test");
+    private static final Date REVISION = new Date(0);
+    private static final QName CONT = QName.create(NAMESPACE, REVISION, "cont");
+    private static final QName LEAF = QName.create(NAMESPACE, REVISION, "leaf");
+    private static final QName OTHER = QName.create(NAMESPACE, REVISION, "other");
+
+    /**
+     * Creates a module containing container 'cont' with leaves 'leaf' and 'other' and a
+     * context containing the module.
+     */
+    private static SchemaContext mockContext(final Module module, final LeafSchemaNode leaf,
+            final LeafSchemaNode other) {
+        final ContainerSchemaNode cont = mock(ContainerSchemaNode.class);
+        doReturn(leaf).when(cont).getDataChildByName(LEAF);
+        doReturn(other).when(cont).getDataChildByName(OTHER);
+
+        doReturn(NAMESPACE).when(module).getNamespace();
+        doReturn(REVISION).when(module).getRevision();
+        doReturn(cont).when(module).getDataChildByName(CONT);
+
+        final SchemaContext context = mock(SchemaContext.class);
+        doReturn(module).when(context).findModuleByNamespaceAndRevision(NAMESPACE, REVISION);
+        return context;
+    }
+
+    private static LeafSchemaNode mockLeaf(final QName qname) {
+        final LeafSchemaNode leaf = mock(LeafSchemaNode.class);
+        doReturn(SchemaPath.create(true, CONT, qname)).when(leaf).getPath();
+        return leaf;
+    }
+
+    @Test
+    public void testAbsoluteXPathCached() {
+        final Module module = mock(Module.class);
+        final LeafSchemaNode leaf = mockLeaf(LEAF);
+        final SchemaContext context = mockContext(module, leaf, mockLeaf(OTHER));
+
+        assertSame(leaf, SchemaContextUtil.findDataSchemaNode(context, module,
+                new RevisionAwareXPathImpl("/cont/leaf", true)));
+        // A different instance of the same XPath hits the cache
+        assertSame(leaf, SchemaContextUtil.findDataSchemaNode(context, module,
+                new RevisionAwareXPathImpl("/cont/leaf", true)));
+        verify(context, times(1)).findModuleByNamespaceAndRevision(NAMESPACE, REVISION);
+
+        // Unresolvable XPaths are cached, too
+        assertNull(SchemaContextUtil.findDataSchemaNode(context, module,
+                new RevisionAwareXPathImpl("/cont/missing", true)));
+        assertNull(SchemaContextUtil.findDataSchemaNode(context, module,
+                new RevisionAwareXPathImpl("/cont/missing", true)));
+        verify(context, times(2)).findModuleByNamespaceAndRevision(NAMESPACE, REVISION);
+    }
+
+    @Test
+    public void testRelativeXPathCached() {
+        final Module module = mock(Module.class);
+        final LeafSchemaNode leaf = mockLeaf(LEAF);
+        final LeafSchemaNode other = mockLeaf(OTHER);
+        final SchemaContext context = mockContext(module, leaf, other);
+
+        assertSame(other, SchemaContextUtil.findDataSchemaNodeForRelativeXPath(context, module, leaf,
+                new RevisionAwareXPathImpl("../other", false)));
+        assertSame(other, SchemaContextUtil.findDataSchemaNodeForRelativeXPath(context, module, leaf,
+                new RevisionAwareXPathImpl("../other", false)));
+        verify(context, times(1)).findModuleByNamespaceAndRevision(NAMESPACE, REVISION);
+
+        // The same XPath is resolved separately for a different starting node
+        assertSame(leaf, SchemaContextUtil.findDataSchemaNodeForRelativeXPath(context, module, other,
+                new RevisionAwareXPathImpl("../leaf", false)));
+        assertSame(other, SchemaContextUtil.findDataSchemaNodeForRelativeXPath(context, module, other,
+                new RevisionAwareXPathImpl("../other", false)));
+        verify(context, times(3)).findModuleByNamespaceAndRevision(NAMESPACE, REVISION);
+    }
+
+    @Test
+    public void testLeafrefBaseTypeCached() {
+        final Module module = mock(Module.class);
+        final LeafSchemaNode leaf = mockLeaf(LEAF);
+        final LeafSchemaNode other = mockLeaf(OTHER);
+        final SchemaContext context = mockContext(module, leaf, other);
+        doReturn(Int32.getInstance()).when(leaf).getType();
+
+        final LeafrefTypeDefinition leafref = mock(LeafrefTypeDefinition.class);
+        doReturn(new RevisionAwareXPathImpl("../leaf", false)).when(leafref).getPathStatement();
+
+        assertSame(Int32.getInstance(), SchemaContextUtil.getBaseTypeForLeafRef(leafref, context, other));
+        assertSame(Int32.getInstance(), SchemaContextUtil.getBaseTypeForLeafRef(leafref, context, other));
+        verify(leafref, times(1)).getPathStatement();
+    }
+
+    @Test
+    public void testCacheNotSharedBetweenContexts() {
+        final Module module = mock(Module.class);
+        final LeafSchemaNode leaf = mockLeaf(LEAF);
+        final SchemaContext context = mockContext(module, leaf, mockLeaf(OTHER));
+        final RevisionAwareXPath xpath = new RevisionAwareXPathImpl("/cont/leaf", true);
+
+        assertSame(leaf, SchemaContextUtil.findDataSchemaNode(context, module, xpath));
+
+        // A new context, e.g. after the module has been updated, does not see the old results
+        final Module newModule = mock(Module.class);
+        final LeafSchemaNode newLeaf = mockLeaf(LEAF);
+        final SchemaContext newContext = mockContext(newModule, newLeaf, mockLeaf(OTHER));
+
+        assertSame(newLeaf, SchemaContextUtil.findDataSchemaNode(newContext, newModule, xpath));
+        assertSame(newLeaf, SchemaContextUtil.findDataSchemaNode(newContext, newModule, xpath));
+        assertSame(leaf, SchemaContextUtil.findDataSchemaNode(context, module, xpath));
+        verify(context, times(1)).findModuleByNamespaceAndRevision(NAMESPACE, REVISION);
+        verify(newContext, times(1)).findModuleByNamespaceAndRevision(NAMESPACE, REVISION);
+    }
+}
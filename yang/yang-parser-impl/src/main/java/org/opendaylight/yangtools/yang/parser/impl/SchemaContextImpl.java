@@ -20,7 +20,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -29,8 +29,12 @@ import java.util.TreeMap;
 import java.util.TreeSet;
 import javax.annotation.concurrent.Immutable;
 import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.QNameModule;
 import org.opendaylight.yangtools.yang.model.api.AugmentationSchema;
+import org.opendaylight.yangtools.yang.model.api.ChoiceCaseNode;
+import org.opendaylight.yangtools.yang.model.api.ChoiceNode;
 import org.opendaylight.yangtools.yang.model.api.ConstraintDefinition;
+import org.opendaylight.yangtools.yang.model.api.DataNodeContainer;
 import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
 import org.opendaylight.yangtools.yang.model.api.ExtensionDefinition;
 import org.opendaylight.yangtools.yang.model.api.GroupingDefinition;
@@ -39,15 +43,17 @@ import org.opendaylight.yangtools.yang.model.api.ModuleIdentifier;
 import org.opendaylight.yangtools.yang.model.api.NotificationDefinition;
 import org.opendaylight.yangtools.yang.model.api.RpcDefinition;
 import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.model.api.SchemaNode;
 import org.opendaylight.yangtools.yang.model.api.SchemaPath;
 import org.opendaylight.yangtools.yang.model.api.Status;
 import org.opendaylight.yangtools.yang.model.api.TypeDefinition;
 import org.opendaylight.yangtools.yang.model.api.UnknownSchemaNode;
 import org.opendaylight.yangtools.yang.model.api.UsesNode;
+import org.opendaylight.yangtools.yang.model.util.IndexedSchemaContext;
 import org.opendaylight.yangtools.yang.parser.util.ModuleDependencySort;
 
 @Immutable
-final class SchemaContextImpl implements SchemaContext {
+final class SchemaContextImpl implements IndexedSchemaContext {
     private static final Comparator<Module> REVISION_COMPARATOR = new Comparator<Module>() {
         @Override
         public int compare(final Module o1, final Module o2) {
@@ -69,8 +75,24 @@ final class SchemaContextImpl implements SchemaContext {
     private final Map<ModuleIdentifier, String> identifiersToSources;
     private final SetMultimap<URI, Module> namespaceToModules;
     private final SetMultimap<String, Module> nameToModules;
+    private final Map<QNameModule, Module> qnameModuleToModule;
     private final Set<Module> modules;
 
+    /*
+     * Aggregate views across all modules, which used to be recomputed on each
+     * invocation.
+     */
+    private final Set<DataSchemaNode> childNodes;
+    private final Map<QName, DataSchemaNode> childrenByQName;
+    private final Map<String, DataSchemaNode> childrenByName;
+    private final Set<NotificationDefinition> notifications;
+    private final Set<RpcDefinition> operations;
+    private final Set<ExtensionDefinition> extensions;
+    private final Set<TypeDefinition<?>> typeDefinitions;
+    private final Set<GroupingDefinition> groupings;
+    private final List<UnknownSchemaNode> unknownSchemaNodes;
+    private final Map<SchemaPath, SchemaNode> pathToNode;
+
     SchemaContextImpl(final Set<Module> modules, final Map<ModuleIdentifier, String> identifiersToSources) {
         this.identifiersToSources = ImmutableMap.copyOf(identifiersToSources);
 
@@ -99,15 +121,123 @@ final class SchemaContextImpl implements SchemaContext {
 
         namespaceToModules = ImmutableSetMultimap.copyOf(nsMap);
         nameToModules = ImmutableSetMultimap.copyOf(nameMap);
+
+        final Map<QNameModule, Module> qnameModules = new HashMap<>();
+        final Set<DataSchemaNode> children = new LinkedHashSet<>();
+        final Map<QName, DataSchemaNode> byQName = new HashMap<>();
+        final Map<String, DataSchemaNode> byName = new HashMap<>();
+        final Set<NotificationDefinition> notifs = new LinkedHashSet<>();
+        final Set<RpcDefinition> rpcs = new LinkedHashSet<>();
+        final Set<ExtensionDefinition> exts = new LinkedHashSet<>();
+        final Set<TypeDefinition<?>> types = new LinkedHashSet<>();
+        final Set<GroupingDefinition> groups = new LinkedHashSet<>();
+        final List<UnknownSchemaNode> unknowns = new ArrayList<>();
+        final Map<SchemaPath, SchemaNode> paths = new HashMap<>();
+        for (Module m : this.modules) {
+            final QNameModule qnameModule = QNameModule.create(m.getNamespace(), m.getRevision());
+            if (!qnameModules.containsKey(qnameModule)) {
+                qnameModules.put(qnameModule, m);
+            }
+
+            for (DataSchemaNode child : m.getChildNodes()) {
+                children.add(child);
+
+                // First module in dependency order wins, as it used to when we scanned modules
+                if (!byQName.containsKey(child.getQName())) {
+                    byQName.put(child.getQName(), child);
+                }
+                if (!byName.containsKey(child.getQName().getLocalName())) {
+                    byName.put(child.getQName().getLocalName(), child);
+                }
+            }
+
+            notifs.addAll(m.getNotifications());
+            rpcs.addAll(m.getRpcs());
+            exts.addAll(m.getExtensionSchemaNodes());
+            types.addAll(m.getTypeDefinitions());
+            groups.addAll(m.getGroupings());
+            unknowns.addAll(m.getUnknownSchemaNodes());
+            indexModule(paths, m);
+        }
+
+        qnameModuleToModule = ImmutableMap.copyOf(qnameModules);
+        childNodes = Collections.unmodifiableSet(children);
+        childrenByQName = ImmutableMap.copyOf(byQName);
+        childrenByName = ImmutableMap.copyOf(byName);
+        notifications = Collections.unmodifiableSet(notifs);
+        operations = Collections.unmodifiableSet(rpcs);
+        extensions = Collections.unmodifiableSet(exts);
+        typeDefinitions = Collections.unmodifiableSet(types);
+        groupings = Collections.unmodifiableSet(groups);
+        unknownSchemaNodes = Collections.unmodifiableList(unknowns);
+        pathToNode = ImmutableMap.copyOf(paths);
+    }
+
+    /*
+     * Index every node reachable from a module by the path at which
+     * SchemaContextUtil.findDataSchemaNode() would find it. Nodes are visited
+     * in the order in which it looks them up, and the first node found for a
+     * particular path is retained. A node whose path is already taken is still
+     * descended into, as the lookup backtracks to it when the first node does
+     * not have the requested descendant.
+     */
+    private static void indexModule(final Map<SchemaPath, SchemaNode> index, final Module module) {
+        for (DataSchemaNode child : module.getChildNodes()) {
+            indexNode(index, SchemaPath.ROOT, child);
+        }
+        for (GroupingDefinition grouping : module.getGroupings()) {
+            indexNode(index, SchemaPath.ROOT, grouping);
+        }
+        for (RpcDefinition rpc : module.getRpcs()) {
+            indexNode(index, SchemaPath.ROOT, rpc);
+        }
+        for (NotificationDefinition notification : module.getNotifications()) {
+            indexNode(index, SchemaPath.ROOT, notification);
+        }
+    }
+
+    private static void indexNode(final Map<SchemaPath, SchemaNode> index, final SchemaPath parent, final SchemaNode node) {
+        final SchemaPath path = parent.createChild(node.getQName());
+        if (!index.containsKey(path)) {
+            index.put(path, node);
+        }
+
+        if (node instanceof DataNodeContainer) {
+            final DataNodeContainer container = (DataNodeContainer) node;
+            for (DataSchemaNode child : container.getChildNodes()) {
+                indexNode(index, path, child);
+            }
+            for (GroupingDefinition grouping : container.getGroupings()) {
+                indexNode(index, path, grouping);
+            }
+        }
+        if (node instanceof RpcDefinition) {
+            final RpcDefinition rpc = (RpcDefinition) node;
+            if (rpc.getInput() != null) {
+                indexNode(index, path, rpc.getInput());
+            }
+            if (rpc.getOutput() != null) {
+                indexNode(index, path, rpc.getOutput());
+            }
+            for (GroupingDefinition grouping : rpc.getGroupings()) {
+                indexNode(index, path, grouping);
+            }
+        }
+        if (node instanceof ChoiceNode) {
+            for (ChoiceCaseNode caze : ((ChoiceNode) node).getCases()) {
+                indexNode(index, path, caze);
+            }
+        }
+    }
+
+    @Override
+    public SchemaNode findIndexedSchemaNode(final SchemaPath path) {
+        return pathToNode.get(path.isAbsolute() ? path : SchemaPath.create(path.getPathFromRoot(), true));
     }
 
     @Override
     public Set<DataSchemaNode> getDataDefinitions() {
-        final Set<DataSchemaNode> dataDefs = new HashSet<>();
-        for (Module m : modules) {
-            dataDefs.addAll(m.getChildNodes());
-        }
-        return dataDefs;
+        return childNodes;
     }
 
     @Override
@@ -117,28 +247,16 @@ final class SchemaContextImpl implements SchemaContext {
 
     @Override
     public Set<NotificationDefinition> getNotifications() {
-        final Set<NotificationDefinition> notifications = new HashSet<>();
-        for (Module m : modules) {
-            notifications.addAll(m.getNotifications());
-        }
         return notifications;
     }
 
     @Override
     public Set<RpcDefinition> getOperations() {
-        final Set<RpcDefinition> rpcs = new HashSet<>();
-        for (Module m : modules) {
-            rpcs.addAll(m.getRpcs());
-        }
-        return rpcs;
+        return operations;
     }
 
     @Override
     public Set<ExtensionDefinition> getExtensions() {
-        final Set<ExtensionDefinition> extensions = new HashSet<>();
-        for (Module m : modules) {
-            extensions.addAll(m.getExtensionSchemaNodes());
-        }
         return extensions;
     }
 
@@ -164,6 +282,9 @@ final class SchemaContextImpl implements SchemaContext {
         if (namespace == null) {
             return null;
         }
+        if (revision != null) {
+            return qnameModuleToModule.get(QNameModule.create(namespace, revision));
+        }
         for (Module module : findModuleByNamespace(namespace)) {
             if (revision == null || revision.equals(module.getRevision())) {
                 return module;
@@ -219,60 +340,32 @@ final class SchemaContextImpl implements SchemaContext {
 
     @Override
     public List<UnknownSchemaNode> getUnknownSchemaNodes() {
-        final List<UnknownSchemaNode> result = new ArrayList<>();
-        for (Module module : modules) {
-            result.addAll(module.getUnknownSchemaNodes());
-        }
-        return Collections.unmodifiableList(result);
+        return unknownSchemaNodes;
     }
 
     @Override
     public Set<TypeDefinition<?>> getTypeDefinitions() {
-        final Set<TypeDefinition<?>> result = new LinkedHashSet<>();
-        for (Module module : modules) {
-            result.addAll(module.getTypeDefinitions());
-        }
-        return Collections.unmodifiableSet(result);
+        return typeDefinitions;
     }
 
     @Override
     public Set<DataSchemaNode> getChildNodes() {
-        final Set<DataSchemaNode> result = new LinkedHashSet<>();
-        for (Module module : modules) {
-            result.addAll(module.getChildNodes());
-        }
-        return Collections.unmodifiableSet(result);
+        return childNodes;
     }
 
     @Override
     public Set<GroupingDefinition> getGroupings() {
-        final Set<GroupingDefinition> result = new LinkedHashSet<>();
-        for (Module module : modules) {
-            result.addAll(module.getGroupings());
-        }
-        return Collections.unmodifiableSet(result);
+        return groupings;
     }
 
     @Override
     public DataSchemaNode getDataChildByName(final QName name) {
-        for (Module module : modules) {
-            final DataSchemaNode result = module.getDataChildByName(name);
-            if (result != null) {
-                return result;
-            }
-        }
-        return null;
+        return childrenByQName.get(name);
     }
 
     @Override
     public DataSchemaNode getDataChildByName(final String name) {
-        for (Module module : modules) {
-            final DataSchemaNode result = module.getDataChildByName(name);
-            if (result != null) {
-                return result;
-            }
-        }
-        return null;
+        return childrenByName.get(name);
     }
 
     @Override
@@ -16,8 +16,10 @@ import static org.opendaylight.yangtools.yang.parser.builder.impl.BuilderUtils.p
 import static org.opendaylight.yangtools.yang.parser.builder.impl.TypeUtils.resolveType;
 import static org.opendaylight.yangtools.yang.parser.builder.impl.TypeUtils.resolveTypeUnion;
 
+import com.google.common.annotations.Beta;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
 import com.google.common.collect.HashBiMap;
 import com.google.common.io.ByteSource;
 import java.io.File;
@@ -30,12 +32,18 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
 import org.antlr.v4.runtime.ANTLRInputStream;
 import org.antlr.v4.runtime.CommonTokenStream;
@@ -85,6 +93,7 @@ import org.opendaylight.yangtools.yang.parser.util.ModuleDependencySort;
 import org.opendaylight.yangtools.yang.parser.util.NamedByteArrayInputStream;
 import org.opendaylight.yangtools.yang.parser.util.NamedFileInputStream;
 import org.opendaylight.yangtools.yang.parser.util.NamedInputStream;
+import org.opendaylight.yangtools.yang.parser.util.ParseTreeCache;
 import org.opendaylight.yangtools.yang.parser.util.YangParseException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -94,6 +103,42 @@ public final class YangParserImpl implements YangContextParser {
     private static final Logger LOG = LoggerFactory.getLogger(YangParserImpl.class);
     private static final YangParserImpl INSTANCE = new YangParserImpl();
 
+    private final ExecutorService executor;
+    private final ParseTreeCache cache;
+
+    /**
+     * Creates a parser which lexes, parses and validates sources in the calling thread.
+     */
+    public YangParserImpl() {
+        this(null, null);
+    }
+
+    /**
+     * Creates a parser which lexes, parses and validates individual sources concurrently
+     * on specified executor. Module builders are still created and resolved in the calling
+     * thread, in the order in which sources were supplied, hence the resulting modules do
+     * not depend on the order in which parsing tasks complete.
+     *
+     * @param executor Executor used to parse sources
+     */
+    @Beta
+    public YangParserImpl(final ExecutorService executor) {
+        this(Preconditions.checkNotNull(executor), null);
+    }
+
+    /**
+     * Creates a parser which optionally parses sources concurrently and reuses parse trees
+     * stored in a {@link ParseTreeCache}.
+     *
+     * @param executor Executor used to parse sources, null to parse them in the calling thread
+     * @param cache Cache of parse trees, null to always parse sources
+     */
+    @Beta
+    public YangParserImpl(@Nullable final ExecutorService executor, @Nullable final ParseTreeCache cache) {
+        this.executor = executor;
+        this.cache = cache;
+    }
+
     public static YangParserImpl getInstance() {
         return INSTANCE;
     }
@@ -340,6 +385,25 @@ public final class YangParserImpl implements YangContextParser {
         return builderToModule.values();
     }
 
+    /**
+     * Build modules from builders, resolving imports of modules which are not present among
+     * the builders against an already-assembled context. The returned collection also contains
+     * copies of context modules imported by the builders.
+     *
+     * @param builders Module and submodule builders
+     * @param context Context holding already-built modules
+     * @return Built modules
+     */
+    @Beta
+    public Collection<Module> buildModules(final Collection<ModuleBuilder> builders, final SchemaContext context) {
+        Collection<ModuleBuilder> unsorted = resolveSubmodules(builders);
+        List<ModuleBuilder> sorted = ModuleDependencySort.sortWithContext(context,
+                unsorted.toArray(new ModuleBuilder[unsorted.size()]));
+        Map<URI, TreeMap<Date, ModuleBuilder>> modules = resolveModulesWithImports(sorted, context);
+        Map<ModuleBuilder, Module> builderToModule = build(modules);
+        return builderToModule.values();
+    }
+
     public SchemaContext assembleContext(final Collection<Module> modules) {
         final Set<Module> sorted = new LinkedHashSet<>(
                 ModuleDependencySort.sort(modules.toArray(new Module[modules.size()])));
@@ -389,9 +453,6 @@ public final class YangParserImpl implements YangContextParser {
         final Map<ByteSource, ParseTree> sourceToTree = parseYangSources(sources);
         final Map<ByteSource, ModuleBuilder> sourceToBuilder = new LinkedHashMap<>();
 
-        // validate yang
-        new YangModelBasicValidator(walker).validate(sourceToTree.values());
-
         Map<String, TreeMap<Date, URI>> namespaceContext = BuilderUtils.createYangNamespaceContext(
                 sourceToTree.values(), Optional.fromNullable(context));
         YangParserListenerImpl yangModelParser;
@@ -639,15 +700,68 @@ public final class YangParserImpl implements YangContextParser {
     }
 
     private Map<ByteSource, ParseTree> parseYangSources(final Collection<ByteSource> sources) throws IOException, YangSyntaxErrorException {
-        final Map<ByteSource, ParseTree> trees = new HashMap<>();
-        for (ByteSource source : sources) {
-            try (InputStream stream = source.openStream()) {
-                trees.put(source, parseYangSource(stream));
+        final Map<ByteSource, ParseTree> trees = new LinkedHashMap<>();
+        if (executor == null || sources.size() < 2) {
+            for (ByteSource source : sources) {
+                trees.put(source, parseAndValidate(source));
             }
+            return trees;
+        }
+
+        final List<ByteSource> ordered = new ArrayList<>(sources);
+        final List<Callable<ParseTree>> tasks = new ArrayList<>(ordered.size());
+        for (final ByteSource source : ordered) {
+            tasks.add(new Callable<ParseTree>() {
+                @Override
+                public ParseTree call() throws IOException, YangSyntaxErrorException {
+                    return parseAndValidate(source);
+                }
+            });
+        }
+
+        final List<Future<ParseTree>> futures;
+        try {
+            futures = executor.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while parsing sources", e);
+        }
+
+        // Report the first failure in source order, so errors are reproducible
+        final Iterator<ByteSource> it = ordered.iterator();
+        for (Future<ParseTree> future : futures) {
+            trees.put(it.next(), getParseTree(future));
         }
         return trees;
     }
 
+    private ParseTree parseAndValidate(final ByteSource source) throws IOException, YangSyntaxErrorException {
+        if (cache != null) {
+            return cache.parse(source);
+        }
+
+        final ParseTree tree;
+        try (InputStream stream = source.openStream()) {
+            tree = parseYangSource(stream);
+        }
+
+        new YangModelBasicValidator().validate(Collections.singletonList(tree));
+        return tree;
+    }
+
+    private static ParseTree getParseTree(final Future<ParseTree> future) throws IOException, YangSyntaxErrorException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while parsing sources", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            Throwables.propagateIfPossible(cause, IOException.class, YangSyntaxErrorException.class);
+            throw new IllegalStateException("Failed to parse source", cause);
+        }
+    }
+
     public static YangContext parseYangSource(final InputStream stream) throws IOException, YangSyntaxErrorException {
         final YangLexer lexer = new YangLexer(new ANTLRInputStream(stream));
         final CommonTokenStream tokens = new CommonTokenStream(lexer);
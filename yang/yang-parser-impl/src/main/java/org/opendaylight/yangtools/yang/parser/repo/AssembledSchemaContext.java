@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.parser.repo;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.HashCode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.opendaylight.yangtools.antlrv4.code.gen.YangParser.Augment_stmtContext;
+import org.opendaylight.yangtools.antlrv4.code.gen.YangParser.Belongs_to_stmtContext;
+import org.opendaylight.yangtools.antlrv4.code.gen.YangParser.Body_stmtsContext;
+import org.opendaylight.yangtools.antlrv4.code.gen.YangParser.Deviation_stmtContext;
+import org.opendaylight.yangtools.antlrv4.code.gen.YangParser.Import_stmtContext;
+import org.opendaylight.yangtools.antlrv4.code.gen.YangParser.Linkage_stmtsContext;
+import org.opendaylight.yangtools.antlrv4.code.gen.YangParser.Module_stmtContext;
+import org.opendaylight.yangtools.antlrv4.code.gen.YangParser.Prefix_stmtContext;
+import org.opendaylight.yangtools.antlrv4.code.gen.YangParser.Submodule_stmtContext;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.model.api.Module;
+import org.opendaylight.yangtools.yang.model.api.ModuleImport;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.model.repo.api.SourceIdentifier;
+import org.opendaylight.yangtools.yang.parser.impl.ParserListenerUtils;
+import org.opendaylight.yangtools.yang.parser.impl.util.YangModelDependencyInfo;
+import org.opendaylight.yangtools.yang.parser.impl.util.YangModelDependencyInfo.SubmoduleDependencyInfo;
+import org.opendaylight.yangtools.yang.parser.util.ASTSchemaSource;
+
+/**
+ * A schema context assembled by {@link SharedSchemaContextFactory}, along with a summary of
+ * the sources it was assembled from. It serves as the base for assembling the next context incrementally:
+ * modules which are not affected by the difference between the two sets of sources are reused
+ * as they are, only the affected ones are rebuilt from their ASTs.
+ *
+ * A module is affected if its source, or the source of any of its submodules, was added,
+ * removed or modified, if it is the target of an augmentation or deviation defined in such
+ * a source, or if it imports an affected module. Modules are tracked by name, hence all
+ * revisions of a module are affected together.
+ *
+ * The sources themselves are not retained, as their parse trees and text are large. Each
+ * source is summarized by the SHA-1 digest of its text and the names of the modules which
+ * are affected when it changes.
+ */
+final class AssembledSchemaContext {
+    private static final class SourceSummary {
+        final HashCode digest;
+        final Set<String> affectedModules;
+
+        SourceSummary(final HashCode digest, final Set<String> affectedModules) {
+            this.digest = digest;
+            this.affectedModules = Preconditions.checkNotNull(affectedModules);
+        }
+    }
+
+    private final Map<SourceIdentifier, SourceSummary> sources;
+    private final Map<SourceIdentifier, Module> modules;
+    private final SchemaContext context;
+
+    private AssembledSchemaContext(final Map<SourceIdentifier, SourceSummary> sources,
+            final Map<SourceIdentifier, Module> modules, final SchemaContext context) {
+        this.sources = Preconditions.checkNotNull(sources);
+        this.modules = Preconditions.checkNotNull(modules);
+        this.context = Preconditions.checkNotNull(context);
+    }
+
+    static AssembledSchemaContext create(final Map<SourceIdentifier, ASTSchemaSource> sources, final SchemaContext context) {
+        final Map<SourceIdentifier, SourceSummary> summaries = new HashMap<>();
+        for (Entry<SourceIdentifier, ASTSchemaSource> e : sources.entrySet()) {
+            final ASTSchemaSource source = e.getValue();
+            summaries.put(e.getKey(), new SourceSummary(source.getDigest(), affectedModules(source)));
+        }
+
+        final Map<SourceIdentifier, Module> modules = new HashMap<>();
+        for (Module module : context.getModules()) {
+            modules.put(sourceIdentifier(module), module);
+        }
+        return new AssembledSchemaContext(ImmutableMap.copyOf(summaries), modules, context);
+    }
+
+    private static SourceIdentifier sourceIdentifier(final Module module) {
+        final String revision = QName.formattedRevision(module.getRevision());
+        return revision == null ? new SourceIdentifier(module.getName()) : new SourceIdentifier(module.getName(), revision);
+    }
+
+    SchemaContext getContext() {
+        return context;
+    }
+
+    /**
+     * Return the already-built module corresponding to a module source.
+     *
+     * @param id Module source identifier
+     * @return Module, or null if this context does not contain it
+     */
+    Module getModule(final SourceIdentifier id) {
+        return modules.get(id);
+    }
+
+    /**
+     * Determine which of the sources need to be rebuilt in order to assemble a context
+     * from them, reusing modules from this context.
+     *
+     * @param newSources Sources of the new context
+     * @return Identifiers of the sources which need to be rebuilt. If all modules need
+     *         to be rebuilt, the returned set contains all identifiers.
+     */
+    Set<SourceIdentifier> findAffectedSources(final Map<SourceIdentifier, ASTSchemaSource> newSources) {
+        final Set<String> affected = new HashSet<>();
+        for (Entry<SourceIdentifier, ASTSchemaSource> e : newSources.entrySet()) {
+            final SourceSummary old = sources.get(e.getKey());
+            if (old == null || !isSameSource(old, e.getValue())) {
+                affected.addAll(affectedModules(e.getValue()));
+            }
+        }
+        for (Entry<SourceIdentifier, SourceSummary> e : sources.entrySet()) {
+            if (!newSources.containsKey(e.getKey())) {
+                affected.addAll(e.getValue().affectedModules);
+            }
+        }
+
+        // Propagate to modules which (transitively) import affected modules
+        boolean changed;
+        do {
+            changed = false;
+            for (ASTSchemaSource source : newSources.values()) {
+                final String owner = getOwner(source);
+                if (!affected.contains(owner) && importsAny(source, affected)) {
+                    affected.add(owner);
+                    changed = true;
+                }
+            }
+        } while (changed);
+
+        final Set<SourceIdentifier> ret = new LinkedHashSet<>();
+        for (Entry<SourceIdentifier, ASTSchemaSource> e : newSources.entrySet()) {
+            final ASTSchemaSource source = e.getValue();
+            if (affected.contains(getOwner(source))) {
+                ret.add(e.getKey());
+            } else if (isModule(source) && !modules.containsKey(e.getKey())) {
+                // We cannot reuse a module we do not have, give up
+                return newSources.keySet();
+            }
+        }
+        return ret;
+    }
+
+    static boolean isModule(final ASTSchemaSource source) {
+        return !(source.getDependencyInformation() instanceof SubmoduleDependencyInfo);
+    }
+
+    private static boolean isSameSource(final SourceSummary old, final ASTSchemaSource source) {
+        return old.digest != null && old.digest.equals(source.getDigest());
+    }
+
+    /**
+     * Return the name of the module a source contributes to, e.g. the module itself
+     * or the parent of a submodule.
+     */
+    private static String getOwner(final ASTSchemaSource source) {
+        final YangModelDependencyInfo info = source.getDependencyInformation();
+        if (info instanceof SubmoduleDependencyInfo) {
+            return ((SubmoduleDependencyInfo) info).getParentModule();
+        }
+        return info.getName();
+    }
+
+    private static boolean importsAny(final ASTSchemaSource source, final Set<String> names) {
+        for (ModuleImport imp : source.getDependencyInformation().getDependencies()) {
+            if (names.contains(imp.getModuleName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Return the names of the modules affected by a change to a source: the module it
+     * contributes to and the targets of its augmentations and deviations.
+     */
+    private static Set<String> affectedModules(final ASTSchemaSource source) {
+        final String owner = getOwner(source);
+        final Set<String> affected = new HashSet<>();
+        affected.add(owner);
+
+        final ParseTree tree = source.getAST();
+        for (int i = 0; i < tree.getChildCount(); ++i) {
+            final ParseTree child = tree.getChild(i);
+            final Linkage_stmtsContext linkage;
+            final Body_stmtsContext body;
+            final List<Prefix_stmtContext> ownPrefixes;
+            if (child instanceof Module_stmtContext) {
+                final Module_stmtContext module = (Module_stmtContext) child;
+                linkage = module.linkage_stmts();
+                body = module.body_stmts();
+                ownPrefixes = module.module_header_stmts().prefix_stmt();
+            } else if (child instanceof Submodule_stmtContext) {
+                final Submodule_stmtContext submodule = (Submodule_stmtContext) child;
+                linkage = submodule.linkage_stmts();
+                body = submodule.body_stmts();
+
+                ownPrefixes = new ArrayList<>();
+                for (Belongs_to_stmtContext belongsTo : submodule.submodule_header_stmts().belongs_to_stmt()) {
+                    ownPrefixes.add(belongsTo.prefix_stmt());
+                }
+            } else {
+                continue;
+            }
+
+            final Map<String, String> prefixes = new HashMap<>();
+            for (Prefix_stmtContext prefix : ownPrefixes) {
+                prefixes.put(ParserListenerUtils.stringFromNode(prefix), owner);
+            }
+            for (Import_stmtContext imp : linkage.import_stmt()) {
+                prefixes.put(ParserListenerUtils.stringFromNode(imp.prefix_stmt()), ParserListenerUtils.stringFromNode(imp));
+            }
+
+            for (Augment_stmtContext augment : body.augment_stmt()) {
+                addTargetModule(affected, prefixes, owner, ParserListenerUtils.stringFromNode(augment));
+            }
+            for (Deviation_stmtContext deviation : body.deviation_stmt()) {
+                addTargetModule(affected, prefixes, owner, ParserListenerUtils.stringFromNode(deviation));
+            }
+        }
+        return ImmutableSet.copyOf(affected);
+    }
+
+    private static void addTargetModule(final Set<String> affected, final Map<String, String> prefixes,
+            final String owner, final String path) {
+        String first = path.startsWith("/") ? path.substring(1) : path;
+        final int slash = first.indexOf('/');
+        if (slash != -1) {
+            first = first.substring(0, slash);
+        }
+
+        final int colon = first.indexOf(':');
+        if (colon == -1) {
+            affected.add(owner);
+            return;
+        }
+
+        final String target = prefixes.get(first.substring(0, colon).trim());
+        if (target != null) {
+            affected.add(target);
+        }
+    }
+}
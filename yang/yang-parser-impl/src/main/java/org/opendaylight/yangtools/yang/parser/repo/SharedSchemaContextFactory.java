@@ -28,6 +28,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -85,27 +86,14 @@ final class SharedSchemaContextFactory implements SchemaContextFactory {
                         res.getResolvedSources(), res.getUnsatisfiedImports());
             }
 
-            final Map<SourceIdentifier, ParserRuleContext> asts =
-                    Maps.transformValues(srcs, ASTSchemaSource.GET_AST);
-            final Map<String, TreeMap<Date, URI>> namespaceContext = BuilderUtils.createYangNamespaceContext(
-                    asts.values(), Optional.<SchemaContext>absent());
-
-            final ParseTreeWalker walker = new ParseTreeWalker();
-            final Map<SourceIdentifier, ModuleBuilder> sourceToBuilder = new LinkedHashMap<>();
-
-            for (final Entry<SourceIdentifier, ParserRuleContext> entry : asts.entrySet()) {
-                final ModuleBuilder moduleBuilder = YangParserListenerImpl.create(namespaceContext, entry.getKey().getName(),
-                        walker, entry.getValue()).getModuleBuilder();
-
-                moduleBuilder.setSource(srcs.get(entry.getKey()).getYangText());
-                sourceToBuilder.put(entry.getKey(), moduleBuilder);
+            final AssembledSchemaContext previous = lastAssembled;
+            SchemaContext ctx = previous == null ? null : assembleIncrementally(previous, srcs);
+            if (ctx == null) {
+                ctx = assembleFully(srcs);
             }
-            LOG.debug("Modules ready for integration");
 
-            final YangParserImpl parser = YangParserImpl.getInstance();
-            final Collection<Module> modules = parser.buildModules(sourceToBuilder.values());
-            LOG.debug("Integrated cross-references modules");
-            return Futures.immediateCheckedFuture(parser.assembleContext(modules));
+            lastAssembled = AssembledSchemaContext.create(srcs, ctx);
+            return Futures.immediateCheckedFuture(ctx);
         }
     };
 
@@ -113,6 +101,9 @@ final class SharedSchemaContextFactory implements SchemaContextFactory {
     // FIXME: ignored right now
     private final SchemaSourceFilter filter;
 
+    // The most recently assembled context and digests of its sources, used as the base for assembling the next one
+    private volatile AssembledSchemaContext lastAssembled;
+
     // FIXME SchemaRepository should be the type for repository parameter instead of SharedSchemaRepository (final implementation)
     public SharedSchemaContextFactory(final SharedSchemaRepository repository, final SchemaSourceFilter filter) {
         this.repository = Preconditions.checkNotNull(repository);
@@ -130,7 +121,8 @@ final class SharedSchemaContextFactory implements SchemaContextFactory {
             return Futures.immediateCheckedFuture(existing);
         }
 
-        // Request all sources be loaded
+        // Request all sources be loaded. This is done before waiting for any of them, so that
+        // a TextToASTTransformer backed by an executor can parse them concurrently.
         ListenableFuture<List<ASTSchemaSource>> sf = Futures.allAsList(Collections2.transform(uniqueSourceIdentifiers, requestSources));
 
         // Detect mismatch between requested Source IDs and IDs that are extracted from parsed source
@@ -157,6 +149,76 @@ final class SharedSchemaContextFactory implements SchemaContextFactory {
         return Futures.makeChecked(cf, MAPPER);
     }
 
+    private static Map<SourceIdentifier, ModuleBuilder> createBuilders(final Map<SourceIdentifier, ASTSchemaSource> srcs,
+            final Optional<SchemaContext> context) {
+        final Map<SourceIdentifier, ParserRuleContext> asts =
+                Maps.transformValues(srcs, ASTSchemaSource.GET_AST);
+        final Map<String, TreeMap<Date, URI>> namespaceContext = BuilderUtils.createYangNamespaceContext(
+                asts.values(), context);
+
+        final ParseTreeWalker walker = new ParseTreeWalker();
+        final Map<SourceIdentifier, ModuleBuilder> sourceToBuilder = new LinkedHashMap<>();
+
+        for (final Entry<SourceIdentifier, ParserRuleContext> entry : asts.entrySet()) {
+            final ModuleBuilder moduleBuilder = YangParserListenerImpl.create(namespaceContext, entry.getKey().getName(),
+                    walker, entry.getValue()).getModuleBuilder();
+
+            moduleBuilder.setSource(srcs.get(entry.getKey()).getYangText());
+            sourceToBuilder.put(entry.getKey(), moduleBuilder);
+        }
+        LOG.debug("Modules ready for integration");
+        return sourceToBuilder;
+    }
+
+    private static SchemaContext assembleFully(final Map<SourceIdentifier, ASTSchemaSource> srcs) {
+        final Map<SourceIdentifier, ModuleBuilder> sourceToBuilder = createBuilders(srcs, Optional.<SchemaContext>absent());
+
+        final YangParserImpl parser = YangParserImpl.getInstance();
+        final Collection<Module> modules = parser.buildModules(sourceToBuilder.values());
+        LOG.debug("Integrated cross-references modules");
+        return parser.assembleContext(modules);
+    }
+
+    /**
+     * Assemble a context reusing modules from a previously-assembled context, rebuilding only
+     * modules affected by the difference in sources.
+     *
+     * @return Assembled context, or null if all modules need to be rebuilt
+     */
+    private static SchemaContext assembleIncrementally(final AssembledSchemaContext previous,
+            final Map<SourceIdentifier, ASTSchemaSource> srcs) {
+        final Set<SourceIdentifier> affected = previous.findAffectedSources(srcs);
+        if (affected.size() == srcs.size()) {
+            LOG.debug("All sources affected, assembling context from scratch");
+            return null;
+        }
+
+        final Set<Module> reused = new LinkedHashSet<>();
+        final Map<SourceIdentifier, ASTSchemaSource> rebuilt = new LinkedHashMap<>();
+        for (Entry<SourceIdentifier, ASTSchemaSource> e : srcs.entrySet()) {
+            if (affected.contains(e.getKey())) {
+                rebuilt.put(e.getKey(), e.getValue());
+            } else if (AssembledSchemaContext.isModule(e.getValue())) {
+                reused.add(previous.getModule(e.getKey()));
+            }
+        }
+        LOG.debug("Reusing {} modules, rebuilding sources {}", reused.size(), rebuilt.keySet());
+
+        final YangParserImpl parser = YangParserImpl.getInstance();
+        final SchemaContext base = parser.assembleContext(reused);
+        if (rebuilt.isEmpty()) {
+            return base;
+        }
+
+        final Map<SourceIdentifier, ModuleBuilder> sourceToBuilder = createBuilders(rebuilt, Optional.of(base));
+
+        // Rebuilt modules take precedence over reused modules they have copied
+        final Set<Module> modules = new LinkedHashSet<>(parser.buildModules(sourceToBuilder.values(), base));
+        modules.addAll(reused);
+        LOG.debug("Integrated cross-references modules");
+        return parser.assembleContext(modules);
+    }
+
     /**
      * @return set (preserving ordering) from the input collection
      */
@@ -7,9 +7,13 @@
 package org.opendaylight.yangtools.yang.parser.util;
 
 import com.google.common.annotations.Beta;
+import com.google.common.base.Charsets;
 import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.opendaylight.yangtools.yang.model.parser.api.YangSyntaxErrorException;
 import org.opendaylight.yangtools.yang.model.repo.api.SchemaSourceRepresentation;
@@ -54,12 +58,14 @@ public final class ASTSchemaSource implements SchemaSourceRepresentation {
     private final ParserRuleContext tree;
     private final SourceIdentifier id;
     private final String text;
+    private final HashCode digest;
 
-    private ASTSchemaSource(final @Nonnull SourceIdentifier id, @Nonnull final ParserRuleContext tree, final @Nonnull YangModelDependencyInfo depInfo, final String text) {
+    private ASTSchemaSource(final @Nonnull SourceIdentifier id, @Nonnull final ParserRuleContext tree, final @Nonnull YangModelDependencyInfo depInfo, final String text, final HashCode digest) {
         this.depInfo = Preconditions.checkNotNull(depInfo);
         this.tree = Preconditions.checkNotNull(tree);
         this.id = Preconditions.checkNotNull(id);
         this.text = text;
+        this.digest = digest;
     }
 
     /**
@@ -74,7 +80,7 @@ public final class ASTSchemaSource implements SchemaSourceRepresentation {
     public static ASTSchemaSource create(final @Nonnull String name, final @Nonnull ParserRuleContext tree) throws YangSyntaxErrorException {
         final YangModelDependencyInfo depInfo = YangModelDependencyInfo.fromAST(name, tree);
         final SourceIdentifier id = getSourceId(depInfo);
-        return new ASTSchemaSource(id, tree, depInfo, null);
+        return new ASTSchemaSource(id, tree, depInfo, null, null);
     }
 
     private static SourceIdentifier getSourceId(final YangModelDependencyInfo depInfo) {
@@ -97,9 +103,14 @@ public final class ASTSchemaSource implements SchemaSourceRepresentation {
      */
     @Deprecated
     public static ASTSchemaSource create(final @Nonnull String name, final @Nonnull ParserRuleContext tree, final String text) throws YangSyntaxErrorException {
+        return create(name, tree, text, text == null ? null : Hashing.sha1().hashString(text, Charsets.UTF_8));
+    }
+
+    static ASTSchemaSource create(final @Nonnull String name, final @Nonnull ParserRuleContext tree, final String text,
+            final HashCode digest) throws YangSyntaxErrorException {
         final YangModelDependencyInfo depInfo = YangModelDependencyInfo.fromAST(name, tree);
         final SourceIdentifier id = getSourceId(depInfo);
-        return new ASTSchemaSource(id, tree, depInfo, text);
+        return new ASTSchemaSource(id, tree, depInfo, text, digest);
     }
 
 
@@ -146,4 +157,14 @@ public final class ASTSchemaSource implements SchemaSourceRepresentation {
     public @Nonnull String getYangText() {
         return text;
     }
+
+    /**
+     * Return the SHA-1 digest of the YANG text source this tree was parsed from. Two
+     * sources with the same digest are considered to have the same content.
+     *
+     * @return Digest of the YANG text source, or null if it is not known.
+     */
+    public @Nullable HashCode getDigest() {
+        return digest;
+    }
 }
@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.parser.util;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteSource;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.opendaylight.yangtools.antlrv4.code.gen.YangParser.YangContext;
+import org.opendaylight.yangtools.yang.model.parser.api.YangSyntaxErrorException;
+import org.opendaylight.yangtools.yang.parser.impl.YangModelBasicValidator;
+import org.opendaylight.yangtools.yang.parser.impl.YangParserImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * On-disk cache of validated YANG parse trees. Each tree is stored in its own file, named
+ * after the SHA-1 digest of the source text, so a source which has not changed since the
+ * previous run is not lexed, parsed and validated again, but rather decoded from its cache
+ * file. Entries which cannot be decoded, for example because they were created by a different
+ * version of the grammar, are discarded and recreated.
+ *
+ * Entries are pruned when the cache is created: entries written for a different grammar are
+ * removed, as are entries which have not been used for longer than the maximum age. Using an
+ * entry refreshes its modification time, so frequently-used entries are retained.
+ *
+ * Instances are thread-safe and may be shared by multiple parsers.
+ */
+@Beta
+public final class ParseTreeCache {
+    private static final Logger LOG = LoggerFactory.getLogger(ParseTreeCache.class);
+    private static final String SUFFIX = ".ast";
+    private static final String TMP_SUFFIX = ".tmp";
+    private static final long DEFAULT_MAX_AGE_DAYS = 30;
+
+    /*
+     * Entries up to this size are read into the heap. Mapping a file has a fixed cost and the
+     * mapping is released only when the buffer is garbage-collected, which does not pay off
+     * for small files.
+     */
+    private static final int MAX_READ_SIZE = 256 * 1024;
+
+    private final File directory;
+
+    private ParseTreeCache(final File directory) {
+        this.directory = Preconditions.checkNotNull(directory);
+    }
+
+    /**
+     * Create a cache storing its entries in specified directory. The directory is created if
+     * it does not exist. Entries which have not been used for 30 days are pruned.
+     *
+     * @param directory Cache directory
+     * @return A new cache
+     * @throws IllegalArgumentException if the directory cannot be created or is not writable
+     */
+    public static ParseTreeCache create(final File directory) {
+        return create(directory, DEFAULT_MAX_AGE_DAYS, TimeUnit.DAYS);
+    }
+
+    /**
+     * Create a cache storing its entries in specified directory. The directory is created if
+     * it does not exist. Entries which have not been used for longer than the specified age
+     * are pruned.
+     *
+     * @param directory Cache directory
+     * @param maxAge Maximum time an entry is kept since it was last used
+     * @param unit Time unit of maxAge
+     * @return A new cache
+     * @throws IllegalArgumentException if the directory cannot be created or is not writable
+     */
+    public static ParseTreeCache create(final File directory, final long maxAge, final TimeUnit unit) {
+        Preconditions.checkArgument(maxAge >= 0, "Maximum age %s is negative", maxAge);
+        if (!directory.exists()) {
+            Preconditions.checkArgument(directory.mkdirs(), "Unable to create cache directory at %s", directory);
+        }
+        Preconditions.checkArgument(directory.isDirectory(), "%s is not a directory", directory);
+        Preconditions.checkArgument(directory.canWrite(), "Cache directory %s is not writable", directory);
+
+        final ParseTreeCache ret = new ParseTreeCache(directory);
+        ret.prune(System.currentTimeMillis() - unit.toMillis(maxAge));
+        return ret;
+    }
+
+    private void prune(final long minTimestamp) {
+        final File[] files = directory.listFiles();
+        if (files == null) {
+            LOG.warn("Failed to list cache directory {}", directory);
+            return;
+        }
+
+        int pruned = 0;
+        for (File file : files) {
+            final String name = file.getName();
+            if (!file.isFile() || !(name.endsWith(SUFFIX) || name.endsWith(TMP_SUFFIX))) {
+                continue;
+            }
+
+            // Temporary files are never current, but may be in the process of being written
+            final boolean stale = file.lastModified() < minTimestamp
+                    || (name.endsWith(SUFFIX) && !hasCurrentHeader(file));
+            if (stale) {
+                try {
+                    Files.deleteIfExists(file.toPath());
+                    pruned++;
+                } catch (IOException e) {
+                    LOG.warn("Failed to remove stale cache entry {}", file, e);
+                }
+            }
+        }
+        LOG.debug("Pruned {} entries from {}", pruned, directory);
+    }
+
+    private static boolean hasCurrentHeader(final File file) {
+        final ByteBuffer header = ByteBuffer.allocate(ParseTreeCodec.HEADER_SIZE);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            readFully(channel, header);
+        } catch (IOException e) {
+            LOG.debug("Failed to read header of {}", file, e);
+            return false;
+        }
+
+        header.flip();
+        return ParseTreeCodec.hasCurrentHeader(header);
+    }
+
+    /**
+     * Return the validated parse tree of a YANG source, either from the cache or by parsing
+     * and validating the source and storing the result in the cache.
+     *
+     * @param source YANG source text
+     * @return Validated parse tree
+     * @throws IOException if the source cannot be read
+     * @throws YangSyntaxErrorException if the source is not syntactically valid
+     */
+    public YangContext parse(final ByteSource source) throws IOException, YangSyntaxErrorException {
+        final byte[] bytes = source.read();
+        return parse(source, bytes, Hashing.sha1().hashBytes(bytes));
+    }
+
+    /**
+     * Return the validated parse tree of a YANG source whose content has already been read.
+     *
+     * @param source YANG source, used for logging
+     * @param bytes YANG source text
+     * @param digest SHA-1 digest of the source text
+     */
+    YangContext parse(final ByteSource source, final byte[] bytes, final HashCode digest)
+            throws IOException, YangSyntaxErrorException {
+        final File file = new File(directory, digest.toString() + SUFFIX);
+
+        if (file.isFile()) {
+            try {
+                final YangContext cached = load(file);
+                LOG.debug("Loaded parse tree of {} from {}", source, file);
+
+                // Mark the entry as recently used, so it is not pruned
+                if (!file.setLastModified(System.currentTimeMillis())) {
+                    LOG.debug("Failed to update modification time of {}", file);
+                }
+                return cached;
+            } catch (IOException | RuntimeException e) {
+                LOG.warn("Discarding unusable cache entry {}", file, e);
+                Files.deleteIfExists(file.toPath());
+            }
+        }
+
+        final YangContext tree = YangParserImpl.parseYangSource(new ByteArrayInputStream(bytes));
+        new YangModelBasicValidator().validate(Collections.<ParseTree>singletonList(tree));
+
+        try {
+            store(file, tree);
+            LOG.debug("Stored parse tree of {} to {}", source, file);
+        } catch (IOException e) {
+            LOG.warn("Failed to store parse tree of {} to {}", source, file, e);
+        }
+        return tree;
+    }
+
+    private static YangContext load(final File file) throws IOException {
+        final ByteBuffer buf;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size <= MAX_READ_SIZE) {
+                buf = ByteBuffer.allocate((int) size);
+                readFully(channel, buf);
+                buf.flip();
+            } else {
+                buf = channel.map(MapMode.READ_ONLY, 0, size);
+            }
+        }
+        return ParseTreeCodec.read(buf);
+    }
+
+    private static void readFully(final FileChannel channel, final ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            if (channel.read(buf) == -1) {
+                break;
+            }
+        }
+    }
+
+    private void store(final File file, final YangContext tree) throws IOException {
+        // Write to a temporary file first, so concurrent readers never observe a partial entry
+        final File tmp = File.createTempFile(file.getName(), TMP_SUFFIX, directory);
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+                ParseTreeCodec.write(out, tree);
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp.toPath());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return Objects.toStringHelper(this).add("directory", directory).toString();
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.parser.util;
+
+import com.google.common.base.Charsets;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.opendaylight.yangtools.antlrv4.code.gen.YangParser;
+import org.opendaylight.yangtools.antlrv4.code.gen.YangParser.YangContext;
+
+/**
+ * Compact binary representation of a YANG parse tree. The format consists of a header, which
+ * identifies the grammar, a table of unique strings, a table of tokens referencing the strings,
+ * and finally the tree itself, with each node referencing its tokens by index.
+ *
+ * Rule nodes are reconstructed as instances of their respective {@link YangParser} context
+ * classes, hence listeners and validators can walk a decoded tree as if it was just parsed.
+ */
+final class ParseTreeCodec {
+    private static final int MAGIC = 0x59414E47;
+    private static final int FORMAT_VERSION = 1;
+    private static final int GRAMMAR_FINGERPRINT = YangParser._serializedATN.hashCode();
+
+    /**
+     * Size of the header: magic, format version and grammar fingerprint.
+     */
+    static final int HEADER_SIZE = 12;
+
+    private static final byte RULE_NODE = 0;
+    private static final byte TERMINAL_NODE = 1;
+    private static final int NULL_TOKEN = -1;
+
+    private static final List<Constructor<? extends ParserRuleContext>> CONSTRUCTORS = createConstructors();
+
+    private ParseTreeCodec() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    private static List<Constructor<? extends ParserRuleContext>> createConstructors() {
+        final List<Constructor<? extends ParserRuleContext>> ret = new ArrayList<>(YangParser.ruleNames.length);
+        for (String ruleName : YangParser.ruleNames) {
+            final String className = YangParser.class.getName() + '$' + Character.toUpperCase(ruleName.charAt(0))
+                    + ruleName.substring(1) + "Context";
+            try {
+                final Class<? extends ParserRuleContext> cls =
+                        Class.forName(className, false, YangParser.class.getClassLoader()).asSubclass(ParserRuleContext.class);
+                ret.add(cls.getConstructor(ParserRuleContext.class, int.class));
+            } catch (ClassNotFoundException | NoSuchMethodException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+        return ret;
+    }
+
+    static void write(final DataOutput out, final YangContext tree) throws IOException {
+        final Map<Token, Integer> tokens = new IdentityHashMap<>();
+        final List<Token> tokenList = new ArrayList<>();
+        final Map<String, Integer> strings = new HashMap<>();
+        final List<String> stringList = new ArrayList<>();
+        collectTokens(tree, tokens, tokenList, strings, stringList);
+
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(GRAMMAR_FINGERPRINT);
+
+        out.writeInt(stringList.size());
+        for (String str : stringList) {
+            final byte[] bytes = str.getBytes(Charsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        out.writeInt(tokenList.size());
+        for (Token token : tokenList) {
+            out.writeInt(token.getType());
+            out.writeInt(strings.get(token.getText()));
+            out.writeInt(token.getLine());
+            out.writeInt(token.getCharPositionInLine());
+            out.writeInt(token.getTokenIndex());
+        }
+
+        writeRule(out, tree, tokens);
+    }
+
+    private static void collectToken(final Token token, final Map<Token, Integer> tokens, final List<Token> tokenList,
+            final Map<String, Integer> strings, final List<String> stringList) {
+        if (token == null || tokens.containsKey(token)) {
+            return;
+        }
+
+        tokens.put(token, tokenList.size());
+        tokenList.add(token);
+
+        final String text = token.getText();
+        if (!strings.containsKey(text)) {
+            strings.put(text, stringList.size());
+            stringList.add(text);
+        }
+    }
+
+    private static void collectTokens(final ParseTree node, final Map<Token, Integer> tokens, final List<Token> tokenList,
+            final Map<String, Integer> strings, final List<String> stringList) {
+        if (node instanceof TerminalNode) {
+            collectToken(((TerminalNode) node).getSymbol(), tokens, tokenList, strings, stringList);
+            return;
+        }
+
+        final ParserRuleContext ctx = (ParserRuleContext) node;
+        collectToken(ctx.start, tokens, tokenList, strings, stringList);
+        collectToken(ctx.stop, tokens, tokenList, strings, stringList);
+        for (int i = 0; i < ctx.getChildCount(); ++i) {
+            collectTokens(ctx.getChild(i), tokens, tokenList, strings, stringList);
+        }
+    }
+
+    private static int tokenIndex(final Token token, final Map<Token, Integer> tokens) {
+        return token == null ? NULL_TOKEN : tokens.get(token);
+    }
+
+    private static void writeRule(final DataOutput out, final ParserRuleContext ctx, final Map<Token, Integer> tokens)
+            throws IOException {
+        out.writeInt(ctx.getRuleIndex());
+        out.writeInt(ctx.invokingState);
+        out.writeInt(tokenIndex(ctx.start, tokens));
+        out.writeInt(tokenIndex(ctx.stop, tokens));
+        out.writeInt(ctx.getChildCount());
+
+        for (int i = 0; i < ctx.getChildCount(); ++i) {
+            final ParseTree child = ctx.getChild(i);
+            if (child instanceof TerminalNode) {
+                out.writeByte(TERMINAL_NODE);
+                out.writeInt(tokenIndex(((TerminalNode) child).getSymbol(), tokens));
+            } else if (child instanceof ParserRuleContext) {
+                out.writeByte(RULE_NODE);
+                writeRule(out, (ParserRuleContext) child, tokens);
+            } else {
+                throw new IllegalArgumentException("Unsupported parse tree node " + child);
+            }
+        }
+    }
+
+    /**
+     * Check whether a buffer starts with the header written by this version of the codec,
+     * for the current grammar.
+     *
+     * @param buf Buffer holding at least the beginning of an encoded tree
+     * @return True if the tree can be decoded
+     */
+    static boolean hasCurrentHeader(final ByteBuffer buf) {
+        return buf.remaining() >= HEADER_SIZE && buf.getInt() == MAGIC && buf.getInt() == FORMAT_VERSION
+                && buf.getInt() == GRAMMAR_FINGERPRINT;
+    }
+
+    /**
+     * Decode a parse tree.
+     *
+     * @param buf Buffer holding the encoded tree
+     * @return Decoded tree
+     * @throws IOException if the buffer does not hold a tree encoded by this version of the codec
+     */
+    static YangContext read(final ByteBuffer buf) throws IOException {
+        try {
+            if (buf.getInt() != MAGIC) {
+                throw new IOException("Unrecognized parse tree format");
+            }
+            final int version = buf.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported parse tree format version " + version);
+            }
+            if (buf.getInt() != GRAMMAR_FINGERPRINT) {
+                throw new IOException("Parse tree was created with a different grammar");
+            }
+
+            final String[] strings = new String[buf.getInt()];
+            for (int i = 0; i < strings.length; ++i) {
+                final byte[] bytes = new byte[buf.getInt()];
+                buf.get(bytes);
+                strings[i] = new String(bytes, Charsets.UTF_8);
+            }
+
+            final Token[] tokens = new Token[buf.getInt()];
+            for (int i = 0; i < tokens.length; ++i) {
+                final CommonToken token = new CommonToken(buf.getInt(), strings[buf.getInt()]);
+                token.setLine(buf.getInt());
+                token.setCharPositionInLine(buf.getInt());
+                token.setTokenIndex(buf.getInt());
+                tokens[i] = token;
+            }
+
+            final ParserRuleContext root = readRule(buf, null, tokens);
+            if (!(root instanceof YangContext)) {
+                throw new IOException("Unexpected root node " + root);
+            }
+            return (YangContext) root;
+        } catch (RuntimeException e) {
+            // Garbage in the buffer can trip any number of checks, from underflows to invalid sizes
+            throw new IOException("Truncated or corrupted parse tree", e);
+        }
+    }
+
+    private static Token getToken(final Token[] tokens, final int index) {
+        return index == NULL_TOKEN ? null : tokens[index];
+    }
+
+    private static ParserRuleContext readRule(final ByteBuffer buf, final ParserRuleContext parent, final Token[] tokens)
+            throws IOException {
+        final int ruleIndex = buf.getInt();
+        final int invokingState = buf.getInt();
+
+        final ParserRuleContext ctx;
+        try {
+            ctx = CONSTRUCTORS.get(ruleIndex).newInstance(parent, invokingState);
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            throw new IOException("Failed to instantiate context for rule " + ruleIndex, e);
+        }
+
+        ctx.start = getToken(tokens, buf.getInt());
+        ctx.stop = getToken(tokens, buf.getInt());
+
+        final int childCount = buf.getInt();
+        for (int i = 0; i < childCount; ++i) {
+            final byte type = buf.get();
+            switch (type) {
+            case RULE_NODE:
+                ctx.addChild(readRule(buf, ctx, tokens));
+                break;
+            case TERMINAL_NODE:
+                ctx.addChild(tokens[buf.getInt()]);
+                break;
+            default:
+                throw new IOException("Unknown node type " + type);
+            }
+        }
+
+        return ctx;
+    }
+}
@@ -8,16 +8,23 @@ package org.opendaylight.yangtools.yang.parser.util;
 
 import com.google.common.annotations.Beta;
 import com.google.common.base.Charsets;
-import com.google.common.io.CharStreams;
-import com.google.common.io.InputSupplier;
+import com.google.common.base.Preconditions;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
 import com.google.common.util.concurrent.CheckedFuture;
 import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListeningExecutorService;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.util.concurrent.Callable;
+
+import javax.annotation.Nullable;
 
 import org.antlr.v4.runtime.tree.ParseTreeWalker;
 import org.opendaylight.yangtools.antlrv4.code.gen.YangParser.YangContext;
+import org.opendaylight.yangtools.util.concurrent.ExceptionMapper;
+import org.opendaylight.yangtools.util.concurrent.ReflectiveExceptionMapper;
 import org.opendaylight.yangtools.yang.model.parser.api.YangSyntaxErrorException;
 import org.opendaylight.yangtools.yang.model.repo.api.SchemaRepository;
 import org.opendaylight.yangtools.yang.model.repo.api.SchemaSourceException;
@@ -36,39 +43,119 @@ import org.slf4j.LoggerFactory;
 @Beta
 public final class TextToASTTransformer extends SchemaSourceTransformer<YangTextSchemaSource, ASTSchemaSource> {
     public static final class TextToASTTransformation implements Transformation<YangTextSchemaSource, ASTSchemaSource> {
+        private final ListeningExecutorService executor;
+        private final ParseTreeCache cache;
+
+        /**
+         * Creates a transformation which parses sources in the calling thread.
+         */
+        public TextToASTTransformation() {
+            this(null, null);
+        }
+
+        /**
+         * Creates a transformation which parses and validates sources on specified executor,
+         * so that multiple sources requested at the same time are processed concurrently.
+         *
+         * @param executor Executor used to parse sources
+         */
+        public TextToASTTransformation(final ListeningExecutorService executor) {
+            this(Preconditions.checkNotNull(executor), null);
+        }
+
+        /**
+         * Creates a transformation which optionally parses sources on an executor and reuses
+         * parse trees stored in a {@link ParseTreeCache}.
+         *
+         * @param executor Executor used to parse sources, null to parse them in the calling thread
+         * @param cache Cache of parse trees, null to always parse sources
+         */
+        public TextToASTTransformation(@Nullable final ListeningExecutorService executor, @Nullable final ParseTreeCache cache) {
+            this.executor = executor;
+            this.cache = cache;
+        }
+
         @Override
         public CheckedFuture<ASTSchemaSource, SchemaSourceException> apply(final YangTextSchemaSource input) throws IOException, YangSyntaxErrorException {
-            try (InputStream is = input.openStream()) {
-                final YangContext ctx = YangParserImpl.parseYangSource(is);
+            if (executor == null) {
+                return Futures.immediateCheckedFuture(transform(input));
+            }
+
+            return Futures.makeChecked(executor.submit(new Callable<ASTSchemaSource>() {
+                @Override
+                public ASTSchemaSource call() throws IOException, YangSyntaxErrorException {
+                    return transform(input);
+                }
+            }), MAPPER);
+        }
+
+        private ASTSchemaSource transform(final YangTextSchemaSource input) throws IOException, YangSyntaxErrorException {
+            // Read the source only once and compute its digest, which is shared with the cache
+            final byte[] bytes = input.read();
+            final HashCode digest = Hashing.sha1().hashBytes(bytes);
+
+            final YangContext ctx;
+            if (cache != null) {
+                ctx = cache.parse(input, bytes, digest);
+                LOG.debug("Model {} retrieved from {}", input, cache);
+            } else {
+                ctx = YangParserImpl.parseYangSource(new ByteArrayInputStream(bytes));
                 LOG.debug("Model {} parsed successfully", input);
 
                 final ParseTreeWalker walker = new ParseTreeWalker();
                 final YangModelBasicValidationListener validator = new YangModelBasicValidationListener();
                 walker.walk(validator, ctx);
                 LOG.debug("Model {} validated successfully", input);
+            }
 
-                // Backwards compatibility
-                final String text = CharStreams.toString(
-                        CharStreams.newReaderSupplier(new InputSupplier<InputStream>() {
-                            @Override
-                            public InputStream getInput() throws IOException {
-                                return input.openStream();
-                            }
-                        }, Charsets.UTF_8));
+            // Backwards compatibility
+            final String text = new String(bytes, Charsets.UTF_8);
 
-                return Futures.immediateCheckedFuture(ASTSchemaSource.create(input.getIdentifier().getName(), ctx, text));
-            }
+            return ASTSchemaSource.create(input.getIdentifier().getName(), ctx, text, digest);
         }
     };
 
     public static final TextToASTTransformation TRANSFORMATION = new TextToASTTransformation();
+    private static final ExceptionMapper<SchemaSourceException> MAPPER = ReflectiveExceptionMapper.create("Source parsing", SchemaSourceException.class);
     private static final Logger LOG = LoggerFactory.getLogger(TextToASTTransformer.class);
 
-    private TextToASTTransformer(final SchemaRepository provider, final SchemaSourceRegistry consumer) {
-        super(provider, YangTextSchemaSource.class, consumer, ASTSchemaSource.class, TRANSFORMATION);
+    private TextToASTTransformer(final SchemaRepository provider, final SchemaSourceRegistry consumer,
+            final TextToASTTransformation transformation) {
+        super(provider, YangTextSchemaSource.class, consumer, ASTSchemaSource.class, transformation);
     }
 
     public static final TextToASTTransformer create(final SchemaRepository provider, final SchemaSourceRegistry consumer) {
-        return new TextToASTTransformer(provider, consumer);
+        return new TextToASTTransformer(provider, consumer, TRANSFORMATION);
+    }
+
+    /**
+     * Create a transformer which parses sources on specified executor. Since schema context
+     * factories request all sources of a schema context at once, this allows them to be
+     * parsed in parallel.
+     *
+     * @param provider Repository providing text sources
+     * @param consumer Registry to which AST sources are registered
+     * @param executor Executor used to parse sources
+     * @return A new transformer
+     */
+    public static final TextToASTTransformer create(final SchemaRepository provider, final SchemaSourceRegistry consumer,
+            final ListeningExecutorService executor) {
+        return new TextToASTTransformer(provider, consumer, new TextToASTTransformation(executor));
+    }
+
+    /**
+     * Create a transformer which reuses parse trees stored in a {@link ParseTreeCache} and
+     * optionally parses sources on specified executor.
+     *
+     * @param provider Repository providing text sources
+     * @param consumer Registry to which AST sources are registered
+     * @param executor Executor used to parse sources, null to parse them in the calling thread
+     * @param cache Cache of parse trees
+     * @return A new transformer
+     */
+    public static final TextToASTTransformer create(final SchemaRepository provider, final SchemaSourceRegistry consumer,
+            @Nullable final ListeningExecutorService executor, final ParseTreeCache cache) {
+        return new TextToASTTransformer(provider, consumer,
+                new TextToASTTransformation(executor, Preconditions.checkNotNull(cache)));
     }
 }
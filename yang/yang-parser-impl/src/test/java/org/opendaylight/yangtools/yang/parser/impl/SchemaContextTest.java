@@ -8,10 +8,14 @@
 package org.opendaylight.yangtools.yang.parser.impl;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.mockito.Mockito.doReturn;
 
 import com.google.common.collect.ImmutableSet;
 
+import java.io.File;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.text.ParseException;
@@ -23,10 +27,16 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.QNameModule;
 import org.opendaylight.yangtools.yang.common.SimpleDateFormatUtil;
 import org.opendaylight.yangtools.yang.model.api.Module;
 import org.opendaylight.yangtools.yang.model.api.ModuleIdentifier;
 import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.model.api.SchemaNode;
+import org.opendaylight.yangtools.yang.model.api.SchemaPath;
+import org.opendaylight.yangtools.yang.model.util.IndexedSchemaContext;
+import org.opendaylight.yangtools.yang.model.util.SchemaContextUtil;
 
 public class SchemaContextTest {
     @Mock
@@ -77,5 +87,76 @@ public class SchemaContextTest {
         assertEquals(newDate, m.getRevision());
     }
 
+    @Test
+    public void testFindModuleByNamespaceAndRevision() throws URISyntaxException {
+        final SchemaContext sc = new SchemaContextImpl(ImmutableSet.of(newModule, oldModule), sources);
+
+        assertSame(oldModule, sc.findModuleByNamespaceAndRevision(ns, oldDate));
+        assertSame(newModule, sc.findModuleByNamespaceAndRevision(ns, newDate));
+        assertNull(sc.findModuleByNamespaceAndRevision(new URI("http://def"), oldDate));
+        assertNull(sc.findModuleByNamespaceAndRevision(null, oldDate));
+    }
 
+    @Test
+    public void testFindIndexedSchemaNode() throws Exception {
+        final File resourceFile = new File(getClass().getResource("/schema-context-util-test/my-module.yang").toURI());
+        final SchemaContext sc = YangParserImpl.getInstance().parseFile(resourceFile, resourceFile.getParentFile());
+        final IndexedSchemaContext indexed = (IndexedSchemaContext) sc;
+        final QNameModule module = QNameModule.create(new URI("uri:my-module"), QName.parseRevision("2014-10-07"));
+
+        // Data nodes
+        assertIndexed(indexed, path(module, "my-container"));
+        assertIndexed(indexed, path(module, "my-container", "my-leaf-in-container"));
+        assertIndexed(indexed, path(module, "my-container", "my-list", "my-leaf-list-in-list"));
+
+        // Choices and cases
+        assertIndexed(indexed, path(module, "my-choice", "one"));
+        assertIndexed(indexed, path(module, "my-choice", "one", "my-container-in-case"));
+        assertIndexed(indexed, path(module, "my-choice", "two", "my-choice-leaf-two"));
+
+        // Groupings and their children, both at the top level and nested
+        assertIndexed(indexed, path(module, "my-grouping", "my-container-in-grouping", "my-leaf-in-grouping"));
+        assertIndexed(indexed, path(module, "my-grouping", "my-grouping-in-grouping",
+            "my-leaf-in-grouping-in-grouping"));
+        assertIndexed(indexed, path(module, "my-container", "my-list", "my-grouping-in-list",
+            "my-leaf-in-grouping-in-list"));
+        assertIndexed(indexed, path(module, "my-choice", "one", "my-container-in-case", "my-grouping-in-case",
+            "my-leaf-in-grouping-in-case"));
+
+        // RPC input and output
+        assertIndexed(indexed, path(module, "my-rpc", "input", "my-input-leaf"));
+        assertIndexed(indexed, path(module, "my-rpc", "output", "my-output-leaf"));
+        assertIndexed(indexed, path(module, "my-rpc", "input", "my-grouping-in-input",
+            "my-leaf-in-grouping-in-input"));
+        assertIndexed(indexed, path(module, "my-rpc", "my-grouping-in-rpc", "my-leaf-in-grouping-in-rpc"));
+
+        // Grouping and RPC sharing a name: the grouping is found first
+        assertIndexed(indexed, path(module, "my-name"));
+        assertIndexed(indexed, path(module, "my-name", "input", "my-choice", "case-one", "one"));
+
+        // Notifications
+        assertIndexed(indexed, path(module, "my-notification", "my-notification-leaf"));
+        assertIndexed(indexed, path(module, "my-notification", "my-grouping-in-notification",
+            "my-leaf-in-grouping-in-notification"));
+
+        // Unknown paths are not indexed
+        final SchemaPath unknown = path(module, "my-container", "no-such-node");
+        assertNull(indexed.findIndexedSchemaNode(unknown));
+        assertNull(SchemaContextUtil.findDataSchemaNode(sc, unknown));
+    }
+
+    private static SchemaPath path(final QNameModule module, final String... names) {
+        SchemaPath ret = SchemaPath.ROOT;
+        for (String name : names) {
+            ret = ret.createChild(QName.create(module, name));
+        }
+        return ret;
+    }
+
+    private static void assertIndexed(final IndexedSchemaContext context, final SchemaPath path) {
+        final SchemaNode walked = SchemaContextUtil.findNodeInSchemaContext(context, path.getPathFromRoot());
+        assertNotNull("Tree walk should find " + path, walked);
+        assertSame(walked, context.findIndexedSchemaNode(path));
+        assertSame(walked, SchemaContextUtil.findDataSchemaNode(context, path));
+    }
 }
@@ -34,6 +34,8 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -961,4 +963,22 @@ public class YangParserTest {
             fail("YangParseException should not be thrown");
         }
     }
+
+    @Test
+    public void testParallelParsing() throws Exception {
+        final File[] files = new File(getClass().getResource("/model").toURI()).listFiles();
+        final List<File> testFiles = new ArrayList<>();
+        Collections.addAll(testFiles, files);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            final SchemaContext ctx = new YangParserImpl(executor).parseFiles(testFiles);
+            assertEquals(modules, ctx.getModules());
+
+            final Module foo = TestUtils.findModule(ctx.getModules(), "foo");
+            assertEquals(TestUtils.findModule(modules, "foo").getChildNodes().size(), foo.getChildNodes().size());
+        } finally {
+            executor.shutdown();
+        }
+    }
 }
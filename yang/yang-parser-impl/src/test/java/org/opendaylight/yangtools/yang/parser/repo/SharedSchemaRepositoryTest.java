@@ -142,6 +142,33 @@ public class SharedSchemaRepositoryTest {
         assertSchemaContext(inetAndNoRevSchemaContextFuture.checkedGet(), 2);
     }
 
+    @Test
+    public void testIncrementalSchemaContext() throws Exception {
+        final SharedSchemaRepository sharedSchemaRepository = new SharedSchemaRepository("netconf-mounts");
+
+        final SettableSchemaProvider<ASTSchemaSource> remoteInetTypesYang = getImmediateYangSourceProviderFromResource("/ietf/ietf-inet-types@2010-09-24.yang");
+        remoteInetTypesYang.register(sharedSchemaRepository);
+        remoteInetTypesYang.setResult();
+        final SettableSchemaProvider<ASTSchemaSource> remoteYangTypesYang = getImmediateYangSourceProviderFromResource("/ietf/ietf-yang-types@2010-09-24.yang");
+        remoteYangTypesYang.register(sharedSchemaRepository);
+        remoteYangTypesYang.setResult();
+        final SettableSchemaProvider<ASTSchemaSource> remoteTopologyYang = getImmediateYangSourceProviderFromResource("/ietf/network-topology@2013-10-21.yang");
+        remoteTopologyYang.register(sharedSchemaRepository);
+        remoteTopologyYang.setResult();
+
+        final SchemaContextFactory fact = sharedSchemaRepository.createSchemaContextFactory(SchemaSourceFilter.ALWAYS_ACCEPT);
+        final SchemaContext typesContext = fact.createSchemaContext(
+                Lists.newArrayList(remoteInetTypesYang.getId(), remoteYangTypesYang.getId())).checkedGet();
+        assertSchemaContext(typesContext, 2);
+
+        // Adding topology should not rebuild ietf-yang-types, as topology does not depend on it
+        final SchemaContext fullContext = fact.createSchemaContext(
+                Lists.newArrayList(remoteInetTypesYang.getId(), remoteYangTypesYang.getId(), remoteTopologyYang.getId())).checkedGet();
+        assertSchemaContext(fullContext, 3);
+        assertSame(typesContext.findModuleByName("ietf-yang-types", null), fullContext.findModuleByName("ietf-yang-types", null));
+        assertNotNull(fullContext.findModuleByName("network-topology", null));
+    }
+
     @Test
     public void testFailedSchemaContext() throws Exception {
         final SharedSchemaRepository sharedSchemaRepository = new SharedSchemaRepository("netconf-mounts");
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2014 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.parser.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.io.Files;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.yangtools.antlrv4.code.gen.YangParser.YangContext;
+import org.opendaylight.yangtools.yang.model.api.Module;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.parser.impl.YangModelBasicValidationListener;
+import org.opendaylight.yangtools.yang.parser.impl.YangParserImpl;
+
+public class ParseTreeCacheTest {
+    private File storageDir;
+    private List<File> sources;
+
+    @Before
+    public void setUp() throws Exception {
+        storageDir = Files.createTempDir();
+        sources = Arrays.asList(new File(getClass().getResource("/model").toURI()).listFiles());
+    }
+
+    @After
+    public void tearDown() {
+        for (File file : storageDir.listFiles()) {
+            file.delete();
+        }
+        storageDir.delete();
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        final ParseTreeCache cache = ParseTreeCache.create(storageDir);
+        final File source = new File(getClass().getResource("/model/foo.yang").toURI());
+
+        final YangContext parsed = cache.parse(Files.asByteSource(source));
+        assertEquals(1, storageDir.listFiles().length);
+
+        final YangContext cached = cache.parse(Files.asByteSource(source));
+        assertEquals(parsed.toStringTree(), cached.toStringTree());
+        assertEquals(parsed.getText(), cached.getText());
+        assertEquals(parsed.getStart().getLine(), cached.getStart().getLine());
+
+        new ParseTreeWalker().walk(new YangModelBasicValidationListener(), cached);
+    }
+
+    @Test
+    public void testSameModules() throws Exception {
+        final SchemaContext expected = new YangParserImpl().parseFiles(sources);
+
+        final ParseTreeCache cache = ParseTreeCache.create(storageDir);
+        final SchemaContext first = new YangParserImpl(null, cache).parseFiles(sources);
+        assertEquals(sources.size(), storageDir.listFiles().length);
+        final SchemaContext second = new YangParserImpl(null, cache).parseFiles(sources);
+
+        assertEquals(expected.getModules(), first.getModules());
+        assertEquals(expected.getModules(), second.getModules());
+        for (Module module : expected.getModules()) {
+            final Module cached = second.findModuleByNamespaceAndRevision(module.getNamespace(), module.getRevision());
+            assertNotNull(cached);
+            assertEquals(module.getChildNodes().size(), cached.getChildNodes().size());
+        }
+    }
+
+    @Test
+    public void testCorruptedEntry() throws Exception {
+        final ParseTreeCache cache = ParseTreeCache.create(storageDir);
+        final File source = new File(getClass().getResource("/model/bar.yang").toURI());
+
+        final YangContext parsed = cache.parse(Files.asByteSource(source));
+        final File entry = storageDir.listFiles()[0];
+        Files.write(new byte[] { 1, 2, 3 }, entry);
+
+        final YangContext reparsed = cache.parse(Files.asByteSource(source));
+        assertEquals(parsed.toStringTree(), reparsed.toStringTree());
+    }
+
+    @Test
+    public void testTruncatedEntry() throws Exception {
+        final ParseTreeCache cache = ParseTreeCache.create(storageDir);
+        final File source = new File(getClass().getResource("/model/bar.yang").toURI());
+
+        final YangContext parsed = cache.parse(Files.asByteSource(source));
+        final File entry = storageDir.listFiles()[0];
+        final byte[] bytes = Files.toByteArray(entry);
+        Files.write(Arrays.copyOf(bytes, bytes.length / 2), entry);
+
+        final YangContext reparsed = cache.parse(Files.asByteSource(source));
+        assertEquals(parsed.toStringTree(), reparsed.toStringTree());
+        assertArrayEquals(bytes, Files.toByteArray(entry));
+    }
+
+    @Test
+    public void testGarbledEntry() throws Exception {
+        final ParseTreeCache cache = ParseTreeCache.create(storageDir);
+        final File source = new File(getClass().getResource("/model/bar.yang").toURI());
+
+        final YangContext parsed = cache.parse(Files.asByteSource(source));
+        final File entry = storageDir.listFiles()[0];
+        final byte[] bytes = Files.toByteArray(entry);
+
+        // Keep the header intact, but make the string table size negative
+        final byte[] garbled = bytes.clone();
+        ByteBuffer.wrap(garbled).putInt(12, -5);
+        Files.write(garbled, entry);
+
+        final YangContext reparsed = cache.parse(Files.asByteSource(source));
+        assertEquals(parsed.toStringTree(), reparsed.toStringTree());
+        assertArrayEquals(bytes, Files.toByteArray(entry));
+    }
+
+    @Test
+    public void testPruneUnusedEntries() throws Exception {
+        final ParseTreeCache cache = ParseTreeCache.create(storageDir);
+        cache.parse(Files.asByteSource(new File(getClass().getResource("/model/foo.yang").toURI())));
+        cache.parse(Files.asByteSource(new File(getClass().getResource("/model/bar.yang").toURI())));
+        assertEquals(2, storageDir.listFiles().length);
+
+        // Make both entries old, then use one of them again
+        final long old = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(2);
+        for (File file : storageDir.listFiles()) {
+            assertTrue(file.setLastModified(old));
+        }
+        cache.parse(Files.asByteSource(new File(getClass().getResource("/model/bar.yang").toURI())));
+
+        ParseTreeCache.create(storageDir, 1, TimeUnit.DAYS);
+        final File[] remaining = storageDir.listFiles();
+        assertEquals(1, remaining.length);
+        assertTrue(remaining[0].lastModified() > old);
+    }
+
+    @Test
+    public void testPruneForeignEntries() throws Exception {
+        final ParseTreeCache cache = ParseTreeCache.create(storageDir);
+        cache.parse(Files.asByteSource(new File(getClass().getResource("/model/bar.yang").toURI())));
+        final File entry = storageDir.listFiles()[0];
+
+        // An entry written for a different grammar
+        final byte[] foreign = Files.toByteArray(entry);
+        ByteBuffer.wrap(foreign).putInt(8, ByteBuffer.wrap(foreign).getInt(8) + 1);
+        final File foreignEntry = new File(storageDir, "0000000000000000000000000000000000000000.ast");
+        Files.write(foreign, foreignEntry);
+
+        ParseTreeCache.create(storageDir);
+        assertTrue(entry.isFile());
+        assertFalse(foreignEntry.exists());
+    }
+}